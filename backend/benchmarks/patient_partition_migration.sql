@@ -0,0 +1,105 @@
+-- Duration of the V5 patient partitioning migration on an existing table.
+--
+-- V5 runs in one transaction. While it copies rows, concurrent reads of patient
+-- continue. From DROP TABLE patient until commit, which includes building the
+-- primary key and every index on the new table, all access to patient blocks.
+-- Writes committed to the old table during the copy are not carried over, so no
+-- instance may write patients while V5 runs. This script measures how long that
+-- takes for a given table size, to plan the maintenance window.
+--
+-- Run against a scratch database on production-like hardware:
+--
+--   psql -d smiles_db -v rows=5000000 -v facilities=1000 -f benchmarks/patient_partition_migration.sql
+--
+-- Builds the pre-V5 patient layout in the patient_migration_bench schema, loads
+-- the rows, then replays V5's copy and index steps with \timing on. The schema is
+-- dropped at the end.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+    \set rows 5000000
+\endif
+\if :{?facilities}
+\else
+    \set facilities 1000
+\endif
+
+DROP SCHEMA IF EXISTS patient_migration_bench CASCADE;
+CREATE SCHEMA patient_migration_bench;
+SET search_path = patient_migration_bench, public;
+
+-- Pre-V5 layout (V2 table with the V3 listing indexes)
+CREATE TABLE patient (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    facility_id UUID NOT NULL,
+    keycloak_user_id VARCHAR(255) UNIQUE,
+    name VARCHAR(255) NOT NULL,
+    birth_date DATE NOT NULL,
+    email VARCHAR(255),
+    phone VARCHAR(50),
+    address VARCHAR(500),
+    active BOOLEAN NOT NULL DEFAULT true,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX ON patient(facility_id, name, id);
+CREATE INDEX ON patient(facility_id, name, id) WHERE active = true;
+
+CREATE TABLE facility_ids (n int PRIMARY KEY, id uuid NOT NULL);
+INSERT INTO facility_ids SELECT n, gen_random_uuid() FROM generate_series(0, :facilities - 1) AS n;
+
+-- One in ten patients has portal access
+INSERT INTO patient (facility_id, keycloak_user_id, name, birth_date, email, phone)
+SELECT f.id,
+       CASE WHEN p % 10 = 0 THEN 'kc-' || p END,
+       'Patient ' || md5(p::text),
+       DATE '1950-01-01' + (p % 20000),
+       'patient' || p || '@example.com',
+       '555-' || lpad((p % 10000)::text, 4, '0')
+FROM generate_series(1, :rows) AS p
+JOIN facility_ids f ON f.n = p % :facilities;
+ANALYZE patient;
+
+SELECT count(*) AS total_patients, pg_size_pretty(pg_total_relation_size('patient')) AS size FROM patient;
+
+\timing on
+
+BEGIN;
+
+\echo '=== Copy (reads of patient continue)'
+CREATE TABLE patient_partitioned (LIKE patient INCLUDING DEFAULTS) PARTITION BY HASH (facility_id);
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE patient_migration_bench.patient_p%s PARTITION OF patient_migration_bench.patient_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            lpad(remainder::text, 2, '0'), remainder);
+    END LOOP;
+END
+$$;
+INSERT INTO patient_partitioned SELECT * FROM patient;
+CREATE TABLE patient_keycloak_user (
+    keycloak_user_id VARCHAR(255) PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    facility_id UUID NOT NULL
+);
+INSERT INTO patient_keycloak_user
+SELECT keycloak_user_id, id, facility_id FROM patient WHERE keycloak_user_id IS NOT NULL;
+
+\echo '=== Swap and index build (all access to patient blocks until commit)'
+DROP TABLE patient;
+ALTER TABLE patient_partitioned RENAME TO patient;
+ALTER TABLE patient ADD PRIMARY KEY (id, facility_id);
+CREATE INDEX ON patient(facility_id, name, id);
+CREATE INDEX ON patient(facility_id, name, id) WHERE active = true;
+CREATE INDEX ON patient(facility_id, email);
+CREATE INDEX ON patient(facility_id, birth_date);
+CREATE INDEX ON patient(keycloak_user_id);
+
+COMMIT;
+
+\timing off
+
+RESET search_path;
+DROP SCHEMA patient_migration_bench CASCADE;
@@ -0,0 +1,82 @@
+-- Per-facility patient listing and name search as the patient table grows tenfold.
+--
+-- Run against a scratch database migrated to at least V5 (needs uuid_generate_v7()):
+--
+--   psql -d smiles_db -v facilities=200 -v per_facility=5000 -f benchmarks/patient_partitioning.sql
+--
+-- Builds a copy of the partitioned patient layout in the patient_bench schema,
+-- loads facilities * per_facility rows, measures the two queries for one
+-- facility, then loads nine times as many rows into other facilities and
+-- measures again. The probed facility's own size stays the same, so with
+-- partition pruning and facility-local indexes both timings should stay flat.
+-- The schema is dropped at the end.
+
+\set ON_ERROR_STOP on
+\if :{?facilities}
+\else
+    \set facilities 200
+\endif
+\if :{?per_facility}
+\else
+    \set per_facility 5000
+\endif
+
+DROP SCHEMA IF EXISTS patient_bench CASCADE;
+CREATE SCHEMA patient_bench;
+SET search_path = patient_bench, public;
+
+CREATE TABLE patient (LIKE public.patient INCLUDING DEFAULTS) PARTITION BY HASH (facility_id);
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE patient_bench.patient_p%s PARTITION OF patient_bench.patient FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            lpad(remainder::text, 2, '0'), remainder);
+    END LOOP;
+END
+$$;
+ALTER TABLE patient ADD PRIMARY KEY (id, facility_id);
+CREATE INDEX ON patient(facility_id, name, id);
+CREATE INDEX ON patient(facility_id, name, id) WHERE active = true;
+
+CREATE TABLE facility_ids (n int PRIMARY KEY, id uuid NOT NULL);
+INSERT INTO facility_ids SELECT n, gen_random_uuid() FROM generate_series(1, :facilities * 10) AS n;
+
+-- Probed facility is facility 1; it only receives rows in the first load
+INSERT INTO patient (facility_id, name, birth_date)
+SELECT f.id, 'Patient ' || md5(f.n::text || '-' || p), DATE '1950-01-01' + (p % 20000)
+FROM facility_ids f, generate_series(1, :per_facility) AS p
+WHERE f.n <= :facilities;
+ANALYZE patient;
+
+\echo '=== 1x: first listing page and name search for one facility'
+SELECT count(*) AS total_patients FROM patient;
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1) AND active = true
+ORDER BY name, id LIMIT 51;
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1) AND name >= 'Patient a' AND name < 'Patient b'
+ORDER BY name, id LIMIT 51;
+
+-- Grow tenfold with patients of other facilities
+INSERT INTO patient (facility_id, name, birth_date)
+SELECT f.id, 'Patient ' || md5(f.n::text || '-' || p), DATE '1950-01-01' + (p % 20000)
+FROM facility_ids f, generate_series(1, :per_facility) AS p
+WHERE f.n > :facilities;
+ANALYZE patient;
+
+\echo '=== 10x: same queries'
+SELECT count(*) AS total_patients FROM patient;
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1) AND active = true
+ORDER BY name, id LIMIT 51;
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1) AND name >= 'Patient a' AND name < 'Patient b'
+ORDER BY name, id LIMIT 51;
+
+RESET search_path;
+DROP SCHEMA patient_bench CASCADE;
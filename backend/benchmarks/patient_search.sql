@@ -0,0 +1,98 @@
+-- Fuzzy patient search on one large facility.
+--
+-- Run against a scratch database migrated to at least V8 (needs pg_trgm, btree_gin and uuid_generate_v7()):
+--
+--   psql -d smiles_db -v per_facility=500000 -f benchmarks/patient_search.sql
+--
+-- Builds a copy of the partitioned patient layout with the V8 trigram indexes
+-- in the patient_search_bench schema, loads per_facility patients into the
+-- probed facility plus as many spread over 99 other facilities, and runs the
+-- name, misspelled name, phone fragment and email fragment queries used by
+-- PatientRepository. Each should stay in the low milliseconds. The schema is
+-- dropped at the end.
+
+\set ON_ERROR_STOP on
+\if :{?per_facility}
+\else
+    \set per_facility 500000
+\endif
+
+DROP SCHEMA IF EXISTS patient_search_bench CASCADE;
+CREATE SCHEMA patient_search_bench;
+SET search_path = patient_search_bench, public;
+
+CREATE TABLE patient (LIKE public.patient INCLUDING DEFAULTS) PARTITION BY HASH (facility_id);
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE patient_search_bench.patient_p%s PARTITION OF patient_search_bench.patient FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            lpad(remainder::text, 2, '0'), remainder);
+    END LOOP;
+END
+$$;
+ALTER TABLE patient ADD PRIMARY KEY (id, facility_id);
+
+CREATE TABLE facility_ids (n int PRIMARY KEY, id uuid NOT NULL);
+INSERT INTO facility_ids SELECT n, gen_random_uuid() FROM generate_series(1, 100) AS n;
+
+CREATE TABLE first_names (n int PRIMARY KEY, name text NOT NULL);
+INSERT INTO first_names SELECT row_number() OVER (), name FROM unnest(ARRAY[
+    'James', 'Mary', 'Robert', 'Patricia', 'John', 'Jennifer', 'Michael', 'Linda', 'David', 'Elizabeth',
+    'William', 'Barbara', 'Richard', 'Susan', 'Joseph', 'Jessica', 'Thomas', 'Sarah', 'Charles', 'Karen']) AS name;
+CREATE TABLE last_names (n int PRIMARY KEY, name text NOT NULL);
+INSERT INTO last_names SELECT row_number() OVER (), name FROM unnest(ARRAY[
+    'Smith', 'Johnson', 'Williams', 'Brown', 'Jones', 'Garcia', 'Miller', 'Davis', 'Rodriguez', 'Martinez',
+    'Hernandez', 'Lopez', 'Gonzalez', 'Wilson', 'Anderson', 'Thomas', 'Taylor', 'Moore', 'Jackson', 'Martin']) AS name;
+
+-- Names repeat, so each is suffixed with a pseudo-random tag to make most of them unique
+INSERT INTO patient (facility_id, name, birth_date, email, phone)
+SELECT f.id,
+       fn.name || ' ' || ln.name || '-' || substr(md5(p::text), 1, 5),
+       DATE '1940-01-01' + (p % 29000),
+       lower(fn.name) || '.' || substr(md5(p::text), 1, 8) || '@example.com',
+       '(' || (200 + p % 800) || ') 555-' || lpad((p % 10000)::text, 4, '0')
+FROM generate_series(1, :per_facility * 2) AS p
+JOIN first_names fn ON fn.n = 1 + p % 20
+JOIN last_names ln ON ln.n = 1 + (p / 20) % 20
+JOIN facility_ids f ON f.n = CASE WHEN p <= :per_facility THEN 1 ELSE 2 + p % 99 END;
+
+CREATE INDEX ON patient USING gin (facility_id, name gin_trgm_ops);
+CREATE INDEX ON patient USING gin (facility_id, (regexp_replace(phone, '[^0-9]', '', 'g')) gin_trgm_ops);
+CREATE INDEX ON patient USING gin (facility_id, lower(email) gin_trgm_ops);
+ANALYZE patient;
+
+\echo '=== Name fragment'
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1)
+  AND (name ILIKE '%' || 'rodrig' || '%' OR 'rodrig' <% name)
+ORDER BY name ILIKE 'rodrig' || '%' DESC, word_similarity('rodrig', name) DESC, name, id
+LIMIT 20;
+
+\echo '=== Misspelled name'
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1)
+  AND (name ILIKE '%' || 'hernandes' || '%' OR 'hernandes' <% name)
+ORDER BY name ILIKE 'hernandes' || '%' DESC, word_similarity('hernandes', name) DESC, name, id
+LIMIT 20;
+
+\echo '=== Phone fragment'
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1)
+  AND regexp_replace(phone, '[^0-9]', '', 'g') LIKE '%' || '5551234' || '%'
+ORDER BY regexp_replace(phone, '[^0-9]', '', 'g') LIKE '5551234' || '%' DESC, name, id
+LIMIT 20;
+
+\echo '=== Email fragment'
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT * FROM patient
+WHERE facility_id = (SELECT id FROM facility_ids WHERE n = 1)
+  AND lower(email) LIKE '%' || 'karen.1a2' || '%'
+ORDER BY lower(email) LIKE 'karen.1a2' || '%' DESC, name, id
+LIMIT 20;
+
+RESET search_path;
+DROP SCHEMA patient_search_bench CASCADE;
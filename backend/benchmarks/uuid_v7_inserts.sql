@@ -0,0 +1,63 @@
+-- Insert throughput and primary key index size: random UUIDv4 vs time-ordered UUIDv7.
+--
+-- Run against a scratch database migrated to at least V4 (needs uuid_generate_v7()):
+--
+--   psql -d smiles_db -v rows=5000000 -f benchmarks/uuid_v7_inserts.sql
+--
+-- Keys are generated up front into staging tables, so the timed INSERTs measure
+-- only heap and primary key index maintenance, not UUID generation. The gap grows
+-- once the v4 index no longer fits in shared_buffers; with the default 128MB that
+-- happens at a few million rows. Everything is created in the uuid_bench schema,
+-- which is dropped at the end.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+    \set rows 5000000
+\endif
+
+DROP SCHEMA IF EXISTS uuid_bench CASCADE;
+CREATE SCHEMA uuid_bench;
+SET search_path = uuid_bench, public;
+
+CREATE EXTENSION IF NOT EXISTS pgstattuple SCHEMA public;
+
+-- Patient-shaped rows, so heap pages hold a realistic number of tuples
+CREATE TABLE keys_v4 AS SELECT gen_random_uuid() AS id FROM generate_series(1, :rows);
+CREATE TABLE keys_v7 AS SELECT uuid_generate_v7() AS id FROM generate_series(1, :rows);
+
+CREATE TABLE patient_v4 (
+    id UUID PRIMARY KEY,
+    facility_id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE TABLE patient_v7 (LIKE patient_v4 INCLUDING ALL);
+
+CHECKPOINT;
+
+\timing on
+\echo '--- insert with random UUIDv4 keys'
+INSERT INTO patient_v4 (id, facility_id, name)
+SELECT id, '00000000-0000-0000-0000-000000000001', 'Patient ' || id FROM keys_v4;
+
+CHECKPOINT;
+
+\echo '--- insert with time-ordered UUIDv7 keys'
+INSERT INTO patient_v7 (id, facility_id, name)
+SELECT id, '00000000-0000-0000-0000-000000000001', 'Patient ' || id FROM keys_v7;
+\timing off
+
+\echo '--- primary key index size and leaf density'
+SELECT 'v4' AS keys,
+       pg_size_pretty(pg_relation_size('patient_v4_pkey')) AS pkey_size,
+       (pgstatindex('patient_v4_pkey')).avg_leaf_density,
+       (pgstatindex('patient_v4_pkey')).leaf_pages
+UNION ALL
+SELECT 'v7',
+       pg_size_pretty(pg_relation_size('patient_v7_pkey')),
+       (pgstatindex('patient_v7_pkey')).avg_leaf_density,
+       (pgstatindex('patient_v7_pkey')).leaf_pages;
+
+RESET search_path;
+DROP SCHEMA uuid_bench CASCADE;
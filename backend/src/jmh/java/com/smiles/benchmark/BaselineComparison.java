@@ -0,0 +1,95 @@
+package com.smiles.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result with the stored baseline.
+ *
+ * Each benchmark's score and normalized allocation rate ({@code gc.alloc.rate.norm},
+ * reported by the GC profiler) are compared. A change worse than the tolerance
+ * fails the run; benchmarks missing from either side are listed but ignored.
+ *
+ * Usage: {@code BaselineComparison <baseline.json> <result.json> [tolerance]}
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final double DEFAULT_TOLERANCE = 0.10;
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: BaselineComparison <baseline.json> <result.json> [tolerance]");
+        }
+        Path baselinePath = Path.of(args[0]);
+        if (!Files.exists(baselinePath)) {
+            throw new IllegalStateException("No baseline at " + baselinePath
+                    + "; record one by copying a result file there");
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+
+        Map<String, JsonNode> baseline = read(baselinePath);
+        Map<String, JsonNode> result = read(Path.of(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        result.forEach((id, current) -> {
+            JsonNode previous = baseline.get(id);
+            if (previous == null) {
+                System.out.printf("%-70s new%n", id);
+                return;
+            }
+            boolean higherIsBetter = current.path("mode").asText().equals("thrpt");
+            compare(id, "score", previous.path("primaryMetric"), current.path("primaryMetric"),
+                    higherIsBetter, tolerance, regressions);
+            compare(id, "alloc", previous.path("secondaryMetrics").path(ALLOCATION),
+                    current.path("secondaryMetrics").path(ALLOCATION), false, tolerance, regressions);
+        });
+        baseline.keySet().stream()
+                .filter(id -> !result.containsKey(id))
+                .forEach(id -> System.out.printf("%-70s not run%n", id));
+
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException(regressions.size() + " regression(s) beyond "
+                    + Math.round(tolerance * 100) + "%: " + String.join(", ", regressions));
+        }
+    }
+
+    private static void compare(String id, String metric, JsonNode previous, JsonNode current,
+                                boolean higherIsBetter, double tolerance, List<String> regressions) {
+        if (previous.isMissingNode() || current.isMissingNode()) {
+            return;
+        }
+        double before = previous.path("score").asDouble();
+        double after = current.path("score").asDouble();
+        double change = before == 0 ? 0 : (after - before) / before;
+        double worsening = higherIsBetter ? -change : change;
+        boolean regressed = worsening > tolerance;
+
+        System.out.printf("%-70s %-5s %14.3f -> %14.3f %s %+7.1f%%%s%n", id, metric, before, after,
+                current.path("scoreUnit").asText(), change * 100, regressed ? "  REGRESSION" : "");
+        if (regressed) {
+            regressions.add(id + " " + metric);
+        }
+    }
+
+    private static Map<String, JsonNode> read(Path path) throws IOException {
+        Map<String, JsonNode> byId = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            StringBuilder id = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(param ->
+                    id.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            byId.put(id.toString(), run);
+        }
+        return byId;
+    }
+}
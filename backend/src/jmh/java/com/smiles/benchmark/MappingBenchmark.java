@@ -0,0 +1,126 @@
+package com.smiles.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.patients.domain.Patient;
+import com.smiles.patients.dto.PatientDto;
+import com.smiles.patients.mapper.PatientMapper;
+import com.smiles.patients.mapper.PatientMapperImpl;
+import com.smiles.staff.domain.Staff;
+import com.smiles.staff.domain.StaffRole;
+import com.smiles.staff.dto.StaffDto;
+import com.smiles.staff.mapper.StaffMapper;
+import com.smiles.staff.mapper.StaffMapperImpl;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Building a list response: MapStruct {@code toDto} over a page of entities and
+ * Jackson serialization of the resulting {@link CursorPage}, at the default and
+ * maximum page sizes.
+ *
+ * The object mapper comes from {@link Jackson2ObjectMapperBuilder}, which applies
+ * the same defaults as the one Spring Boot configures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"50", "200"})
+    private int size;
+
+    private final PatientMapper patientMapper = new PatientMapperImpl();
+    private final StaffMapper staffMapper = new StaffMapperImpl();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<Patient> patients;
+    private List<Staff> staff;
+    private CursorPage<PatientDto> patientPage;
+    private CursorPage<StaffDto> staffPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID facilityId = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        patients = new ArrayList<>(size);
+        staff = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            patients.add(Patient.builder()
+                    .id(UUID.randomUUID())
+                    .facilityId(facilityId)
+                    .name("Patient " + i)
+                    .birthDate(LocalDate.of(1960 + i % 50, 1 + i % 12, 1 + i % 28))
+                    .email("patient" + i + "@example.com")
+                    .phone("+1 555 010 " + String.format("%04d", i))
+                    .address(i + " Main Street, Springfield")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .version(1L)
+                    .build());
+            staff.add(Staff.builder()
+                    .id(UUID.randomUUID())
+                    .facilityId(facilityId)
+                    .name("Staff " + i)
+                    .email("staff" + i + "@example.com")
+                    .role(StaffRole.values()[i % StaffRole.values().length])
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .version(1L)
+                    .build());
+        }
+
+        patientPage = new CursorPage<>(patientsToDto(), "bmV4dA", true);
+        staffPage = new CursorPage<>(staffToDto(), "bmV4dA", true);
+    }
+
+    @Benchmark
+    public List<PatientDto> patientsToDto() {
+        List<PatientDto> dtos = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            dtos.add(patientMapper.toDto(patient));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<StaffDto> staffToDto() {
+        List<StaffDto> dtos = new ArrayList<>(staff.size());
+        for (Staff member : staff) {
+            dtos.add(staffMapper.toDto(member));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] serializePatientPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patientPage);
+    }
+
+    @Benchmark
+    public byte[] serializeStaffPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(staffPage);
+    }
+}
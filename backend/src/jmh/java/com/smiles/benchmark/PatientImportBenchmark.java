@@ -0,0 +1,110 @@
+package com.smiles.benchmark;
+
+import com.smiles.SmilesApplication;
+import com.smiles.facilities.domain.Facility;
+import com.smiles.facilities.repository.FacilityRepository;
+import com.smiles.patients.dto.PatientImportResult;
+import com.smiles.patients.service.PatientImportService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Bulk import of 100k NDJSON patients into an empty facility, through
+ * {@link PatientImportService} with its validation and JDBC batching.
+ *
+ * Runs against the H2 database of the test profile, so the absolute time is a
+ * lower bound for PostgreSQL; compare runs with each other, not with production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PatientImportBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private PatientImportService importService;
+    private FacilityRepository facilityRepository;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] ndjson;
+    private UUID facilityId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SmilesApplication.class)
+                .profiles("test")
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.smiles=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        importService = context.getBean(PatientImportService.class);
+        facilityRepository = context.getBean(FacilityRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        StringBuilder rows = new StringBuilder(ROWS * 128);
+        for (int i = 0; i < ROWS; i++) {
+            rows.append("{\"name\":\"Patient ").append(i)
+                    .append("\",\"birthDate\":\"").append(LocalDate.of(1950 + i % 60, 1 + i % 12, 1 + i % 28))
+                    .append("\",\"email\":\"patient").append(i).append("@example.com\"")
+                    .append(",\"phone\":\"555-").append(i).append("\"}\n");
+        }
+        ndjson = rows.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void createFacility() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null, "ROLE_admin"));
+        facilityId = facilityRepository.save(Facility.builder()
+                .name("Import Benchmark " + UUID.randomUUID())
+                .city("Boston")
+                .address("1 Main St")
+                .build()).getId();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteFacility() {
+        jdbcTemplate.update("DELETE FROM patient WHERE facility_id = ?", facilityId);
+        facilityRepository.deleteById(facilityId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public PatientImportResult import100k() throws IOException {
+        PatientImportResult result = importService.importPatients(
+                facilityId, new ByteArrayInputStream(ndjson), PatientImportService.Format.NDJSON);
+        if (result.getImported() != ROWS) {
+            throw new IllegalStateException("Imported " + result.getImported() + " of " + ROWS + ": " + result.getErrors());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package com.smiles.benchmark;
+
+import com.smiles.common.security.FacilityMembershipResolver;
+import com.smiles.common.security.KeycloakRoleConverter;
+import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.security.SmilesAuthenticationToken;
+import com.smiles.common.security.SmilesPrincipal;
+import com.smiles.common.security.SmilesPrincipalCache;
+import com.smiles.common.security.SmilesRole;
+import com.smiles.common.sharding.ShardDirectory;
+import com.smiles.common.sharding.ShardRouter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Per-request security checks: role extraction from the JWT, role lookups on
+ * the current authentication and the facility access check.
+ *
+ * {@code principal} authenticates with a resolved {@link SmilesPrincipal}, as
+ * JWT requests do; {@code authorities} with plain granted authorities, the
+ * fallback path of tests and non-JWT authentication.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityBenchmark {
+
+    private static final List<String> ROLE_NAMES = List.of(
+            "dentist", "receptionist", "offline_access", "uma_authorization", "default-roles-smiles");
+
+    @Param({"principal", "authorities"})
+    private String authentication;
+
+    private final KeycloakRoleConverter roleConverter = new KeycloakRoleConverter();
+    private Jwt realmAccessJwt;
+    private SecurityUtils securityUtils;
+    private FacilityMembershipResolver membershipResolver;
+    private UUID facilityId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        realmAccessJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("user-1")
+                .claim("realm_access", Map.of("roles", ROLE_NAMES))
+                .build();
+
+        Set<UUID> facilityIds = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            facilityIds.add(UUID.randomUUID());
+        }
+        facilityId = facilityIds.iterator().next();
+
+        membershipResolver = new FacilityMembershipResolver(
+                keycloakUserId -> facilityIds,
+                new SmilesPrincipalCache(50_000, Duration.ofHours(1)),
+                10_000,
+                Duration.ofMinutes(5));
+        ShardRouter shardRouter = new ShardRouter(new StaticListableBeanFactory().getBeanProvider(ShardDirectory.class));
+        securityUtils = new SecurityUtils(membershipResolver, shardRouter);
+
+        Collection<GrantedAuthority> authorities = KeycloakRoleConverter.toAuthorities(ROLE_NAMES);
+        Authentication current;
+        if (authentication.equals("principal")) {
+            SmilesPrincipal principal = new SmilesPrincipal(
+                    "user-1", "jdoe", "jdoe@example.com",
+                    EnumSet.of(SmilesRole.dentist, SmilesRole.receptionist), ROLE_NAMES,
+                    UUID.randomUUID(), null, Set.copyOf(facilityIds), Instant.now().plusSeconds(300));
+            current = new SmilesAuthenticationToken(realmAccessJwt, authorities, principal);
+        } else {
+            current = new UsernamePasswordAuthenticationToken("user-1", null, authorities);
+        }
+        SecurityContextHolder.getContext().setAuthentication(current);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convertRoles() {
+        return roleConverter.convert(realmAccessJwt);
+    }
+
+    @Benchmark
+    public List<String> getCurrentUserRoles() {
+        return securityUtils.getCurrentUserRoles();
+    }
+
+    @Benchmark
+    public boolean hasRole() {
+        return securityUtils.hasRole("receptionist");
+    }
+
+    @Benchmark
+    public boolean isMember() {
+        return membershipResolver.isMember("user-1", facilityId);
+    }
+
+    @Benchmark
+    public void checkFacilityAccess() {
+        securityUtils.checkFacilityAccess(facilityId);
+    }
+}
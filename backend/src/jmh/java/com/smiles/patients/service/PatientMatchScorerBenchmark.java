@@ -0,0 +1,78 @@
+package com.smiles.patients.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scoring the candidate pairs of one dedup chunk with {@link PatientMatchScorer#scoreAll},
+ * on one thread and on all cores. Lives in the scorer's package, which is not public API.
+ *
+ * Pairs share a blocking key the way real candidates do: same birth date or phone,
+ * names that are either the same person with a typo or a different person.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientMatchScorerBenchmark {
+
+    private static final String[] FIRST = {"Maria", "José", "Luis", "Ana", "John", "Mary", "Robert", "Linda", "David", "Sarah"};
+    private static final String[] LAST = {"Garcia", "Smith", "Johnson", "Martinez", "Brown", "Lopez", "Wilson", "Anderson"};
+
+    @Param({"1000", "20000"})
+    private int pairs;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private List<PatientMatchScorer.CandidatePair> candidates;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        candidates = new ArrayList<>(pairs);
+        for (int i = 0; i < pairs; i++) {
+            String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)];
+            String other = random.nextBoolean()
+                    ? name.substring(0, name.length() - 2) + name.charAt(name.length() - 1) + name.charAt(name.length() - 2)
+                    : FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)];
+            LocalDate birthDate = LocalDate.of(1950 + random.nextInt(60), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            String phone = "602-555-" + String.format("%04d", random.nextInt(10_000));
+            candidates.add(new PatientMatchScorer.CandidatePair(
+                    PatientFingerprint.of(UUID.randomUUID(), name, birthDate, null, phone),
+                    PatientFingerprint.of(UUID.randomUUID(), other, birthDate, null, random.nextBoolean() ? phone : null)));
+        }
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<PatientMatchScorer.ScoredPair> scoreAll() {
+        return PatientMatchScorer.scoreAll(candidates, 0.85, pool);
+    }
+}
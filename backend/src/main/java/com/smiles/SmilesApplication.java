@@ -13,6 +13,7 @@ import org.springframework.modulith.Modulith;
  * - staff: Staff and employee management
  * - patients: Patient records and demographics
  * - rooms: Treatment rooms and operatories
+ * - bootstrap: Cached per-facility reference data for client startup
  * - appointments: Scheduling and calendar management
  * - ehr: Electronic Health Records
  * - materials: Dental materials catalog
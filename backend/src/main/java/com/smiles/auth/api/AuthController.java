@@ -2,6 +2,7 @@ package com.smiles.auth.api;
 
 import com.smiles.auth.dto.UserInfoDto;
 import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.security.SmilesPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -37,20 +38,24 @@ public class AuthController {
         log.debug("Getting current user info for: {}", authentication.getName());
 
         Jwt jwt = securityUtils.getCurrentUserJwt();
+        SmilesPrincipal principal = securityUtils.getCurrentPrincipal();
 
-        if (jwt == null) {
+        if (jwt == null || principal == null) {
             return ResponseEntity.status(401).build();
         }
 
-        // Extract user information from JWT
+        // Identity and roles come from the resolved principal, profile details from the JWT
         UserInfoDto userInfo = UserInfoDto.builder()
-                .userId(jwt.getSubject())
-                .username(jwt.getClaimAsString("preferred_username"))
-                .email(jwt.getClaimAsString("email"))
+                .userId(principal.subject())
+                .username(principal.username())
+                .email(principal.email())
                 .firstName(jwt.getClaimAsString("given_name"))
                 .lastName(jwt.getClaimAsString("family_name"))
                 .fullName(jwt.getClaimAsString("name"))
-                .roles(securityUtils.getCurrentUserRoles())
+                .roles(principal.roleNames())
+                .staffId(principal.staffId())
+                .patientId(principal.patientId())
+                .facilityIds(principal.facilityIds())
                 .emailVerified(jwt.getClaimAsBoolean("email_verified"))
                 .issuedAt(jwt.getIssuedAt() != null ? jwt.getIssuedAt().getEpochSecond() : null)
                 .expiresAt(jwt.getExpiresAt() != null ? jwt.getExpiresAt().getEpochSecond() : null)
@@ -8,6 +8,8 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * DTO for current user information.
@@ -54,6 +56,21 @@ public class UserInfoDto {
      */
     private List<String> roles;
 
+    /**
+     * ID of the staff record linked to the user, if any.
+     */
+    private UUID staffId;
+
+    /**
+     * ID of the patient record linked to the user, if any.
+     */
+    private UUID patientId;
+
+    /**
+     * IDs of the facilities the user belongs to.
+     */
+    private Set<UUID> facilityIds;
+
     /**
      * Whether the email is verified.
      */
@@ -0,0 +1,95 @@
+package com.smiles.bootstrap.api;
+
+import com.smiles.bootstrap.service.FacilityBootstrapService;
+import com.smiles.bootstrap.service.FacilityBootstrapSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * REST controller for the client bootstrap snapshot.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/facilities")
+@RequiredArgsConstructor
+public class FacilityBootstrapController {
+
+    private final FacilityBootstrapService facilityBootstrapService;
+
+    /**
+     * Get the facility, its rooms and its active staff in one response.
+     * The pre-gzipped body is served as-is to clients accepting gzip.
+     */
+    @GetMapping(value = "/{id}/bootstrap", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getBootstrap(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        log.debug("GET /facilities/{}/bootstrap - Get bootstrap snapshot", id);
+        FacilityBootstrapSnapshot snapshot = facilityBootstrapService.getSnapshot(id);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (webRequest.checkNotModified(gzip ? snapshot.gzipEtag() : snapshot.etag())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Check whether Accept-Encoding allows gzip with a non-zero q-value, either by name or
+     * through {@code *} when gzip is not listed.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
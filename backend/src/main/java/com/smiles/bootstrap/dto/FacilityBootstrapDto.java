@@ -0,0 +1,34 @@
+package com.smiles.bootstrap.dto;
+
+import com.smiles.facilities.dto.FacilityDto;
+import com.smiles.rooms.dto.RoomDto;
+import com.smiles.staff.dto.StaffDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reference data a client needs after login, for one facility.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityBootstrapDto {
+    private FacilityDto facility;
+    private List<RoomDto> rooms;
+
+    /**
+     * Active staff only.
+     */
+    private List<StaffDto> staff;
+
+    /**
+     * When this snapshot was built.
+     */
+    private Instant generatedAt;
+}
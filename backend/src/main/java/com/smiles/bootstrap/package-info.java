@@ -0,0 +1,11 @@
+/**
+ * Client Bootstrap module.
+ *
+ * Handles:
+ * - Per-facility reference data snapshot served on login
+ * - Pre-serialized and pre-gzipped snapshot caching
+ * - Snapshot invalidation on facility, room and staff changes
+ *
+ * Depends on: facilities, rooms, staff
+ */
+package com.smiles.bootstrap;
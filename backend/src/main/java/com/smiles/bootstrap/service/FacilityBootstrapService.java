@@ -0,0 +1,159 @@
+package com.smiles.bootstrap.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smiles.bootstrap.dto.FacilityBootstrapDto;
+import com.smiles.common.events.FacilityReferenceDataChangedEvent;
+import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.facilities.service.FacilityService;
+import com.smiles.rooms.service.RoomService;
+import com.smiles.staff.service.StaffService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service serving the per-facility bootstrap snapshot.
+ *
+ * The snapshot (facility, rooms and active staff) is serialized and gzipped once
+ * and kept in memory until facility, room or staff data of that facility changes,
+ * so a login storm costs one build per facility instead of several queries and
+ * serializations per client. Concurrent requests for a missing snapshot wait for
+ * a single build.
+ */
+@Slf4j
+@Service
+public class FacilityBootstrapService {
+
+    private final FacilityService facilityService;
+    private final RoomService roomService;
+    private final StaffService staffService;
+    private final SecurityUtils securityUtils;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<UUID, FacilityBootstrapSnapshot> snapshots;
+
+    public FacilityBootstrapService(
+            FacilityService facilityService,
+            RoomService roomService,
+            StaffService staffService,
+            SecurityUtils securityUtils,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${smiles.bootstrap.cache.max-size:1000}") long maxSize,
+            @Value("${smiles.bootstrap.cache.ttl:1h}") Duration ttl) {
+        this.facilityService = facilityService;
+        this.roomService = roomService;
+        this.staffService = staffService;
+        this.securityUtils = securityUtils;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Get the bootstrap snapshot of a facility, building it if it is not cached.
+     *
+     * @param facilityId the facility ID
+     * @return the serialized snapshot
+     */
+    public FacilityBootstrapSnapshot getSnapshot(@ShardKey UUID facilityId) {
+        // Check access permission on every request, cached or not
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return snapshots.get(facilityId, this::build);
+    }
+
+    /**
+     * Drop the cached snapshot of a facility.
+     * When called inside a transaction the entry is dropped again after commit,
+     * so a concurrent request cannot re-cache the pre-commit state.
+     *
+     * @param facilityId the facility ID
+     */
+    public void evict(UUID facilityId) {
+        log.debug("Evicting bootstrap snapshot for facility: {}", facilityId);
+        snapshots.invalidate(facilityId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.invalidate(facilityId);
+                }
+            });
+        }
+    }
+
+    @EventListener
+    void on(FacilityReferenceDataChangedEvent event) {
+        evict(event.facilityId());
+    }
+
+    private FacilityBootstrapSnapshot build(UUID facilityId) {
+        long start = System.nanoTime();
+
+        FacilityBootstrapDto bootstrap = transactionTemplate.execute(status -> FacilityBootstrapDto.builder()
+                .facility(facilityService.getFacilityById(facilityId))
+                .rooms(roomService.getAllRoomsByFacility(facilityId))
+                .staff(staffService.getActiveStaffByFacility(facilityId))
+                .build());
+
+        try {
+            // The ETag covers the content only, so a rebuild of unchanged data on this
+            // or another node keeps answering 304 to clients holding the old snapshot
+            String etag = etag(objectMapper.writeValueAsBytes(bootstrap));
+            bootstrap.setGeneratedAt(Instant.now());
+            byte[] json = objectMapper.writeValueAsBytes(bootstrap);
+            FacilityBootstrapSnapshot snapshot = new FacilityBootstrapSnapshot(json, gzip(json), etag);
+            log.info("Built bootstrap snapshot for facility: {} ({} bytes, {} gzipped) in {} ms",
+                    facilityId, json.length, snapshot.gzip().length, (System.nanoTime() - start) / 1_000_000);
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize bootstrap snapshot for facility: " + facilityId, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
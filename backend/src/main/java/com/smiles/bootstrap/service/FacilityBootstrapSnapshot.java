@@ -0,0 +1,21 @@
+package com.smiles.bootstrap.service;
+
+/**
+ * Serialized bootstrap payload of one facility, kept ready to be written to the wire.
+ *
+ * @param json the UTF-8 JSON body
+ * @param gzip the same body, gzip-compressed
+ * @param etag strong entity tag of the JSON body, derived from it without {@code generatedAt}
+ */
+public record FacilityBootstrapSnapshot(byte[] json, byte[] gzip, String etag) {
+
+    /**
+     * Get the strong entity tag of the gzip body. It differs from {@link #etag()}, since a
+     * strong validator identifies one representation and each content coding is its own.
+     *
+     * @return the JSON body's tag with a {@code -gzip} suffix inside the quotes
+     */
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+}
@@ -0,0 +1,60 @@
+package com.smiles.common.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Result of a batch lookup: the records found and the requested IDs that do not exist.
+ *
+ * @param <T> the item type
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResult<T> {
+
+    private List<T> items;
+
+    private List<UUID> missingIds;
+
+    /**
+     * Build a result from the rows found for a set of requested IDs.
+     *
+     * @param requestedIds the distinct requested IDs, in request order
+     * @param rows the rows found
+     * @param idOf extracts the ID of a row
+     * @param mapper maps a row to the returned item
+     * @return the result
+     */
+    public static <E, T> BatchGetResult<T> of(
+            Collection<UUID> requestedIds,
+            List<E> rows,
+            Function<E, UUID> idOf,
+            Function<E, T> mapper) {
+        Set<UUID> foundIds = new HashSet<>(rows.size() * 2);
+        List<T> items = new ArrayList<>(rows.size());
+        for (E row : rows) {
+            foundIds.add(idOf.apply(row));
+            items.add(mapper.apply(row));
+        }
+
+        List<UUID> missingIds = new ArrayList<>();
+        for (UUID id : requestedIds) {
+            if (!foundIds.contains(id)) {
+                missingIds.add(id);
+            }
+        }
+        return new BatchGetResult<>(items, missingIds);
+    }
+}
@@ -0,0 +1,59 @@
+package com.smiles.common.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.cache.Cache;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache regions backed by bounded, locally held Caffeine caches.
+ *
+ * Every region is created on demand with the same size bound and TTL, so new
+ * {@code @Cache} entities and cacheable queries need no extra configuration. The
+ * update-timestamps region is never bounded or expired, as Hibernate requires.
+ * Hit, miss, put and eviction counts of each region are published as
+ * {@code cache.*} metrics tagged with the region name.
+ */
+@Slf4j
+public class BoundedJCacheRegionFactory extends JCacheRegionFactory {
+
+    private final long maxSize;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+
+    public BoundedJCacheRegionFactory(long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Cache<Object, Object> getOrCreateCache(String unqualifiedRegionName, SessionFactoryImplementor sessionFactory) {
+        // The cache may already exist when several session factories share the JCache manager
+        Cache<Object, Object> cache = super.getOrCreateCache(unqualifiedRegionName, sessionFactory);
+        JCacheMetrics.monitor(meterRegistry, cache);
+        return cache;
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate cache entries are immutable; copying them on every access would only cost time
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (!regionName.endsWith(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+
+        log.debug("Creating second-level cache region: {}", regionName);
+        return getCacheManager().createCache(regionName, configuration);
+    }
+}
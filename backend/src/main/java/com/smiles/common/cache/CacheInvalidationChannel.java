@@ -0,0 +1,302 @@
+package com.smiles.common.cache;
+
+import com.smiles.common.events.FacilityReferenceDataChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Propagates cache invalidations between application nodes over PostgreSQL LISTEN/NOTIFY.
+ *
+ * After commit, every Hibernate write to a second-level cached entity and every
+ * {@link FacilityReferenceDataChangedEvent} is sent on a notification channel.
+ * Other nodes evict the entity and all cached query results, and republish the
+ * facility event locally so per-facility caches are dropped as well.
+ *
+ * A single background thread owns a dedicated connection (outside the pool) and
+ * both sends and receives on it. After a lost connection all second-level cache
+ * regions are cleared, since notifications may have been missed.
+ *
+ * Enabled by default whenever the datasource is PostgreSQL. Outgoing messages wait
+ * in a bounded queue; if it overflows while the connection is down or slow, the
+ * pending messages are replaced by a single message telling every node to clear
+ * all second-level cache regions.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${smiles.cache.invalidation.enabled:true}"
+        + " and '${spring.datasource.url:}'.startsWith('jdbc:postgresql:')")
+public class CacheInvalidationChannel
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final char SEPARATOR = '|';
+    private static final String ENTITY = "E";
+    private static final String FACILITY = "F";
+    private static final String ALL = "A";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final BlockingQueue<String> outbound;
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private volatile boolean running;
+    private Thread worker;
+
+    public CacheInvalidationChannel(
+            EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${smiles.cache.invalidation.channel:smiles_cache_invalidation}") String channel,
+            @Value("${smiles.cache.invalidation.poll-interval:250ms}") Duration pollInterval,
+            @Value("${smiles.cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay,
+            @Value("${smiles.cache.invalidation.max-pending:10000}") int maxPending) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.eventPublisher = eventPublisher;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+        this.outbound = new LinkedBlockingQueue<>(maxPending);
+    }
+
+    /**
+     * ID of this node, prefixed to every message it sends.
+     *
+     * @return the node ID
+     */
+    String nodeId() {
+        return nodeId;
+    }
+
+    @PostConstruct
+    public void start() {
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        running = true;
+        worker = new Thread(this::run, "cache-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Cache invalidation channel '{}' started for node {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        sendEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        sendEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        sendEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @EventListener
+    void on(FacilityReferenceDataChangedEvent event) {
+        if (Thread.currentThread() == worker) {
+            // Replayed from another node; do not echo it back
+            return;
+        }
+
+        String message = FACILITY + SEPARATOR + event.facilityId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(message);
+                }
+            });
+        } else {
+            send(message);
+        }
+    }
+
+    private void sendEntity(EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            send(ENTITY + SEPARATOR + persister.getEntityName() + SEPARATOR + id);
+        }
+    }
+
+    private void send(String message) {
+        if (!outbound.offer(nodeId + SEPARATOR + message) && !overflowed.getAndSet(true)) {
+            log.warn("Cache invalidation queue is full; other nodes will be told to clear all regions");
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for cache invalidations on channel '{}'", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    while (running) {
+                        flushOutbound(notify);
+                        PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                receive(notification.getParameter());
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation channel '{}' failed, reconnecting in {}: {}",
+                        channel, reconnectDelay, e.getMessage());
+                onConnectionLost();
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear all regions after the connection was lost, since notifications may have been missed.
+     */
+    void onConnectionLost() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    /**
+     * Send the queued messages. After an overflow the queue is dropped and replaced
+     * by one message clearing all regions on the other nodes, which also covers
+     * anything dropped here.
+     *
+     * @param notify the prepared {@code pg_notify} statement
+     */
+    void flushOutbound(PreparedStatement notify) throws SQLException {
+        if (overflowed.getAndSet(false)) {
+            outbound.clear();
+            notify(notify, nodeId + SEPARATOR + ALL);
+        }
+
+        String message;
+        while ((message = outbound.peek()) != null) {
+            notify(notify, message);
+            outbound.remove();
+        }
+    }
+
+    private void notify(PreparedStatement notify, String message) throws SQLException {
+        notify.setString(1, channel);
+        notify.setString(2, message);
+        notify.execute();
+    }
+
+    /**
+     * Apply a message received on the channel. Messages sent by this node are ignored.
+     *
+     * @param payload the notification payload
+     */
+    void receive(String payload) {
+        String[] parts = payload.split("\\" + SEPARATOR, 4);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        if (ALL.equals(parts[1])) {
+            log.info("Clearing all cache regions after another node dropped invalidations");
+            sessionFactory.getCache().evictAllRegions();
+            return;
+        }
+        if (parts.length < 3) {
+            return;
+        }
+
+        try {
+            if (ENTITY.equals(parts[1]) && parts.length == 4) {
+                EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(parts[2]);
+                Object id = persister.getIdentifierMapping().getJavaType().fromString(parts[3]);
+                log.debug("Evicting {}#{} changed on another node", parts[2], id);
+                sessionFactory.getCache().evictEntityData(parts[2], id);
+                sessionFactory.getCache().evictQueryRegions();
+            } else if (FACILITY.equals(parts[1])) {
+                eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(UUID.fromString(parts[2])));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed cache invalidation message '{}': {}", payload, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.smiles.common.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Hibernate second-level and query cache configuration.
+ *
+ * Entities opt in with {@code @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)},
+ * repository queries with the {@code org.hibernate.cacheable} query hint.
+ * Writes through Hibernate invalidate both caches on this node;
+ * {@link CacheInvalidationChannel} propagates them to other nodes.
+ *
+ * With sharding enabled the query cache is turned off: its keys do not include
+ * the shard, so the same query on two shards would share one entry. Entity
+ * caching is unaffected because IDs are unique across shards.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            MeterRegistry meterRegistry,
+            @Value("${smiles.cache.second-level.max-size:10000}") long maxSize,
+            @Value("${smiles.cache.second-level.ttl:1h}") Duration ttl,
+            @Value("${smiles.sharding.enabled:false}") boolean shardingEnabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, !shardingEnabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY,
+                    new BoundedJCacheRegionFactory(maxSize, ttl, meterRegistry));
+            properties.put(ConfigSettings.PROVIDER,
+                    "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        };
+    }
+}
@@ -0,0 +1,229 @@
+package com.smiles.common.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a client's reads on the primary until the replica has replayed that client's last write.
+ *
+ * After each committed read-write transaction of an HTTP request, the commit time is
+ * sent to the client in the {@value #COOKIE} cookie, which the client echoes on later
+ * requests to any instance. A background poller samples the primary's WAL position
+ * and the replica's replay position; once the replica has replayed a primary position
+ * sampled after the write, the write is visible there. Until then, and at most for
+ * the read-your-writes window, the client's read-only transactions go to the primary.
+ *
+ * Routing and commits never query a database. Commit times come from each instance's
+ * clock, so tokens are padded with {@code clock-skew} to stay safe across instances.
+ */
+@Slf4j
+public class ReadYourWritesTracker {
+
+    /**
+     * Cookie carrying the client's last write time in epoch milliseconds.
+     */
+    public static final String COOKIE = "smiles_write_token";
+
+    private static final long NOT_CAUGHT_UP = Long.MIN_VALUE;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration window;
+    private final Duration lagPollInterval;
+    private final long clockSkewMillis;
+    private final Clock clock;
+    private final Deque<Sample> pendingSamples = new ArrayDeque<>();
+    private volatile long caughtUpTo = NOT_CAUGHT_UP;
+    private ScheduledExecutorService scheduler;
+
+    public ReadYourWritesTracker(
+            DataSource primaryDataSource,
+            DataSource replicaDataSource,
+            Duration window,
+            Duration lagPollInterval,
+            Duration clockSkew) {
+        this(primaryDataSource, replicaDataSource, window, lagPollInterval, clockSkew, Clock.systemUTC());
+    }
+
+    ReadYourWritesTracker(
+            DataSource primaryDataSource,
+            DataSource replicaDataSource,
+            Duration window,
+            Duration lagPollInterval,
+            Duration clockSkew,
+            Clock clock) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.window = window;
+        this.lagPollInterval = lagPollInterval;
+        this.clockSkewMillis = clockSkew.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Start polling the primary's WAL position and the replica's replay position.
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::poll, 0, lagPollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Hand the current client a token for the write that has just committed.
+     * Called after commit; does nothing outside an HTTP request.
+     */
+    public void recordWrite() {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null || attributes.getResponse() == null) {
+            return;
+        }
+
+        HttpServletResponse response = attributes.getResponse();
+        if (response.isCommitted()) {
+            return;
+        }
+
+        long token = clock.millis() + clockSkewMillis;
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(token))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .secure(attributes.getRequest().isSecure())
+                .sameSite("Strict")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /**
+     * Check if the current client's reads must go to the primary.
+     *
+     * @return true if the client's token is within the window and the replica may not have caught up
+     */
+    public boolean mustReadFromPrimary() {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null) {
+            return false;
+        }
+        return mustReadFromPrimary(writeToken(attributes.getRequest()));
+    }
+
+    /**
+     * Check if reads after a write with the given token must go to the primary.
+     *
+     * @param token the write token, or null if the client has none
+     * @return true if the token is within the window and the replica may not have caught up
+     */
+    boolean mustReadFromPrimary(Long token) {
+        if (token == null || Math.abs(clock.millis() - token) > window.toMillis()) {
+            // No recent write, or a token that is stale or not one of ours
+            return false;
+        }
+        return caughtUpTo < token;
+    }
+
+    /**
+     * Take one sample of both positions and advance the caught-up time.
+     */
+    void poll() {
+        try {
+            long sampledAt = clock.millis();
+            long primaryLsn = parseLsn(primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class));
+            String replayed = replica.queryForObject("SELECT pg_last_wal_replay_lsn()::text", String.class);
+            // NULL when the replica target is not a standby, e.g. the primary itself
+            record(sampledAt, primaryLsn, replayed != null ? parseLsn(replayed) : null);
+        } catch (RuntimeException e) {
+            log.debug("Failed to sample WAL positions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a primary sample and the replica's replay position at the time.
+     * Every write committed before {@code sampledAt} is at or below {@code primaryLsn},
+     * so once the replica has replayed that far those writes are readable there.
+     *
+     * @param sampledAt when the primary position was read, before the query was sent
+     * @param primaryLsn the primary's WAL position
+     * @param replayLsn the replica's replay position, or null if unknown
+     */
+    void record(long sampledAt, long primaryLsn, Long replayLsn) {
+        pendingSamples.addLast(new Sample(sampledAt, primaryLsn));
+
+        if (replayLsn != null) {
+            while (!pendingSamples.isEmpty() && pendingSamples.peekFirst().lsn() <= replayLsn) {
+                caughtUpTo = pendingSamples.removeFirst().sampledAt();
+            }
+        }
+
+        // Samples older than the window can no longer decide anything
+        long horizon = sampledAt - window.toMillis();
+        while (pendingSamples.size() > 1 && pendingSamples.peekFirst().sampledAt() < horizon) {
+            pendingSamples.removeFirst();
+        }
+    }
+
+    /**
+     * Parse a PostgreSQL {@code pg_lsn} text value such as {@code 16/B374D848}.
+     */
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Invalid LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn.substring(0, slash), 16);
+        long low = Long.parseLong(lsn.substring(slash + 1), 16);
+        return high << 32 | low;
+    }
+
+    private static Long writeToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet : null;
+    }
+
+    private record Sample(long sampledAt, long lsn) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.smiles.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary/replica data source routing, enabled with {@code smiles.datasource.replica.enabled}.
+ *
+ * The primary keeps the {@code spring.datasource.*} settings; the replica gets its
+ * own Hikari pool configured under {@code smiles.datasource.replica.*}. When
+ * disabled, Spring Boot's single data source is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "smiles.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("smiles-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("smiles.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${smiles.datasource.replica.url}") String url,
+            @Value("${smiles.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${smiles.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("smiles-replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${smiles.datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${smiles.datasource.replica.lag-poll-interval:100ms}") Duration lagPollInterval,
+            @Value("${smiles.datasource.replica.clock-skew:250ms}") Duration clockSkew) {
+        return new ReadYourWritesTracker(primaryDataSource, replicaDataSource, window, lagPollInterval, clockSkew);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReadYourWritesTracker readYourWritesTracker) {
+        // Defer fetching the physical connection until the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, readYourWritesTracker));
+    }
+}
@@ -0,0 +1,52 @@
+package com.smiles.common.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request statement budget, enabled with {@code smiles.datasource.statement-budget.enabled}.
+ *
+ * Wraps the application's {@code dataSource} bean, whether Spring Boot's or the
+ * routing one of replica or shard routing, in a {@link StatementCountingDataSource}
+ * and registers the {@link StatementBudgetFilter} ahead of Spring Security, so
+ * statements of the access checks count too.
+ */
+@Configuration
+@ConditionalOnProperty(name = "smiles.datasource.statement-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementBudgetConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(
+            MeterRegistry meterRegistry,
+            @Value("${smiles.datasource.statement-budget.max-statements:20}") int maxStatements,
+            @Value("${smiles.datasource.statement-budget.repeated-threshold:3}") int repeatedThreshold) {
+        FilterRegistrationBean<StatementBudgetFilter> registration = new FilterRegistrationBean<>(
+                new StatementBudgetFilter(meterRegistry, maxStatements, repeatedThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
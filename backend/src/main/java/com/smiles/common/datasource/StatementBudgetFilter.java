@@ -0,0 +1,100 @@
+package com.smiles.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the statements of each HTTP request against a budget.
+ *
+ * Every request is recorded in the {@code smiles.http.statements} summary by
+ * method and URI pattern. Requests over {@code max-statements} are logged and
+ * counted in {@code smiles.http.statements.over.budget}; statements repeated at
+ * least {@code repeated-threshold} times are logged as likely N+1 selects and
+ * counted in {@code smiles.http.statements.repeated}. The final counter is left
+ * in the {@link #COUNTER_ATTRIBUTE} request attribute for tests.
+ *
+ * Statements run by streaming responses after the handler returns are not counted.
+ */
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding the request's {@link StatementCounter}.
+     */
+    public static final String COUNTER_ATTRIBUTE = StatementBudgetFilter.class.getName() + ".COUNTER";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int repeatedThreshold;
+
+    public StatementBudgetFilter(MeterRegistry meterRegistry, int maxStatements, int repeatedThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    int repeatedThreshold() {
+        return repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCounter counter = StatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StatementCounter.stop();
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+            check(request, counter);
+        }
+    }
+
+    private void check(HttpServletRequest request, StatementCounter counter) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        String method = request.getMethod();
+
+        DistributionSummary.builder("smiles.http.statements")
+                .description("JDBC statements per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(counter.total());
+
+        if (counter.total() > maxStatements) {
+            log.warn("{} {} ran {} statements, over the budget of {}", method, uri, counter.total(), maxStatements);
+            Counter.builder("smiles.http.statements.over.budget")
+                    .description("HTTP requests running more statements than the budget")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        Map<String, Integer> repeated = counter.repeated(repeatedThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, count) ->
+                    log.warn("{} {} ran the same statement {} times, likely N+1: {}", method, uri, count, sql));
+            Counter.builder("smiles.http.statements.repeated")
+                    .description("HTTP requests repeating a statement, likely N+1 selects")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
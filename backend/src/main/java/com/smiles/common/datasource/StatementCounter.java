@@ -0,0 +1,93 @@
+package com.smiles.common.datasource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements prepared on the current thread.
+ *
+ * A counter is active between {@link #start()} and {@link #stop()}; counters may
+ * nest, and statements are counted in every enclosing counter. Only statements on
+ * connections of a {@link StatementCountingDataSource} are seen.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<StatementCounter> CURRENT = new ThreadLocal<>();
+
+    private final StatementCounter parent;
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+    private int total;
+
+    private StatementCounter(StatementCounter parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Start counting on the current thread.
+     *
+     * @return the new counter
+     */
+    public static StatementCounter start() {
+        StatementCounter counter = new StatementCounter(CURRENT.get());
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * Stop the innermost counter of the current thread, resuming the enclosing one.
+     */
+    public static void stop() {
+        StatementCounter counter = CURRENT.get();
+        if (counter == null) {
+            return;
+        }
+        if (counter.parent != null) {
+            CURRENT.set(counter.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Get the innermost counter of the current thread.
+     *
+     * @return the counter, or null when not counting
+     */
+    public static StatementCounter current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql) {
+        for (StatementCounter counter = this; counter != null; counter = counter.parent) {
+            counter.total++;
+            counter.countsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Get the number of statements counted.
+     *
+     * @return the total count
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Get the statements counted at least {@code threshold} times, the usual
+     * sign of an N+1 select.
+     *
+     * @param threshold the minimum number of executions
+     * @return the count of each repeated statement, by SQL
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countsBySql.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
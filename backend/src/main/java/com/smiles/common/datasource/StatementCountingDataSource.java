@@ -0,0 +1,82 @@
+package com.smiles.common.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Reports the statements of its connections to the thread's {@link StatementCounter}.
+ *
+ * Prepared and callable statements are counted when prepared, plain statements
+ * on each execution. A batch counts once. The counter is looked up per statement,
+ * not per connection, since a transaction may have fetched its connection before
+ * counting started.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (PREPARE_METHODS.contains(method.getName())) {
+                record((String) args[0]);
+            } else if (method.getName().equals("createStatement")) {
+                return countingStatement((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static Statement countingStatement(Statement statement) {
+        return proxy(Statement.class, statement, (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                record(sql);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static void record(String sql) {
+        StatementCounter counter = StatementCounter.current();
+        if (counter != null) {
+            counter.record(sql);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.smiles.common.events;
+
+import java.time.Instant;
+
+/**
+ * An event about a committed change to a core entity.
+ *
+ * Published inside the writing transaction; {@code @ApplicationModuleListener}s
+ * receive it asynchronously after commit. Events carry IDs only, so listeners
+ * load current state and never act on a stale copy.
+ */
+public interface DomainEvent {
+
+    /**
+     * When the change was made, used to measure listener lag.
+     */
+    Instant occurredAt();
+}
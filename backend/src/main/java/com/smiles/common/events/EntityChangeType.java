@@ -0,0 +1,10 @@
+package com.smiles.common.events;
+
+/**
+ * Kind of change carried by an entity change event.
+ */
+public enum EntityChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
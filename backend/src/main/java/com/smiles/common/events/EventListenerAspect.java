@@ -0,0 +1,83 @@
+package com.smiles.common.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Applies per-listener concurrency limits and records listener lag.
+ *
+ * Runs on the {@link EventListenerExecutor} thread, inside {@code @Async} and
+ * before the listener's transaction, so an invocation waiting for a permit
+ * holds no database connection. Lag is the time from a {@link DomainEvent}'s
+ * change to the start of the listener, reported per listener as the
+ * {@code smiles.events.listener.lag} timer.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EventListenerAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultConcurrency;
+    private final Map<Method, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public EventListenerAspect(
+            MeterRegistry meterRegistry,
+            @Value("${smiles.events.executor.listener-concurrency:4}") int defaultConcurrency) {
+        this.meterRegistry = meterRegistry;
+        this.defaultConcurrency = defaultConcurrency;
+    }
+
+    @Around("within(com.smiles..*) && (@annotation(org.springframework.modulith.events.ApplicationModuleListener)"
+            + " || @annotation(org.springframework.modulith.ApplicationModuleListener))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Semaphore semaphore = permits.computeIfAbsent(method, this::newSemaphore);
+
+        semaphore.acquire();
+        try {
+            recordLag(method, joinPoint.getArgs());
+            return joinPoint.proceed();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private Semaphore newSemaphore(Method method) {
+        ListenerConcurrency concurrency = method.getAnnotation(ListenerConcurrency.class);
+        return new Semaphore(concurrency != null ? concurrency.value() : defaultConcurrency);
+    }
+
+    private void recordLag(Method method, Object[] args) {
+        if (args.length == 0 || !(args[0] instanceof DomainEvent event)) {
+            return;
+        }
+        Duration lag = Duration.between(event.occurredAt(), Instant.now());
+        Timer.builder("smiles.events.listener.lag")
+                .description("Time from a change to the start of its event listener")
+                .tag("listener", listenerId(method))
+                .register(meterRegistry)
+                .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    static String listenerId(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,35 @@
+package com.smiles.common.events;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs {@code @Async} work, i.e. {@code @ApplicationModuleListener}s, on the
+ * {@link EventListenerExecutor} instead of the shared application task executor.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class EventListenerConfig implements AsyncConfigurer {
+
+    // Resolved on first use; async configurers are created before most beans
+    private final ObjectProvider<EventListenerExecutor> eventListenerExecutor;
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return eventListenerExecutor.getObject();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        // The publication stays incomplete and can be resubmitted
+        return (e, method, params) -> log.warn("Event listener {} failed: {}",
+                EventListenerAspect.listenerId(method), e.getMessage(), e);
+    }
+}
@@ -0,0 +1,146 @@
+package com.smiles.common.events;
+
+import com.smiles.common.sharding.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded executor for asynchronous event listeners.
+ *
+ * Runs each listener invocation on a virtual thread, or on a fixed pool of
+ * platform threads when virtual threads are disabled. Submitting never blocks:
+ * it happens after commit on the request thread. Once the capacity of waiting
+ * and running invocations is reached, further invocations are dropped; their
+ * publications stay incomplete in {@code event_publication} and can be resubmitted.
+ * Bulk submitters wait for room themselves with {@link #awaitPendingBelow(int)}.
+ * Invocations run against the shard of the submitting thread, so a listener
+ * completes its publication on the shard that recorded it.
+ */
+@Slf4j
+@Component
+public class EventListenerExecutor implements TaskExecutor {
+
+    private final ExecutorService threads;
+    private final int capacity;
+    private final Duration shutdownTimeout;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition finished = lock.newCondition();
+    private final Counter rejected;
+
+    public EventListenerExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${smiles.events.executor.virtual-threads:true}") boolean virtualThreads,
+            @Value("${smiles.events.executor.pool-size:16}") int poolSize,
+            @Value("${smiles.events.executor.capacity:10000}") int capacity,
+            @Value("${smiles.events.executor.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.threads = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("event-listener-", 0).factory())
+                : Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("event-listener-", 0).daemon().factory());
+        this.capacity = capacity;
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("smiles.events.executor.pending", pending, AtomicInteger::get)
+                .description("Listener invocations waiting or running")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("smiles.events.executor.rejected")
+                .description("Listener invocations dropped because the executor was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!reserve()) {
+            rejected.increment();
+            log.warn("Event listener executor is full ({} invocations), leaving the publication incomplete", capacity);
+            return;
+        }
+
+        String shard = ShardContext.current();
+        try {
+            threads.execute(() -> {
+                String previous = ShardContext.enter(shard);
+                try {
+                    task.run();
+                } finally {
+                    ShardContext.restore(previous);
+                    release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Shutting down
+            release();
+            rejected.increment();
+            log.warn("Event listener executor rejected an invocation: {}", e.getMessage());
+        }
+    }
+
+    private boolean reserve() {
+        int current = pending.get();
+        while (current < capacity) {
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = pending.get();
+        }
+        return false;
+    }
+
+    private void release() {
+        pending.decrementAndGet();
+        lock.lock();
+        try {
+            finished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until fewer than the given number of invocations are waiting or running.
+     * Lets bulk submitters such as {@link EventPublicationResubmitter} stay below the capacity.
+     *
+     * @param limit the number of invocations to stay below
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitPendingBelow(int limit) throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.get() >= limit) {
+                finished.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting invocations and wait for running ones to finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        threads.shutdown();
+        try {
+            if (!threads.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("{} event listener invocations still running after {}", pending.get(), shutdownTimeout);
+                threads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threads.shutdownNow();
+        }
+    }
+}
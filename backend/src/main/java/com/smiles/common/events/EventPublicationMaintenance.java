@@ -0,0 +1,240 @@
+package com.smiles.common.events;
+
+import com.smiles.common.sharding.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the Spring Modulith event publication log small on every shard.
+ *
+ * Periodically moves completed publications older than the completed retention
+ * to {@code event_publication_archive} in small batches, creates the archive's
+ * upcoming monthly partitions and drops partitions past the archive retention.
+ * The incomplete backlog is polled more often and exposed as the
+ * {@code smiles.events.publications.incomplete} and
+ * {@code smiles.events.publications.oldest.incomplete.age} gauges per shard.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "smiles.events.maintenance.enabled", havingValue = "true")
+public class EventPublicationMaintenance {
+
+    private static final String ARCHIVE_TABLE = "event_publication_archive";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH moved AS (
+                DELETE FROM event_publication
+                WHERE id IN (
+                    SELECT id FROM event_publication
+                    WHERE completion_date < ?
+                    ORDER BY completion_date
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, listener_id, event_type, serialized_event, publication_date, completion_date
+            )
+            INSERT INTO event_publication_archive (id, listener_id, event_type, serialized_event, publication_date, completion_date)
+            SELECT id, listener_id, event_type, serialized_event, publication_date, completion_date
+            FROM moved
+            """;
+
+    private static final String PURGE_DEFAULT_BATCH_SQL = """
+            DELETE FROM event_publication_archive_default
+            WHERE ctid IN (
+                SELECT ctid FROM event_publication_archive_default
+                WHERE publication_date < ?
+                LIMIT ?)
+            """;
+
+    private static final String PARTITIONS_SQL = """
+            SELECT child.relname FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = 'event_publication_archive' AND child.relname ~ '_y[0-9]{4}m[0-9]{2}$'
+            """;
+
+    private static final String BACKLOG_SQL = """
+            SELECT COUNT(*), MIN(publication_date) FROM event_publication WHERE completion_date IS NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+    private final Duration interval;
+    private final Duration backlogPollInterval;
+    private final Duration completedRetention;
+    private final Duration archiveRetention;
+    private final int batchSize;
+    private final Map<String, Backlog> backlogByShard = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public EventPublicationMaintenance(
+            DataSource dataSource,
+            ShardRouter shardRouter,
+            MeterRegistry meterRegistry,
+            @Value("${smiles.events.maintenance.interval:5m}") Duration interval,
+            @Value("${smiles.events.maintenance.backlog-poll-interval:30s}") Duration backlogPollInterval,
+            @Value("${smiles.events.maintenance.completed-retention:1h}") Duration completedRetention,
+            @Value("${smiles.events.maintenance.archive-retention:30d}") Duration archiveRetention,
+            @Value("${smiles.events.maintenance.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+        this.interval = interval;
+        this.backlogPollInterval = backlogPollInterval;
+        this.completedRetention = completedRetention;
+        this.archiveRetention = archiveRetention;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-publication-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::pollBacklog, 0, backlogPollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(
+                this::maintain, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void maintain() {
+        try {
+            Map<String, Long> archived = shardRouter.onAllShards(this::maintainShard);
+            log.debug("Archived completed event publications: {}", archived);
+        } catch (RuntimeException e) {
+            log.warn("Event publication maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    void pollBacklog() {
+        try {
+            shardRouter.onAllShards(() -> jdbcTemplate.queryForObject(BACKLOG_SQL, (rs, rowNum) -> {
+                Timestamp oldest = rs.getTimestamp(2);
+                return new BacklogSample(rs.getLong(1), oldest != null ? oldest.toInstant() : null);
+            })).forEach((shard, sample) -> backlog(shard).update(sample));
+        } catch (RuntimeException e) {
+            log.debug("Failed to poll event publication backlog: {}", e.getMessage());
+        }
+    }
+
+    private long maintainShard() {
+        YearMonth thisMonth = YearMonth.now(ZoneOffset.UTC);
+        createPartition(thisMonth);
+        createPartition(thisMonth.plusMonths(1));
+
+        Timestamp completedBefore = Timestamp.from(Instant.now().minus(completedRetention));
+        long archived = 0;
+        int moved;
+        do {
+            moved = jdbcTemplate.update(ARCHIVE_BATCH_SQL, completedBefore, batchSize);
+            archived += moved;
+        } while (moved == batchSize);
+
+        purgeArchive();
+        return archived;
+    }
+
+    private void createPartition(YearMonth month) {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                    + " PARTITION OF " + ARCHIVE_TABLE
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        } catch (DataAccessException e) {
+            // The default partition already holds rows of that month; they stay there until purged
+            log.warn("Could not create event publication archive partition for {}: {}", month, e.getMessage());
+        }
+    }
+
+    private void purgeArchive() {
+        Instant cutoff = Instant.now().minus(archiveRetention);
+        YearMonth cutoffMonth = YearMonth.from(cutoff.atZone(ZoneOffset.UTC));
+
+        // Whole months past the retention are dropped at once
+        List<String> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(partition.length() - 8), PARTITION_SUFFIX);
+            if (month.isBefore(cutoffMonth)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped event publication archive partition {}", partition);
+            }
+        }
+
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_DEFAULT_BATCH_SQL, Timestamp.from(cutoff), batchSize);
+        } while (deleted == batchSize);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return ARCHIVE_TABLE + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private Backlog backlog(String shard) {
+        return backlogByShard.computeIfAbsent(shard, name -> {
+            Backlog backlog = new Backlog();
+            Gauge.builder("smiles.events.publications.incomplete", backlog, Backlog::count)
+                    .description("Event publications not yet completed by their listener")
+                    .tag("shard", name)
+                    .register(meterRegistry);
+            Gauge.builder("smiles.events.publications.oldest.incomplete.age", backlog, Backlog::oldestAgeSeconds)
+                    .description("Age of the oldest incomplete event publication")
+                    .baseUnit("seconds")
+                    .tag("shard", name)
+                    .register(meterRegistry);
+            return backlog;
+        });
+    }
+
+    private record BacklogSample(long count, Instant oldest) {
+    }
+
+    private static final class Backlog {
+
+        private volatile BacklogSample sample = new BacklogSample(0, null);
+
+        void update(BacklogSample sample) {
+            this.sample = sample;
+        }
+
+        double count() {
+            return sample.count();
+        }
+
+        double oldestAgeSeconds() {
+            Instant oldest = sample.oldest();
+            return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+        }
+    }
+}
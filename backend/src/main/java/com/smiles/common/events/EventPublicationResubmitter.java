@@ -0,0 +1,117 @@
+package com.smiles.common.events;
+
+import com.smiles.common.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.modulith.events.EventPublication;
+import org.springframework.modulith.events.IncompleteEventPublications;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resubmits incomplete event publications on every shard after startup.
+ *
+ * Publications left incomplete by a crash, a failing listener or a full
+ * {@link EventListenerExecutor} are handed back to their listeners in the
+ * background, so startup is not delayed. The listeners run on the executor in
+ * parallel; submission pauses while {@code max-in-flight} invocations are
+ * waiting or running, so a large backlog neither floods the executor nor
+ * pushes out events published meanwhile.
+ *
+ * A session advisory lock per shard, taken with {@code pg_try_advisory_lock},
+ * keeps nodes started together from resubmitting the same publications; a node
+ * that finds the lock held leaves that shard to the node holding it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "smiles.events.resubmit.enabled", havingValue = "true")
+public class EventPublicationResubmitter {
+
+    // Two-key form, so it cannot collide with the single-key facility write locks
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('event_publication_resubmit'), 0)";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('event_publication_resubmit'), 0)";
+
+    private final IncompleteEventPublications incompletePublications;
+    private final EventListenerExecutor executor;
+    private final ShardRouter shardRouter;
+    private final DataSource dataSource;
+    private final Duration olderThan;
+    private final int maxInFlight;
+
+    public EventPublicationResubmitter(
+            IncompleteEventPublications incompletePublications,
+            EventListenerExecutor executor,
+            ShardRouter shardRouter,
+            DataSource dataSource,
+            @Value("${smiles.events.resubmit.older-than:1m}") Duration olderThan,
+            @Value("${smiles.events.resubmit.max-in-flight:256}") int maxInFlight) {
+        this.incompletePublications = incompletePublications;
+        this.executor = executor;
+        this.shardRouter = shardRouter;
+        this.dataSource = dataSource;
+        this.olderThan = olderThan;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofPlatform().name("event-publication-resubmitter").daemon().start(this::resubmit);
+    }
+
+    void resubmit() {
+        // Younger publications may still be running on the node that published them
+        Instant cutoff = Instant.now().minus(olderThan);
+        try {
+            Map<String, Long> resubmitted = shardRouter.onAllShards(() -> resubmitShard(cutoff));
+            log.info("Resubmitted incomplete event publications: {}", resubmitted);
+        } catch (RuntimeException e) {
+            log.warn("Failed to resubmit incomplete event publications: {}", e.getMessage());
+        }
+    }
+
+    private long resubmitShard(Instant cutoff) {
+        // The advisory lock is session-scoped, so it needs one connection from lock to unlock
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate lockJdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(lockJdbc.queryForObject(TRY_LOCK_SQL, Boolean.class))) {
+                log.info("Incomplete event publications are being resubmitted by another node, skipping");
+                return 0;
+            }
+            try {
+                AtomicLong count = new AtomicLong();
+                incompletePublications.resubmitIncompletePublications(publication -> admit(publication, cutoff, count));
+                return count.get();
+            } finally {
+                lockJdbc.queryForObject(UNLOCK_SQL, Boolean.class);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to get a connection to resubmit event publications", e);
+        }
+    }
+
+    boolean admit(EventPublication publication, Instant cutoff, AtomicLong count) {
+        if (!publication.getPublicationDate().isBefore(cutoff)) {
+            return false;
+        }
+        try {
+            executor.awaitPendingBelow(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        count.incrementAndGet();
+        return true;
+    }
+}
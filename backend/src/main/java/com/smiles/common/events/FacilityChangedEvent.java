@@ -0,0 +1,19 @@
+package com.smiles.common.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a facility is created, updated or deleted.
+ *
+ * @param facilityId the facility ID
+ * @param change the kind of change
+ * @param occurredAt when the change was made
+ */
+public record FacilityChangedEvent(
+        UUID facilityId, EntityChangeType change, Instant occurredAt) implements DomainEvent {
+
+    public FacilityChangedEvent(UUID facilityId, EntityChangeType change) {
+        this(facilityId, change, Instant.now());
+    }
+}
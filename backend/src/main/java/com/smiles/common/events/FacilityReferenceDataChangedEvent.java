@@ -0,0 +1,15 @@
+package com.smiles.common.events;
+
+import java.util.UUID;
+
+/**
+ * Published when reference data of a facility (the facility itself, its rooms
+ * or its staff) is created, updated or deleted.
+ *
+ * Listeners use it to drop per-facility caches; it carries no payload beyond
+ * the facility ID.
+ *
+ * @param facilityId the facility whose reference data changed
+ */
+public record FacilityReferenceDataChangedEvent(UUID facilityId) {
+}
@@ -0,0 +1,24 @@
+package com.smiles.common.events;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how many invocations of an {@code @ApplicationModuleListener} run at once.
+ *
+ * Listeners without it get {@code smiles.events.executor.listener-concurrency}.
+ * Use 1 for listeners that must not overlap, e.g. ones that rebuild shared state.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ListenerConcurrency {
+
+    /**
+     * Maximum number of concurrent invocations.
+     */
+    int value();
+}
@@ -0,0 +1,20 @@
+package com.smiles.common.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a patient is created, updated or deleted.
+ *
+ * @param patientId the patient ID
+ * @param facilityId the facility the patient belongs to
+ * @param change the kind of change
+ * @param occurredAt when the change was made
+ */
+public record PatientChangedEvent(
+        UUID patientId, UUID facilityId, EntityChangeType change, Instant occurredAt) implements DomainEvent {
+
+    public PatientChangedEvent(UUID patientId, UUID facilityId, EntityChangeType change) {
+        this(patientId, facilityId, change, Instant.now());
+    }
+}
@@ -0,0 +1,20 @@
+package com.smiles.common.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a room is created, updated or deleted.
+ *
+ * @param roomId the room ID
+ * @param facilityId the facility the room belongs to
+ * @param change the kind of change
+ * @param occurredAt when the change was made
+ */
+public record RoomChangedEvent(
+        UUID roomId, UUID facilityId, EntityChangeType change, Instant occurredAt) implements DomainEvent {
+
+    public RoomChangedEvent(UUID roomId, UUID facilityId, EntityChangeType change) {
+        this(roomId, facilityId, change, Instant.now());
+    }
+}
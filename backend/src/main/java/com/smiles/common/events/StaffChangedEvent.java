@@ -0,0 +1,20 @@
+package com.smiles.common.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a staff member is created, updated or deleted.
+ *
+ * @param staffId the staff member ID
+ * @param facilityId the facility the staff member belongs to
+ * @param change the kind of change
+ * @param occurredAt when the change was made
+ */
+public record StaffChangedEvent(
+        UUID staffId, UUID facilityId, EntityChangeType change, Instant occurredAt) implements DomainEvent {
+
+    public StaffChangedEvent(UUID staffId, UUID facilityId, EntityChangeType change) {
+        this(staffId, facilityId, change, Instant.now());
+    }
+}
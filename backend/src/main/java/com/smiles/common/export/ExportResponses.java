@@ -0,0 +1,41 @@
+package com.smiles.common.export;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Builds HTTP responses for streamed exports.
+ * No content length is set, so the body is sent with chunked transfer encoding.
+ */
+public final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    /**
+     * Wrap a streaming body with export headers.
+     *
+     * @param fileName the download file name, without extension
+     * @param format the output format
+     * @param gzip whether the body is gzipped
+     * @param body the streaming body
+     * @return the response entity
+     */
+    public static ResponseEntity<StreamingResponseBody> of(
+            String fileName,
+            ExportFormat format,
+            boolean gzip,
+            StreamingResponseBody body) {
+        String fullName = fileName + "." + format.getExtension() + (gzip ? ".gz" : "");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fullName).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
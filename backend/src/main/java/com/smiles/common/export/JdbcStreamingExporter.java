@@ -0,0 +1,214 @@
+package com.smiles.common.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams SQL query results straight into an HTTP response.
+ *
+ * Rows are read through a forward-only JDBC cursor with a bounded fetch size
+ * inside a read-only transaction and written one by one, so heap use does
+ * not depend on the number of exported rows. No entities are materialized.
+ */
+@Slf4j
+@Component
+public class JdbcStreamingExporter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public JdbcStreamingExporter(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${smiles.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Build a response body streaming the rows of a query.
+     * The query runs when the body is written, not when this method is called,
+     * so callers must check access beforehand. It runs on the shard the caller runs on.
+     *
+     * @param sql the query; its select list must line up with {@code fields}
+     * @param fields output field names, one per selected column
+     * @param format the output format
+     * @param gzip whether to gzip the output
+     * @param args query arguments
+     * @return the streaming response body
+     */
+    public StreamingResponseBody stream(
+            String sql,
+            List<String> fields,
+            ExportFormat format,
+            boolean gzip,
+            Object... args) {
+        String shard = ShardContext.current();
+        return outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 8192);
+            RowWriter rowWriter = format == ExportFormat.CSV
+                    ? new CsvRowWriter(writer, fields)
+                    : new NdjsonRowWriter(objectMapper.getFactory().createGenerator(writer), fields);
+
+            long[] rows = {0};
+            String previousShard = ShardContext.enter(shard);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.query(sql, (ResultSet rs) -> {
+                            try {
+                                rowWriter.write(rs);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            rows[0]++;
+                        }, args));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                ShardContext.restore(previousShard);
+            }
+
+            rowWriter.finish();
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            log.debug("Exported {} rows as {}", rows[0], format);
+        };
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<String> fields;
+
+        private NdjsonRowWriter(JsonGenerator generator, List<String> fields) {
+            this.generator = generator;
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            this.fields = fields;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < fields.size(); i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(fields.get(i));
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else {
+                    generator.writeString(format(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final int columns;
+
+        private CsvRowWriter(Writer writer, List<String> fields) {
+            this.writer = writer;
+            this.columns = fields.size();
+            try {
+                writeLine(fields.toArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException, SQLException {
+            Object[] values = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            writeLine(values);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(format(values[i]));
+                }
+            }
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant().toString();
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate().toString();
+        }
+        return value.toString();
+    }
+}
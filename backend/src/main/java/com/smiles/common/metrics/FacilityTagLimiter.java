@@ -0,0 +1,58 @@
+package com.smiles.common.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounds the values of the {@code facility} metric tag.
+ *
+ * The first {@code max-values} facilities seen keep their own tag value;
+ * later ones share {@value #OTHER}, so the number of time series stays bounded
+ * however many facilities there are.
+ */
+@Component
+public class FacilityTagLimiter {
+
+    /**
+     * Tag value of calls not tied to a facility.
+     */
+    public static final String NONE = "none";
+
+    /**
+     * Tag value of facilities beyond the limit.
+     */
+    public static final String OTHER = "other";
+
+    private final int maxValues;
+    private final Set<String> values = ConcurrentHashMap.newKeySet();
+
+    public FacilityTagLimiter(@Value("${smiles.metrics.facility-tag.max-values:100}") int maxValues) {
+        this.maxValues = maxValues;
+    }
+
+    /**
+     * Get the tag value of a facility.
+     *
+     * @param facilityId the facility ID, or null
+     * @return the facility ID, {@value #NONE} or {@value #OTHER}
+     */
+    public String tagOf(UUID facilityId) {
+        if (facilityId == null) {
+            return NONE;
+        }
+        String value = facilityId.toString();
+        if (values.contains(value)) {
+            return value;
+        }
+        // Racing threads may admit a few values beyond the limit
+        if (values.size() < maxValues) {
+            values.add(value);
+            return value;
+        }
+        return OTHER;
+    }
+}
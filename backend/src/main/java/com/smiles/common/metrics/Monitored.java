@@ -0,0 +1,17 @@
+package com.smiles.common.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the public methods of a service, or a single method, in the
+ * {@code smiles.service.calls} timer.
+ *
+ * @see ServiceMetricsAspect
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Monitored {
+}
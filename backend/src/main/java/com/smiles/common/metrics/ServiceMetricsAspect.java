@@ -0,0 +1,152 @@
+package com.smiles.common.metrics;
+
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.common.web.PreconditionFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times {@link Monitored} service calls as the {@code smiles.service.calls} timer.
+ *
+ * Tags are the operation ({@code FacilityService.getFacilityById}), the outcome
+ * ({@code success}, {@code rejected} for invalid requests, {@code denied} for
+ * access violations, or {@code error}) and the exception class. The timer
+ * publishes a histogram, so it is not tagged by facility: each facility would
+ * multiply its buckets. Calls are also recorded per operation and facility in
+ * the {@code smiles.service.facility.calls} timer, which has no histogram.
+ * The facility is the {@link ShardKey} or {@code facilityId} argument, else the
+ * facility of the returned object, bounded by {@link FacilityTagLimiter}.
+ *
+ * Runs before {@link com.smiles.common.sharding.ShardRoutingAspect}, so a call
+ * probing every shard is recorded once with its total time.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    private static final String FACILITY_ID = "facilityId";
+
+    private final MeterRegistry meterRegistry;
+    private final FacilityTagLimiter facilityTagLimiter;
+    private final Map<Method, Integer> facilityParameters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Optional<Method>> facilityGetters = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry, FacilityTagLimiter facilityTagLimiter) {
+        this.meterRegistry = meterRegistry;
+        this.facilityTagLimiter = facilityTagLimiter;
+    }
+
+    @Around("within(com.smiles..*) && (@within(com.smiles.common.metrics.Monitored) && execution(public * *(..))"
+            + " || @annotation(com.smiles.common.metrics.Monitored))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            String operation = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            long durationNanos = sample.stop(Timer.builder("smiles.service.calls")
+                    .description("Service calls by operation and outcome")
+                    .tag("operation", operation)
+                    .tag("outcome", outcomeOf(failure))
+                    .tag("exception", failure == null ? "none" : failure.getClass().getSimpleName())
+                    .register(meterRegistry));
+            UUID facilityId = facilityIdOf(signature, joinPoint.getArgs(), result);
+            Timer.builder("smiles.service.facility.calls")
+                    .description("Service calls by operation and facility")
+                    .tag("operation", operation)
+                    .tag("facility", facilityTagLimiter.tagOf(facilityId))
+                    .register(meterRegistry)
+                    .record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private UUID facilityIdOf(MethodSignature signature, Object[] args, Object result) {
+        int index = facilityParameters.computeIfAbsent(signature.getMethod(), method -> facilityParameterOf(signature));
+        if (index >= 0) {
+            return facilityOf(args[index]);
+        }
+        return result != null && !(result instanceof Iterable<?>) ? facilityOf(result) : null;
+    }
+
+    private static int facilityParameterOf(MethodSignature signature) {
+        Annotation[][] parameterAnnotations = signature.getMethod().getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return i;
+                }
+            }
+        }
+        String[] names = signature.getParameterNames();
+        Class<?>[] types = signature.getParameterTypes();
+        for (int i = 0; names != null && i < names.length; i++) {
+            if (FACILITY_ID.equals(names[i]) && types[i] == UUID.class) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private UUID facilityOf(Object value) {
+        if (value == null || value instanceof UUID) {
+            return (UUID) value;
+        }
+        Optional<Method> getter = facilityGetters.computeIfAbsent(value.getClass(), ServiceMetricsAspect::facilityGetterOf);
+        if (getter.isEmpty()) {
+            return null;
+        }
+        try {
+            return (UUID) getter.get().invoke(value);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static Optional<Method> facilityGetterOf(Class<?> type) {
+        try {
+            Method getter = type.getMethod("getFacilityId");
+            return getter.getReturnType() == UUID.class ? Optional.of(getter) : Optional.empty();
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String outcomeOf(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof AccessDeniedException) {
+            return "denied";
+        }
+        if (failure instanceof IllegalArgumentException || failure instanceof PreconditionFailedException) {
+            return "rejected";
+        }
+        return "error";
+    }
+}
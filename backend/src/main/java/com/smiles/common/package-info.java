@@ -11,5 +11,7 @@
  * - Exception handling
  * - Common validators
  * - API response wrappers
+ * - Domain events, the executor for their asynchronous listeners and publication log maintenance
+ * - Service call and Hibernate metrics
  */
 package com.smiles.common;
@@ -0,0 +1,96 @@
+package com.smiles.common.pagination;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * Clients pass {@code nextCursor} back as the {@code cursor} request parameter
+ * to fetch the following page. A null {@code nextCursor} means the listing is exhausted.
+ *
+ * @param <T> the item type
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    /**
+     * Default number of items per page when the client does not ask for one.
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    /**
+     * Upper bound on the number of items per page.
+     */
+    public static final int MAX_LIMIT = 200;
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    /**
+     * Clamp a requested page size to [1, {@link #MAX_LIMIT}].
+     *
+     * @param requested the requested page size, may be null
+     * @return the effective page size
+     */
+    public static int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + requested);
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    /**
+     * Build a page from rows fetched with {@code limit + 1}, so the extra row
+     * only signals that another page exists.
+     *
+     * @param rows the fetched rows, at most {@code limit + 1}
+     * @param limit the effective page size
+     * @param mapper maps a row to the returned item
+     * @param cursorOf builds the cursor from the last returned row
+     * @return the page
+     */
+    public static <E, T> CursorPage<T> of(
+            List<E> rows,
+            int limit,
+            Function<E, T> mapper,
+            Function<E, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+
+        List<T> items = pageRows.stream().map(mapper).toList();
+        String nextCursor = hasMore
+                ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode()
+                : null;
+
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Build a page from items that need no mapping, e.g. rows selected straight into DTOs.
+     *
+     * @param rows the fetched items, at most {@code limit + 1}
+     * @param limit the effective page size
+     * @param cursorOf builds the cursor from the last returned item
+     * @return the page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        return of(rows, limit, Function.identity(), cursorOf);
+    }
+}
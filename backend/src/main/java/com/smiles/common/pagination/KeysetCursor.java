@@ -0,0 +1,54 @@
+package com.smiles.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a keyset page, ordered by (name, id).
+ *
+ * The cursor is handed to clients as an opaque, URL-safe token so the
+ * ordering columns can change without breaking the API contract.
+ *
+ * @param name the name of the last row returned
+ * @param id the id of the last row returned (tie-breaker for equal names)
+ */
+public record KeysetCursor(String name, UUID id) {
+
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * Encode this cursor as an opaque token.
+     *
+     * @return URL-safe Base64 token
+     */
+    public String encode() {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token previously produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor token, may be null or blank
+     * @return the decoded cursor or null if no token was given
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (raw.length() <= UUID_LENGTH || raw.charAt(UUID_LENGTH) != ':') {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            UUID id = UUID.fromString(raw.substring(0, UUID_LENGTH));
+            return new KeysetCursor(raw.substring(UUID_LENGTH + 1), id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
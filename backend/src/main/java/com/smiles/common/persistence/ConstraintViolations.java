@@ -0,0 +1,37 @@
+package com.smiles.common.persistence;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Identifies which schema constraint a failed write violated.
+ *
+ * Lets services rely on unique constraints instead of checking for duplicates
+ * with a query before every write. The constraint is matched by name, ignoring
+ * case and any schema or index decoration the database adds.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Check whether a failed write violated the given constraint.
+     *
+     * @param e the exception thrown by the write
+     * @param constraintName the constraint name as declared in the schema, e.g. {@code uk_staff_email}
+     * @return true if the named constraint was violated
+     */
+    public static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String violated = violation.getConstraintName();
+                return violated != null
+                        && violated.toLowerCase(Locale.ROOT).contains(constraintName.toLowerCase(Locale.ROOT));
+            }
+        }
+        return false;
+    }
+}
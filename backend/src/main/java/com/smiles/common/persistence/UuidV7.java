@@ -0,0 +1,23 @@
+package com.smiles.common.persistence;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity ID that is assigned a time-ordered UUIDv7 on insert.
+ *
+ * Use instead of {@code @GeneratedValue(strategy = GenerationType.UUID)}: random
+ * v4 keys scatter B-tree inserts over the whole primary key index, while v7 keys
+ * are appended near its right edge.
+ *
+ * @see UuidV7Generator
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
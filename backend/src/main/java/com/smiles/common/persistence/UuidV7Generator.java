@@ -0,0 +1,77 @@
+package com.smiles.common.persistence;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates RFC 9562 version 7 UUIDs.
+ *
+ * Layout: 48-bit Unix timestamp in milliseconds, 12-bit sequence, 62 random bits.
+ * The timestamp and sequence are taken from a single counter that never goes
+ * backwards, so IDs generated by this JVM are strictly increasing even within
+ * the same millisecond or across a clock step back. The random bits come from
+ * {@link SecureRandom}, like {@link UUID#randomUUID()}.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int SEQUENCE_BITS = 12;
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    /**
+     * Create a new UUIDv7.
+     * Also used by code that inserts rows without Hibernate, e.g. JDBC batch imports.
+     *
+     * @return a time-ordered UUID
+     */
+    public static UUID randomUuid() {
+        long timestampAndSequence = nextTimestampAndSequence();
+        long randomA = RANDOM.nextLong();
+
+        // 48-bit timestamp | version 7 | 12-bit sequence
+        long msb = (timestampAndSequence >>> SEQUENCE_BITS) << 16
+                | 0x7000L
+                | (timestampAndSequence & 0xFFFL);
+        // variant 0b10 | 62 random bits
+        long lsb = (randomA & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Get the Unix timestamp in milliseconds encoded in a UUIDv7.
+     *
+     * @param uuid a version 7 UUID
+     * @return the embedded timestamp
+     * @throws IllegalArgumentException if the UUID is not version 7
+     */
+    public static long timestampMillis(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static long nextTimestampAndSequence() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        // Same millisecond (or clock moved back): bump the sequence, spilling into the timestamp on overflow
+        return LAST_TIMESTAMP_AND_SEQUENCE.updateAndGet(last -> Math.max(now, last + 1));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return randomUuid();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,104 @@
+package com.smiles.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resolves the facilities a user belongs to.
+ *
+ * Memberships are kept in a bounded in-memory cache with a TTL, so facility
+ * access checks do not hit the database on every request. Writers of
+ * membership data must call {@link #evict(String)} when changing it, which
+ * also drops the cached principals of that user.
+ */
+@Slf4j
+@Component
+public class FacilityMembershipResolver {
+
+    private final FacilityMembershipSource membershipSource;
+    private final SmilesPrincipalCache principalCache;
+    private final Cache<String, Set<UUID>> memberships;
+
+    @Autowired
+    public FacilityMembershipResolver(
+            FacilityMembershipSource membershipSource,
+            SmilesPrincipalCache principalCache,
+            @Value("${smiles.security.facility-membership.cache.max-size:10000}") long maxSize,
+            @Value("${smiles.security.facility-membership.cache.ttl:5m}") Duration ttl) {
+        this(membershipSource, principalCache, maxSize, ttl, Ticker.systemTicker());
+    }
+
+    FacilityMembershipResolver(
+            FacilityMembershipSource membershipSource,
+            SmilesPrincipalCache principalCache,
+            long maxSize,
+            Duration ttl,
+            Ticker ticker) {
+        this.membershipSource = membershipSource;
+        this.principalCache = principalCache;
+        this.memberships = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Get the IDs of the facilities a user belongs to.
+     *
+     * @param keycloakUserId the Keycloak user ID
+     * @return facility IDs, empty if the user is not a member of any facility
+     */
+    public Set<UUID> getFacilityIds(String keycloakUserId) {
+        return memberships.get(keycloakUserId, membershipSource::loadFacilityIds);
+    }
+
+    /**
+     * Check if a user belongs to a facility.
+     *
+     * @param keycloakUserId the Keycloak user ID
+     * @param facilityId the facility ID
+     * @return true if the user belongs to the facility, false otherwise
+     */
+    public boolean isMember(String keycloakUserId, UUID facilityId) {
+        return getFacilityIds(keycloakUserId).contains(facilityId);
+    }
+
+    /**
+     * Drop the cached memberships of a user.
+     * When called inside a transaction the entry is dropped again after commit,
+     * so a concurrent request cannot re-cache the pre-commit state.
+     *
+     * @param keycloakUserId the Keycloak user ID, ignored if null
+     */
+    public void evict(String keycloakUserId) {
+        if (keycloakUserId == null) {
+            return;
+        }
+
+        log.debug("Evicting facility memberships for user: {}", keycloakUserId);
+        memberships.invalidate(keycloakUserId);
+        principalCache.evictSubject(keycloakUserId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    memberships.invalidate(keycloakUserId);
+                    principalCache.evictSubject(keycloakUserId);
+                }
+            });
+        }
+    }
+}
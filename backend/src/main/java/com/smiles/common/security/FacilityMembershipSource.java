@@ -0,0 +1,21 @@
+package com.smiles.common.security;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Source of facility memberships for authenticated users.
+ *
+ * Defined in the common module and implemented by the module that owns the
+ * membership data (staff), so security checks stay free of module cycles.
+ */
+public interface FacilityMembershipSource {
+
+    /**
+     * Load the IDs of the facilities a user belongs to.
+     *
+     * @param keycloakUserId the Keycloak user ID
+     * @return facility IDs, empty if the user is not a member of any facility
+     */
+    Set<UUID> loadFacilityIds(String keycloakUserId);
+}
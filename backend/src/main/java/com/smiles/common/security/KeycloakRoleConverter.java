@@ -1,10 +1,10 @@
 package com.smiles.common.security;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -20,28 +20,18 @@ import org.springframework.security.oauth2.jwt.Jwt;
 public class KeycloakRoleConverter
     implements Converter<Jwt, Collection<GrantedAuthority>> {
 
-    //@Override
-    public Collection<GrantedAuthority> __convert(Jwt jwt) {
-        // Extract realm_access claim
-        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
-
-        if (realmAccess == null || !realmAccess.containsKey("roles")) {
-            return Collections.emptyList();
-        }
-
-        // Extract roles list
-        @SuppressWarnings("unchecked")
-        List<String> roles = (List<String>) realmAccess.get("roles");
-
-        // Convert to GrantedAuthority with ROLE_ prefix
-        return roles
-            .stream()
-            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-            .collect(Collectors.toList());
-    }
-
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
+        return toAuthorities(extractRoles(jwt));
+    }
+
+    /**
+     * Extract the realm role names from a Keycloak JWT.
+     *
+     * @param jwt the JWT token
+     * @return role names, empty if the token carries none
+     */
+    public static List<String> extractRoles(Jwt jwt) {
         // Try to get roles from top-level "roles" claim first
         List<String> roles = jwt.getClaim("roles");
 
@@ -57,15 +47,20 @@ public class KeycloakRoleConverter
             }
         }
 
-        if (roles == null || roles.isEmpty()) {
-            return Collections.emptyList();
-        }
+        return roles != null ? roles : Collections.emptyList();
+    }
 
-        System.out.println("COnVERT");
-        // Convert to GrantedAuthority with ROLE_ prefix
-        return roles
-            .stream()
-            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-            .collect(Collectors.toList());
+    /**
+     * Convert role names to GrantedAuthority with ROLE_ prefix.
+     *
+     * @param roles the role names
+     * @return the granted authorities
+     */
+    public static List<GrantedAuthority> toAuthorities(List<String> roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+        return authorities;
     }
 }
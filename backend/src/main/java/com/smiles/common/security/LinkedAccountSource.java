@@ -0,0 +1,26 @@
+package com.smiles.common.security;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Source of domain records linked to Keycloak users.
+ *
+ * Implemented by the modules owning those records (staff, patients), so the
+ * authenticated principal can carry the linked IDs without module cycles.
+ */
+public interface LinkedAccountSource {
+
+    /**
+     * The kind of record this source resolves.
+     */
+    LinkedAccountType type();
+
+    /**
+     * Find the ID of the record linked to a Keycloak user.
+     *
+     * @param keycloakUserId the Keycloak user ID
+     * @return the linked record ID, if any
+     */
+    Optional<UUID> findLinkedId(String keycloakUserId);
+}
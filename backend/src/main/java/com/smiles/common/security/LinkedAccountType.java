@@ -0,0 +1,9 @@
+package com.smiles.common.security;
+
+/**
+ * Kind of domain record a Keycloak user can be linked to.
+ */
+public enum LinkedAccountType {
+    STAFF,
+    PATIENT
+}
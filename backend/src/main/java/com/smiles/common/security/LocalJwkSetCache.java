@@ -0,0 +1,254 @@
+package com.smiles.common.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory JWK set backed by a local file and refreshed from Keycloak in the background.
+ *
+ * Signature verification reads the in-memory key set, so Keycloak latency and
+ * outages only reach the request path when a token references an unknown key ID:
+ * then one fetch bounded by the timeout runs before the token is rejected, at most
+ * once per minimum refresh interval, and concurrent requests share it. On startup
+ * the last good key set is loaded from the local file, unless the file is not
+ * owned by the service user or others can write it; every successful refresh is
+ * written back to it.
+ */
+@Slf4j
+@Component
+public class LocalJwkSetCache implements JWKSource<SecurityContext> {
+
+    private static final int JWKS_SIZE_LIMIT = 512 * 1024;
+
+    private static final Set<PosixFilePermission> FOREIGN_WRITE =
+            Set.of(PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_WRITE);
+
+    private final String jwkSetUri;
+    private final Path cacheFile;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final Duration timeout;
+    private final boolean remoteEnabled;
+
+    private final AtomicReference<JWKSet> current = new AtomicReference<>(new JWKSet());
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    private volatile Instant lastRefreshAttempt = Instant.EPOCH;
+    private ScheduledExecutorService scheduler;
+
+    public LocalJwkSetCache(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${smiles.security.jwks.cache-file:}") String cacheFile,
+            @Value("${smiles.security.jwks.refresh-interval:10m}") Duration refreshInterval,
+            @Value("${smiles.security.jwks.min-refresh-interval:30s}") Duration minRefreshInterval,
+            @Value("${smiles.security.jwks.timeout:5s}") Duration timeout,
+            @Value("${smiles.security.jwks.remote-enabled:true}") boolean remoteEnabled) {
+        if (cacheFile.isBlank()) {
+            // A shared default such as the temp directory would let other users plant signing keys
+            throw new IllegalStateException("smiles.security.jwks.cache-file must be set to a file in a directory"
+                    + " owned by the service user (the dev profile uses ~/.smiles/jwks.json)");
+        }
+        this.jwkSetUri = jwkSetUri;
+        this.cacheFile = Path.of(cacheFile);
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.timeout = timeout;
+        this.remoteEnabled = remoteEnabled;
+    }
+
+    /**
+     * Load the last good key set from the local file and start background refreshes.
+     * Never blocks startup on Keycloak.
+     */
+    @PostConstruct
+    public void start() {
+        loadFromFile();
+
+        if (!remoteEnabled) {
+            log.info("Remote JWK set refresh disabled, using keys from {} only", cacheFile);
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        List<JWK> matches = jwkSelector.select(current.get());
+        if (matches.isEmpty() && fetchNow()) {
+            // Likely a key rotation we have not seen yet, or a cold start without a cache file
+            matches = jwkSelector.select(current.get());
+        }
+        return matches;
+    }
+
+    /**
+     * Get the key set currently used for verification.
+     *
+     * @return the in-memory key set
+     */
+    public JWKSet getJwkSet() {
+        return current.get();
+    }
+
+    /**
+     * Fetch the key set from Keycloak and, on success, swap it in and persist it.
+     * On failure the last good key set stays in use.
+     */
+    void refresh() {
+        fetchLock.lock();
+        try {
+            lastRefreshAttempt = Instant.now();
+            int timeoutMillis = (int) timeout.toMillis();
+            JWKSet fetched = JWKSet.load(URI.create(jwkSetUri).toURL(), timeoutMillis, timeoutMillis, JWKS_SIZE_LIMIT);
+            if (fetched.getKeys().isEmpty()) {
+                log.warn("JWK set from {} is empty, keeping {} cached keys", jwkSetUri, current.get().size());
+                return;
+            }
+
+            JWKSet previous = current.getAndSet(fetched);
+            if (!previous.toString().equals(fetched.toString())) {
+                log.info("Refreshed JWK set from {} ({} keys)", jwkSetUri, fetched.size());
+                writeToFile(fetched);
+            }
+        } catch (IOException | ParseException | RuntimeException e) {
+            log.warn("Failed to refresh JWK set from {}, keeping {} cached keys: {}",
+                    jwkSetUri, current.get().size(), e.getMessage());
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    /**
+     * Fetch the key set on the calling thread, unless one was fetched within the minimum
+     * refresh interval. A caller arriving during another fetch waits for it instead.
+     *
+     * @return true if the key set was fetched while this call waited
+     */
+    private boolean fetchNow() {
+        if (!remoteEnabled) {
+            return false;
+        }
+        Instant seen = lastRefreshAttempt;
+        try {
+            // A fetch takes at most the connect plus the read timeout
+            if (!fetchLock.tryLock(2 * timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            if (lastRefreshAttempt.isAfter(seen)) {
+                return true;
+            }
+            if (Instant.now().isBefore(lastRefreshAttempt.plus(minRefreshInterval))) {
+                return false;
+            }
+            refresh();
+            return true;
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private void loadFromFile() {
+        if (!Files.isReadable(cacheFile)) {
+            log.info("No cached JWK set at {}", cacheFile);
+            return;
+        }
+
+        try {
+            if (!isTrusted(cacheFile)) {
+                return;
+            }
+            JWKSet cached = JWKSet.parse(Files.readString(cacheFile, StandardCharsets.UTF_8));
+            current.set(cached);
+            log.info("Loaded {} cached JWKs from {}", cached.size(), cacheFile);
+        } catch (IOException | ParseException e) {
+            log.warn("Ignoring unreadable JWK set cache at {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Check that only the service user can have written the file. Skipped on file systems
+     * without POSIX attributes.
+     */
+    private boolean isTrusted(Path file) throws IOException {
+        if (!Files.getFileStore(file).supportsFileAttributeView("posix")) {
+            return true;
+        }
+        PosixFileAttributes attributes =
+                Files.readAttributes(file, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        String serviceUser = System.getProperty("user.name");
+        if (!attributes.isRegularFile() || !attributes.owner().getName().equals(serviceUser)) {
+            log.warn("Ignoring JWK set cache at {}: not a regular file owned by {}", file, serviceUser);
+            return false;
+        }
+        if (attributes.permissions().stream().anyMatch(FOREIGN_WRITE::contains)) {
+            log.warn("Ignoring JWK set cache at {}: writable by group or others ({})",
+                    file, PosixFilePermissions.toString(attributes.permissions()));
+            return false;
+        }
+        return true;
+    }
+
+    private void writeToFile(JWKSet jwkSet) {
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            if (Files.notExists(parent) && parent.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.createDirectories(parent,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            }
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "jwks", ".tmp");
+            Files.writeString(temp, jwkSet.toString(true), StandardCharsets.UTF_8);
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to persist JWK set to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.smiles.common.security;
 
+import com.smiles.common.metrics.Monitored;
+import com.smiles.common.sharding.ShardRouter;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -18,12 +21,11 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class SecurityUtils {
 
-    private final FacilityAccessChecker facilityAccessChecker;
+    private static final String ROLE_PREFIX = "ROLE_";
 
-    @org.springframework.beans.factory.annotation.Value(
-        "${spring.profiles.active:}"
-    )
-    private String activeProfile;
+    private final FacilityMembershipResolver facilityMembershipResolver;
+
+    private final ShardRouter shardRouter;
 
     /**
      * Get the current authenticated user's JWT token.
@@ -44,12 +46,33 @@ public class SecurityUtils {
         return null;
     }
 
+    /**
+     * Get the current authenticated user's resolved principal.
+     *
+     * @return the principal or null if not authenticated with a JWT
+     */
+    public SmilesPrincipal getCurrentPrincipal() {
+        Authentication authentication =
+            SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication instanceof SmilesAuthenticationToken token) {
+            return token.getSmilesPrincipal();
+        }
+
+        return null;
+    }
+
     /**
      * Get the current authenticated user's username.
      *
      * @return the username or null if not authenticated
      */
     public String getCurrentUsername() {
+        SmilesPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.username();
+        }
+
         Jwt jwt = getCurrentUserJwt();
         return jwt != null ? jwt.getClaimAsString("preferred_username") : null;
     }
@@ -60,6 +83,11 @@ public class SecurityUtils {
      * @return the email or null if not authenticated
      */
     public String getCurrentUserEmail() {
+        SmilesPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.email();
+        }
+
         Jwt jwt = getCurrentUserJwt();
         return jwt != null ? jwt.getClaimAsString("email") : null;
     }
@@ -70,6 +98,12 @@ public class SecurityUtils {
      * @return list of roles
      */
     public List<String> getCurrentUserRoles() {
+        SmilesPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.roleNames();
+        }
+
+        // Fall back to granted authorities for non-JWT authentication (e.g., tests)
         Authentication authentication =
             SecurityContextHolder.getContext().getAuthentication();
 
@@ -92,7 +126,29 @@ public class SecurityUtils {
      * @return true if the user has the role, false otherwise
      */
     public boolean hasRole(String role) {
-        return getCurrentUserRoles().contains(role);
+        SmilesPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.hasRole(role);
+        }
+
+        Authentication authentication =
+            SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                String name = authority.getAuthority();
+                if (
+                    name != null &&
+                    name.length() == ROLE_PREFIX.length() + role.length() &&
+                    name.startsWith(ROLE_PREFIX) &&
+                    name.endsWith(role)
+                ) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -101,6 +157,11 @@ public class SecurityUtils {
      * @return the subject or null if not authenticated
      */
     public String getCurrentUserSubject() {
+        SmilesPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.subject();
+        }
+
         Jwt jwt = getCurrentUserJwt();
         if (jwt != null) {
             return jwt.getSubject();
@@ -117,41 +178,69 @@ public class SecurityUtils {
      * Admins have access to all facilities.
      * Other users only have access to their assigned facility.
      *
-     * Note: In test profile, facility access checks are skipped for non-admin users.
+     * With sharding enabled, also rejects facilities the current shard does not own.
      *
      * @param facilityId the facility ID to check access for
      * @throws AccessDeniedException if the user doesn't have access
      */
+    @Monitored
     public void checkFacilityAccess(UUID facilityId) {
-        String keycloakUserId = getCurrentUserSubject();
+        shardRouter.verifyOwnership(facilityId);
+
+        SmilesPrincipal principal = getCurrentPrincipal();
+        String keycloakUserId = principal != null
+            ? principal.subject()
+            : getCurrentUserSubject();
         if (keycloakUserId == null) {
             throw new AccessDeniedException("User not authenticated");
         }
 
         // Admins have access to all facilities
-        if (hasRole("admin")) {
+        if (
+            principal != null
+                ? principal.hasRole(SmilesRole.admin)
+                : hasRole("admin")
+        ) {
             return;
         }
 
-        // Skip facility access checks in test profile (mock users don't have staff records)
-        if ("test".equals(activeProfile)) {
+        // Check if user has access to the specified facility
+        boolean member = principal != null
+            ? principal.isMemberOf(facilityId)
+            : facilityMembershipResolver.isMember(keycloakUserId, facilityId);
+        if (!member) {
             throw new AccessDeniedException(
                 "User does not have access to facility: " + facilityId
             );
         }
+    }
+
+    /**
+     * Get the facilities the current user may access, for queries that apply
+     * the facility access check themselves.
+     *
+     * @return the user's facility IDs, or null if the user is an admin with access to all facilities
+     * @throws AccessDeniedException if the user is not authenticated
+     */
+    public Set<UUID> getAccessibleFacilityIds() {
+        SmilesPrincipal principal = getCurrentPrincipal();
+        String keycloakUserId = principal != null
+            ? principal.subject()
+            : getCurrentUserSubject();
+        if (keycloakUserId == null) {
+            throw new AccessDeniedException("User not authenticated");
+        }
 
-        // Check if user has access to the specified facility
-        /*
         if (
-            !facilityAccessChecker.hasAccessToFacility(
-                keycloakUserId,
-                facilityId
-            )
+            principal != null
+                ? principal.hasRole(SmilesRole.admin)
+                : hasRole("admin")
         ) {
-            throw new AccessDeniedException(
-                "User does not have access to facility: " + facilityId
-            );
+            return null;
         }
-        */
+
+        return principal != null
+            ? principal.facilityIds()
+            : facilityMembershipResolver.getFacilityIds(keycloakUserId);
     }
 }
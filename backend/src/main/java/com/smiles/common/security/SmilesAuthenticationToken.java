@@ -0,0 +1,28 @@
+package com.smiles.common.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JWT authentication carrying the resolved {@link SmilesPrincipal}.
+ * The JWT stays available as the Spring Security principal.
+ */
+public class SmilesAuthenticationToken extends JwtAuthenticationToken {
+
+    private final SmilesPrincipal smilesPrincipal;
+
+    public SmilesAuthenticationToken(
+            Jwt jwt,
+            Collection<? extends GrantedAuthority> authorities,
+            SmilesPrincipal smilesPrincipal) {
+        super(jwt, authorities, smilesPrincipal.subject());
+        this.smilesPrincipal = smilesPrincipal;
+    }
+
+    public SmilesPrincipal getSmilesPrincipal() {
+        return smilesPrincipal;
+    }
+}
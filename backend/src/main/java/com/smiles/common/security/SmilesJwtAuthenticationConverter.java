@@ -0,0 +1,89 @@
+package com.smiles.common.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Converts a validated Keycloak JWT into a {@link SmilesAuthenticationToken}.
+ *
+ * The principal (roles, linked staff/patient IDs, facility memberships) is
+ * resolved on the first request of a token and reused by token ID until the
+ * token expires.
+ */
+@Slf4j
+@Component
+public class SmilesJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final SmilesPrincipalCache principalCache;
+    private final FacilityMembershipResolver facilityMembershipResolver;
+    private final List<LinkedAccountSource> linkedAccountSources;
+
+    public SmilesJwtAuthenticationConverter(
+            SmilesPrincipalCache principalCache,
+            FacilityMembershipResolver facilityMembershipResolver,
+            List<LinkedAccountSource> linkedAccountSources) {
+        this.principalCache = principalCache;
+        this.facilityMembershipResolver = facilityMembershipResolver;
+        this.linkedAccountSources = linkedAccountSources;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        String tokenId = jwt.getId();
+        SmilesPrincipalCache.Entry entry = tokenId != null
+                ? principalCache.get(tokenId, id -> resolve(jwt))
+                : resolve(jwt);
+
+        return new SmilesAuthenticationToken(jwt, entry.authorities(), entry.principal());
+    }
+
+    private SmilesPrincipalCache.Entry resolve(Jwt jwt) {
+        String subject = jwt.getSubject();
+        log.debug("Resolving principal for user: {}", subject);
+
+        List<String> roleNames = List.copyOf(KeycloakRoleConverter.extractRoles(jwt));
+        Set<SmilesRole> roles = EnumSet.noneOf(SmilesRole.class);
+        for (String roleName : roleNames) {
+            SmilesRole role = SmilesRole.fromName(roleName);
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+
+        UUID staffId = null;
+        UUID patientId = null;
+        for (LinkedAccountSource source : linkedAccountSources) {
+            UUID linkedId = source.findLinkedId(subject).orElse(null);
+            if (source.type() == LinkedAccountType.STAFF) {
+                staffId = linkedId;
+            } else if (source.type() == LinkedAccountType.PATIENT) {
+                patientId = linkedId;
+            }
+        }
+
+        SmilesPrincipal principal = new SmilesPrincipal(
+                subject,
+                jwt.getClaimAsString("preferred_username"),
+                jwt.getClaimAsString("email"),
+                Collections.unmodifiableSet(roles),
+                roleNames,
+                staffId,
+                patientId,
+                facilityMembershipResolver.getFacilityIds(subject),
+                jwt.getExpiresAt());
+
+        return new SmilesPrincipalCache.Entry(
+                principal,
+                List.<GrantedAuthority>copyOf(KeycloakRoleConverter.toAuthorities(roleNames)));
+    }
+}
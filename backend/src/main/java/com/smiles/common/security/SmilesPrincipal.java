@@ -0,0 +1,65 @@
+package com.smiles.common.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Authenticated user resolved once per access token.
+ *
+ * Built by {@link SmilesJwtAuthenticationConverter} and cached by token ID,
+ * so request-time checks read precomputed values instead of re-parsing claims.
+ *
+ * @param subject the Keycloak subject (user ID)
+ * @param username the preferred username
+ * @param email the email address
+ * @param roles the application roles held by the user
+ * @param roleNames all realm role names, in token order
+ * @param staffId the linked staff record ID, or null
+ * @param patientId the linked patient record ID, or null
+ * @param facilityIds the facilities the user belongs to
+ * @param expiresAt the token expiry, or null if the token does not expire
+ */
+public record SmilesPrincipal(
+        String subject,
+        String username,
+        String email,
+        Set<SmilesRole> roles,
+        List<String> roleNames,
+        UUID staffId,
+        UUID patientId,
+        Set<UUID> facilityIds,
+        Instant expiresAt) {
+
+    /**
+     * Check if the user holds an application role.
+     *
+     * @param role the role to check
+     * @return true if the user has the role, false otherwise
+     */
+    public boolean hasRole(SmilesRole role) {
+        return roles.contains(role);
+    }
+
+    /**
+     * Check if the user holds a realm role by name.
+     *
+     * @param role the role name to check
+     * @return true if the user has the role, false otherwise
+     */
+    public boolean hasRole(String role) {
+        SmilesRole smilesRole = SmilesRole.fromName(role);
+        return smilesRole != null ? roles.contains(smilesRole) : roleNames.contains(role);
+    }
+
+    /**
+     * Check if the user belongs to a facility.
+     *
+     * @param facilityId the facility ID
+     * @return true if the user belongs to the facility, false otherwise
+     */
+    public boolean isMemberOf(UUID facilityId) {
+        return facilityIds.contains(facilityId);
+    }
+}
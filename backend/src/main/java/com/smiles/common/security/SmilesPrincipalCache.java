@@ -0,0 +1,131 @@
+package com.smiles.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of resolved principals keyed by token ID ({@code jti}).
+ *
+ * Each entry lives until its token expires, capped by a configurable
+ * maximum lifetime for tokens without an expiry. Token IDs are also indexed by
+ * subject, so evicting a user touches only that user's entries.
+ */
+@Slf4j
+@Component
+public class SmilesPrincipalCache {
+
+    /**
+     * A resolved principal together with its granted authorities.
+     */
+    public record Entry(SmilesPrincipal principal, List<GrantedAuthority> authorities) {
+    }
+
+    private final Cache<String, Entry> entries;
+    private final Map<String, Set<String>> tokenIdsBySubject = new ConcurrentHashMap<>();
+
+    public SmilesPrincipalCache(
+            @Value("${smiles.security.principal-cache.max-size:50000}") long maxSize,
+            @Value("${smiles.security.principal-cache.max-ttl:1h}") Duration maxTtl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String tokenId, Entry entry, long currentTime) {
+                        return remainingLifetime(entry.principal().expiresAt(), maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenId, Entry entry, long currentTime, long currentDuration) {
+                        return remainingLifetime(entry.principal().expiresAt(), maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenId, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // Unindex on the removing thread, so the index never lags the cache
+                .executor(Runnable::run)
+                .removalListener((String tokenId, Entry entry, RemovalCause cause) -> {
+                    if (tokenId != null && entry != null && cause != RemovalCause.REPLACED) {
+                        unindex(entry.principal().subject(), tokenId);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Get the entry for a token, resolving it on first use.
+     *
+     * @param tokenId the token ID
+     * @param resolver resolves the entry when it is not cached
+     * @return the cached or freshly resolved entry
+     */
+    public Entry get(String tokenId, Function<String, Entry> resolver) {
+        return entries.get(tokenId, id -> {
+            Entry entry = resolver.apply(id);
+            index(entry.principal().subject(), id);
+            return entry;
+        });
+    }
+
+    /**
+     * Drop all cached entries of a subject, e.g. after its memberships changed.
+     *
+     * @param subject the Keycloak subject, ignored if null
+     */
+    public void evictSubject(String subject) {
+        if (subject != null) {
+            log.debug("Evicting cached principals for user: {}", subject);
+            Set<String> tokenIds = tokenIdsBySubject.remove(subject);
+            if (tokenIds != null) {
+                entries.invalidateAll(tokenIds);
+            }
+        }
+    }
+
+    private void index(String subject, String tokenId) {
+        if (subject == null) {
+            return;
+        }
+        // Sets are only changed inside compute, which locks the subject's mapping
+        tokenIdsBySubject.compute(subject, (key, tokenIds) -> {
+            Set<String> updated = tokenIds != null ? tokenIds : new HashSet<>();
+            updated.add(tokenId);
+            return updated;
+        });
+    }
+
+    private void unindex(String subject, String tokenId) {
+        if (subject == null) {
+            return;
+        }
+        tokenIdsBySubject.computeIfPresent(subject, (key, tokenIds) -> {
+            tokenIds.remove(tokenId);
+            return tokenIds.isEmpty() ? null : tokenIds;
+        });
+    }
+
+    private static long remainingLifetime(Instant expiresAt, Duration maxTtl) {
+        if (expiresAt == null) {
+            return maxTtl.toNanos();
+        }
+        long remaining = Duration.between(Instant.now(), expiresAt).toNanos();
+        return Math.max(0, Math.min(remaining, maxTtl.toNanos()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.smiles.common.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application roles granted through Keycloak realm roles.
+ * Constants are named after the Keycloak role names.
+ */
+public enum SmilesRole {
+    /**
+     * Administrator with access to all facilities.
+     */
+    admin,
+
+    /**
+     * Dentist working at a facility.
+     */
+    dentist,
+
+    /**
+     * Dental assistant working at a facility.
+     */
+    assistant,
+
+    /**
+     * Receptionist handling front desk operations.
+     */
+    receptionist,
+
+    /**
+     * Generic staff member.
+     */
+    staff,
+
+    /**
+     * Patient with portal access.
+     */
+    patient;
+
+    private static final Map<String, SmilesRole> BY_NAME = new HashMap<>();
+
+    static {
+        for (SmilesRole role : values()) {
+            BY_NAME.put(role.name(), role);
+        }
+    }
+
+    /**
+     * Look up a role by its Keycloak role name.
+     *
+     * @param name the role name
+     * @return the role or null if the name is not an application role
+     */
+    public static SmilesRole fromName(String name) {
+        return BY_NAME.get(name);
+    }
+}
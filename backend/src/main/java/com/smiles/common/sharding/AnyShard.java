@@ -0,0 +1,30 @@
+package com.smiles.common.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method addressed by an entity ID rather than a facility.
+ *
+ * Reads are run on every shard in parallel and the shard owning the record
+ * answers: the first call that returns a value, or completes for {@code void}
+ * methods, wins. Calls that hit a copy of a facility the shard does not own are
+ * rejected by {@link ShardRouter#verifyOwnership}. Writes name the entity's
+ * {@link #table()} instead, and run only on the shard found by
+ * {@link ShardRouter#ownerOf}, so one write is one transaction. Has no effect
+ * when sharding is disabled or when the caller already runs on a shard.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AnyShard {
+
+    /**
+     * Table holding the entity whose ID is the method's first argument, for writes.
+     * Empty for reads, which probe every shard.
+     */
+    String table() default "";
+}
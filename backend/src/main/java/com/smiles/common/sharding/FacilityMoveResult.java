@@ -0,0 +1,23 @@
+package com.smiles.common.sharding;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Outcome of moving a facility between shards.
+ *
+ * @param facilityId the moved facility
+ * @param sourceShard the shard the facility was moved from
+ * @param targetShard the shard that now owns the facility
+ * @param copiedRows rows copied while the facility stayed writable
+ * @param catchUpRows rows re-copied or deleted while the facility was frozen
+ * @param frozenFor how long calls against the facility were rejected
+ */
+public record FacilityMoveResult(
+        UUID facilityId,
+        String sourceShard,
+        String targetShard,
+        long copiedRows,
+        long catchUpRows,
+        Duration frozenFor) {
+}
@@ -0,0 +1,10 @@
+package com.smiles.common.sharding;
+
+/**
+ * State of a background facility move.
+ */
+public enum FacilityMoveState {
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,32 @@
+package com.smiles.common.sharding;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of the latest move of a facility between shards.
+ *
+ * @param facilityId the facility being moved
+ * @param sourceShard the shard the facility is moved from
+ * @param targetShard the shard the facility is moved to
+ * @param state whether the move is running, succeeded or failed
+ * @param copiedRows rows copied while the facility stayed writable, once succeeded
+ * @param catchUpRows rows re-copied or deleted while the facility was frozen, once succeeded
+ * @param frozenFor how long calls against the facility were rejected, once succeeded
+ * @param error why the move failed
+ * @param startedAt when the move started
+ * @param finishedAt when the move succeeded or failed
+ */
+public record FacilityMoveStatus(
+        UUID facilityId,
+        String sourceShard,
+        String targetShard,
+        FacilityMoveState state,
+        Long copiedRows,
+        Long catchUpRows,
+        Duration frozenFor,
+        String error,
+        Instant startedAt,
+        Instant finishedAt) {
+}
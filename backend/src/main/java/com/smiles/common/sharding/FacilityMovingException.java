@@ -0,0 +1,18 @@
+package com.smiles.common.sharding;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Thrown for calls against a facility that is frozen for the final phase of a shard move.
+ * Clients should retry after a short delay.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class FacilityMovingException extends RuntimeException {
+
+    public FacilityMovingException(UUID facilityId) {
+        super("Facility is being moved to another shard: " + facilityId);
+    }
+}
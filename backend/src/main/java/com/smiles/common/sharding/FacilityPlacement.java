@@ -0,0 +1,10 @@
+package com.smiles.common.sharding;
+
+/**
+ * Shard directory entry of a facility.
+ *
+ * @param shard the owning shard
+ * @param frozen whether the facility is frozen for the final phase of a move
+ */
+public record FacilityPlacement(String shard, boolean frozen) {
+}
@@ -0,0 +1,357 @@
+package com.smiles.common.sharding;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves a facility and all its data to another shard while it stays online.
+ *
+ * <ol>
+ *   <li>Bulk copy: all rows are upserted into the target while the facility keeps serving
+ *       reads and writes on the source.</li>
+ *   <li>Freeze: the directory marks the facility frozen and the mover waits for every
+ *       node's directory cache to expire, after which calls are rejected with 503.</li>
+ *   <li>Drain: the mover takes the facility's advisory lock exclusively on the source,
+ *       which waits for transactions that passed the ownership check before the freeze
+ *       (see {@link ShardRouter#verifyOwnership}) and blocks any that arrive later.</li>
+ *   <li>Catch-up: rows updated since shortly before the bulk copy are copied again
+ *       and rows deleted on the source are deleted on the target.</li>
+ *   <li>Flip: the directory assigns the facility to the target and unfreezes it;
+ *       the lock is released and the source copy deleted. Writers that waited for
+ *       the lock see the new owner and are rejected.</li>
+ * </ol>
+ *
+ * A failure before the flip unfreezes the facility and drops the partial copy.
+ * Moves started with {@link #start} run in the background and record their progress
+ * in the {@code facility_move} table of the default shard.
+ * Tables holding facility data must be listed in {@link #TABLES}, parents first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "smiles.sharding.enabled", havingValue = "true")
+public class FacilityShardMover {
+
+    private record MovedTable(String name, String facilityColumn, String conflictColumns) {
+    }
+
+    private static final List<MovedTable> TABLES = List.of(
+            new MovedTable("facility", "id", "id"),
+            new MovedTable("room", "facility_id", "id"),
+            new MovedTable("staff", "facility_id", "id"),
+            new MovedTable("patient", "facility_id", "id, facility_id"),
+            // Blocking keys and the dedup watermark are not moved; the target rescans the facility
+            new MovedTable("patient_duplicate", "facility_id", "id"),
+            new MovedTable("patient_archive", "facility_id", "id"));
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO facility_move (facility_id, source_shard, target_shard, state, started_at)
+            VALUES (?, ?, ?, 'RUNNING', CURRENT_TIMESTAMP)
+            ON CONFLICT (facility_id) DO UPDATE
+            SET source_shard = EXCLUDED.source_shard, target_shard = EXCLUDED.target_shard,
+                state = 'RUNNING', copied_rows = NULL, catch_up_rows = NULL, frozen_ms = NULL,
+                error = NULL, started_at = EXCLUDED.started_at, finished_at = NULL
+            WHERE facility_move.state <> 'RUNNING'
+            """;
+
+    private final ShardDirectory directory;
+    private final ShardDataSources shardDataSources;
+    private final JdbcTemplate moveJdbc;
+    private final int batchSize;
+    private final Duration catchUpMargin;
+    private final Duration drainTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public FacilityShardMover(
+            ShardDirectory directory,
+            ShardDataSources shardDataSources,
+            @Value("${smiles.sharding.move.batch-size:1000}") int batchSize,
+            @Value("${smiles.sharding.move.catch-up-margin:5m}") Duration catchUpMargin,
+            @Value("${smiles.sharding.move.drain-timeout:30s}") Duration drainTimeout) {
+        this.directory = directory;
+        this.shardDataSources = shardDataSources;
+        this.moveJdbc = new JdbcTemplate(shardDataSources.get(directory.defaultShard()));
+        this.batchSize = batchSize;
+        this.catchUpMargin = catchUpMargin;
+        this.drainTimeout = drainTimeout;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start moving a facility to another shard in the background.
+     *
+     * @param facilityId the facility ID
+     * @param targetShard the shard to move to
+     * @return the status of the started move
+     * @throws IllegalArgumentException if the move cannot start or one is already running
+     */
+    public FacilityMoveStatus start(UUID facilityId, String targetShard) {
+        String sourceShard = validate(facilityId, targetShard);
+        if (moveJdbc.update(CLAIM_SQL, facilityId, sourceShard, targetShard) == 0) {
+            throw new IllegalArgumentException("Facility is already being moved: " + facilityId);
+        }
+
+        executor.submit(() -> {
+            try {
+                FacilityMoveResult result = move(facilityId, targetShard);
+                moveJdbc.update("""
+                        UPDATE facility_move
+                        SET state = 'SUCCEEDED', copied_rows = ?, catch_up_rows = ?, frozen_ms = ?,
+                            finished_at = CURRENT_TIMESTAMP
+                        WHERE facility_id = ?
+                        """, result.copiedRows(), result.catchUpRows(), result.frozenFor().toMillis(), facilityId);
+            } catch (RuntimeException e) {
+                moveJdbc.update("""
+                        UPDATE facility_move
+                        SET state = 'FAILED', error = ?, finished_at = CURRENT_TIMESTAMP
+                        WHERE facility_id = ?
+                        """, String.valueOf(e.getMessage()), facilityId);
+            }
+        });
+        return status(facilityId).orElseThrow();
+    }
+
+    /**
+     * Get the status of the latest move of a facility.
+     *
+     * @param facilityId the facility ID
+     * @return the status, or empty if the facility was never moved
+     */
+    public Optional<FacilityMoveStatus> status(UUID facilityId) {
+        return moveJdbc.query("SELECT * FROM facility_move WHERE facility_id = ?", (rs, rowNum) -> {
+            Long frozenMs = rs.getObject("frozen_ms", Long.class);
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            return new FacilityMoveStatus(
+                    rs.getObject("facility_id", UUID.class),
+                    rs.getString("source_shard"),
+                    rs.getString("target_shard"),
+                    FacilityMoveState.valueOf(rs.getString("state")),
+                    rs.getObject("copied_rows", Long.class),
+                    rs.getObject("catch_up_rows", Long.class),
+                    frozenMs != null ? Duration.ofMillis(frozenMs) : null,
+                    rs.getString("error"),
+                    rs.getTimestamp("started_at").toInstant(),
+                    finishedAt != null ? finishedAt.toInstant() : null);
+        }, facilityId).stream().findFirst();
+    }
+
+    /**
+     * Move a facility to another shard, returning when the move is done.
+     *
+     * @param facilityId the facility ID
+     * @param targetShard the shard to move to
+     * @return the outcome of the move
+     */
+    public FacilityMoveResult move(UUID facilityId, String targetShard) {
+        String sourceShard = validate(facilityId, targetShard);
+        DataSource source = shardDataSources.get(sourceShard);
+        DataSource target = shardDataSources.get(targetShard);
+        JdbcTemplate sourceJdbc = new JdbcTemplate(source);
+        JdbcTemplate targetJdbc = new JdbcTemplate(target);
+
+        log.info("Moving facility {} from shard {} to shard {}", facilityId, sourceShard, targetShard);
+        Timestamp since = Timestamp.from(
+                sourceJdbc.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).toInstant()
+                        .minus(catchUpMargin));
+
+        Instant frozenAt = null;
+        boolean flipped = false;
+        long copied = 0;
+        long caughtUp = 0;
+        try {
+            for (MovedTable table : TABLES) {
+                copied += copy(source, targetJdbc, table, facilityId, null);
+            }
+
+            directory.setFrozen(facilityId, true);
+            frozenAt = Instant.now();
+            awaitDirectoryCaches();
+
+            // The advisory lock is session-scoped, so it needs one connection from lock to unlock
+            try (Connection connection = source.getConnection()) {
+                JdbcTemplate lockJdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                drainWriters(lockJdbc, facilityId);
+                try {
+                    for (MovedTable table : TABLES) {
+                        caughtUp += copy(source, targetJdbc, table, facilityId, since);
+                    }
+                    for (MovedTable table : TABLES.reversed()) {
+                        caughtUp += deleteRemoved(sourceJdbc, targetJdbc, table, facilityId);
+                    }
+
+                    directory.assign(facilityId, targetShard);
+                    flipped = true;
+                } finally {
+                    lockJdbc.query("SELECT pg_advisory_unlock(?)", rs -> null, ShardRouter.facilityLockKey(facilityId));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to get a connection to shard " + sourceShard, e);
+            }
+        } catch (RuntimeException e) {
+            if (flipped) {
+                log.error("Moved facility {} to shard {} but failed to release shard {}",
+                        facilityId, targetShard, sourceShard, e);
+                throw e;
+            }
+            log.error("Moving facility {} to shard {} failed; keeping it on shard {}",
+                    facilityId, targetShard, sourceShard, e);
+            targetJdbc.update("DELETE FROM facility WHERE id = ?", facilityId);
+            if (frozenAt != null) {
+                directory.setFrozen(facilityId, false);
+            }
+            throw e;
+        }
+        Duration frozenFor = Duration.between(frozenAt, Instant.now());
+
+        // Rooms, staff and patients follow through ON DELETE CASCADE
+        sourceJdbc.update("DELETE FROM facility WHERE id = ?", facilityId);
+        log.info("Moved facility {} to shard {}: {} rows copied, {} caught up, frozen for {}",
+                facilityId, targetShard, copied, caughtUp, frozenFor);
+
+        return new FacilityMoveResult(facilityId, sourceShard, targetShard, copied, caughtUp, frozenFor);
+    }
+
+    private String validate(UUID facilityId, String targetShard) {
+        FacilityPlacement placement = directory.placementOf(facilityId);
+        String sourceShard = placement.shard();
+        if (placement.frozen()) {
+            throw new IllegalArgumentException("Facility is already being moved: " + facilityId);
+        }
+        if (sourceShard.equals(targetShard)) {
+            throw new IllegalArgumentException("Facility " + facilityId + " is already on shard " + targetShard);
+        }
+        if (!directory.shards().contains(targetShard)) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+
+        Integer exists = new JdbcTemplate(shardDataSources.get(sourceShard)).queryForObject(
+                "SELECT COUNT(*) FROM facility WHERE id = ?", Integer.class, facilityId);
+        if (exists == null || exists == 0) {
+            throw new IllegalArgumentException("Facility not found with id: " + facilityId);
+        }
+        return sourceShard;
+    }
+
+    /**
+     * Take the facility's advisory lock exclusively, waiting for writers that hold it shared.
+     * Gives up after the drain timeout, so a stuck transaction fails the move instead of
+     * keeping the facility frozen.
+     */
+    private void drainWriters(JdbcTemplate lockJdbc, UUID facilityId) {
+        lockJdbc.execute("SET lock_timeout = " + drainTimeout.toMillis());
+        try {
+            lockJdbc.query("SELECT pg_advisory_lock(?)", rs -> null, ShardRouter.facilityLockKey(facilityId));
+        } finally {
+            lockJdbc.execute("RESET lock_timeout");
+        }
+    }
+
+    private long copy(DataSource source, JdbcTemplate target, MovedTable table, UUID facilityId, Timestamp since) {
+        String sql = "SELECT * FROM " + table.name() + " WHERE " + table.facilityColumn() + " = ?"
+                + (since != null ? " AND updated_at >= ?" : "");
+        Object[] args = since != null ? new Object[] {facilityId, since} : new Object[] {facilityId};
+
+        JdbcTemplate reader = new JdbcTemplate(source);
+        reader.setFetchSize(batchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(source));
+        transactionTemplate.setReadOnly(true);
+
+        // A cursor needs a transaction; rows are upserted into the target batch by batch
+        Long rows = transactionTemplate.execute(status -> reader.query(sql, (ResultSet rs) -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            String upsert = upsertSql(table, metaData);
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            long count = 0;
+            while (rs.next()) {
+                batch.add(row(rs, metaData.getColumnCount()));
+                if (batch.size() == batchSize) {
+                    target.batchUpdate(upsert, batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                target.batchUpdate(upsert, batch);
+                count += batch.size();
+            }
+            return count;
+        }, args));
+        return rows != null ? rows : 0;
+    }
+
+    private long deleteRemoved(JdbcTemplate source, JdbcTemplate target, MovedTable table, UUID facilityId) {
+        String idSql = "SELECT id FROM " + table.name() + " WHERE " + table.facilityColumn() + " = ?";
+        Set<UUID> sourceIds = new HashSet<>(source.queryForList(idSql, UUID.class, facilityId));
+        List<Object[]> removed = target.queryForList(idSql, UUID.class, facilityId).stream()
+                .filter(id -> !sourceIds.contains(id))
+                .map(id -> new Object[] {facilityId, id})
+                .toList();
+        if (!removed.isEmpty()) {
+            target.batchUpdate("DELETE FROM " + table.name() + " WHERE "
+                    + table.facilityColumn() + " = ? AND id = ?", removed);
+        }
+        return removed.size();
+    }
+
+    private void awaitDirectoryCaches() {
+        try {
+            Thread.sleep(directory.cacheTtl().toMillis() + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while freezing facility", e);
+        }
+    }
+
+    private static String upsertSql(MovedTable table, ResultSetMetaData metaData) throws SQLException {
+        Set<String> conflictColumns = Set.of(table.conflictColumns().split(",\\s*"));
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        StringJoiner updates = new StringJoiner(", ");
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String column = metaData.getColumnName(i);
+            columns.add(column);
+            values.add("?");
+            if (!conflictColumns.contains(column)) {
+                updates.add(column + " = EXCLUDED." + column);
+            }
+        }
+        return "INSERT INTO " + table.name() + " (" + columns + ") VALUES (" + values + ")"
+                + " ON CONFLICT (" + table.conflictColumns() + ") DO UPDATE SET " + updates;
+    }
+
+    private static Object[] row(ResultSet rs, int columns) throws SQLException {
+        Object[] values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,50 @@
+package com.smiles.common.sharding;
+
+/**
+ * Holds the shard the current thread works against.
+ *
+ * Set by {@link ShardRoutingAspect} and {@link ShardRouter} around service calls
+ * and read by {@link ShardRoutingDataSource} when a connection is fetched.
+ * A thread without a shard uses the default shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Get the shard of the current thread.
+     *
+     * @return the shard name, or null if none is set
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the shard of the current thread.
+     *
+     * @param shard the shard name, or null to clear it
+     * @return the previously set shard, to be passed to {@link #restore}
+     */
+    public static String enter(String shard) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    /**
+     * Restore the shard that was set before {@link #enter}.
+     *
+     * @param previous the previous shard, or null
+     */
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
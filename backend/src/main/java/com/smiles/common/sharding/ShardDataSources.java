@@ -0,0 +1,39 @@
+package com.smiles.common.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Connection pools of all shards by name, default shard first.
+ *
+ * @param byName the data sources by shard name
+ * @param defaultShard the shard holding the directory
+ */
+public record ShardDataSources(Map<String, DataSource> byName, String defaultShard) implements AutoCloseable {
+
+    /**
+     * Get the pool of a shard.
+     *
+     * @param shard the shard name
+     * @return the data source
+     */
+    public DataSource get(String shard) {
+        DataSource dataSource = byName.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        // The default shard's pool is a bean of its own and closed by the container
+        byName.forEach((name, dataSource) -> {
+            if (!name.equals(defaultShard) && dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+}
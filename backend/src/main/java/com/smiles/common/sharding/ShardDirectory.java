@@ -0,0 +1,125 @@
+package com.smiles.common.sharding;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps facilities to the shard that owns their data.
+ *
+ * Entries live in the {@code facility_shard} table of the default shard and are
+ * cached per node for {@code smiles.sharding.directory.cache-ttl}; changes made
+ * on another node become visible after that delay. Facilities without an entry
+ * belong to the default shard.
+ */
+@Slf4j
+public class ShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> shards;
+    private final String defaultShard;
+    private final Duration cacheTtl;
+    private final LoadingCache<UUID, FacilityPlacement> placements;
+
+    public ShardDirectory(JdbcTemplate jdbcTemplate, List<String> shards, String defaultShard, Duration cacheTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = List.copyOf(shards);
+        this.defaultShard = defaultShard;
+        this.cacheTtl = cacheTtl;
+        this.placements = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheTtl)
+                .build(this::load);
+    }
+
+    /**
+     * Get the configured shard names, default shard first.
+     */
+    public List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * Get the shard that holds the directory and unassigned facilities.
+     */
+    public String defaultShard() {
+        return defaultShard;
+    }
+
+    /**
+     * Get how long other nodes may keep serving a stale entry.
+     */
+    public Duration cacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * Get the placement of a facility.
+     *
+     * @param facilityId the facility ID
+     * @return the placement, on the default shard if unassigned
+     */
+    public FacilityPlacement placementOf(UUID facilityId) {
+        return placements.get(facilityId);
+    }
+
+    /**
+     * Assign a facility to a shard and unfreeze it.
+     *
+     * @param facilityId the facility ID
+     * @param shard the owning shard
+     */
+    public void assign(UUID facilityId, String shard) {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        jdbcTemplate.update("""
+                INSERT INTO facility_shard (facility_id, shard, frozen, updated_at)
+                VALUES (?, ?, FALSE, CURRENT_TIMESTAMP)
+                ON CONFLICT (facility_id) DO UPDATE
+                SET shard = EXCLUDED.shard, frozen = FALSE, updated_at = CURRENT_TIMESTAMP
+                """, facilityId, shard);
+        placements.invalidate(facilityId);
+        log.info("Assigned facility {} to shard {}", facilityId, shard);
+    }
+
+    /**
+     * Freeze or unfreeze a facility on its current shard.
+     *
+     * @param facilityId the facility ID
+     * @param frozen whether calls against the facility are rejected
+     */
+    public void setFrozen(UUID facilityId, boolean frozen) {
+        String shard = placementOf(facilityId).shard();
+        jdbcTemplate.update("""
+                INSERT INTO facility_shard (facility_id, shard, frozen, updated_at)
+                VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+                ON CONFLICT (facility_id) DO UPDATE
+                SET frozen = EXCLUDED.frozen, updated_at = CURRENT_TIMESTAMP
+                """, facilityId, shard, frozen);
+        placements.invalidate(facilityId);
+    }
+
+    /**
+     * Remove the entry of a deleted facility.
+     *
+     * @param facilityId the facility ID
+     */
+    public void remove(UUID facilityId) {
+        jdbcTemplate.update("DELETE FROM facility_shard WHERE facility_id = ?", facilityId);
+        placements.invalidate(facilityId);
+    }
+
+    private FacilityPlacement load(UUID facilityId) {
+        List<FacilityPlacement> rows = jdbcTemplate.query(
+                "SELECT shard, frozen FROM facility_shard WHERE facility_id = ?",
+                (rs, rowNum) -> new FacilityPlacement(rs.getString(1), rs.getBoolean(2)),
+                facilityId);
+        return rows.isEmpty() ? new FacilityPlacement(defaultShard, false) : rows.get(0);
+    }
+}
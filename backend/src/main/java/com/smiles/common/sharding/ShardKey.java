@@ -0,0 +1,20 @@
+package com.smiles.common.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the service method parameter that identifies the facility whose shard serves the call.
+ *
+ * The parameter is either the facility ID itself or a request object exposing
+ * {@code getFacilityId()}. The call, including its transaction, runs on the
+ * facility's owning shard. Has no effect when sharding is disabled.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
@@ -0,0 +1,333 @@
+package com.smiles.common.sharding;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs work on the shard that owns a facility, or on all shards at once.
+ *
+ * Without a {@link ShardDirectory} (sharding disabled) every method runs its
+ * work inline on the single data source, so callers need no special casing.
+ * Fan-out work runs on virtual threads with the caller's security context;
+ * each shard call gets its own transaction.
+ *
+ * Read-write transactions hold a shared advisory lock on each facility they
+ * verify until they end; {@link FacilityShardMover} takes it exclusively to wait
+ * for those writers before its final catch-up.
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    /**
+     * Name of the only shard when sharding is disabled.
+     */
+    public static final String SINGLE_SHARD = "default";
+
+    private final ShardDirectory directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService executor;
+
+    @Autowired
+    public ShardRouter(ObjectProvider<ShardDirectory> directory, ObjectProvider<DataSource> dataSource) {
+        this.directory = directory.getIfAvailable();
+        this.jdbcTemplate = this.directory != null ? new JdbcTemplate(dataSource.getObject()) : null;
+        this.executor = this.directory != null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    /**
+     * Router without writer locks or row lookups, for tests and benchmarks.
+     *
+     * @param directory the shard directory, if sharding is enabled
+     */
+    public ShardRouter(ObjectProvider<ShardDirectory> directory) {
+        this.directory = directory.getIfAvailable();
+        this.jdbcTemplate = null;
+        this.executor = this.directory != null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    /**
+     * Advisory lock key of a facility, shared by writers and {@link FacilityShardMover}.
+     *
+     * @param facilityId the facility ID
+     * @return the lock key
+     */
+    public static long facilityLockKey(UUID facilityId) {
+        return facilityId.getMostSignificantBits() ^ facilityId.getLeastSignificantBits();
+    }
+
+    /**
+     * Whether more than the single default data source is in use.
+     */
+    public boolean isSharded() {
+        return directory != null;
+    }
+
+    /**
+     * Get the shard owning a facility.
+     *
+     * @param facilityId the facility ID
+     * @return the shard name
+     * @throws FacilityMovingException if the facility is frozen for a move
+     */
+    public String shardOf(UUID facilityId) {
+        FacilityPlacement placement = directory.placementOf(facilityId);
+        if (placement.frozen()) {
+            throw new FacilityMovingException(facilityId);
+        }
+        return placement.shard();
+    }
+
+    /**
+     * Check that the current shard owns a facility before its data is used.
+     * Called from the facility access check, so every facility-scoped service path is covered.
+     * In a read-write transaction the facility's writer lock is then taken and the check
+     * repeated, so a move that finished while this call waited for the lock is noticed.
+     *
+     * @param facilityId the facility ID
+     * @throws FacilityMovingException if the facility is frozen for a move
+     */
+    public void verifyOwnership(UUID facilityId) {
+        if (directory == null) {
+            return;
+        }
+        checkOwner(facilityId);
+        if (lockForWrite(facilityId)) {
+            checkOwner(facilityId);
+        }
+    }
+
+    /**
+     * Register a newly created facility with the shard it was created on.
+     *
+     * @param facilityId the facility ID
+     */
+    public void registerFacility(UUID facilityId) {
+        if (directory != null) {
+            String current = ShardContext.current();
+            directory.assign(facilityId, current != null ? current : directory.defaultShard());
+        }
+    }
+
+    /**
+     * Drop the directory entry of a deleted facility.
+     *
+     * @param facilityId the facility ID
+     */
+    public void unregisterFacility(UUID facilityId) {
+        if (directory != null) {
+            directory.remove(facilityId);
+        }
+    }
+
+    /**
+     * Run work on a given shard.
+     *
+     * @param shard the shard name
+     * @param work the work
+     * @return the work's result
+     */
+    public <T> T inShard(String shard, Supplier<T> work) {
+        String previous = ShardContext.enter(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * Run work on every shard in parallel.
+     *
+     * @param work the work, run once per shard
+     * @return the results by shard name
+     */
+    public <T> Map<String, T> onAllShards(Supplier<T> work) {
+        if (directory == null) {
+            return Map.of(SINGLE_SHARD, work.get());
+        }
+
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String shard : directory.shards()) {
+            futures.put(shard, executor.submit(task(shard, work::get)));
+        }
+
+        Map<String, T> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), await(entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Scatter a query to every shard and gather the rows of the facilities each shard owns.
+     * Rows of a facility copied to another shard by an in-progress move are returned once.
+     *
+     * @param query the query, run once per shard
+     * @param facilityOf extracts the facility ID of a row
+     * @return the gathered rows, in shard order
+     */
+    public <T> List<T> gatherOwned(Supplier<List<T>> query, Function<T, UUID> facilityOf) {
+        if (directory == null) {
+            return query.get();
+        }
+
+        List<T> gathered = new ArrayList<>();
+        onAllShards(query).forEach((shard, rows) -> {
+            for (T row : rows) {
+                if (shard.equals(directory.placementOf(facilityOf.apply(row)).shard())) {
+                    gathered.add(row);
+                }
+            }
+        });
+        return gathered;
+    }
+
+    /**
+     * Find the shard owning a row by ID, so a write to it runs in one transaction on one shard.
+     * The row's facility is looked up on every shard in parallel, outside any transaction and
+     * without locks. Copies on a shard that does not own the facility, as during a move, are
+     * ignored. A row found nowhere resolves to the default shard, where the write reports it missing.
+     *
+     * @param table the table holding the row, with {@code id} and {@code facility_id} columns
+     * @param id the row ID
+     * @return the owning shard name
+     * @throws FacilityMovingException if the row's facility is frozen for a move
+     */
+    public String ownerOf(String table, UUID id) {
+        return ownerOf(() -> jdbcTemplate.queryForList(
+                "SELECT facility_id FROM " + table + " WHERE id = ?", UUID.class, id));
+    }
+
+    String ownerOf(Supplier<List<UUID>> facilitiesOfRow) {
+        for (Map.Entry<String, List<UUID>> found : onAllShards(facilitiesOfRow).entrySet()) {
+            for (UUID facilityId : found.getValue()) {
+                if (found.getKey().equals(shardOf(facilityId))) {
+                    return found.getKey();
+                }
+            }
+        }
+        return directory.defaultShard();
+    }
+
+    /**
+     * Run a call on every shard in parallel and return the first hit.
+     * A hit is a non-null, non-empty result, or normal completion of a {@code void} call.
+     * If no shard hits, the most relevant failure is rethrown: anything other than
+     * a not-found {@link IllegalArgumentException} wins; wrong-shard rejections are ignored.
+     *
+     * @param call the call, run once per shard
+     * @param voidResult whether the call returns nothing
+     * @return the first hit, or the miss value if every shard missed
+     */
+    public Object probe(Callable<Object> call, boolean voidResult) throws Throwable {
+        List<String> shards = directory.shards();
+        CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        for (String shard : shards) {
+            completion.submit(task(shard, call));
+        }
+
+        Object miss = null;
+        Throwable failure = null;
+        for (int i = 0; i < shards.size(); i++) {
+            try {
+                Object result = completion.take().get();
+                if (voidResult || isHit(result)) {
+                    return result;
+                }
+                miss = result;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof WrongShardException) {
+                    continue;
+                }
+                if (failure == null || failure instanceof IllegalArgumentException) {
+                    failure = cause;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return miss;
+    }
+
+    private void checkOwner(UUID facilityId) {
+        String owner = shardOf(facilityId);
+        String current = ShardContext.current();
+        if (current != null && !current.equals(owner)) {
+            throw new WrongShardException(facilityId, current);
+        }
+    }
+
+    private boolean lockForWrite(UUID facilityId) {
+        if (jdbcTemplate == null
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        // Held until the transaction ends; blocks while a mover holds the lock exclusively
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?)", rs -> null, facilityLockKey(facilityId));
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> Callable<T> task(String shard, Callable<T> work) {
+        return new DelegatingSecurityContextCallable<>(() -> {
+            String previous = ShardContext.enter(shard);
+            try {
+                return work.call();
+            } finally {
+                ShardContext.restore(previous);
+            }
+        });
+    }
+
+    private static boolean isHit(Object result) {
+        return result != null && !(result instanceof Optional<?> optional && optional.isEmpty());
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Shard call failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.smiles.common.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+/**
+ * Routes service calls to shards based on {@link ShardKey} and {@link AnyShard}.
+ *
+ * Runs before the transaction interceptor, so the transaction and all its
+ * statements use the selected shard. Only {@link com.smiles.common.metrics.ServiceMetricsAspect}
+ * runs before it, so a probed call is measured once.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    @Around("within(com.smiles..*) && execution(* *(.., @com.smiles.common.sharding.ShardKey (*), ..))")
+    public Object routeByFacility(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return joinPoint.proceed();
+        }
+
+        UUID facilityId = facilityIdOf(joinPoint);
+        if (facilityId == null) {
+            return joinPoint.proceed();
+        }
+
+        String previous = ShardContext.enter(shardRouter.shardOf(facilityId));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    @Around("within(com.smiles..*) && @annotation(com.smiles.common.sharding.AnyShard)")
+    public Object routeById(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!shardRouter.isSharded() || ShardContext.current() != null) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String table = method.getAnnotation(AnyShard.class).table();
+        if (!table.isEmpty()) {
+            // A write: locate the owner read-only, then write there alone
+            String previous = ShardContext.enter(shardRouter.ownerOf(table, (UUID) joinPoint.getArgs()[0]));
+            try {
+                return joinPoint.proceed();
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+
+        return shardRouter.probe(() -> {
+            try {
+                return joinPoint.proceed();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }, method.getReturnType() == void.class);
+    }
+
+    private static UUID facilityIdOf(ProceedingJoinPoint joinPoint) throws ReflectiveOperationException {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return toFacilityId(args[i]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static UUID toFacilityId(Object arg) throws ReflectiveOperationException {
+        if (arg == null || arg instanceof UUID) {
+            return (UUID) arg;
+        }
+        return (UUID) arg.getClass().getMethod("getFacilityId").invoke(arg);
+    }
+}
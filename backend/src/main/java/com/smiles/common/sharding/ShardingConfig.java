@@ -0,0 +1,110 @@
+package com.smiles.common.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facility-sharded data sources, enabled with {@code smiles.sharding.enabled}.
+ *
+ * The default shard keeps the {@code spring.datasource.*} settings and also holds
+ * the shard directory; every other shard is configured under
+ * {@code smiles.sharding.shards.<name>.url/username/password}. Flyway migrates
+ * all shards. When disabled, Spring Boot's single data source is used unchanged.
+ * Cannot be combined with {@code smiles.datasource.replica.enabled}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "smiles.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource defaultShardDataSource(
+            DataSourceProperties properties,
+            @Value("${smiles.sharding.default-shard:shard1}") String defaultShard,
+            @Value("${smiles.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        if (replicaEnabled) {
+            throw new IllegalStateException("Sharding cannot be combined with read replica routing");
+        }
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("smiles-" + defaultShard);
+        return dataSource;
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(
+            @Qualifier("defaultShardDataSource") DataSource defaultShardDataSource,
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${smiles.sharding.default-shard:shard1}") String defaultShard,
+            @Value("${smiles.sharding.pool-size:10}") int poolSize) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(defaultShard, defaultShardDataSource);
+
+        Map<String, DataSourceProperties> configured = Binder.get(environment)
+                .bind("smiles.sharding.shards", Bindable.mapOf(String.class, DataSourceProperties.class))
+                .orElse(Map.of());
+        configured.forEach((name, shard) -> {
+            if (name.equals(defaultShard)) {
+                return;
+            }
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("smiles-" + name);
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername() != null ? shard.getUsername() : properties.getUsername());
+            dataSource.setPassword(shard.getPassword() != null ? shard.getPassword() : properties.getPassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            shards.put(name, dataSource);
+        });
+        return new ShardDataSources(shards, defaultShard);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(
+            @Qualifier("defaultShardDataSource") DataSource defaultShardDataSource,
+            ShardDataSources shardDataSources,
+            @Value("${smiles.sharding.directory.cache-ttl:5s}") Duration cacheTtl) {
+        return new ShardDirectory(new JdbcTemplate(defaultShardDataSource),
+                List.copyOf(shardDataSources.byName().keySet()), shardDataSources.defaultShard(), cacheTtl);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        // Defer fetching the physical connection until the shard of the call is known
+        return new LazyConnectionDataSourceProxy(
+                new ShardRoutingDataSource(shardDataSources.byName(), shardDataSources.defaultShard()));
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> shardDataSources.byName().values().forEach(dataSource ->
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(dataSource)
+                        .load()
+                        .migrate());
+    }
+}
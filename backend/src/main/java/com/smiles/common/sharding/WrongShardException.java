@@ -0,0 +1,14 @@
+package com.smiles.common.sharding;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a shard touches a facility it does not own, e.g. a copy left
+ * behind or made by an in-progress shard move. Treated as a miss when probing.
+ */
+class WrongShardException extends RuntimeException {
+
+    WrongShardException(UUID facilityId, String shard) {
+        super("Facility " + facilityId + " is not owned by shard " + shard);
+    }
+}
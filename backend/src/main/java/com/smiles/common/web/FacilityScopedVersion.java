@@ -0,0 +1,24 @@
+package com.smiles.common.web;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Version and update timestamp of a facility-scoped entity, loaded without hydrating the entity.
+ * Used to answer conditional requests after checking facility access.
+ *
+ * @param facilityId the owning facility
+ * @param version the entity's optimistic lock version
+ * @param updatedAt the entity's update timestamp
+ */
+public record FacilityScopedVersion(UUID facilityId, Long version, Instant updatedAt) {
+
+    /**
+     * The entity's version for ETag and Last-Modified headers.
+     *
+     * @return the resource version
+     */
+    public ResourceVersion resourceVersion() {
+        return ResourceVersion.of(version, updatedAt);
+    }
+}
@@ -0,0 +1,49 @@
+package com.smiles.common.web;
+
+/**
+ * Optimistic concurrency checks against the {@code If-Match} request header.
+ *
+ * The strong ETag of a single entity is its {@code @Version} value, see {@link ResourceVersion#of(long, java.time.Instant)}.
+ */
+public final class IfMatch {
+
+    private IfMatch() {
+    }
+
+    /**
+     * Parse the entity version a client expects from an {@code If-Match} header.
+     *
+     * @param header the header value, or null if absent
+     * @return the expected version, or null if the header is absent or {@code *}
+     * @throws PreconditionFailedException if the header cannot match any entity version
+     */
+    public static Long expectedVersion(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String tag = header.trim();
+        // Weak tags never match under the strong comparison If-Match requires
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + header);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + header);
+        }
+    }
+
+    /**
+     * Check that an entity is still at the version the client expects.
+     *
+     * @param expected the expected version, or null to skip the check
+     * @param current the entity's current version
+     * @throws PreconditionFailedException if the versions differ
+     */
+    public static void check(Long expected, Long current) {
+        if (expected != null && !expected.equals(current)) {
+            throw new PreconditionFailedException(
+                    "Resource was modified: expected version " + expected + " but found " + current);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.smiles.common.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7386) to update DTOs.
+ *
+ * The current state of an entity is mapped to its update DTO, the patch is merged into it,
+ * and the result is validated. Members set to {@code null} in the patch are removed, so
+ * required fields are checked with the {@link Merged} validation group.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonMergePatch {
+
+    /**
+     * Media type of JSON Merge Patch request bodies.
+     */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    /**
+     * Validation group for constraints that only apply to a fully merged DTO, e.g. required fields.
+     */
+    public interface Merged {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Merge a patch into the current state.
+     *
+     * @param patch the merge patch; must be a JSON object
+     * @param current the current state as an update DTO
+     * @param <T> the update DTO type
+     * @return a new DTO holding the merged state
+     * @throws IllegalArgumentException if the patch is malformed or the merged state is invalid
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T apply(JsonNode patch, T current) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+
+        JsonNode merged = merge(objectMapper.valueToTree(current), patch);
+        T result;
+        try {
+            result = objectMapper.treeToValue(merged, (Class<T>) current.getClass());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid merge patch: " + e.getOriginalMessage());
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(result, Default.class, Merged.class);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return result;
+    }
+
+    /**
+     * The MergePatch algorithm of RFC 7386, section 2.
+     */
+    static JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : JsonNodeFactory.instance.objectNode();
+        patch.fields().forEachRemaining(member -> {
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), merge(result.get(member.getKey()), member.getValue()));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package com.smiles.common.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an {@code If-Match} precondition does not hold, or when another writer
+ * changed the entity between reading and writing it. Clients should re-read and retry.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,135 @@
+package com.smiles.common.web;
+
+import com.smiles.common.pagination.CursorPage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Version of a resource or collection, used for ETag and Last-Modified headers.
+ *
+ * For a single entity the ETag is its {@code @Version} counter, so clients can send
+ * it back in {@code If-Match}; for a collection it is the latest {@code updated_at}
+ * together with the row count, so that deletions also change the ETag. For one page
+ * of a listing it is a digest of the page's IDs, versions and next cursor.
+ *
+ * @param lastModified the latest modification time, or null for an empty collection
+ * @param count the number of rows covered by this version
+ * @param entityVersion the optimistic lock version of a single entity, or null for a collection
+ * @param pageDigest the hex digest of a listing page, or null for anything else
+ */
+public record ResourceVersion(Instant lastModified, long count, Long entityVersion, String pageDigest) {
+
+    /**
+     * Version of a collection.
+     *
+     * @param lastModified the latest modification time, or null for an empty collection
+     * @param count the number of rows covered by this version
+     */
+    public ResourceVersion(Instant lastModified, long count) {
+        this(lastModified, count, null, null);
+    }
+
+    /**
+     * Version of a single entity.
+     *
+     * @param version the entity's optimistic lock version
+     * @param updatedAt the entity's update timestamp
+     * @return the version
+     */
+    public static ResourceVersion of(long version, Instant updatedAt) {
+        return new ResourceVersion(updatedAt, 1, version, null);
+    }
+
+    /**
+     * Version of one page of a keyset-paginated listing, derived from the rows already
+     * loaded for it. Any insert, update or delete that changes what the page shows
+     * changes an ID, a version or the next cursor, so the cost is bounded by the page
+     * size rather than the size of the facility.
+     *
+     * A deletion need not move any remaining timestamp forward, so the page version has
+     * no Last-Modified; callers check it with the ETag alone.
+     *
+     * @param page the page
+     * @param idOf the item's ID
+     * @param versionOf the item's optimistic lock version
+     * @return the page version
+     */
+    public static <T> ResourceVersion ofPage(CursorPage<T> page, Function<T, UUID> idOf, Function<T, Long> versionOf) {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES);
+
+        for (T item : page.getItems()) {
+            UUID id = idOf.apply(item);
+            Long version = versionOf.apply(item);
+            buffer.clear();
+            buffer.putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .putLong(version != null ? version : -1);
+            digest.update(buffer.array());
+        }
+        if (page.getNextCursor() != null) {
+            digest.update(page.getNextCursor().getBytes(StandardCharsets.UTF_8));
+        }
+
+        String hex = HexFormat.of().formatHex(Arrays.copyOf(digest.digest(), 16));
+        return new ResourceVersion(null, page.getItems().size(), null, hex);
+    }
+
+    /**
+     * Combine the versions of disjoint parts of a collection, e.g. one per shard.
+     *
+     * @param other the version of the other part
+     * @return the latest modification time and the total row count
+     */
+    public ResourceVersion merge(ResourceVersion other) {
+        Instant latest = lastModified == null ? other.lastModified
+                : other.lastModified == null || lastModified.isAfter(other.lastModified) ? lastModified
+                : other.lastModified;
+        return new ResourceVersion(latest, count + other.count);
+    }
+
+    /**
+     * Strong ETag value derived from the version.
+     *
+     * @return the quoted ETag
+     */
+    public String etag() {
+        if (entityVersion != null) {
+            return "\"" + entityVersion + "\"";
+        }
+        if (pageDigest != null) {
+            return "\"p-" + pageDigest + "\"";
+        }
+        if (lastModified == null) {
+            return "\"0-" + Long.toHexString(count) + "\"";
+        }
+        return "\"" + Long.toHexString(lastModified.getEpochSecond())
+                + "." + Integer.toHexString(lastModified.getNano())
+                + "-" + Long.toHexString(count) + "\"";
+    }
+
+    /**
+     * Last-Modified value in milliseconds.
+     *
+     * @return epoch milliseconds, or -1 if unknown
+     */
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.smiles.facilities.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.facilities.dto.CreateFacilityRequest;
 import com.smiles.facilities.dto.FacilityDto;
 import com.smiles.facilities.dto.UpdateFacilityRequest;
@@ -7,10 +11,12 @@ import com.smiles.facilities.service.FacilityService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -31,8 +37,12 @@ public class FacilityController {
      */
     @GetMapping
     @PreAuthorize("hasRole('admin')")
-    public ResponseEntity<List<FacilityDto>> getAllFacilities() {
+    public ResponseEntity<List<FacilityDto>> getAllFacilities(WebRequest webRequest) {
         log.debug("GET /facilities - Get all facilities");
+        ResourceVersion version = facilityService.getFacilitiesVersion();
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
         List<FacilityDto> facilities = facilityService.getAllFacilities();
         return ResponseEntity.ok(facilities);
     }
@@ -41,8 +51,12 @@ public class FacilityController {
      * Get facility by ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<FacilityDto> getFacilityById(@PathVariable UUID id) {
+    public ResponseEntity<FacilityDto> getFacilityById(@PathVariable UUID id, WebRequest webRequest) {
         log.debug("GET /facilities/{} - Get facility by ID", id);
+        ResourceVersion version = facilityService.getFacilityVersion(id);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
         FacilityDto facility = facilityService.getFacilityById(id);
         return ResponseEntity.ok(facility);
     }
@@ -71,6 +85,23 @@ public class FacilityController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Partially update a facility (admin only) with a JSON Merge Patch.
+     * An {@code If-Match} header holding the ETag from a previous read guards against lost updates.
+     */
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<FacilityDto> patchFacility(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.debug("PATCH /facilities/{} - Patch facility", id);
+        FacilityDto patched = facilityService.patchFacility(id, patch, IfMatch.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ResourceVersion.of(patched.getVersion(), patched.getUpdatedAt()).etag())
+                .body(patched);
+    }
+
     /**
      * Delete a facility (admin only).
      */
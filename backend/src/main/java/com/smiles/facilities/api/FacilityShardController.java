@@ -0,0 +1,58 @@
+package com.smiles.facilities.api;
+
+import com.smiles.common.sharding.FacilityMoveStatus;
+import com.smiles.common.sharding.FacilityShardMover;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * REST controller for moving facilities between shards (admin only).
+ * Only registered when sharding is enabled.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/facilities")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "smiles.sharding.enabled", havingValue = "true")
+public class FacilityShardController {
+
+    private final FacilityShardMover facilityShardMover;
+
+    /**
+     * Start moving a facility and all its data to another shard while it stays online.
+     * The move runs in the background; poll its status at {@code GET /facilities/{id}/shard/move}.
+     * The facility is briefly frozen (503) during the final catch-up.
+     */
+    @PostMapping("/{id}/shard")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<FacilityMoveStatus> moveFacility(
+            @PathVariable UUID id,
+            @RequestParam String target) {
+        log.debug("POST /facilities/{}/shard - Move facility to shard {}", id, target);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(facilityShardMover.start(id, target));
+    }
+
+    /**
+     * Get the status of a facility's latest shard move.
+     */
+    @GetMapping("/{id}/shard/move")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<FacilityMoveStatus> getMoveStatus(@PathVariable UUID id) {
+        log.debug("GET /facilities/{}/shard/move - Get shard move status", id);
+        return facilityShardMover.status(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -1,8 +1,13 @@
 package com.smiles.facilities.domain;
 
+import com.smiles.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
@@ -12,7 +17,13 @@ import java.util.UUID;
  * Facility entity representing a dental clinic/facility.
  */
 @Entity
-@Table(name = "facility")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(
+    name = "facility",
+    uniqueConstraints = @UniqueConstraint(name = "uk_facility_name", columnNames = "name")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,10 +32,10 @@ import java.util.UUID;
 public class Facility {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
     @Column(nullable = false, length = 100)
@@ -40,4 +51,9 @@ public class Facility {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -22,4 +22,6 @@ public class FacilityDto {
     private String address;
     private Instant createdAt;
     private Instant updatedAt;
+
+    private Long version;
 }
@@ -1,5 +1,7 @@
 package com.smiles.facilities.dto;
 
+import com.smiles.common.web.JsonMergePatch;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,12 +17,15 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UpdateFacilityRequest {
 
+    @NotBlank(message = "Facility name is required", groups = JsonMergePatch.Merged.class)
     @Size(max = 255, message = "Name cannot exceed 255 characters")
     private String name;
 
+    @NotBlank(message = "City is required", groups = JsonMergePatch.Merged.class)
     @Size(max = 100, message = "City cannot exceed 100 characters")
     private String city;
 
+    @NotBlank(message = "Address is required", groups = JsonMergePatch.Merged.class)
     @Size(max = 500, message = "Address cannot exceed 500 characters")
     private String address;
 }
@@ -18,4 +18,14 @@ public interface FacilityMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromDto(UpdateFacilityRequest request, @MappingTarget Facility facility);
+
+    /**
+     * Current state as an update DTO, the target of a JSON Merge Patch.
+     */
+    UpdateFacilityRequest toUpdateRequest(Facility facility);
+
+    /**
+     * Copy a merged update DTO onto the entity, including fields the patch removed.
+     */
+    void patchEntity(UpdateFacilityRequest request, @MappingTarget Facility facility);
 }
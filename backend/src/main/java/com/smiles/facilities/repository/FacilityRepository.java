@@ -1,9 +1,17 @@
 package com.smiles.facilities.repository;
 
+import com.smiles.common.web.FacilityScopedVersion;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.facilities.domain.Facility;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,13 +21,28 @@ import java.util.UUID;
 @Repository
 public interface FacilityRepository extends JpaRepository<Facility, UUID> {
 
+    /**
+     * Find all facilities, served from the query cache.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Facility> findAll();
+
     /**
      * Find facility by name.
      */
     Optional<Facility> findByName(String name);
 
     /**
-     * Check if facility exists by name.
+     * Find the version and update timestamp of a facility without loading the entity.
+     */
+    @Query("SELECT new com.smiles.common.web.FacilityScopedVersion(f.id, f.version, f.updatedAt) FROM Facility f WHERE f.id = :id")
+    Optional<FacilityScopedVersion> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Find the latest update timestamp and row count of all facilities.
      */
-    boolean existsByName(String name);
+    @Query("SELECT new com.smiles.common.web.ResourceVersion(MAX(f.updatedAt), COUNT(f)) FROM Facility f")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    ResourceVersion findVersion();
 }
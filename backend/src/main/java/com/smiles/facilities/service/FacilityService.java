@@ -1,5 +1,18 @@
 package com.smiles.facilities.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.events.EntityChangeType;
+import com.smiles.common.events.FacilityChangedEvent;
+import com.smiles.common.events.FacilityReferenceDataChangedEvent;
+import com.smiles.common.metrics.Monitored;
+import com.smiles.common.persistence.ConstraintViolations;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.common.sharding.ShardRouter;
+import com.smiles.common.web.FacilityScopedVersion;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.PreconditionFailedException;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.facilities.domain.Facility;
 import com.smiles.facilities.dto.CreateFacilityRequest;
 import com.smiles.facilities.dto.FacilityDto;
@@ -8,6 +21,9 @@ import com.smiles.facilities.mapper.FacilityMapper;
 import com.smiles.facilities.repository.FacilityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +34,7 @@ import java.util.UUID;
  * Service for managing facilities.
  */
 @Service
+@Monitored
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
@@ -25,27 +42,50 @@ public class FacilityService {
 
     private final FacilityRepository facilityRepository;
     private final FacilityMapper facilityMapper;
+    private final JsonMergePatch jsonMergePatch;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
 
     /**
-     * Get all facilities.
+     * Get all facilities, gathered from all shards in parallel.
      */
     public List<FacilityDto> getAllFacilities() {
         log.debug("Getting all facilities");
-        return facilityRepository.findAll().stream()
-                .map(facilityMapper::toDto)
-                .toList();
+        return shardRouter.gatherOwned(
+                () -> facilityRepository.findAll().stream()
+                        .map(facilityMapper::toDto)
+                        .toList(),
+                FacilityDto::getId);
     }
 
     /**
      * Get facility by ID.
      */
-    public FacilityDto getFacilityById(UUID id) {
+    public FacilityDto getFacilityById(@ShardKey UUID id) {
         log.debug("Getting facility by id: {}", id);
         Facility facility = facilityRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Facility not found with id: " + id));
         return facilityMapper.toDto(facility);
     }
 
+    /**
+     * Get the version of all facilities for conditional requests, without loading them.
+     */
+    public ResourceVersion getFacilitiesVersion() {
+        return shardRouter.onAllShards(facilityRepository::findVersion).values().stream()
+                .reduce(ResourceVersion::merge)
+                .orElseThrow();
+    }
+
+    /**
+     * Get the version of a facility for conditional requests, without loading it.
+     */
+    public ResourceVersion getFacilityVersion(@ShardKey UUID id) {
+        return facilityRepository.findVersionById(id)
+                .map(FacilityScopedVersion::resourceVersion)
+                .orElseThrow(() -> new IllegalArgumentException("Facility not found with id: " + id));
+    }
+
     /**
      * Create a new facility.
      */
@@ -53,12 +93,10 @@ public class FacilityService {
     public FacilityDto createFacility(CreateFacilityRequest request) {
         log.debug("Creating facility: {}", request.getName());
 
-        if (facilityRepository.existsByName(request.getName())) {
-            throw new IllegalArgumentException("Facility already exists with name: " + request.getName());
-        }
-
         Facility facility = facilityMapper.toEntity(request);
-        Facility savedFacility = facilityRepository.save(facility);
+        Facility savedFacility = saveAndFlush(facility, request.getName());
+        shardRouter.registerFacility(savedFacility.getId());
+        eventPublisher.publishEvent(new FacilityChangedEvent(savedFacility.getId(), EntityChangeType.CREATED));
         log.info("Created facility: {} with id: {}", savedFacility.getName(), savedFacility.getId());
 
         return facilityMapper.toDto(savedFacility);
@@ -68,38 +106,82 @@ public class FacilityService {
      * Update an existing facility.
      */
     @Transactional
-    public FacilityDto updateFacility(UUID id, UpdateFacilityRequest request) {
+    public FacilityDto updateFacility(@ShardKey UUID id, UpdateFacilityRequest request) {
         log.debug("Updating facility with id: {}", id);
 
         Facility facility = facilityRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Facility not found with id: " + id));
 
-        // Check if name is being changed and if it conflicts
-        if (request.getName() != null && !request.getName().equals(facility.getName())) {
-            if (facilityRepository.existsByName(request.getName())) {
-                throw new IllegalArgumentException("Facility already exists with name: " + request.getName());
-            }
-        }
-
         facilityMapper.updateEntityFromDto(request, facility);
-        Facility updatedFacility = facilityRepository.save(facility);
+        Facility updatedFacility = saveAndFlush(facility, facility.getName());
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(id));
+        eventPublisher.publishEvent(new FacilityChangedEvent(id, EntityChangeType.UPDATED));
         log.info("Updated facility with id: {}", id);
 
         return facilityMapper.toDto(updatedFacility);
     }
 
+    /**
+     * Apply a JSON Merge Patch to a facility, writing only the changed columns.
+     *
+     * @param id the facility ID
+     * @param patch the merge patch
+     * @param expectedVersion the version from {@code If-Match}, or null to skip the precondition
+     * @return the patched facility
+     */
+    @Transactional
+    public FacilityDto patchFacility(@ShardKey UUID id, JsonNode patch, Long expectedVersion) {
+        log.debug("Patching facility with id: {}", id);
+
+        Facility facility = facilityRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Facility not found with id: " + id));
+        IfMatch.check(expectedVersion, facility.getVersion());
+
+        UpdateFacilityRequest current = facilityMapper.toUpdateRequest(facility);
+        UpdateFacilityRequest merged = jsonMergePatch.apply(patch, current);
+        if (merged.equals(current)) {
+            return facilityMapper.toDto(facility);
+        }
+
+        facilityMapper.patchEntity(merged, facility);
+        Facility patchedFacility = saveAndFlush(facility, facility.getName());
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(id));
+        eventPublisher.publishEvent(new FacilityChangedEvent(id, EntityChangeType.UPDATED));
+        log.info("Patched facility with id: {}", id);
+
+        return facilityMapper.toDto(patchedFacility);
+    }
+
     /**
      * Delete a facility.
      */
     @Transactional
-    public void deleteFacility(UUID id) {
+    public void deleteFacility(@ShardKey UUID id) {
         log.debug("Deleting facility with id: {}", id);
 
-        if (!facilityRepository.existsById(id)) {
-            throw new IllegalArgumentException("Facility not found with id: " + id);
-        }
+        Facility facility = facilityRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Facility not found with id: " + id));
 
-        facilityRepository.deleteById(id);
+        facilityRepository.delete(facility);
+        shardRouter.unregisterFacility(id);
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(id));
+        eventPublisher.publishEvent(new FacilityChangedEvent(id, EntityChangeType.DELETED));
         log.info("Deleted facility with id: {}", id);
     }
+
+    /**
+     * Write a facility, relying on the unique constraint to reject duplicate names.
+     */
+    private Facility saveAndFlush(Facility facility, String name) {
+        try {
+            return facilityRepository.saveAndFlush(facility);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, "uk_facility_name")) {
+                throw new IllegalArgumentException("Facility already exists with name: " + name);
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Facility was modified concurrently: " + facility.getId());
+        }
+    }
 }
@@ -1,17 +1,36 @@
 package com.smiles.patients.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.batch.BatchGetRequest;
+import com.smiles.common.batch.BatchGetResult;
+import com.smiles.common.export.ExportFormat;
+import com.smiles.common.export.ExportResponses;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.patients.dto.CreatePatientRequest;
 import com.smiles.patients.dto.PatientDto;
+import com.smiles.patients.dto.PatientImportResult;
 import com.smiles.patients.dto.UpdatePatientRequest;
+import com.smiles.patients.service.InvalidImportHeaderException;
+import com.smiles.patients.service.PatientImportService;
+import com.smiles.patients.service.PatientSearchService;
 import com.smiles.patients.service.PatientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,24 +43,79 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PatientController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final PatientSearchService patientSearchService;
 
     /**
-     * Get all patients for a facility.
+     * Get a page of patients for a facility, ordered by name.
      */
     @GetMapping
-    public ResponseEntity<List<PatientDto>> getPatientsByFacility(@RequestParam UUID facilityId) {
+    public ResponseEntity<CursorPage<PatientDto>> getPatientsByFacility(
+            @RequestParam UUID facilityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean active,
+            WebRequest webRequest) {
         log.debug("GET /patients?facilityId={} - Get patients by facility", facilityId);
-        List<PatientDto> patients = patientService.getPatientsByFacility(facilityId);
+        CursorPage<PatientDto> patients = patientService.getPatientsByFacility(facilityId, cursor, limit, active);
+        ResourceVersion version = ResourceVersion.ofPage(patients, PatientDto::getId, PatientDto::getVersion);
+        if (webRequest.checkNotModified(version.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok(patients);
+    }
+
+    /**
+     * Get many patients by ID in one call.
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResult<PatientDto>> getPatientsByIds(@Valid @RequestBody BatchGetRequest request) {
+        log.debug("POST /patients/batch-get - Get {} patients by ID", request.getIds().size());
+        BatchGetResult<PatientDto> result = patientService.getPatientsByIds(request.getIds());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Search a facility's patients by name, phone, email or birth date, best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientDto>> searchPatients(
+            @RequestParam UUID facilityId,
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("GET /patients/search?facilityId={} - Search patients", facilityId);
+        List<PatientDto> patients = patientSearchService.searchPatients(facilityId, q, limit);
         return ResponseEntity.ok(patients);
     }
 
+    /**
+     * Export all patients of a facility as a stream (NDJSON or CSV, optionally gzipped).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @RequestParam UUID facilityId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("GET /patients/export?facilityId={} - Export patients as {}", facilityId, format);
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        StreamingResponseBody body = patientService.exportPatients(facilityId, exportFormat, gzip);
+        return ExportResponses.of("patients-" + facilityId, exportFormat, gzip, body);
+    }
+
     /**
      * Get patient by ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDto> getPatientById(@PathVariable UUID id) {
+    public ResponseEntity<PatientDto> getPatientById(@PathVariable UUID id, WebRequest webRequest) {
         log.debug("GET /patients/{} - Get patient by ID", id);
+        ResourceVersion version = patientService.getPatientVersion(id);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
         PatientDto patient = patientService.getPatientById(id);
         return ResponseEntity.ok(patient);
     }
@@ -67,17 +141,69 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Bulk import patients into a facility from an NDJSON or CSV stream (admin only).
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<PatientImportResult> importPatients(
+            @RequestParam UUID facilityId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        log.debug("POST /patients/import?facilityId={} - Import patients ({})", facilityId, contentType);
+        PatientImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? PatientImportService.Format.CSV
+                : PatientImportService.Format.NDJSON;
+        PatientImportResult result = patientImportService.importPatients(facilityId, body, format);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Reject an import whose CSV header cannot be mapped, listing every problem as a line 1 error.
+     */
+    @ExceptionHandler(InvalidImportHeaderException.class)
+    public ResponseEntity<PatientImportResult> handleInvalidImportHeader(InvalidImportHeaderException e) {
+        List<PatientImportResult.RowError> errors = e.getProblems().stream()
+                .map(problem -> new PatientImportResult.RowError(1, problem))
+                .toList();
+        return ResponseEntity.badRequest().body(PatientImportResult.builder()
+                .facilityId(e.getFacilityId())
+                .errors(errors)
+                .build());
+    }
+
     /**
      * Update an existing patient (admin and receptionist).
+     * An {@code If-Match} header holding the ETag from a previous read guards against lost updates.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('admin', 'receptionist')")
     public ResponseEntity<PatientDto> updatePatient(
             @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdatePatientRequest request) {
         log.debug("PUT /patients/{} - Update patient", id);
-        PatientDto updated = patientService.updatePatient(id, request);
-        return ResponseEntity.ok(updated);
+        PatientDto updated = patientService.updatePatient(id, request, IfMatch.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ResourceVersion.of(updated.getVersion(), updated.getUpdatedAt()).etag())
+                .body(updated);
+    }
+
+    /**
+     * Partially update a patient (admin and receptionist) with a JSON Merge Patch.
+     * An {@code If-Match} header holding the ETag from a previous read guards against lost updates.
+     */
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @PreAuthorize("hasAnyRole('admin', 'receptionist')")
+    public ResponseEntity<PatientDto> patchPatient(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.debug("PATCH /patients/{} - Patch patient", id);
+        PatientDto patched = patientService.patchPatient(id, patch, IfMatch.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ResourceVersion.of(patched.getVersion(), patched.getUpdatedAt()).etag())
+                .body(patched);
     }
 
     /**
@@ -91,6 +217,17 @@ public class PatientController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Restore an archived patient (admin and receptionist).
+     */
+    @PostMapping("/{id}/restore")
+    @PreAuthorize("hasAnyRole('admin', 'receptionist')")
+    public ResponseEntity<PatientDto> restorePatient(@PathVariable UUID id) {
+        log.debug("POST /patients/{}/restore - Restore archived patient", id);
+        PatientDto restored = patientService.restorePatient(id);
+        return ResponseEntity.ok(restored);
+    }
+
     /**
      * Link a Keycloak user to a patient (admin and receptionist).
      */
@@ -0,0 +1,67 @@
+package com.smiles.patients.api;
+
+import com.smiles.patients.domain.PatientDuplicateStatus;
+import com.smiles.patients.dto.PatientDedupScanResult;
+import com.smiles.patients.dto.PatientDuplicateDto;
+import com.smiles.patients.service.PatientDuplicateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for reviewing possible duplicate patients.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/patients/duplicates")
+@RequiredArgsConstructor
+public class PatientDuplicateController {
+
+    private final PatientDuplicateService patientDuplicateService;
+
+    /**
+     * Get a facility's pending duplicate pairs, highest score first.
+     */
+    @GetMapping
+    public ResponseEntity<List<PatientDuplicateDto>> getPendingDuplicates(
+            @RequestParam UUID facilityId,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("GET /patients/duplicates?facilityId={} - Get pending duplicates", facilityId);
+        return ResponseEntity.ok(patientDuplicateService.getPendingDuplicates(facilityId, limit));
+    }
+
+    /**
+     * Scan a facility's new and changed patients for duplicates now (admin only).
+     */
+    @PostMapping("/scan")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<PatientDedupScanResult> scanFacility(@RequestParam UUID facilityId) {
+        log.debug("POST /patients/duplicates/scan?facilityId={} - Scan for duplicates", facilityId);
+        return ResponseEntity.ok(patientDuplicateService.scanFacility(facilityId));
+    }
+
+    /**
+     * Confirm that a pair is the same patient (admin and receptionist).
+     */
+    @PostMapping("/{id}/confirm")
+    @PreAuthorize("hasAnyRole('admin', 'receptionist')")
+    public ResponseEntity<PatientDuplicateDto> confirmDuplicate(@PathVariable UUID id) {
+        log.debug("POST /patients/duplicates/{}/confirm - Confirm duplicate", id);
+        return ResponseEntity.ok(patientDuplicateService.reviewDuplicate(id, PatientDuplicateStatus.CONFIRMED));
+    }
+
+    /**
+     * Dismiss a pair as different patients (admin and receptionist).
+     */
+    @PostMapping("/{id}/dismiss")
+    @PreAuthorize("hasAnyRole('admin', 'receptionist')")
+    public ResponseEntity<PatientDuplicateDto> dismissDuplicate(@PathVariable UUID id) {
+        log.debug("POST /patients/duplicates/{}/dismiss - Dismiss duplicate", id);
+        return ResponseEntity.ok(patientDuplicateService.reviewDuplicate(id, PatientDuplicateStatus.DISMISSED));
+    }
+}
@@ -0,0 +1,63 @@
+package com.smiles.patients.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A long-inactive patient moved to the cold {@code patient_archive} table.
+ * Rows are written and removed only by archival and restore, so the entity is read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "patient_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedPatient {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "facility_id", nullable = false)
+    private UUID facilityId;
+
+    @Column(name = "keycloak_user_id")
+    private String keycloakUserId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "birth_date", nullable = false)
+    private LocalDate birthDate;
+
+    @Column
+    private String email;
+
+    @Column(length = 50)
+    private String phone;
+
+    @Column(length = 500)
+    private String address;
+
+    @Column(nullable = false)
+    private Boolean active;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * When the patient was archived.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Long version;
+}
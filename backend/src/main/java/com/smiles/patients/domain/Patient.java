@@ -1,8 +1,11 @@
 package com.smiles.patients.domain;
 
+import com.smiles.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
@@ -13,7 +16,11 @@ import java.util.UUID;
  * Patient entity representing a patient registered at a facility.
  */
 @Entity
-@Table(name = "patient")
+@DynamicUpdate
+@Table(
+    name = "patient",
+    uniqueConstraints = @UniqueConstraint(name = "uk_patient_keycloak_user", columnNames = "keycloak_user_id")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,13 +29,13 @@ import java.util.UUID;
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "facility_id", nullable = false)
     private UUID facilityId;
 
-    @Column(name = "keycloak_user_id", unique = true)
+    @Column(name = "keycloak_user_id")
     private String keycloakUserId;
 
     @Column(nullable = false)
@@ -57,4 +64,9 @@ public class Patient {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
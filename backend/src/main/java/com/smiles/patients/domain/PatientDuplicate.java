@@ -0,0 +1,63 @@
+package com.smiles.patients.domain;
+
+import com.smiles.common.persistence.UuidV7;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Pair of patients of one facility suspected to be the same person.
+ * The pair is stored once, with {@code patientId < duplicateId}.
+ */
+@Entity
+@Table(
+    name = "patient_duplicate",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_patient_duplicate_pair", columnNames = {"facility_id", "patient_id", "duplicate_id"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientDuplicate {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(name = "facility_id", nullable = false)
+    private UUID facilityId;
+
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Column(name = "duplicate_id", nullable = false)
+    private UUID duplicateId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    /**
+     * Comma-separated names of the fields that matched, e.g. {@code name,birth_date}.
+     */
+    @Column(nullable = false)
+    private String reasons;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private PatientDuplicateStatus status = PatientDuplicateStatus.PENDING;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
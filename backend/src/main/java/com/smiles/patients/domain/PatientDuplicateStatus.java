@@ -0,0 +1,21 @@
+package com.smiles.patients.domain;
+
+/**
+ * Review status of a suspected duplicate patient pair.
+ */
+public enum PatientDuplicateStatus {
+    /**
+     * Found by the dedup engine and waiting for review; rescored when either patient changes.
+     */
+    PENDING,
+
+    /**
+     * Reviewed: both records are the same person.
+     */
+    CONFIRMED,
+
+    /**
+     * Reviewed: different people; the pair is not suggested again.
+     */
+    DISMISSED
+}
@@ -0,0 +1,42 @@
+package com.smiles.patients.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a duplicate detection scan of one facility.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDedupScanResult {
+
+    private UUID facilityId;
+
+    /**
+     * False if another node was already scanning the facility.
+     */
+    private boolean scanned;
+
+    /**
+     * Number of new or changed patients whose blocking keys were rebuilt.
+     */
+    private long changedPatients;
+
+    /**
+     * Number of candidate pairs scored.
+     */
+    private long comparedPairs;
+
+    /**
+     * Number of pending pairs stored at or above the score threshold.
+     */
+    private long duplicatePairs;
+
+    private long durationMillis;
+}
@@ -28,4 +28,6 @@ public class PatientDto {
     private Boolean active;
     private Instant createdAt;
     private Instant updatedAt;
+
+    private Long version;
 }
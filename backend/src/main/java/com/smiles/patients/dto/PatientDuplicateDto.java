@@ -0,0 +1,44 @@
+package com.smiles.patients.dto;
+
+import com.smiles.patients.domain.PatientDuplicateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO for a suspected duplicate patient pair.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDuplicateDto {
+
+    private UUID id;
+
+    private UUID facilityId;
+
+    private UUID patientId;
+
+    private UUID duplicateId;
+
+    /**
+     * Match score between 0 and 1.
+     */
+    private Double score;
+
+    /**
+     * Comma-separated names of the fields that matched.
+     */
+    private String reasons;
+
+    private PatientDuplicateStatus status;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
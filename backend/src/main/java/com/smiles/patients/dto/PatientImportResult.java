@@ -0,0 +1,55 @@
+package com.smiles.patients.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk patient import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientImportResult {
+
+    /**
+     * Error reported for a single input row.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+
+    private UUID facilityId;
+
+    /**
+     * Number of data rows read (excluding blank lines and the CSV header).
+     */
+    private long totalRows;
+
+    private long imported;
+
+    private long failed;
+
+    /**
+     * Per-row errors, capped so a badly broken file cannot blow up the response.
+     */
+    private List<RowError> errors;
+
+    /**
+     * Whether more errors occurred than are listed in {@code errors}.
+     */
+    private boolean errorsTruncated;
+
+    private long durationMillis;
+
+    private double rowsPerSecond;
+}
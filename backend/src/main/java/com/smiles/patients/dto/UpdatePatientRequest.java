@@ -1,6 +1,9 @@
 package com.smiles.patients.dto;
 
+import com.smiles.common.web.JsonMergePatch;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,9 +21,11 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class UpdatePatientRequest {
 
+    @NotBlank(message = "Name is required", groups = JsonMergePatch.Merged.class)
     @Size(max = 255, message = "Name cannot exceed 255 characters")
     private String name;
 
+    @NotNull(message = "Birth date is required", groups = JsonMergePatch.Merged.class)
     private LocalDate birthDate;
 
     @Email(message = "Email must be valid")
@@ -33,5 +38,6 @@ public class UpdatePatientRequest {
     @Size(max = 500, message = "Address cannot exceed 500 characters")
     private String address;
 
+    @NotNull(message = "Active is required", groups = JsonMergePatch.Merged.class)
     private Boolean active;
 }
@@ -0,0 +1,14 @@
+package com.smiles.patients.mapper;
+
+import com.smiles.patients.domain.PatientDuplicate;
+import com.smiles.patients.dto.PatientDuplicateDto;
+import org.mapstruct.Mapper;
+
+/**
+ * MapStruct mapper for PatientDuplicate entity.
+ */
+@Mapper(componentModel = "spring")
+public interface PatientDuplicateMapper {
+
+    PatientDuplicateDto toDto(PatientDuplicate duplicate);
+}
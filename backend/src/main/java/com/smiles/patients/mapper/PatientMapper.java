@@ -1,5 +1,6 @@
 package com.smiles.patients.mapper;
 
+import com.smiles.patients.domain.ArchivedPatient;
 import com.smiles.patients.domain.Patient;
 import com.smiles.patients.dto.CreatePatientRequest;
 import com.smiles.patients.dto.PatientDto;
@@ -14,8 +15,20 @@ public interface PatientMapper {
 
     PatientDto toDto(Patient patient);
 
+    PatientDto toDto(ArchivedPatient patient);
+
     Patient toEntity(CreatePatientRequest request);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromDto(UpdatePatientRequest request, @MappingTarget Patient patient);
+
+    /**
+     * Current state as an update DTO, the target of a JSON Merge Patch.
+     */
+    UpdatePatientRequest toUpdateRequest(Patient patient);
+
+    /**
+     * Copy a merged update DTO onto the entity, including fields the patch removed.
+     */
+    void patchEntity(UpdatePatientRequest request, @MappingTarget Patient patient);
 }
@@ -0,0 +1,24 @@
+package com.smiles.patients.repository;
+
+import com.smiles.common.web.FacilityScopedVersion;
+import com.smiles.patients.domain.ArchivedPatient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for ArchivedPatient entity.
+ */
+@Repository
+public interface ArchivedPatientRepository extends JpaRepository<ArchivedPatient, UUID> {
+
+    /**
+     * Find the facility and version of an archived patient without loading the entity.
+     */
+    @Query("SELECT new com.smiles.common.web.FacilityScopedVersion(p.facilityId, p.version, p.updatedAt) FROM ArchivedPatient p WHERE p.id = :id")
+    Optional<FacilityScopedVersion> findVersionById(@Param("id") UUID id);
+}
@@ -0,0 +1,46 @@
+package com.smiles.patients.repository;
+
+import com.smiles.patients.domain.PatientDuplicate;
+import com.smiles.patients.domain.PatientDuplicateStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for PatientDuplicate entity.
+ */
+@Repository
+public interface PatientDuplicateRepository extends JpaRepository<PatientDuplicate, UUID> {
+
+    /**
+     * Find a facility's pairs in a status, highest score first.
+     * Pairs with an archived patient are skipped until it is restored.
+     */
+    @Query("""
+            SELECT d FROM PatientDuplicate d
+            WHERE d.facilityId = :facilityId AND d.status = :status
+              AND EXISTS (SELECT 1 FROM Patient p WHERE p.id = d.patientId AND p.facilityId = d.facilityId)
+              AND EXISTS (SELECT 1 FROM Patient p WHERE p.id = d.duplicateId AND p.facilityId = d.facilityId)
+            ORDER BY d.score DESC, d.id ASC
+            """)
+    List<PatientDuplicate> findByFacilityIdAndStatus(
+            @Param("facilityId") UUID facilityId,
+            @Param("status") PatientDuplicateStatus status,
+            Limit limit);
+
+    /**
+     * Delete a deleted patient's pairs, which no foreign key cascades to.
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM PatientDuplicate d
+            WHERE d.facilityId = :facilityId AND (d.patientId = :patientId OR d.duplicateId = :patientId)
+            """)
+    int deleteByPatient(@Param("facilityId") UUID facilityId, @Param("patientId") UUID patientId);
+}
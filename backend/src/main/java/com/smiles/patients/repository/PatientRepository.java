@@ -1,9 +1,16 @@
 package com.smiles.patients.repository;
 
+import com.smiles.common.web.FacilityScopedVersion;
 import com.smiles.patients.domain.Patient;
+import com.smiles.patients.dto.PatientDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,18 +31,229 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
      */
     List<Patient> findByFacilityIdAndActiveTrue(UUID facilityId);
 
+    /**
+     * Find the first keyset page of patients for a facility, ordered by (name, id), selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.patients.dto.PatientDto(p.id, p.facilityId, p.keycloakUserId, p.name, p.birthDate,
+                    p.email, p.phone, p.address, p.active, p.createdAt, p.updatedAt, p.version)
+            FROM Patient p
+            WHERE p.facilityId = :facilityId
+            ORDER BY p.name ASC, p.id ASC
+            """)
+    List<PatientDto> findPage(@Param("facilityId") UUID facilityId, Limit limit);
+
+    /**
+     * Find the first keyset page of active patients for a facility, ordered by (name, id), selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.patients.dto.PatientDto(p.id, p.facilityId, p.keycloakUserId, p.name, p.birthDate,
+                    p.email, p.phone, p.address, p.active, p.createdAt, p.updatedAt, p.version)
+            FROM Patient p
+            WHERE p.facilityId = :facilityId
+              AND p.active = true
+            ORDER BY p.name ASC, p.id ASC
+            """)
+    List<PatientDto> findActivePage(@Param("facilityId") UUID facilityId, Limit limit);
+
+    /**
+     * Find the keyset page of patients for a facility following the given (name, id) position, selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.patients.dto.PatientDto(p.id, p.facilityId, p.keycloakUserId, p.name, p.birthDate,
+                    p.email, p.phone, p.address, p.active, p.createdAt, p.updatedAt, p.version)
+            FROM Patient p
+            WHERE p.facilityId = :facilityId
+              AND (p.name > :name OR (p.name = :name AND p.id > :id))
+            ORDER BY p.name ASC, p.id ASC
+            """)
+    List<PatientDto> findPageAfter(
+            @Param("facilityId") UUID facilityId,
+            @Param("name") String name,
+            @Param("id") UUID id,
+            Limit limit);
+
+    /**
+     * Find the keyset page of active patients for a facility following the given (name, id) position, selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.patients.dto.PatientDto(p.id, p.facilityId, p.keycloakUserId, p.name, p.birthDate,
+                    p.email, p.phone, p.address, p.active, p.createdAt, p.updatedAt, p.version)
+            FROM Patient p
+            WHERE p.facilityId = :facilityId
+              AND p.active = true
+              AND (p.name > :name OR (p.name = :name AND p.id > :id))
+            ORDER BY p.name ASC, p.id ASC
+            """)
+    List<PatientDto> findActivePageAfter(
+            @Param("facilityId") UUID facilityId,
+            @Param("name") String name,
+            @Param("id") UUID id,
+            Limit limit);
+
+    /**
+     * Find the facility and update timestamp of a patient without loading the entity.
+     */
+    @Query("SELECT new com.smiles.common.web.FacilityScopedVersion(p.facilityId, p.version, p.updatedAt) FROM Patient p WHERE p.id = :id")
+    Optional<FacilityScopedVersion> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Apply a partial update in a single statement and return the updated row.
+     * Null arguments keep the current value; the row's trigger bumps {@code updated_at}
+     * and the optimistic lock version is incremented like an entity update would.
+     * Only rows in {@code facilityIds} are updated unless {@code allFacilities} is set,
+     * and only at {@code expectedVersion} unless it is null.
+     */
+    @Query(value = """
+            UPDATE patient SET
+                name = COALESCE(CAST(:name AS VARCHAR), name),
+                birth_date = COALESCE(CAST(:birthDate AS DATE), birth_date),
+                email = COALESCE(CAST(:email AS VARCHAR), email),
+                phone = COALESCE(CAST(:phone AS VARCHAR), phone),
+                address = COALESCE(CAST(:address AS VARCHAR), address),
+                active = COALESCE(CAST(:active AS BOOLEAN), active),
+                version = version + 1
+            WHERE id = :id
+              AND (CAST(:allFacilities AS BOOLEAN) OR facility_id IN (:facilityIds))
+              AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = :expectedVersion)
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Patient> updateReturning(
+            @Param("id") UUID id,
+            @Param("allFacilities") boolean allFacilities,
+            @Param("facilityIds") Collection<UUID> facilityIds,
+            @Param("expectedVersion") Long expectedVersion,
+            @Param("name") String name,
+            @Param("birthDate") LocalDate birthDate,
+            @Param("email") String email,
+            @Param("phone") String phone,
+            @Param("address") String address,
+            @Param("active") Boolean active);
+
+    /**
+     * Delete a patient in a single statement and return the deleted row.
+     * Only rows in {@code facilityIds} are deleted unless {@code allFacilities} is set.
+     */
+    @Query(value = """
+            DELETE FROM patient
+            WHERE id = :id
+              AND (CAST(:allFacilities AS BOOLEAN) OR facility_id IN (:facilityIds))
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Patient> deleteReturning(
+            @Param("id") UUID id,
+            @Param("allFacilities") boolean allFacilities,
+            @Param("facilityIds") Collection<UUID> facilityIds);
+
+    /**
+     * Move an archived patient back in a single statement, reactivated, and return the restored row.
+     * Only rows in {@code facilityIds} are restored unless {@code allFacilities} is set.
+     */
+    @Query(value = """
+            WITH restored AS (
+                DELETE FROM patient_archive
+                WHERE id = :id
+                  AND (CAST(:allFacilities AS BOOLEAN) OR facility_id IN (:facilityIds))
+                RETURNING *
+            )
+            INSERT INTO patient (id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+                                 active, created_at, updated_at, version)
+            SELECT id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+                   true, created_at, CURRENT_TIMESTAMP, version + 1
+            FROM restored
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Patient> restoreReturning(
+            @Param("id") UUID id,
+            @Param("allFacilities") boolean allFacilities,
+            @Param("facilityIds") Collection<UUID> facilityIds);
+
+    /**
+     * Search a facility's patients by name fragment or misspelling, ranked by
+     * prefix match then trigram word similarity. PostgreSQL only (pg_trgm).
+     *
+     * @param query the query as typed
+     * @param pattern the query with LIKE wildcards escaped
+     */
+    @Query(value = """
+            SELECT * FROM patient
+            WHERE facility_id = :facilityId
+              AND (name ILIKE '%' || :pattern || '%' OR :query <% name)
+            ORDER BY name ILIKE :pattern || '%' DESC, word_similarity(:query, name) DESC, name, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> searchByName(
+            @Param("facilityId") UUID facilityId,
+            @Param("query") String query,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit);
+
+    /**
+     * Search a facility's patients by a fragment of the phone number's digits,
+     * ranked by prefix match. PostgreSQL only (pg_trgm).
+     */
+    @Query(value = """
+            SELECT * FROM patient
+            WHERE facility_id = :facilityId
+              AND regexp_replace(phone, '[^0-9]', '', 'g') LIKE '%' || :digits || '%'
+            ORDER BY regexp_replace(phone, '[^0-9]', '', 'g') LIKE :digits || '%' DESC, name, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> searchByPhoneDigits(
+            @Param("facilityId") UUID facilityId,
+            @Param("digits") String digits,
+            @Param("limit") int limit);
+
+    /**
+     * Search a facility's patients by email fragment, ranked by prefix match. PostgreSQL only (pg_trgm).
+     *
+     * @param pattern the lower-cased query with LIKE wildcards escaped
+     */
+    @Query(value = """
+            SELECT * FROM patient
+            WHERE facility_id = :facilityId
+              AND lower(email) LIKE '%' || :pattern || '%'
+            ORDER BY lower(email) LIKE :pattern || '%' DESC, name, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> searchByEmail(
+            @Param("facilityId") UUID facilityId,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit);
+
+    /**
+     * Find a facility's patients born on a date, ordered by name.
+     */
+    @Query("""
+            SELECT p FROM Patient p
+            WHERE p.facilityId = :facilityId
+              AND p.birthDate = :birthDate
+            ORDER BY p.name ASC, p.id ASC
+            """)
+    List<Patient> findByBirthDate(
+            @Param("facilityId") UUID facilityId,
+            @Param("birthDate") LocalDate birthDate,
+            Limit limit);
+
     /**
      * Find patient by Keycloak user ID.
      */
     Optional<Patient> findByKeycloakUserId(String keycloakUserId);
 
     /**
-     * Find patient by email.
+     * Find the ID of the patient record linked to a Keycloak user.
      */
-    Optional<Patient> findByEmail(String email);
+    @Query("SELECT p.id FROM Patient p WHERE p.keycloakUserId = :keycloakUserId")
+    Optional<UUID> findIdByKeycloakUserId(@Param("keycloakUserId") String keycloakUserId);
 
     /**
-     * Check if patient exists by Keycloak user ID.
+     * Find which of the given Keycloak user IDs are already linked to a patient.
      */
-    boolean existsByKeycloakUserId(String keycloakUserId);
+    @Query("SELECT p.keycloakUserId FROM Patient p WHERE p.keycloakUserId IN :keycloakUserIds")
+    List<String> findExistingKeycloakUserIds(@Param("keycloakUserIds") Collection<String> keycloakUserIds);
+
+    /**
+     * Find patient by email.
+     */
+    Optional<Patient> findByEmail(String email);
 }
@@ -0,0 +1,28 @@
+package com.smiles.patients.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Thrown when the header of a CSV import cannot be mapped to patient fields.
+ * Nothing is imported; every problem found in the header is listed.
+ */
+public class InvalidImportHeaderException extends RuntimeException {
+
+    private final UUID facilityId;
+    private final List<String> problems;
+
+    public InvalidImportHeaderException(UUID facilityId, List<String> problems) {
+        super("Invalid CSV header: " + String.join("; ", problems));
+        this.facilityId = facilityId;
+        this.problems = List.copyOf(problems);
+    }
+
+    public UUID getFacilityId() {
+        return facilityId;
+    }
+
+    public List<String> getProblems() {
+        return problems;
+    }
+}
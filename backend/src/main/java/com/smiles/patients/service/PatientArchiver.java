@@ -0,0 +1,153 @@
+package com.smiles.patients.service;
+
+import com.smiles.common.security.SmilesPrincipalCache;
+import com.smiles.common.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves long-inactive patients to the {@code patient_archive} table.
+ *
+ * A patient is archived once it is inactive and has not been updated for the
+ * configured period. Each shard is walked in keyset batches by ID, one short
+ * transaction per batch, so archival never holds many row locks or blocks
+ * writers for long; rows locked by a concurrent write are skipped until the
+ * next run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "smiles.patients.archive.enabled", havingValue = "true")
+public class PatientArchiver {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH batch AS (
+                SELECT id, facility_id FROM patient
+                WHERE active = false AND updated_at < :cutoff AND id > :after
+                ORDER BY id
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            ), moved AS (
+                DELETE FROM patient p
+                USING batch
+                WHERE p.id = batch.id AND p.facility_id = batch.facility_id
+                RETURNING p.*
+            )
+            INSERT INTO patient_archive (id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+                                         active, created_at, updated_at, version)
+            SELECT id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+                   active, created_at, CURRENT_TIMESTAMP, version
+            FROM moved
+            RETURNING id, facility_id, keycloak_user_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final SmilesPrincipalCache principalCache;
+    private final PatientPrefixIndex patientPrefixIndex;
+    private final Duration inactiveFor;
+    private final int batchSize;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public PatientArchiver(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            SmilesPrincipalCache principalCache,
+            PatientPrefixIndex patientPrefixIndex,
+            @Value("${smiles.patients.archive.inactive-for:365d}") Duration inactiveFor,
+            @Value("${smiles.patients.archive.batch-size:1000}") int batchSize,
+            @Value("${smiles.patients.archive.interval:1h}") Duration interval) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.principalCache = principalCache;
+        this.patientPrefixIndex = patientPrefixIndex;
+        this.inactiveFor = inactiveFor;
+        this.batchSize = batchSize;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "patient-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveAll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archive every shard's eligible patients.
+     */
+    void archiveAll() {
+        try {
+            Map<String, Long> archived = shardRouter.onAllShards(this::archiveShard);
+            log.info("Archived inactive patients: {}", archived);
+        } catch (RuntimeException e) {
+            log.warn("Patient archival failed: {}", e.getMessage());
+        }
+    }
+
+    private long archiveShard() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(inactiveFor));
+        UUID after = MIN_ID;
+        long archived = 0;
+        while (true) {
+            MapSqlParameterSource params = new MapSqlParameterSource("cutoff", cutoff)
+                    .addValue("after", after)
+                    .addValue("batchSize", batchSize);
+            List<ArchivedRow> batch = transactionTemplate.execute(status -> jdbcTemplate.query(ARCHIVE_BATCH_SQL, params,
+                    (rs, rowNum) -> new ArchivedRow(rs.getObject("id", UUID.class),
+                            rs.getObject("facility_id", UUID.class), rs.getString("keycloak_user_id"))));
+            if (batch == null || batch.isEmpty()) {
+                return archived;
+            }
+
+            archived += batch.size();
+            for (ArchivedRow row : batch) {
+                // Archived patients lose their portal link until restored
+                principalCache.evictSubject(row.keycloakUserId());
+                // Searches only cover patients still in use
+                patientPrefixIndex.remove(row.facilityId(), row.id());
+                // PostgreSQL compares UUIDs as unsigned bytes, which matches their text form
+                if (row.id().toString().compareTo(after.toString()) > 0) {
+                    after = row.id();
+                }
+            }
+        }
+    }
+
+    private record ArchivedRow(UUID id, UUID facilityId, String keycloakUserId) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.smiles.patients.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Blocking keys of a patient for duplicate detection.
+ *
+ * Only patients sharing at least one key are compared. The keys are chosen so
+ * that a typo in one field still leaves another key in common: phonetic first
+ * and last name (in either order), phonetic last name with birth year, birth
+ * date, phone number and email.
+ */
+final class PatientBlockingKeys {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // American Soundex digit for each letter a..z; 0 separates codes, h and w are skipped
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private PatientBlockingKeys() {
+    }
+
+    /**
+     * Compute the blocking keys of a patient.
+     */
+    static Set<String> of(PatientFingerprint patient) {
+        Set<String> keys = new LinkedHashSet<>();
+        List<String> words = patient.nameWords();
+        if (!words.isEmpty()) {
+            String first = soundex(words.getFirst());
+            String last = soundex(words.getLast());
+            keys.add("n:" + (first.compareTo(last) <= 0 ? first + last : last + first));
+            if (patient.birthDate() != null) {
+                keys.add("y:" + last + ":" + patient.birthDate().getYear());
+            }
+        }
+        if (patient.birthDate() != null) {
+            keys.add("b:" + patient.birthDate());
+        }
+        if (patient.phoneDigits() != null) {
+            keys.add("p:" + patient.phoneDigits());
+        }
+        if (patient.email() != null) {
+            keys.add(truncate("e:" + patient.email()));
+        }
+        return keys;
+    }
+
+    /**
+     * American Soundex code of a lower-case word, e.g. "robert" and "rupert" both give R163.
+     *
+     * @return the four-character code, or an empty string if the word has no letters a..z
+     */
+    static String soundex(String word) {
+        StringBuilder code = new StringBuilder(4);
+        char previous = 0;
+        for (char c : word.toCharArray()) {
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (code.isEmpty()) {
+                code.append(Character.toUpperCase(c));
+                previous = digit;
+                continue;
+            }
+            if (c == 'h' || c == 'w') {
+                continue;
+            }
+            if (digit != '0' && digit != previous) {
+                code.append(digit);
+                if (code.length() == 4) {
+                    break;
+                }
+            }
+            previous = digit;
+        }
+        if (code.isEmpty()) {
+            return "";
+        }
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
@@ -0,0 +1,399 @@
+package com.smiles.patients.service;
+
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.patients.dto.PatientDedupScanResult;
+import com.smiles.patients.service.PatientMatchScorer.CandidatePair;
+import com.smiles.patients.service.PatientMatchScorer.ScoredPair;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Incremental duplicate patient detection for one facility at a time.
+ *
+ * Each patient's blocking keys are persisted in {@code patient_blocking_key}.
+ * A scan only visits patients changed since the facility's watermark: it
+ * replaces their keys, pairs them with every patient sharing a key, scores the
+ * pairs on a fork/join pool and replaces their pending duplicate pairs.
+ * Confirmed and dismissed pairs are kept and never re-proposed. Oversized
+ * blocks (e.g. a shared family phone number) are skipped, since every pair in
+ * them would be compared.
+ *
+ * Patients are visited in {@code updated_at} order and each chunk commits with
+ * the watermark advanced past it, so a long first scan neither holds one
+ * transaction open nor starts over after a failure. A session advisory lock
+ * per facility, taken with {@code pg_try_advisory_lock}, keeps scans of the
+ * same facility on several nodes from repeating each other's work.
+ */
+@Slf4j
+@Component
+public class PatientDedupEngine {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final String INIT_WATERMARK_SQL = """
+            INSERT INTO patient_dedup_watermark (facility_id)
+            VALUES (:facilityId)
+            ON CONFLICT (facility_id) DO NOTHING
+            """;
+
+    private static final String SELECT_WATERMARK_SQL = """
+            SELECT scanned_until FROM patient_dedup_watermark
+            WHERE facility_id = :facilityId
+            """;
+
+    // Two-key form, so it cannot collide with the single-key facility write locks
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('patient_dedup'), hashtext(CAST(? AS TEXT)))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('patient_dedup'), hashtext(CAST(? AS TEXT)))";
+
+    private static final String UPDATE_WATERMARK_SQL = """
+            UPDATE patient_dedup_watermark
+            SET scanned_until = GREATEST(scanned_until, :scannedUntil), updated_at = CURRENT_TIMESTAMP
+            WHERE facility_id = :facilityId
+            """;
+
+    private static final String CHANGED_PATIENTS_SQL = """
+            SELECT id, name, birth_date, email, phone, updated_at FROM patient
+            WHERE facility_id = :facilityId
+              AND updated_at >= :afterUpdatedAt
+              AND (updated_at, id) > (:afterUpdatedAt, :afterId)
+            ORDER BY updated_at, id
+            LIMIT :limit
+            """;
+
+    private static final String ALL_PATIENTS_SQL = """
+            SELECT id, name, birth_date, email, phone, updated_at FROM patient
+            WHERE facility_id = :facilityId
+            ORDER BY updated_at, id
+            LIMIT :limit
+            """;
+
+    private static final String PATIENTS_BY_ID_SQL = """
+            SELECT id, name, birth_date, email, phone FROM patient
+            WHERE facility_id = :facilityId AND id IN (:ids)
+            """;
+
+    private static final String DELETE_KEYS_SQL = """
+            DELETE FROM patient_blocking_key
+            WHERE facility_id = :facilityId AND patient_id IN (:ids)
+            """;
+
+    private static final String INSERT_KEY_SQL = """
+            INSERT INTO patient_blocking_key (facility_id, blocking_key, patient_id)
+            VALUES (:facilityId, :blockingKey, :patientId)
+            """;
+
+    private static final String BLOCK_MEMBERS_SQL = """
+            SELECT blocking_key, patient_id FROM patient_blocking_key
+            WHERE facility_id = :facilityId AND blocking_key IN (
+                SELECT blocking_key FROM patient_blocking_key
+                WHERE facility_id = :facilityId AND blocking_key IN (:keys)
+                GROUP BY blocking_key
+                HAVING COUNT(*) BETWEEN 2 AND :maxBlockSize)
+            """;
+
+    private static final String DELETE_PENDING_SQL = """
+            DELETE FROM patient_duplicate
+            WHERE facility_id = :facilityId AND status = 'PENDING'
+              AND (patient_id IN (:ids) OR duplicate_id IN (:ids))
+            """;
+
+    private static final String REVIEWED_PAIRS_SQL = """
+            SELECT patient_id, duplicate_id FROM patient_duplicate
+            WHERE facility_id = :facilityId AND status <> 'PENDING'
+              AND (patient_id IN (:ids) OR duplicate_id IN (:ids))
+            """;
+
+    private static final String INSERT_DUPLICATE_SQL = """
+            INSERT INTO patient_duplicate (facility_id, patient_id, duplicate_id, score, reasons)
+            VALUES (:facilityId, :patientId, :duplicateId, :score, :reasons)
+            """;
+
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+    private final double threshold;
+    private final int maxBlockSize;
+    private final int chunkSize;
+    private final Duration catchUpMargin;
+
+    public PatientDedupEngine(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${smiles.patients.dedup.threshold:0.85}") double threshold,
+            @Value("${smiles.patients.dedup.max-block-size:500}") int maxBlockSize,
+            @Value("${smiles.patients.dedup.chunk-size:1000}") int chunkSize,
+            @Value("${smiles.patients.dedup.parallelism:0}") int parallelism,
+            @Value("${smiles.patients.dedup.catch-up-margin:5m}") Duration catchUpMargin) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.threshold = threshold;
+        this.maxBlockSize = maxBlockSize;
+        this.chunkSize = chunkSize;
+        this.catchUpMargin = catchUpMargin;
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Scan a facility's patients changed since its last scan.
+     * The first scan of a facility visits all of its patients.
+     *
+     * @param facilityId the facility ID
+     * @return the scan counters; {@code scanned} is false if another scan holds the facility
+     */
+    public PatientDedupScanResult scanFacility(@ShardKey UUID facilityId) {
+        long started = System.nanoTime();
+
+        // The advisory lock is session-scoped, so it needs one connection from lock to unlock
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate lockJdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(lockJdbc.queryForObject(TRY_LOCK_SQL, Boolean.class, facilityId))) {
+                log.debug("Facility {} is being scanned elsewhere, skipping", facilityId);
+                return PatientDedupScanResult.builder()
+                        .facilityId(facilityId)
+                        .scanned(false)
+                        .build();
+            }
+            try {
+                ScanCounters counters = scanChanged(facilityId);
+                long durationMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                log.info("Scanned facility {} for duplicates: {} changed patients, {} pairs compared, {} duplicates in {} ms",
+                        facilityId, counters.changedPatients, counters.comparedPairs, counters.duplicatePairs, durationMillis);
+                return PatientDedupScanResult.builder()
+                        .facilityId(facilityId)
+                        .scanned(true)
+                        .changedPatients(counters.changedPatients)
+                        .comparedPairs(counters.comparedPairs)
+                        .duplicatePairs(counters.duplicatePairs)
+                        .durationMillis(durationMillis)
+                        .build();
+            } finally {
+                lockJdbc.queryForObject(UNLOCK_SQL, Boolean.class, facilityId);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to get a connection to scan facility " + facilityId, e);
+        }
+    }
+
+    private ScanCounters scanChanged(UUID facilityId) {
+        MapSqlParameterSource facility = new MapSqlParameterSource("facilityId", facilityId);
+        jdbcTemplate.update(INIT_WATERMARK_SQL, facility);
+        Timestamp scannedUntil = jdbcTemplate.queryForObject(SELECT_WATERMARK_SQL, facility, Timestamp.class);
+
+        // Rows committed late with an earlier updated_at are caught by the margin
+        ScanCursor cursor = scannedUntil == null
+                ? null
+                : new ScanCursor(new Timestamp(scannedUntil.getTime() - catchUpMargin.toMillis()), MIN_ID);
+
+        ScanCounters counters = new ScanCounters();
+        while (true) {
+            ScanCursor after = cursor;
+            List<ChangedPatient> chunk = transactionTemplate.execute(status -> {
+                List<ChangedPatient> changed = findChanged(facilityId, after);
+                if (!changed.isEmpty()) {
+                    scanChunk(facilityId, changed.stream().map(ChangedPatient::fingerprint).toList(), counters);
+                    // Everything up to the chunk's last row is scanned once this commits
+                    jdbcTemplate.update(UPDATE_WATERMARK_SQL, new MapSqlParameterSource(facility.getValues())
+                            .addValue("scannedUntil", changed.getLast().updatedAt()));
+                }
+                return changed;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                return counters;
+            }
+            ChangedPatient last = chunk.getLast();
+            cursor = new ScanCursor(last.updatedAt(), last.fingerprint().id());
+        }
+    }
+
+    private List<ChangedPatient> findChanged(UUID facilityId, ScanCursor after) {
+        MapSqlParameterSource params = new MapSqlParameterSource("facilityId", facilityId)
+                .addValue("limit", chunkSize);
+        if (after == null) {
+            return jdbcTemplate.query(ALL_PATIENTS_SQL, params, PatientDedupEngine::mapChanged);
+        }
+        params.addValue("afterUpdatedAt", after.updatedAt())
+                .addValue("afterId", after.id());
+        return jdbcTemplate.query(CHANGED_PATIENTS_SQL, params, PatientDedupEngine::mapChanged);
+    }
+
+    private void scanChunk(UUID facilityId, List<PatientFingerprint> changed, ScanCounters counters) {
+        List<UUID> ids = changed.stream().map(PatientFingerprint::id).toList();
+        MapSqlParameterSource chunk = new MapSqlParameterSource("facilityId", facilityId).addValue("ids", ids);
+
+        // Replace the changed patients' blocking keys
+        Map<UUID, Set<String>> keysByPatient = new HashMap<>();
+        List<SqlParameterSource> keyRows = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (PatientFingerprint patient : changed) {
+            Set<String> patientKeys = PatientBlockingKeys.of(patient);
+            keysByPatient.put(patient.id(), patientKeys);
+            keys.addAll(patientKeys);
+            for (String key : patientKeys) {
+                keyRows.add(new MapSqlParameterSource("facilityId", facilityId)
+                        .addValue("blockingKey", key)
+                        .addValue("patientId", patient.id()));
+            }
+        }
+        jdbcTemplate.update(DELETE_KEYS_SQL, chunk);
+        if (!keyRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_KEY_SQL, keyRows.toArray(SqlParameterSource[]::new));
+        }
+
+        // Pair every changed patient with the other members of its blocks
+        Map<String, List<UUID>> blocks = findBlocks(facilityId, keys);
+        Set<Pair> pairs = new LinkedHashSet<>();
+        for (PatientFingerprint patient : changed) {
+            for (String key : keysByPatient.get(patient.id())) {
+                for (UUID member : blocks.getOrDefault(key, List.of())) {
+                    if (!member.equals(patient.id())) {
+                        pairs.add(Pair.of(patient.id(), member));
+                    }
+                }
+            }
+        }
+
+        Map<UUID, PatientFingerprint> fingerprints = new HashMap<>();
+        changed.forEach(patient -> fingerprints.put(patient.id(), patient));
+        loadFingerprints(facilityId, pairs, fingerprints);
+
+        List<CandidatePair> candidates = new ArrayList<>(pairs.size());
+        for (Pair pair : pairs) {
+            PatientFingerprint patient = fingerprints.get(pair.patientId());
+            PatientFingerprint duplicate = fingerprints.get(pair.duplicateId());
+            if (patient != null && duplicate != null) {
+                candidates.add(new CandidatePair(patient, duplicate));
+            }
+        }
+        List<ScoredPair> scored = PatientMatchScorer.scoreAll(candidates, threshold, pool);
+
+        // Replace pending pairs; reviewed pairs keep their decision
+        jdbcTemplate.update(DELETE_PENDING_SQL, chunk);
+        Set<Pair> reviewed = new HashSet<>(jdbcTemplate.query(REVIEWED_PAIRS_SQL, chunk,
+                (rs, rowNum) -> new Pair(rs.getObject("patient_id", UUID.class), rs.getObject("duplicate_id", UUID.class))));
+        List<SqlParameterSource> duplicateRows = scored.stream()
+                .filter(pair -> !reviewed.contains(new Pair(pair.patientId(), pair.duplicateId())))
+                .map(pair -> (SqlParameterSource) new MapSqlParameterSource("facilityId", facilityId)
+                        .addValue("patientId", pair.patientId())
+                        .addValue("duplicateId", pair.duplicateId())
+                        .addValue("score", pair.score())
+                        .addValue("reasons", pair.reasons()))
+                .toList();
+        if (!duplicateRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DUPLICATE_SQL, duplicateRows.toArray(SqlParameterSource[]::new));
+        }
+
+        counters.changedPatients += changed.size();
+        counters.comparedPairs += candidates.size();
+        counters.duplicatePairs += duplicateRows.size();
+    }
+
+    private Map<String, List<UUID>> findBlocks(UUID facilityId, Set<String> keys) {
+        Map<String, List<UUID>> blocks = new HashMap<>();
+        if (keys.isEmpty()) {
+            return blocks;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("facilityId", facilityId)
+                .addValue("keys", keys)
+                .addValue("maxBlockSize", maxBlockSize);
+        jdbcTemplate.query(BLOCK_MEMBERS_SQL, params, rs -> {
+            blocks.computeIfAbsent(rs.getString("blocking_key"), key -> new ArrayList<>())
+                    .add(rs.getObject("patient_id", UUID.class));
+        });
+        return blocks;
+    }
+
+    private void loadFingerprints(UUID facilityId, Set<Pair> pairs, Map<UUID, PatientFingerprint> fingerprints) {
+        Set<UUID> missing = new LinkedHashSet<>();
+        for (Pair pair : pairs) {
+            if (!fingerprints.containsKey(pair.patientId())) {
+                missing.add(pair.patientId());
+            }
+            if (!fingerprints.containsKey(pair.duplicateId())) {
+                missing.add(pair.duplicateId());
+            }
+        }
+
+        List<UUID> ids = new ArrayList<>(missing);
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource("facilityId", facilityId)
+                    .addValue("ids", ids.subList(from, Math.min(ids.size(), from + LOAD_BATCH_SIZE)));
+            jdbcTemplate.query(PATIENTS_BY_ID_SQL, params, rs -> {
+                PatientFingerprint fingerprint = mapFingerprint(rs);
+                fingerprints.put(fingerprint.id(), fingerprint);
+            });
+        }
+    }
+
+    private static ChangedPatient mapChanged(ResultSet rs, int rowNum) throws SQLException {
+        return new ChangedPatient(mapFingerprint(rs), rs.getTimestamp("updated_at"));
+    }
+
+    private static PatientFingerprint mapFingerprint(ResultSet rs) throws SQLException {
+        return PatientFingerprint.of(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getObject("birth_date", LocalDate.class),
+                rs.getString("email"),
+                rs.getString("phone"));
+    }
+
+    private record ChangedPatient(PatientFingerprint fingerprint, Timestamp updatedAt) {
+    }
+
+    /**
+     * Position in the scan's {@code (updated_at, id)} order; the next chunk starts after it.
+     */
+    private record ScanCursor(Timestamp updatedAt, UUID id) {
+    }
+
+    /**
+     * A patient pair ordered the way PostgreSQL orders UUIDs, as the table's check constraint requires.
+     */
+    record Pair(UUID patientId, UUID duplicateId) {
+
+        static Pair of(UUID a, UUID b) {
+            // PostgreSQL compares UUIDs as unsigned bytes, which matches their text form, not UUID.compareTo
+            return a.toString().compareTo(b.toString()) < 0 ? new Pair(a, b) : new Pair(b, a);
+        }
+    }
+
+    private static final class ScanCounters {
+        private long changedPatients;
+        private long comparedPairs;
+        private long duplicatePairs;
+    }
+}
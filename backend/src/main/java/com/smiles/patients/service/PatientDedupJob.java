@@ -0,0 +1,75 @@
+package com.smiles.patients.service;
+
+import com.smiles.facilities.dto.FacilityDto;
+import com.smiles.facilities.service.FacilityService;
+import com.smiles.patients.dto.PatientDedupScanResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically scans every facility for new duplicate patients.
+ *
+ * Scans are incremental, so a run over facilities without changes is cheap.
+ * Several nodes may run the job; a facility being scanned elsewhere is skipped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "smiles.patients.dedup.schedule.enabled", havingValue = "true")
+public class PatientDedupJob {
+
+    private final FacilityService facilityService;
+    private final PatientDedupEngine patientDedupEngine;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public PatientDedupJob(
+            FacilityService facilityService,
+            PatientDedupEngine patientDedupEngine,
+            @Value("${smiles.patients.dedup.schedule.interval:10m}") Duration interval) {
+        this.facilityService = facilityService;
+        this.patientDedupEngine = patientDedupEngine;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "patient-dedup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::scanAll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void scanAll() {
+        try {
+            for (FacilityDto facility : facilityService.getAllFacilities()) {
+                try {
+                    PatientDedupScanResult result = patientDedupEngine.scanFacility(facility.getId());
+                    log.debug("Duplicate scan of facility {}: {}", facility.getId(), result);
+                } catch (RuntimeException e) {
+                    log.warn("Duplicate scan of facility {} failed: {}", facility.getId(), e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Duplicate scan failed to list facilities: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.smiles.patients.service;
+
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.sharding.AnyShard;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.patients.domain.PatientDuplicate;
+import com.smiles.patients.domain.PatientDuplicateStatus;
+import com.smiles.patients.dto.PatientDedupScanResult;
+import com.smiles.patients.dto.PatientDuplicateDto;
+import com.smiles.patients.mapper.PatientDuplicateMapper;
+import com.smiles.patients.repository.PatientDuplicateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for reviewing possible duplicate patients found by {@link PatientDedupEngine}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class PatientDuplicateService {
+
+    private final PatientDuplicateRepository patientDuplicateRepository;
+    private final PatientDuplicateMapper patientDuplicateMapper;
+    private final PatientDedupEngine patientDedupEngine;
+    private final SecurityUtils securityUtils;
+
+    /**
+     * Get a facility's pending duplicate pairs, most likely first.
+     */
+    public List<PatientDuplicateDto> getPendingDuplicates(@ShardKey UUID facilityId, Integer limit) {
+        log.debug("Getting pending duplicates for facility: {}", facilityId);
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return patientDuplicateRepository.findByFacilityIdAndStatus(
+                        facilityId, PatientDuplicateStatus.PENDING, Limit.of(CursorPage.resolveLimit(limit)))
+                .stream()
+                .map(patientDuplicateMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Scan a facility's new and changed patients for duplicates now.
+     * Runs outside a transaction, since the engine commits chunk by chunk.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PatientDedupScanResult scanFacility(@ShardKey UUID facilityId) {
+        log.info("Scanning facility {} for duplicate patients", facilityId);
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return patientDedupEngine.scanFacility(facilityId);
+    }
+
+    /**
+     * Record the review decision for a duplicate pair.
+     *
+     * @param id the pair ID
+     * @param status CONFIRMED or DISMISSED
+     */
+    @Transactional
+    @AnyShard(table = "patient_duplicate")
+    public PatientDuplicateDto reviewDuplicate(UUID id, PatientDuplicateStatus status) {
+        log.info("Marking patient duplicate {} as {}", id, status);
+        if (status == PatientDuplicateStatus.PENDING) {
+            throw new IllegalArgumentException("Review status must be CONFIRMED or DISMISSED");
+        }
+
+        PatientDuplicate duplicate = patientDuplicateRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Patient duplicate not found with id: " + id));
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(duplicate.getFacilityId());
+
+        duplicate.setStatus(status);
+        return patientDuplicateMapper.toDto(patientDuplicateRepository.saveAndFlush(duplicate));
+    }
+}
@@ -0,0 +1,50 @@
+package com.smiles.patients.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Normalized patient fields compared by the dedup engine.
+ *
+ * @param id the patient ID
+ * @param nameWords the name's words, lower case and without accents
+ * @param birthDate the birth date
+ * @param phoneDigits the last ten digits of the phone number, or null if it has fewer than seven
+ * @param email the lower-cased email without a {@code +tag}, or null
+ */
+record PatientFingerprint(UUID id, List<String> nameWords, LocalDate birthDate, String phoneDigits, String email) {
+
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int MAX_PHONE_DIGITS = 10;
+
+    static PatientFingerprint of(UUID id, String name, LocalDate birthDate, String email, String phone) {
+        return new PatientFingerprint(id, PatientNameIndex.words(name), birthDate, normalizePhone(phone), normalizeEmail(email));
+    }
+
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("[^0-9]", "");
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        // Drop country codes so +1 (602) 555-0100 matches 602-555-0100
+        return digits.length() > MAX_PHONE_DIGITS ? digits.substring(digits.length() - MAX_PHONE_DIGITS) : digits;
+    }
+
+    static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        int at = normalized.indexOf('@');
+        int plus = normalized.indexOf('+');
+        if (plus > 0 && plus < at) {
+            normalized = normalized.substring(0, plus) + normalized.substring(at);
+        }
+        return normalized;
+    }
+}
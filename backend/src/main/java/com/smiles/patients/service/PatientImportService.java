@@ -0,0 +1,404 @@
+package com.smiles.patients.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.persistence.UuidV7Generator;
+import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.security.SmilesPrincipalCache;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.patients.dto.CreatePatientRequest;
+import com.smiles.patients.dto.PatientImportResult;
+import com.smiles.patients.repository.PatientRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk importing patients from NDJSON or CSV streams.
+ *
+ * Rows are read one at a time, validated against the {@link CreatePatientRequest}
+ * rules and inserted with JDBC batches, each batch in its own transaction.
+ * Invalid or conflicting rows are reported individually and never abort the load.
+ * A CSV header that cannot be mapped is rejected up front with all its problems.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientImportService {
+
+    /**
+     * Supported input formats.
+     */
+    public enum Format {
+        /**
+         * One JSON object per line, using the {@link CreatePatientRequest} fields.
+         */
+        NDJSON,
+
+        /**
+         * Comma-separated values with a header row naming {@link CreatePatientRequest} fields.
+         */
+        CSV
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Set<String> CSV_COLUMNS = Set.of(
+            "facilityId", "keycloakUserId", "name", "birthDate", "email", "phone", "address", "active");
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "birthDate");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO patient (id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+                                 active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final PatientRepository patientRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final SecurityUtils securityUtils;
+    private final PatientPrefixIndex patientPrefixIndex;
+    private final SmilesPrincipalCache principalCache;
+
+    @Value("${smiles.patients.import.batch-size:1000}")
+    private int batchSize;
+
+    private record PendingRow(long line, CreatePatientRequest request) {
+    }
+
+    /**
+     * Import patients into a facility.
+     *
+     * @param facilityId the facility to import into; rows naming another facility are rejected
+     * @param input the NDJSON or CSV stream
+     * @param format the input format
+     * @return counts, per-row errors and throughput of the import
+     * @throws IOException if the stream cannot be read
+     * @throws InvalidImportHeaderException if the CSV header cannot be mapped; nothing is imported
+     */
+    public PatientImportResult importPatients(@ShardKey UUID facilityId, InputStream input, Format format) throws IOException {
+        log.debug("Importing patients for facility: {} from {}", facilityId, format);
+
+        // Check access permission once for the whole load
+        securityUtils.checkFacilityAccess(facilityId);
+
+        ImportRun run = new ImportRun(facilityId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        Map<String, Integer> csvColumns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(facilityId, line);
+                continue;
+            }
+
+            run.totalRows++;
+            try {
+                CreatePatientRequest request = format == Format.CSV
+                        ? parseCsvRow(line, csvColumns)
+                        : objectMapper.readValue(line, CreatePatientRequest.class);
+                accept(run, lineNumber, request);
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                run.reject(lineNumber, e.getMessage());
+            }
+
+            if (run.pending.size() >= batchSize) {
+                flush(run);
+            }
+        }
+        flush(run);
+
+        PatientImportResult result = run.toResult();
+        log.info("Imported {} of {} patients for facility: {} ({} failed) in {} ms ({} rows/s)",
+                result.getImported(), result.getTotalRows(), facilityId, result.getFailed(),
+                result.getDurationMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private void accept(ImportRun run, long line, CreatePatientRequest request) {
+        if (request.getFacilityId() == null) {
+            request.setFacilityId(run.facilityId);
+        } else if (!request.getFacilityId().equals(run.facilityId)) {
+            run.reject(line, "Facility ID does not match import facility: " + request.getFacilityId());
+            return;
+        }
+
+        Set<ConstraintViolation<CreatePatientRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            run.reject(line, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+
+        String keycloakUserId = request.getKeycloakUserId();
+        if (keycloakUserId != null && !run.seenKeycloakUserIds.add(keycloakUserId)) {
+            run.reject(line, "Duplicate Keycloak user ID in import: " + keycloakUserId);
+            return;
+        }
+
+        run.pending.add(new PendingRow(line, request));
+    }
+
+    private void flush(ImportRun run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+
+        List<PendingRow> batch = rejectExistingKeycloakUsers(run, run.pending);
+        run.pending = new ArrayList<>(batchSize);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(run, batch));
+            run.imported += batch.size();
+        } catch (DataAccessException e) {
+            // A row conflicted at insert time; retry row by row to isolate it
+            log.debug("Batch insert failed, retrying {} rows individually: {}", batch.size(), e.getMessage());
+            for (PendingRow row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertBatch(run, List.of(row)));
+                    run.imported++;
+                } catch (DataAccessException rowError) {
+                    run.reject(row.line(), "Insert failed: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        log.info("Patient import progress for facility {}: {} rows read, {} imported, {} failed",
+                run.facilityId, run.totalRows, run.imported, run.failed);
+    }
+
+    private List<PendingRow> rejectExistingKeycloakUsers(ImportRun run, List<PendingRow> rows) {
+        List<String> keycloakUserIds = rows.stream()
+                .map(row -> row.request().getKeycloakUserId())
+                .filter(id -> id != null)
+                .toList();
+        if (keycloakUserIds.isEmpty()) {
+            return rows;
+        }
+
+        Set<String> existing = new HashSet<>(patientRepository.findExistingKeycloakUserIds(keycloakUserIds));
+        if (existing.isEmpty()) {
+            return rows;
+        }
+
+        List<PendingRow> accepted = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            String keycloakUserId = row.request().getKeycloakUserId();
+            if (keycloakUserId != null && existing.contains(keycloakUserId)) {
+                run.reject(row.line(), "Patient already exists with Keycloak user ID: " + keycloakUserId);
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    private void insertBatch(ImportRun run, List<PendingRow> rows) {
+        Timestamp now = Timestamp.from(Instant.now());
+        // Applied after commit, so searches and cached principals see each batch as soon as it lands
+        patientPrefixIndex.evict(run.facilityId);
+        for (PendingRow row : rows) {
+            String keycloakUserId = row.request().getKeycloakUserId();
+            if (keycloakUserId != null) {
+                afterCommit(() -> principalCache.evictSubject(keycloakUserId));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (PreparedStatement ps, PendingRow row) -> {
+            CreatePatientRequest request = row.request();
+            ps.setObject(1, UuidV7Generator.randomUuid());
+            ps.setObject(2, request.getFacilityId());
+            ps.setString(3, request.getKeycloakUserId());
+            ps.setString(4, request.getName());
+            ps.setObject(5, request.getBirthDate());
+            ps.setString(6, request.getEmail());
+            ps.setString(7, request.getPhone());
+            ps.setString(8, request.getAddress());
+            ps.setBoolean(9, request.getActive() == null || request.getActive());
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Map<String, Integer> parseCsvHeader(UUID facilityId, String line) {
+        List<String> names;
+        try {
+            names = parseCsvLine(line);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportHeaderException(facilityId, List.of("Malformed CSV header: " + e.getMessage()));
+        }
+
+        List<String> problems = new ArrayList<>();
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            if (name.isEmpty()) {
+                problems.add("Column " + (i + 1) + " has no name");
+            } else if (!CSV_COLUMNS.contains(name)) {
+                problems.add("Unknown column '" + name + "'");
+            } else if (columns.putIfAbsent(name, i) != null) {
+                problems.add("Duplicate column '" + name + "'");
+            }
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                problems.add("Missing required column '" + required + "'");
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new InvalidImportHeaderException(facilityId, problems);
+        }
+        return columns;
+    }
+
+    private CreatePatientRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        String facilityId = column(values, columns, "facilityId");
+        String birthDate = column(values, columns, "birthDate");
+        String active = column(values, columns, "active");
+
+        return CreatePatientRequest.builder()
+                .facilityId(facilityId != null ? UUID.fromString(facilityId) : null)
+                .keycloakUserId(column(values, columns, "keycloakUserId"))
+                .name(column(values, columns, "name"))
+                .birthDate(birthDate != null ? LocalDate.parse(birthDate) : null)
+                .email(column(values, columns, "email"))
+                .phone(column(values, columns, "phone"))
+                .address(column(values, columns, "address"))
+                .active(active == null || Boolean.parseBoolean(active))
+                .build();
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Split a single CSV line, honouring double-quoted fields and escaped quotes.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    /**
+     * Mutable state of one import run.
+     */
+    private final class ImportRun {
+        private final UUID facilityId;
+        private final long startNanos = System.nanoTime();
+        private final Set<String> seenKeycloakUserIds = new HashSet<>();
+        private final List<PatientImportResult.RowError> errors = new ArrayList<>();
+        private List<PendingRow> pending = new ArrayList<>(batchSize);
+        private long totalRows;
+        private long imported;
+        private long failed;
+
+        private ImportRun(UUID facilityId) {
+            this.facilityId = facilityId;
+        }
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new PatientImportResult.RowError(line, message));
+            }
+        }
+
+        private PatientImportResult toResult() {
+            long durationNanos = System.nanoTime() - startNanos;
+            double seconds = durationNanos / 1_000_000_000d;
+            return PatientImportResult.builder()
+                    .facilityId(facilityId)
+                    .totalRows(totalRows)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .durationMillis(durationNanos / 1_000_000)
+                    .rowsPerSecond(seconds > 0 ? totalRows / seconds : 0)
+                    .build();
+        }
+    }
+}
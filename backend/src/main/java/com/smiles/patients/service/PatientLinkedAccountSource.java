@@ -0,0 +1,34 @@
+package com.smiles.patients.service;
+
+import com.smiles.common.security.LinkedAccountSource;
+import com.smiles.common.security.LinkedAccountType;
+import com.smiles.common.sharding.AnyShard;
+import com.smiles.patients.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves the patient record linked to a Keycloak user.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PatientLinkedAccountSource implements LinkedAccountSource {
+
+    private final PatientRepository patientRepository;
+
+    @Override
+    public LinkedAccountType type() {
+        return LinkedAccountType.PATIENT;
+    }
+
+    @Override
+    @AnyShard
+    public Optional<UUID> findLinkedId(String keycloakUserId) {
+        return patientRepository.findIdByKeycloakUserId(keycloakUserId);
+    }
+}
@@ -0,0 +1,228 @@
+package com.smiles.patients.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores how likely two patients are the same person.
+ *
+ * Name similarity (Jaro-Winkler, word order ignored), birth date, phone and
+ * email are weighted; a field missing on either side is left out and the
+ * remaining weights are renormalized, so a differing phone lowers the score
+ * but an unknown one does not.
+ */
+final class PatientMatchScorer {
+
+    private static final double NAME_WEIGHT = 0.45;
+    private static final double BIRTH_DATE_WEIGHT = 0.25;
+    private static final double PHONE_WEIGHT = 0.15;
+    private static final double EMAIL_WEIGHT = 0.15;
+
+    private static final double NAME_REASON_THRESHOLD = 0.9;
+
+    // Scoring a pair takes about a microsecond, so a task this small still outweighs forking it
+    private static final int MIN_TASK_SIZE = 256;
+    // Tasks per pool thread, so threads that finish early can steal work
+    private static final int TASKS_PER_THREAD = 4;
+
+    private PatientMatchScorer() {
+    }
+
+    record Match(double score, String reasons) {
+    }
+
+    record CandidatePair(PatientFingerprint patient, PatientFingerprint duplicate) {
+    }
+
+    record ScoredPair(UUID patientId, UUID duplicateId, double score, String reasons) {
+    }
+
+    /**
+     * Score two patients.
+     *
+     * @return the score in [0, 1] and the comma-separated fields that matched
+     */
+    static Match score(PatientFingerprint a, PatientFingerprint b) {
+        double weighted = 0;
+        double weights = 0;
+        List<String> reasons = new ArrayList<>(4);
+
+        if (!a.nameWords().isEmpty() && !b.nameWords().isEmpty()) {
+            double name = nameSimilarity(a.nameWords(), b.nameWords());
+            weighted += NAME_WEIGHT * name;
+            weights += NAME_WEIGHT;
+            if (name >= NAME_REASON_THRESHOLD) {
+                reasons.add("name");
+            }
+        }
+        if (a.birthDate() != null && b.birthDate() != null) {
+            double birthDate = birthDateSimilarity(a.birthDate(), b.birthDate());
+            weighted += BIRTH_DATE_WEIGHT * birthDate;
+            weights += BIRTH_DATE_WEIGHT;
+            if (birthDate == 1) {
+                reasons.add("birth_date");
+            }
+        }
+        if (a.phoneDigits() != null && b.phoneDigits() != null) {
+            boolean phone = a.phoneDigits().equals(b.phoneDigits());
+            weighted += phone ? PHONE_WEIGHT : 0;
+            weights += PHONE_WEIGHT;
+            if (phone) {
+                reasons.add("phone");
+            }
+        }
+        if (a.email() != null && b.email() != null) {
+            boolean email = a.email().equals(b.email());
+            weighted += email ? EMAIL_WEIGHT : 0;
+            weights += EMAIL_WEIGHT;
+            if (email) {
+                reasons.add("email");
+            }
+        }
+
+        double score = weights == 0 ? 0 : weighted / weights;
+        return new Match(score, String.join(",", reasons));
+    }
+
+    /**
+     * Score candidate pairs on a fork/join pool, split into a few tasks per pool thread.
+     *
+     * @return the pairs scoring at least the threshold
+     */
+    static List<ScoredPair> scoreAll(List<CandidatePair> pairs, double threshold, ForkJoinPool pool) {
+        if (pairs.isEmpty()) {
+            return List.of();
+        }
+        int taskSize = Math.max(MIN_TASK_SIZE, pairs.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+        return pool.invoke(new ScoringTask(pairs, 0, pairs.size(), threshold, taskSize));
+    }
+
+    /**
+     * Best Jaro-Winkler similarity of the names as written and with their words sorted.
+     */
+    static double nameSimilarity(List<String> a, List<String> b) {
+        double asWritten = jaroWinkler(String.join(" ", a), String.join(" ", b));
+        if (asWritten == 1) {
+            return asWritten;
+        }
+        double sorted = jaroWinkler(
+                String.join(" ", a.stream().sorted().toList()),
+                String.join(" ", b.stream().sorted().toList()));
+        return Math.max(asWritten, sorted);
+    }
+
+    /**
+     * 1 for the same date, 0.5 for swapped day and month or a single differing field, otherwise 0.
+     */
+    static double birthDateSimilarity(LocalDate a, LocalDate b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.getYear() == b.getYear()
+                && a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue()) {
+            return 0.5;
+        }
+        int same = (a.getYear() == b.getYear() ? 1 : 0)
+                + (a.getMonthValue() == b.getMonthValue() ? 1 : 0)
+                + (a.getDayOfMonth() == b.getDayOfMonth() ? 1 : 0);
+        return same == 2 ? 0.5 : 0;
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] aMatched = new boolean[a.length()];
+        boolean[] bMatched = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length(), i + window + 1);
+            for (int j = from; j < to; j++) {
+                if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+
+        int transpositions = 0;
+        int j = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (!aMatched[i]) {
+                continue;
+            }
+            while (!bMatched[j]) {
+                j++;
+            }
+            if (a.charAt(i) != b.charAt(j)) {
+                transpositions++;
+            }
+            j++;
+        }
+
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+
+        int prefix = 0;
+        int maxPrefix = Math.min(4, Math.min(a.length(), b.length()));
+        while (prefix < maxPrefix && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    private static final class ScoringTask extends RecursiveTask<List<ScoredPair>> {
+
+        private final List<CandidatePair> pairs;
+        private final int from;
+        private final int to;
+        private final double threshold;
+        private final int taskSize;
+
+        ScoringTask(List<CandidatePair> pairs, int from, int to, double threshold, int taskSize) {
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.taskSize = taskSize;
+        }
+
+        @Override
+        protected List<ScoredPair> compute() {
+            if (to - from <= taskSize) {
+                List<ScoredPair> scored = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    CandidatePair pair = pairs.get(i);
+                    Match match = score(pair.patient(), pair.duplicate());
+                    if (match.score() >= threshold) {
+                        scored.add(new ScoredPair(
+                                pair.patient().id(), pair.duplicate().id(), match.score(), match.reasons()));
+                    }
+                }
+                return scored;
+            }
+
+            int middle = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(pairs, from, middle, threshold, taskSize);
+            left.fork();
+            List<ScoredPair> scored = new ArrayList<>(new ScoringTask(pairs, middle, to, threshold, taskSize).compute());
+            scored.addAll(left.join());
+            return scored;
+        }
+    }
+}
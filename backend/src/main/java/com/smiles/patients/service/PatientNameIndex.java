@@ -0,0 +1,110 @@
+package com.smiles.patients.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Word-prefix index over the patient names of one facility.
+ *
+ * Every word of a name is a key, so "gar" finds "Maria Garcia". Words are
+ * lower-cased and stripped of accents. Lookups walk the keys starting with
+ * the longest query word and stop at the limit; keys whose patient does not
+ * match the other query words are skipped, so a short or common word may walk
+ * many keys before the limit is reached, up to every word in the facility.
+ */
+final class PatientNameIndex {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Add a patient, or replace the name of one already indexed.
+     */
+    void put(UUID id, String name) {
+        String previous = names.put(id, name);
+        if (previous != null) {
+            words(previous).forEach(word -> keys.remove(key(word, id)));
+        }
+        words(name).forEach(word -> keys.add(key(word, id)));
+    }
+
+    /**
+     * Remove a patient.
+     */
+    void remove(UUID id) {
+        String previous = names.remove(id);
+        if (previous != null) {
+            words(previous).forEach(word -> keys.remove(key(word, id)));
+        }
+    }
+
+    /**
+     * Number of indexed patients.
+     */
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * Find patients whose name has a word starting with every word of the query.
+     *
+     * @param query the query, e.g. "mar gar"
+     * @param limit the maximum number of results
+     * @return patient IDs ordered by the matched word
+     */
+    List<UUID> search(String query, int limit) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        // Walk the most selective (longest) word and filter on the others
+        String walked = queryWords.stream().reduce((a, b) -> b.length() > a.length() ? b : a).orElseThrow();
+        Set<UUID> hits = new LinkedHashSet<>();
+        for (String key : keys.subSet(walked, true, walked + Character.MAX_VALUE, false)) {
+            UUID id = UUID.fromString(key.substring(key.lastIndexOf(SEPARATOR) + 1));
+            String name = names.get(id);
+            if (name != null && !hits.contains(id) && matchesAll(words(name), queryWords)) {
+                hits.add(id);
+                if (hits.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return List.copyOf(hits);
+    }
+
+    /**
+     * Split text into normalized words: lower case, without accents.
+     */
+    static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    private static boolean matchesAll(List<String> nameWords, List<String> queryWords) {
+        return queryWords.stream().allMatch(queryWord -> nameWords.stream().anyMatch(word -> word.startsWith(queryWord)));
+    }
+
+    private static String key(String word, UUID id) {
+        return word + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,152 @@
+package com.smiles.patients.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Optional in-memory name index per facility for type-ahead patient search.
+ *
+ * A facility's index is built from the database on its first search and kept
+ * up to date by this node's patient writes, applied after commit. Writes made
+ * on other nodes show up once the entry expires, a TTL after it was built;
+ * local writes do not extend it. Searches only
+ * return IDs; callers load the patients, so stale entries never leak old data.
+ */
+@Slf4j
+@Component
+public class PatientPrefixIndex {
+
+    private static final String LOAD_SQL = "SELECT id, name FROM patient WHERE facility_id = ?";
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<UUID, PatientNameIndex> indexes;
+
+    public PatientPrefixIndex(
+            DataSource dataSource,
+            @Value("${smiles.patients.search.prefix-index.enabled:false}") boolean enabled,
+            @Value("${smiles.patients.search.prefix-index.max-facilities:20}") long maxFacilities,
+            @Value("${smiles.patients.search.prefix-index.ttl:10m}") Duration ttl,
+            @Value("${smiles.export.fetch-size:1000}") int fetchSize) {
+        this.enabled = enabled;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxFacilities)
+                .expireAfter(new Expiry<UUID, PatientNameIndex>() {
+                    @Override
+                    public long expireAfterCreate(UUID facilityId, PatientNameIndex index, long currentTime) {
+                        return ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID facilityId, PatientNameIndex index,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID facilityId, PatientNameIndex index,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Whether type-ahead searches should be served from memory.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Find patients of a facility whose name has a word starting with every word of the query.
+     * Must be called in the facility's shard; the first call per facility loads its names.
+     *
+     * @param facilityId the facility ID
+     * @param query the query
+     * @param limit the maximum number of results
+     * @return patient IDs ordered by the matched word
+     */
+    public List<UUID> search(UUID facilityId, String query, int limit) {
+        return indexes.get(facilityId, this::load).search(query, limit);
+    }
+
+    /**
+     * Record a created or renamed patient once the current transaction commits.
+     */
+    public void put(UUID facilityId, UUID patientId, String name) {
+        afterCommit(() -> apply(facilityId, index -> index.put(patientId, name)));
+    }
+
+    /**
+     * Forget a deleted patient once the current transaction commits.
+     */
+    public void remove(UUID facilityId, UUID patientId) {
+        afterCommit(() -> apply(facilityId, index -> index.remove(patientId)));
+    }
+
+    /**
+     * Drop a facility's index after bulk changes; it is rebuilt on the next search.
+     */
+    public void evict(UUID facilityId) {
+        afterCommit(() -> indexes.invalidate(facilityId));
+    }
+
+    /**
+     * Apply a committed write to the facility's index, if one is built or being built.
+     * A load in progress may have read its rows before the write committed, so the
+     * write waits for the load and is applied on top of it rather than being dropped.
+     */
+    private void apply(UUID facilityId, Consumer<PatientNameIndex> write) {
+        indexes.asMap().compute(facilityId, (id, index) -> {
+            if (index != null) {
+                write.accept(index);
+            }
+            return index;
+        });
+    }
+
+    private PatientNameIndex load(UUID facilityId) {
+        long start = System.nanoTime();
+        PatientNameIndex index = new PatientNameIndex();
+        jdbcTemplate.query(LOAD_SQL,
+                (RowCallbackHandler) rs -> index.put(rs.getObject("id", UUID.class), rs.getString("name")),
+                facilityId);
+        log.info("Built patient name index for facility {}: {} patients in {} ms",
+                facilityId, index.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return index;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.smiles.patients.service;
+
+import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.patients.domain.Patient;
+import com.smiles.patients.dto.PatientDto;
+import com.smiles.patients.mapper.PatientMapper;
+import com.smiles.patients.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for front desk patient lookup by name, phone, email or birth date.
+ *
+ * The query decides the search: a date searches birth dates, text with {@code @}
+ * searches emails, digits search phone numbers, anything else searches names.
+ * Name searches use the in-memory prefix index when it is enabled and the
+ * trigram indexes otherwise; the other searches always use the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class PatientSearchService {
+
+    /**
+     * Number of results when none is requested.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Upper bound on the number of results.
+     */
+    public static final int MAX_LIMIT = 50;
+
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final int MIN_PHONE_DIGITS = 3;
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("M/d/uuuu"));
+
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final PatientPrefixIndex patientPrefixIndex;
+    private final SecurityUtils securityUtils;
+
+    /**
+     * Search a facility's patients.
+     *
+     * @param facilityId the facility ID
+     * @param query the query as typed, at least three characters
+     * @param limit the requested number of results, or null for the default
+     * @return the best matches first
+     */
+    public List<PatientDto> searchPatients(@ShardKey UUID facilityId, String query, Integer limit) {
+        log.debug("Searching patients for facility: {} (query: {}, limit: {})", facilityId, query, limit);
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(facilityId);
+
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        int maxResults = resolveLimit(limit);
+
+        LocalDate birthDate = parseDate(trimmed);
+        List<Patient> patients;
+        if (birthDate != null) {
+            patients = patientRepository.findByBirthDate(facilityId, birthDate, Limit.of(maxResults));
+        } else if (trimmed.contains("@")) {
+            patients = patientRepository.searchByEmail(facilityId, likeEscape(trimmed.toLowerCase(Locale.ROOT)), maxResults);
+        } else if (isPhoneQuery(trimmed)) {
+            patients = patientRepository.searchByPhoneDigits(facilityId, trimmed.replaceAll("[^0-9]", ""), maxResults);
+        } else if (patientPrefixIndex.isEnabled()) {
+            patients = findInPrefixIndex(facilityId, trimmed, maxResults);
+        } else {
+            patients = patientRepository.searchByName(facilityId, trimmed, likeEscape(trimmed), maxResults);
+        }
+
+        return patients.stream()
+                .map(patientMapper::toDto)
+                .toList();
+    }
+
+    private List<Patient> findInPrefixIndex(UUID facilityId, String query, int maxResults) {
+        List<UUID> ids = patientPrefixIndex.search(facilityId, query, maxResults);
+        Map<UUID, Patient> byId = patientRepository.findAllById(ids).stream()
+                .filter(patient -> patient.getFacilityId().equals(facilityId))
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        // Names starting with the query first, then in index order
+        String prefix = query.toLowerCase(Locale.ROOT);
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(patient -> !patient.getName().toLowerCase(Locale.ROOT).startsWith(prefix)))
+                .toList();
+    }
+
+    private static int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Search limit must be positive: " + requested);
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    private static LocalDate parseDate(String query) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(query, format);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPhoneQuery(String query) {
+        return query.matches("[0-9()+.\\-\\s]+") && query.replaceAll("[^0-9]", "").length() >= MIN_PHONE_DIGITS;
+    }
+
+    private static String likeEscape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,64 +1,213 @@
 package com.smiles.patients.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.batch.BatchGetResult;
+import com.smiles.common.events.EntityChangeType;
+import com.smiles.common.events.PatientChangedEvent;
+import com.smiles.common.export.ExportFormat;
+import com.smiles.common.export.JdbcStreamingExporter;
+import com.smiles.common.metrics.Monitored;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.pagination.KeysetCursor;
+import com.smiles.common.persistence.ConstraintViolations;
 import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.security.SmilesPrincipalCache;
+import com.smiles.common.sharding.AnyShard;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.common.sharding.ShardRouter;
+import com.smiles.common.web.FacilityScopedVersion;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.PreconditionFailedException;
+import com.smiles.common.web.ResourceVersion;
+import com.smiles.patients.domain.ArchivedPatient;
 import com.smiles.patients.domain.Patient;
 import com.smiles.patients.dto.CreatePatientRequest;
 import com.smiles.patients.dto.PatientDto;
 import com.smiles.patients.dto.UpdatePatientRequest;
 import com.smiles.patients.mapper.PatientMapper;
+import com.smiles.patients.repository.ArchivedPatientRepository;
+import com.smiles.patients.repository.PatientDuplicateRepository;
 import com.smiles.patients.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Service for managing patients.
  */
 @Service
+@Monitored
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class PatientService {
 
+    private static final String EXPORT_SQL = """
+            SELECT id, facility_id, keycloak_user_id, name, birth_date, email, phone, address, active, created_at, updated_at
+            FROM patient
+            WHERE facility_id = ?
+            ORDER BY name, id
+            """;
+
+    private static final List<String> EXPORT_FIELDS = List.of(
+            "id", "facilityId", "keycloakUserId", "name", "birthDate", "email", "phone", "address", "active", "createdAt", "updatedAt");
+
+    // IN () is not valid SQL, so users without facilities pass an ID that matches nothing
+    private static final List<UUID> NO_FACILITIES = List.of(new UUID(0, 0));
+
     private final PatientRepository patientRepository;
+    private final ArchivedPatientRepository archivedPatientRepository;
+    private final PatientDuplicateRepository patientDuplicateRepository;
     private final PatientMapper patientMapper;
+    private final JsonMergePatch jsonMergePatch;
     private final SecurityUtils securityUtils;
+    private final JdbcStreamingExporter jdbcStreamingExporter;
+    private final SmilesPrincipalCache principalCache;
+    private final PatientPrefixIndex patientPrefixIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
 
     /**
-     * Get all patients for a facility.
+     * Get one keyset page of patients for a facility, ordered by name.
+     *
+     * @param facilityId the facility ID
+     * @param cursor the opaque cursor from the previous page, or null for the first page
+     * @param limit the requested page size, or null for the default
+     * @param activeOnly whether to return only active patients
+     * @return the page of patients
      */
-    public List<PatientDto> getPatientsByFacility(UUID facilityId) {
-        log.debug("Getting patients for facility: {}", facilityId);
+    public CursorPage<PatientDto> getPatientsByFacility(@ShardKey UUID facilityId, String cursor, Integer limit, boolean activeOnly) {
+        log.debug("Getting patients for facility: {} (cursor: {}, limit: {}, activeOnly: {})",
+                facilityId, cursor, limit, activeOnly);
 
         // Check access permission
         securityUtils.checkFacilityAccess(facilityId);
 
-        return patientRepository.findByFacilityId(facilityId).stream()
-                .map(patientMapper::toDto)
-                .toList();
+        int pageSize = CursorPage.resolveLimit(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // Rows are selected straight into DTOs; no entities enter the persistence context
+        List<PatientDto> rows;
+        if (after == null) {
+            rows = activeOnly
+                    ? patientRepository.findActivePage(facilityId, fetchLimit)
+                    : patientRepository.findPage(facilityId, fetchLimit);
+        } else {
+            rows = activeOnly
+                    ? patientRepository.findActivePageAfter(facilityId, after.name(), after.id(), fetchLimit)
+                    : patientRepository.findPageAfter(facilityId, after.name(), after.id(), fetchLimit);
+        }
+
+        return CursorPage.of(rows, pageSize, patient -> new KeysetCursor(patient.getName(), patient.getId()));
+    }
+
+    /**
+     * Get the version of a patient for conditional requests, without loading it.
+     *
+     * @param id the patient ID
+     * @return the update timestamp
+     */
+    @AnyShard
+    public ResourceVersion getPatientVersion(UUID id) {
+        FacilityScopedVersion version = patientRepository.findVersionById(id)
+                .or(() -> archivedPatientRepository.findVersionById(id))
+                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + id));
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(version.facilityId());
+
+        return version.resourceVersion();
+    }
+
+    /**
+     * Get many patients by ID with a single query per shard, including archived patients.
+     * IDs not in the patient table are looked up in the archive with one more query per shard.
+     * Access is checked once per distinct facility of the patients found.
+     *
+     * @param ids the requested IDs
+     * @return the patients found and the IDs that do not exist
+     */
+    public BatchGetResult<PatientDto> getPatientsByIds(Collection<UUID> ids) {
+        log.debug("Getting {} patients by id", ids.size());
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        List<Patient> found = shardRouter.gatherOwned(
+                () -> patientRepository.findAllById(distinctIds), Patient::getFacilityId);
+
+        // Look up the rest in the archive, as reads of a single patient do
+        Set<UUID> notFound = new LinkedHashSet<>(distinctIds);
+        found.forEach(patient -> notFound.remove(patient.getId()));
+        List<ArchivedPatient> archived = notFound.isEmpty()
+                ? List.of()
+                : shardRouter.gatherOwned(() -> archivedPatientRepository.findAllById(notFound), ArchivedPatient::getFacilityId);
+
+        // Check access permission
+        Stream.concat(found.stream().map(Patient::getFacilityId), archived.stream().map(ArchivedPatient::getFacilityId))
+                .distinct()
+                .forEach(securityUtils::checkFacilityAccess);
+
+        List<PatientDto> patients = new ArrayList<>(found.size() + archived.size());
+        found.forEach(patient -> patients.add(patientMapper.toDto(patient)));
+        archived.forEach(patient -> patients.add(patientMapper.toDto(patient)));
+        return BatchGetResult.of(distinctIds, patients, PatientDto::getId, Function.identity());
+    }
+
+    /**
+     * Export all patients of a facility as a stream, without loading them into memory.
+     *
+     * @param facilityId the facility ID
+     * @param format the output format
+     * @param gzip whether to gzip the output
+     * @return the streaming response body
+     */
+    public StreamingResponseBody exportPatients(@ShardKey UUID facilityId, ExportFormat format, boolean gzip) {
+        log.debug("Exporting patients for facility: {} as {}", facilityId, format);
+
+        // Check access permission before streaming starts
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return jdbcStreamingExporter.stream(EXPORT_SQL, EXPORT_FIELDS, format, gzip, facilityId);
     }
 
     /**
-     * Get patient by ID.
+     * Get patient by ID, including archived patients.
      */
+    @AnyShard
     public PatientDto getPatientById(UUID id) {
         log.debug("Getting patient by id: {}", id);
-        Patient patient = patientRepository.findById(id)
+        PatientDto patient = patientRepository.findById(id)
+                .map(patientMapper::toDto)
+                .or(() -> archivedPatientRepository.findById(id).map(patientMapper::toDto))
                 .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + id));
 
         // Check access permission
         securityUtils.checkFacilityAccess(patient.getFacilityId());
 
-        return patientMapper.toDto(patient);
+        return patient;
     }
 
     /**
      * Get patient by Keycloak user ID.
      */
+    @AnyShard
     public PatientDto getPatientByKeycloakUserId(String keycloakUserId) {
         log.debug("Getting patient by Keycloak user ID: {}", keycloakUserId);
         Patient patient = patientRepository.findByKeycloakUserId(keycloakUserId)
@@ -71,18 +220,18 @@ public class PatientService {
      * Create a new patient.
      */
     @Transactional
-    public PatientDto createPatient(CreatePatientRequest request) {
+    public PatientDto createPatient(@ShardKey CreatePatientRequest request) {
         log.debug("Creating patient: {} for facility: {}", request.getName(), request.getFacilityId());
 
         // Check access permission
         securityUtils.checkFacilityAccess(request.getFacilityId());
 
-        if (request.getKeycloakUserId() != null && patientRepository.existsByKeycloakUserId(request.getKeycloakUserId())) {
-            throw new IllegalArgumentException("Patient already exists with Keycloak user ID: " + request.getKeycloakUserId());
-        }
-
         Patient patient = patientMapper.toEntity(request);
-        Patient savedPatient = patientRepository.save(patient);
+        Patient savedPatient = saveAndFlush(patient,
+                "Patient already exists with Keycloak user ID: " + request.getKeycloakUserId());
+        principalCache.evictSubject(savedPatient.getKeycloakUserId());
+        patientPrefixIndex.put(savedPatient.getFacilityId(), savedPatient.getId(), savedPatient.getName());
+        eventPublisher.publishEvent(new PatientChangedEvent(savedPatient.getId(), savedPatient.getFacilityId(), EntityChangeType.CREATED));
         log.info("Created patient: {} with id: {}", savedPatient.getName(), savedPatient.getId());
 
         return patientMapper.toDto(savedPatient);
@@ -90,45 +239,128 @@ public class PatientService {
 
     /**
      * Update an existing patient.
+     *
+     * @param id the patient ID
+     * @param request the fields to change
+     * @param expectedVersion the version from {@code If-Match}, or null to skip the precondition
+     * @return the updated patient
      */
     @Transactional
-    public PatientDto updatePatient(UUID id, UpdatePatientRequest request) {
+    @AnyShard(table = "patient")
+    public PatientDto updatePatient(UUID id, UpdatePatientRequest request, Long expectedVersion) {
         log.debug("Updating patient with id: {}", id);
 
+        // The statement only updates patients of the user's facilities, at the expected version
+        Patient updatedPatient = writeInAccessibleFacility(
+                (allFacilities, facilityIds) -> patientRepository.updateReturning(id, allFacilities, facilityIds,
+                        expectedVersion, request.getName(), request.getBirthDate(), request.getEmail(),
+                        request.getPhone(), request.getAddress(), request.getActive()),
+                () -> patientRepository.findVersionById(id),
+                expectedVersion,
+                "Patient not found with id: " + id);
+
+        patientPrefixIndex.put(updatedPatient.getFacilityId(), updatedPatient.getId(), updatedPatient.getName());
+        eventPublisher.publishEvent(new PatientChangedEvent(id, updatedPatient.getFacilityId(), EntityChangeType.UPDATED));
+        log.info("Updated patient with id: {}", id);
+
+        return patientMapper.toDto(updatedPatient);
+    }
+
+    /**
+     * Apply a JSON Merge Patch to a patient, writing only the changed columns.
+     *
+     * @param id the patient ID
+     * @param patch the merge patch
+     * @param expectedVersion the version from {@code If-Match}, or null to skip the precondition
+     * @return the patched patient
+     */
+    @Transactional
+    @AnyShard(table = "patient")
+    public PatientDto patchPatient(UUID id, JsonNode patch, Long expectedVersion) {
+        log.debug("Patching patient with id: {}", id);
+
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + id));
 
         // Check access permission
         securityUtils.checkFacilityAccess(patient.getFacilityId());
+        IfMatch.check(expectedVersion, patient.getVersion());
 
-        patientMapper.updateEntityFromDto(request, patient);
-        Patient updatedPatient = patientRepository.save(patient);
-        log.info("Updated patient with id: {}", id);
+        UpdatePatientRequest current = patientMapper.toUpdateRequest(patient);
+        UpdatePatientRequest merged = jsonMergePatch.apply(patch, current);
+        if (merged.equals(current)) {
+            return patientMapper.toDto(patient);
+        }
 
-        return patientMapper.toDto(updatedPatient);
+        patientMapper.patchEntity(merged, patient);
+        Patient patchedPatient = saveAndFlush(patient,
+                "Patient already exists with Keycloak user ID: " + patient.getKeycloakUserId());
+        patientPrefixIndex.put(patchedPatient.getFacilityId(), patchedPatient.getId(), patchedPatient.getName());
+        eventPublisher.publishEvent(new PatientChangedEvent(id, patchedPatient.getFacilityId(), EntityChangeType.UPDATED));
+        log.info("Patched patient with id: {}", id);
+
+        return patientMapper.toDto(patchedPatient);
     }
 
     /**
      * Delete a patient.
      */
     @Transactional
+    @AnyShard(table = "patient")
     public void deletePatient(UUID id) {
         log.debug("Deleting patient with id: {}", id);
 
-        Patient patient = patientRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + id));
+        // The statement only deletes patients of the user's facilities
+        Patient patient = writeInAccessibleFacility(
+                (allFacilities, facilityIds) -> patientRepository.deleteReturning(id, allFacilities, facilityIds),
+                () -> patientRepository.findVersionById(id),
+                null,
+                "Patient not found with id: " + id);
+
+        // Duplicate pairs outlive archival, so no foreign key deletes them
+        patientDuplicateRepository.deleteByPatient(patient.getFacilityId(), patient.getId());
+        principalCache.evictSubject(patient.getKeycloakUserId());
+        patientPrefixIndex.remove(patient.getFacilityId(), patient.getId());
+        eventPublisher.publishEvent(new PatientChangedEvent(id, patient.getFacilityId(), EntityChangeType.DELETED));
+        log.info("Deleted patient with id: {}", id);
+    }
 
-        // Check access permission
-        securityUtils.checkFacilityAccess(patient.getFacilityId());
+    /**
+     * Move an archived patient back to the patient table and reactivate it.
+     */
+    @Transactional
+    @AnyShard(table = "patient_archive")
+    public PatientDto restorePatient(UUID id) {
+        log.debug("Restoring archived patient with id: {}", id);
+
+        // The statement only restores patients of the user's facilities
+        Patient patient;
+        try {
+            patient = writeInAccessibleFacility(
+                    (allFacilities, facilityIds) -> patientRepository.restoreReturning(id, allFacilities, facilityIds),
+                    () -> archivedPatientRepository.findVersionById(id),
+                    null,
+                    "Archived patient not found with id: " + id);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, "uk_patient_keycloak_user")) {
+                throw new IllegalArgumentException("Keycloak user ID already linked to another patient");
+            }
+            throw e;
+        }
 
-        patientRepository.deleteById(id);
-        log.info("Deleted patient with id: {}", id);
+        principalCache.evictSubject(patient.getKeycloakUserId());
+        patientPrefixIndex.put(patient.getFacilityId(), patient.getId(), patient.getName());
+        eventPublisher.publishEvent(new PatientChangedEvent(id, patient.getFacilityId(), EntityChangeType.UPDATED));
+        log.info("Restored archived patient with id: {}", id);
+
+        return patientMapper.toDto(patient);
     }
 
     /**
      * Link a Keycloak user to a patient.
      */
     @Transactional
+    @AnyShard(table = "patient")
     public PatientDto linkKeycloakUser(UUID patientId, String keycloakUserId) {
         log.debug("Linking Keycloak user {} to patient {}", keycloakUserId, patientId);
 
@@ -138,14 +370,61 @@ public class PatientService {
         // Check access permission
         securityUtils.checkFacilityAccess(patient.getFacilityId());
 
-        if (patientRepository.existsByKeycloakUserId(keycloakUserId)) {
-            throw new IllegalArgumentException("Keycloak user ID already linked to another patient");
-        }
-
+        String previousKeycloakUserId = patient.getKeycloakUserId();
         patient.setKeycloakUserId(keycloakUserId);
-        Patient updatedPatient = patientRepository.save(patient);
+        Patient updatedPatient = saveAndFlush(patient, "Keycloak user ID already linked to another patient");
+        principalCache.evictSubject(previousKeycloakUserId);
+        principalCache.evictSubject(keycloakUserId);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, updatedPatient.getFacilityId(), EntityChangeType.UPDATED));
         log.info("Linked Keycloak user {} to patient {}", keycloakUserId, patientId);
 
         return patientMapper.toDto(updatedPatient);
     }
+
+    /**
+     * Write a patient, relying on the unique constraint to reject duplicate Keycloak links.
+     */
+    private Patient saveAndFlush(Patient patient, String keycloakConflictMessage) {
+        try {
+            return patientRepository.saveAndFlush(patient);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, "uk_patient_keycloak_user")) {
+                throw new IllegalArgumentException(keycloakConflictMessage);
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Patient was modified concurrently: " + patient.getId());
+        }
+    }
+
+    /**
+     * Run a single-statement write that only touches rows of the user's facilities.
+     * If nothing was written, a patient in another facility is denied, one at another
+     * version than expected fails the precondition, and any other case is reported as
+     * not found. The shard check runs on the written row.
+     */
+    private Patient writeInAccessibleFacility(
+            FacilityScopedWrite write,
+            Supplier<Optional<FacilityScopedVersion>> existing,
+            Long expectedVersion,
+            String notFoundMessage) {
+        Set<UUID> accessible = securityUtils.getAccessibleFacilityIds();
+        boolean allFacilities = accessible == null;
+        Collection<UUID> facilityIds = allFacilities || accessible.isEmpty() ? NO_FACILITIES : accessible;
+
+        Patient patient = write.apply(allFacilities, facilityIds).orElseGet(() -> {
+            existing.get().ifPresent(version -> {
+                securityUtils.checkFacilityAccess(version.facilityId());
+                IfMatch.check(expectedVersion, version.version());
+            });
+            throw new IllegalArgumentException(notFoundMessage);
+        });
+        shardRouter.verifyOwnership(patient.getFacilityId());
+        return patient;
+    }
+
+    @FunctionalInterface
+    private interface FacilityScopedWrite {
+        Optional<Patient> apply(boolean allFacilities, Collection<UUID> facilityIds);
+    }
 }
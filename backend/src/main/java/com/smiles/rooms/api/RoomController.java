@@ -1,5 +1,14 @@
 package com.smiles.rooms.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.batch.BatchGetRequest;
+import com.smiles.common.batch.BatchGetResult;
+import com.smiles.common.export.ExportFormat;
+import com.smiles.common.export.ExportResponses;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.rooms.dto.CreateRoomRequest;
 import com.smiles.rooms.dto.RoomDto;
 import com.smiles.rooms.dto.UpdateRoomRequest;
@@ -7,12 +16,14 @@ import com.smiles.rooms.service.RoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -27,21 +38,57 @@ public class RoomController {
     private final RoomService roomService;
 
     /**
-     * Get all rooms for a facility.
+     * Get a page of rooms for a facility, ordered by name.
      */
     @GetMapping
-    public ResponseEntity<List<RoomDto>> getRoomsByFacility(@RequestParam UUID facilityId) {
+    public ResponseEntity<CursorPage<RoomDto>> getRoomsByFacility(
+            @RequestParam UUID facilityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
         log.debug("GET /rooms?facilityId={} - Get rooms by facility", facilityId);
-        List<RoomDto> rooms = roomService.getRoomsByFacility(facilityId);
+        CursorPage<RoomDto> rooms = roomService.getRoomsByFacility(facilityId, cursor, limit);
+        ResourceVersion version = ResourceVersion.ofPage(rooms, RoomDto::getId, RoomDto::getVersion);
+        if (webRequest.checkNotModified(version.etag())) {
+            return null;
+        }
         return ResponseEntity.ok(rooms);
     }
 
+    /**
+     * Get many rooms by ID in one call.
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResult<RoomDto>> getRoomsByIds(@Valid @RequestBody BatchGetRequest request) {
+        log.debug("POST /rooms/batch-get - Get {} rooms by ID", request.getIds().size());
+        BatchGetResult<RoomDto> result = roomService.getRoomsByIds(request.getIds());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Export all rooms of a facility as a stream (NDJSON or CSV, optionally gzipped).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRooms(
+            @RequestParam UUID facilityId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("GET /rooms/export?facilityId={} - Export rooms as {}", facilityId, format);
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        StreamingResponseBody body = roomService.exportRooms(facilityId, exportFormat, gzip);
+        return ExportResponses.of("rooms-" + facilityId, exportFormat, gzip, body);
+    }
+
     /**
      * Get room by ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<RoomDto> getRoomById(@PathVariable UUID id) {
+    public ResponseEntity<RoomDto> getRoomById(@PathVariable UUID id, WebRequest webRequest) {
         log.debug("GET /rooms/{} - Get room by ID", id);
+        ResourceVersion version = roomService.getRoomVersion(id);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
         RoomDto room = roomService.getRoomById(id);
         return ResponseEntity.ok(room);
     }
@@ -70,6 +117,23 @@ public class RoomController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Partially update a room (admin and receptionist) with a JSON Merge Patch.
+     * An {@code If-Match} header holding the ETag from a previous read guards against lost updates.
+     */
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @PreAuthorize("hasAnyRole('admin', 'receptionist')")
+    public ResponseEntity<RoomDto> patchRoom(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.debug("PATCH /rooms/{} - Patch room", id);
+        RoomDto patched = roomService.patchRoom(id, patch, IfMatch.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ResourceVersion.of(patched.getVersion(), patched.getUpdatedAt()).etag())
+                .body(patched);
+    }
+
     /**
      * Delete a room (admin only).
      */
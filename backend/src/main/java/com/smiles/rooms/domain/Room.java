@@ -1,8 +1,13 @@
 package com.smiles.rooms.domain;
 
+import com.smiles.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
@@ -12,9 +17,12 @@ import java.util.UUID;
  * Room entity representing a treatment room or operatory.
  */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(
     name = "room",
-    uniqueConstraints = @UniqueConstraint(columnNames = {"facility_id", "name"})
+    uniqueConstraints = @UniqueConstraint(name = "uk_room_facility_name", columnNames = {"facility_id", "name"})
 )
 @Getter
 @Setter
@@ -24,7 +32,7 @@ import java.util.UUID;
 public class Room {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "facility_id", nullable = false)
@@ -44,4 +52,9 @@ public class Room {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
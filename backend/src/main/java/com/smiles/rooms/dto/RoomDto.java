@@ -23,4 +23,6 @@ public class RoomDto {
     private RoomType type;
     private Instant createdAt;
     private Instant updatedAt;
+
+    private Long version;
 }
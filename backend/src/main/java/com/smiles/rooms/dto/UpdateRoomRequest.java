@@ -1,6 +1,9 @@
 package com.smiles.rooms.dto;
 
+import com.smiles.common.web.JsonMergePatch;
 import com.smiles.rooms.domain.RoomType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,8 +19,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UpdateRoomRequest {
 
+    @NotBlank(message = "Room name is required", groups = JsonMergePatch.Merged.class)
     @Size(max = 100, message = "Name cannot exceed 100 characters")
     private String name;
 
+    @NotNull(message = "Room type is required", groups = JsonMergePatch.Merged.class)
     private RoomType type;
 }
@@ -18,4 +18,14 @@ public interface RoomMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromDto(UpdateRoomRequest request, @MappingTarget Room room);
+
+    /**
+     * Current state as an update DTO, the target of a JSON Merge Patch.
+     */
+    UpdateRoomRequest toUpdateRequest(Room room);
+
+    /**
+     * Copy a merged update DTO onto the entity, including fields the patch removed.
+     */
+    void patchEntity(UpdateRoomRequest request, @MappingTarget Room room);
 }
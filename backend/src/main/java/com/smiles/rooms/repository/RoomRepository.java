@@ -1,8 +1,16 @@
 package com.smiles.rooms.repository;
 
+import com.smiles.common.web.FacilityScopedVersion;
 import com.smiles.rooms.domain.Room;
 import com.smiles.rooms.domain.RoomType;
+import com.smiles.rooms.dto.RoomDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -20,18 +28,47 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
      */
     List<Room> findByFacilityId(UUID facilityId);
 
+    /**
+     * Find the first keyset page of rooms for a facility, ordered by (name, id), selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.rooms.dto.RoomDto(r.id, r.facilityId, r.name, r.type, r.createdAt, r.updatedAt, r.version)
+            FROM Room r
+            WHERE r.facilityId = :facilityId
+            ORDER BY r.name ASC, r.id ASC
+            """)
+    List<RoomDto> findPage(@Param("facilityId") UUID facilityId, Limit limit);
+
+    /**
+     * Find the keyset page of rooms for a facility following the given (name, id) position, selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.rooms.dto.RoomDto(r.id, r.facilityId, r.name, r.type, r.createdAt, r.updatedAt, r.version)
+            FROM Room r
+            WHERE r.facilityId = :facilityId
+              AND (r.name > :name OR (r.name = :name AND r.id > :id))
+            ORDER BY r.name ASC, r.id ASC
+            """)
+    List<RoomDto> findPageAfter(
+            @Param("facilityId") UUID facilityId,
+            @Param("name") String name,
+            @Param("id") UUID id,
+            Limit limit);
+
+    /**
+     * Find the facility and update timestamp of a room without loading the entity.
+     */
+    @Query("SELECT new com.smiles.common.web.FacilityScopedVersion(r.facilityId, r.version, r.updatedAt) FROM Room r WHERE r.id = :id")
+    Optional<FacilityScopedVersion> findVersionById(@Param("id") UUID id);
+
     /**
      * Find all rooms for a facility by type.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Room> findByFacilityIdAndType(UUID facilityId, RoomType type);
 
     /**
      * Find room by facility and name.
      */
     Optional<Room> findByFacilityIdAndName(UUID facilityId, String name);
-
-    /**
-     * Check if room exists by facility and name.
-     */
-    boolean existsByFacilityIdAndName(UUID facilityId, String name);
 }
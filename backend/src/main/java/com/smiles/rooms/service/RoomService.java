@@ -1,6 +1,25 @@
 package com.smiles.rooms.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.batch.BatchGetResult;
+import com.smiles.common.events.EntityChangeType;
+import com.smiles.common.events.FacilityReferenceDataChangedEvent;
+import com.smiles.common.events.RoomChangedEvent;
+import com.smiles.common.export.ExportFormat;
+import com.smiles.common.export.JdbcStreamingExporter;
+import com.smiles.common.metrics.Monitored;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.pagination.KeysetCursor;
+import com.smiles.common.persistence.ConstraintViolations;
 import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.sharding.AnyShard;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.common.sharding.ShardRouter;
+import com.smiles.common.web.FacilityScopedVersion;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.PreconditionFailedException;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.rooms.domain.Room;
 import com.smiles.rooms.domain.RoomType;
 import com.smiles.rooms.dto.CreateRoomRequest;
@@ -10,42 +29,149 @@ import com.smiles.rooms.mapper.RoomMapper;
 import com.smiles.rooms.repository.RoomRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Service for managing rooms.
  */
 @Service
+@Monitored
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class RoomService {
 
+    private static final String EXPORT_SQL = """
+            SELECT id, facility_id, name, type, created_at, updated_at
+            FROM room
+            WHERE facility_id = ?
+            ORDER BY name, id
+            """;
+
+    private static final List<String> EXPORT_FIELDS = List.of(
+            "id", "facilityId", "name", "type", "createdAt", "updatedAt");
+
     private final RoomRepository roomRepository;
     private final RoomMapper roomMapper;
+    private final JsonMergePatch jsonMergePatch;
     private final SecurityUtils securityUtils;
+    private final JdbcStreamingExporter jdbcStreamingExporter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Get one keyset page of rooms for a facility, ordered by name.
+     *
+     * @param facilityId the facility ID
+     * @param cursor the opaque cursor from the previous page, or null for the first page
+     * @param limit the requested page size, or null for the default
+     * @return the page of rooms
+     */
+    public CursorPage<RoomDto> getRoomsByFacility(@ShardKey UUID facilityId, String cursor, Integer limit) {
+        log.debug("Getting rooms for facility: {} (cursor: {}, limit: {})", facilityId, cursor, limit);
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(facilityId);
+
+        int pageSize = CursorPage.resolveLimit(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // Rows are selected straight into DTOs; no entities enter the persistence context
+        List<RoomDto> rows = after == null
+                ? roomRepository.findPage(facilityId, fetchLimit)
+                : roomRepository.findPageAfter(facilityId, after.name(), after.id(), fetchLimit);
+
+        return CursorPage.of(rows, pageSize, room -> new KeysetCursor(room.getName(), room.getId()));
+    }
+
+    /**
+     * Get all rooms of a facility, ordered by name.
+     *
+     * @param facilityId the facility ID
+     * @return the rooms
+     */
+    public List<RoomDto> getAllRoomsByFacility(@ShardKey UUID facilityId) {
+        log.debug("Getting all rooms for facility: {}", facilityId);
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return roomRepository.findPage(facilityId, Limit.unlimited());
+    }
+
+    /**
+     * Get the version of a room for conditional requests, without loading it.
+     *
+     * @param id the room ID
+     * @return the update timestamp
+     */
+    @AnyShard
+    public ResourceVersion getRoomVersion(UUID id) {
+        FacilityScopedVersion version = roomRepository.findVersionById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Room not found with id: " + id));
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(version.facilityId());
+
+        return version.resourceVersion();
+    }
 
     /**
-     * Get all rooms for a facility.
+     * Get many rooms by ID with a single query per shard.
+     * Access is checked once per distinct facility of the rooms found.
+     *
+     * @param ids the requested IDs
+     * @return the rooms found and the IDs that do not exist
      */
-    public List<RoomDto> getRoomsByFacility(UUID facilityId) {
-        log.debug("Getting rooms for facility: {}", facilityId);
+    public BatchGetResult<RoomDto> getRoomsByIds(Collection<UUID> ids) {
+        log.debug("Getting {} rooms by id", ids.size());
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        List<Room> found = shardRouter.gatherOwned(
+                () -> roomRepository.findAllById(distinctIds), Room::getFacilityId);
 
         // Check access permission
+        found.stream()
+                .map(Room::getFacilityId)
+                .distinct()
+                .forEach(securityUtils::checkFacilityAccess);
+
+        return BatchGetResult.of(distinctIds, found, Room::getId, roomMapper::toDto);
+    }
+
+    /**
+     * Export all rooms of a facility as a stream, without loading them into memory.
+     *
+     * @param facilityId the facility ID
+     * @param format the output format
+     * @param gzip whether to gzip the output
+     * @return the streaming response body
+     */
+    public StreamingResponseBody exportRooms(@ShardKey UUID facilityId, ExportFormat format, boolean gzip) {
+        log.debug("Exporting rooms for facility: {} as {}", facilityId, format);
+
+        // Check access permission before streaming starts
         securityUtils.checkFacilityAccess(facilityId);
 
-        return roomRepository.findByFacilityId(facilityId).stream()
-                .map(roomMapper::toDto)
-                .toList();
+        return jdbcStreamingExporter.stream(EXPORT_SQL, EXPORT_FIELDS, format, gzip, facilityId);
     }
 
     /**
      * Get room by ID.
      */
+    @AnyShard
     public RoomDto getRoomById(UUID id) {
         log.debug("Getting room by id: {}", id);
         Room room = roomRepository.findById(id)
@@ -61,20 +187,16 @@ public class RoomService {
      * Create a new room.
      */
     @Transactional
-    public RoomDto createRoom(CreateRoomRequest request) {
+    public RoomDto createRoom(@ShardKey CreateRoomRequest request) {
         log.debug("Creating room: {} for facility: {}", request.getName(), request.getFacilityId());
 
         // Check access permission
         securityUtils.checkFacilityAccess(request.getFacilityId());
 
-        if (roomRepository.existsByFacilityIdAndName(request.getFacilityId(), request.getName())) {
-            throw new IllegalArgumentException(
-                    "Room already exists with name: " + request.getName() + " in facility: " + request.getFacilityId()
-            );
-        }
-
         Room room = roomMapper.toEntity(request);
-        Room savedRoom = roomRepository.save(room);
+        Room savedRoom = saveAndFlush(room);
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(savedRoom.getFacilityId()));
+        eventPublisher.publishEvent(new RoomChangedEvent(savedRoom.getId(), savedRoom.getFacilityId(), EntityChangeType.CREATED));
         log.info("Created room: {} with id: {}", savedRoom.getName(), savedRoom.getId());
 
         return roomMapper.toDto(savedRoom);
@@ -84,6 +206,7 @@ public class RoomService {
      * Update an existing room.
      */
     @Transactional
+    @AnyShard(table = "room")
     public RoomDto updateRoom(UUID id, UpdateRoomRequest request) {
         log.debug("Updating room with id: {}", id);
 
@@ -93,26 +216,55 @@ public class RoomService {
         // Check access permission
         securityUtils.checkFacilityAccess(room.getFacilityId());
 
-        // Check if name is being changed and if it conflicts
-        if (request.getName() != null && !request.getName().equals(room.getName())) {
-            if (roomRepository.existsByFacilityIdAndName(room.getFacilityId(), request.getName())) {
-                throw new IllegalArgumentException(
-                        "Room already exists with name: " + request.getName() + " in facility: " + room.getFacilityId()
-                );
-            }
-        }
-
         roomMapper.updateEntityFromDto(request, room);
-        Room updatedRoom = roomRepository.save(room);
+        Room updatedRoom = saveAndFlush(room);
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(updatedRoom.getFacilityId()));
+        eventPublisher.publishEvent(new RoomChangedEvent(id, updatedRoom.getFacilityId(), EntityChangeType.UPDATED));
         log.info("Updated room with id: {}", id);
 
         return roomMapper.toDto(updatedRoom);
     }
 
+    /**
+     * Apply a JSON Merge Patch to a room, writing only the changed columns.
+     *
+     * @param id the room ID
+     * @param patch the merge patch
+     * @param expectedVersion the version from {@code If-Match}, or null to skip the precondition
+     * @return the patched room
+     */
+    @Transactional
+    @AnyShard(table = "room")
+    public RoomDto patchRoom(UUID id, JsonNode patch, Long expectedVersion) {
+        log.debug("Patching room with id: {}", id);
+
+        Room room = roomRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Room not found with id: " + id));
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(room.getFacilityId());
+        IfMatch.check(expectedVersion, room.getVersion());
+
+        UpdateRoomRequest current = roomMapper.toUpdateRequest(room);
+        UpdateRoomRequest merged = jsonMergePatch.apply(patch, current);
+        if (merged.equals(current)) {
+            return roomMapper.toDto(room);
+        }
+
+        roomMapper.patchEntity(merged, room);
+        Room patchedRoom = saveAndFlush(room);
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(patchedRoom.getFacilityId()));
+        eventPublisher.publishEvent(new RoomChangedEvent(id, patchedRoom.getFacilityId(), EntityChangeType.UPDATED));
+        log.info("Patched room with id: {}", id);
+
+        return roomMapper.toDto(patchedRoom);
+    }
+
     /**
      * Delete a room.
      */
     @Transactional
+    @AnyShard(table = "room")
     public void deleteRoom(UUID id) {
         log.debug("Deleting room with id: {}", id);
 
@@ -122,7 +274,27 @@ public class RoomService {
         // Check access permission
         securityUtils.checkFacilityAccess(room.getFacilityId());
 
-        roomRepository.deleteById(id);
+        roomRepository.delete(room);
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(room.getFacilityId()));
+        eventPublisher.publishEvent(new RoomChangedEvent(id, room.getFacilityId(), EntityChangeType.DELETED));
         log.info("Deleted room with id: {}", id);
     }
+
+    /**
+     * Write a room, relying on the unique constraint to reject duplicate names within a facility.
+     */
+    private Room saveAndFlush(Room room) {
+        try {
+            return roomRepository.saveAndFlush(room);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, "uk_room_facility_name")) {
+                throw new IllegalArgumentException(
+                        "Room already exists with name: " + room.getName() + " in facility: " + room.getFacilityId()
+                );
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Room was modified concurrently: " + room.getId());
+        }
+    }
 }
@@ -1,5 +1,14 @@
 package com.smiles.staff.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.batch.BatchGetRequest;
+import com.smiles.common.batch.BatchGetResult;
+import com.smiles.common.export.ExportFormat;
+import com.smiles.common.export.ExportResponses;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.staff.dto.CreateStaffRequest;
 import com.smiles.staff.dto.StaffDto;
 import com.smiles.staff.dto.UpdateStaffRequest;
@@ -7,12 +16,14 @@ import com.smiles.staff.service.StaffService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -27,21 +38,58 @@ public class StaffController {
     private final StaffService staffService;
 
     /**
-     * Get all staff for a facility.
+     * Get a page of staff for a facility, ordered by name.
      */
     @GetMapping
-    public ResponseEntity<List<StaffDto>> getStaffByFacility(@RequestParam UUID facilityId) {
+    public ResponseEntity<CursorPage<StaffDto>> getStaffByFacility(
+            @RequestParam UUID facilityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean active,
+            WebRequest webRequest) {
         log.debug("GET /staff?facilityId={} - Get staff by facility", facilityId);
-        List<StaffDto> staff = staffService.getStaffByFacility(facilityId);
+        CursorPage<StaffDto> staff = staffService.getStaffByFacility(facilityId, cursor, limit, active);
+        ResourceVersion version = ResourceVersion.ofPage(staff, StaffDto::getId, StaffDto::getVersion);
+        if (webRequest.checkNotModified(version.etag())) {
+            return null;
+        }
         return ResponseEntity.ok(staff);
     }
 
+    /**
+     * Get many staff by ID in one call.
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResult<StaffDto>> getStaffByIds(@Valid @RequestBody BatchGetRequest request) {
+        log.debug("POST /staff/batch-get - Get {} staff by ID", request.getIds().size());
+        BatchGetResult<StaffDto> result = staffService.getStaffByIds(request.getIds());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Export all staff of a facility as a stream (NDJSON or CSV, optionally gzipped).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStaff(
+            @RequestParam UUID facilityId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("GET /staff/export?facilityId={} - Export staff as {}", facilityId, format);
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        StreamingResponseBody body = staffService.exportStaff(facilityId, exportFormat, gzip);
+        return ExportResponses.of("staff-" + facilityId, exportFormat, gzip, body);
+    }
+
     /**
      * Get staff by ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<StaffDto> getStaffById(@PathVariable UUID id) {
+    public ResponseEntity<StaffDto> getStaffById(@PathVariable UUID id, WebRequest webRequest) {
         log.debug("GET /staff/{} - Get staff by ID", id);
+        ResourceVersion version = staffService.getStaffVersion(id);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
         StaffDto staff = staffService.getStaffById(id);
         return ResponseEntity.ok(staff);
     }
@@ -80,6 +128,23 @@ public class StaffController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Partially update a staff member (admin only) with a JSON Merge Patch.
+     * An {@code If-Match} header holding the ETag from a previous read guards against lost updates.
+     */
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<StaffDto> patchStaff(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.debug("PATCH /staff/{} - Patch staff", id);
+        StaffDto patched = staffService.patchStaff(id, patch, IfMatch.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ResourceVersion.of(patched.getVersion(), patched.getUpdatedAt()).etag())
+                .body(patched);
+    }
+
     /**
      * Delete a staff member (admin only).
      */
@@ -1,8 +1,13 @@
 package com.smiles.staff.domain;
 
+import com.smiles.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
@@ -12,7 +17,16 @@ import java.util.UUID;
  * Staff entity representing a staff member at a facility.
  */
 @Entity
-@Table(name = "staff")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(
+    name = "staff",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_staff_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_staff_keycloak_user", columnNames = "keycloak_user_id")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,19 +35,19 @@ import java.util.UUID;
 public class Staff {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "facility_id", nullable = false)
     private UUID facilityId;
 
-    @Column(name = "keycloak_user_id", unique = true)
+    @Column(name = "keycloak_user_id")
     private String keycloakUserId;
 
     @Column(nullable = false)
     private String name;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Enumerated(EnumType.STRING)
@@ -51,4 +65,9 @@ public class Staff {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -26,4 +26,6 @@ public class StaffDto {
     private Boolean active;
     private Instant createdAt;
     private Instant updatedAt;
+
+    private Long version;
 }
@@ -1,7 +1,10 @@
 package com.smiles.staff.dto;
 
+import com.smiles.common.web.JsonMergePatch;
 import com.smiles.staff.domain.StaffRole;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,14 +20,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UpdateStaffRequest {
 
+    @NotBlank(message = "Name is required", groups = JsonMergePatch.Merged.class)
     @Size(max = 255, message = "Name cannot exceed 255 characters")
     private String name;
 
+    @NotBlank(message = "Email is required", groups = JsonMergePatch.Merged.class)
     @Email(message = "Email must be valid")
     @Size(max = 255, message = "Email cannot exceed 255 characters")
     private String email;
 
+    @NotNull(message = "Role is required", groups = JsonMergePatch.Merged.class)
     private StaffRole role;
 
+    @NotNull(message = "Active is required", groups = JsonMergePatch.Merged.class)
     private Boolean active;
 }
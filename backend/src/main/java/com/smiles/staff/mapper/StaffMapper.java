@@ -18,4 +18,14 @@ public interface StaffMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromDto(UpdateStaffRequest request, @MappingTarget Staff staff);
+
+    /**
+     * Current state as an update DTO, the target of a JSON Merge Patch.
+     */
+    UpdateStaffRequest toUpdateRequest(Staff staff);
+
+    /**
+     * Copy a merged update DTO onto the entity, including fields the patch removed.
+     */
+    void patchEntity(UpdateStaffRequest request, @MappingTarget Staff staff);
 }
@@ -1,8 +1,16 @@
 package com.smiles.staff.repository;
 
+import com.smiles.common.web.FacilityScopedVersion;
 import com.smiles.staff.domain.Staff;
 import com.smiles.staff.domain.StaffRole;
+import com.smiles.staff.dto.StaffDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -25,28 +33,98 @@ public interface StaffRepository extends JpaRepository<Staff, UUID> {
      */
     List<Staff> findByFacilityIdAndActiveTrue(UUID facilityId);
 
+    /**
+     * Find the first keyset page of staff for a facility, ordered by (name, id), selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.staff.dto.StaffDto(s.id, s.facilityId, s.keycloakUserId, s.name, s.email,
+                    s.role, s.active, s.createdAt, s.updatedAt, s.version)
+            FROM Staff s
+            WHERE s.facilityId = :facilityId
+            ORDER BY s.name ASC, s.id ASC
+            """)
+    List<StaffDto> findPage(@Param("facilityId") UUID facilityId, Limit limit);
+
+    /**
+     * Find the first keyset page of active staff for a facility, ordered by (name, id), selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.staff.dto.StaffDto(s.id, s.facilityId, s.keycloakUserId, s.name, s.email,
+                    s.role, s.active, s.createdAt, s.updatedAt, s.version)
+            FROM Staff s
+            WHERE s.facilityId = :facilityId
+              AND s.active = true
+            ORDER BY s.name ASC, s.id ASC
+            """)
+    List<StaffDto> findActivePage(@Param("facilityId") UUID facilityId, Limit limit);
+
+    /**
+     * Find the keyset page of staff for a facility following the given (name, id) position, selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.staff.dto.StaffDto(s.id, s.facilityId, s.keycloakUserId, s.name, s.email,
+                    s.role, s.active, s.createdAt, s.updatedAt, s.version)
+            FROM Staff s
+            WHERE s.facilityId = :facilityId
+              AND (s.name > :name OR (s.name = :name AND s.id > :id))
+            ORDER BY s.name ASC, s.id ASC
+            """)
+    List<StaffDto> findPageAfter(
+            @Param("facilityId") UUID facilityId,
+            @Param("name") String name,
+            @Param("id") UUID id,
+            Limit limit);
+
+    /**
+     * Find the keyset page of active staff for a facility following the given (name, id) position, selected straight into DTOs.
+     */
+    @Query("""
+            SELECT new com.smiles.staff.dto.StaffDto(s.id, s.facilityId, s.keycloakUserId, s.name, s.email,
+                    s.role, s.active, s.createdAt, s.updatedAt, s.version)
+            FROM Staff s
+            WHERE s.facilityId = :facilityId
+              AND s.active = true
+              AND (s.name > :name OR (s.name = :name AND s.id > :id))
+            ORDER BY s.name ASC, s.id ASC
+            """)
+    List<StaffDto> findActivePageAfter(
+            @Param("facilityId") UUID facilityId,
+            @Param("name") String name,
+            @Param("id") UUID id,
+            Limit limit);
+
+    /**
+     * Find the facility and update timestamp of a staff without loading the entity.
+     */
+    @Query("SELECT new com.smiles.common.web.FacilityScopedVersion(s.facilityId, s.version, s.updatedAt) FROM Staff s WHERE s.id = :id")
+    Optional<FacilityScopedVersion> findVersionById(@Param("id") UUID id);
+
     /**
      * Find staff by facility and role.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Staff> findByFacilityIdAndRole(UUID facilityId, StaffRole role);
 
     /**
      * Find staff by Keycloak user ID.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Staff> findByKeycloakUserId(String keycloakUserId);
 
     /**
-     * Find staff by email.
+     * Find the facility IDs of active staff records linked to a Keycloak user.
      */
-    Optional<Staff> findByEmail(String email);
+    @Query("SELECT s.facilityId FROM Staff s WHERE s.keycloakUserId = :keycloakUserId AND s.active = true")
+    List<UUID> findActiveFacilityIdsByKeycloakUserId(@Param("keycloakUserId") String keycloakUserId);
 
     /**
-     * Check if staff exists by email.
+     * Find the ID of the staff record linked to a Keycloak user.
      */
-    boolean existsByEmail(String email);
+    @Query("SELECT s.id FROM Staff s WHERE s.keycloakUserId = :keycloakUserId")
+    Optional<UUID> findIdByKeycloakUserId(@Param("keycloakUserId") String keycloakUserId);
 
     /**
-     * Check if staff exists by Keycloak user ID.
+     * Find staff by email.
      */
-    boolean existsByKeycloakUserId(String keycloakUserId);
+    Optional<Staff> findByEmail(String email);
 }
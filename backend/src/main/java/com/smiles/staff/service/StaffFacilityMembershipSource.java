@@ -0,0 +1,34 @@
+package com.smiles.staff.service;
+
+import com.smiles.common.security.FacilityMembershipSource;
+import com.smiles.common.sharding.ShardRouter;
+import com.smiles.staff.repository.StaffRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Facility membership source backed by staff records.
+ * A user belongs to the facility of each active staff record linked to them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class StaffFacilityMembershipSource implements FacilityMembershipSource {
+
+    private final StaffRepository staffRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public Set<UUID> loadFacilityIds(String keycloakUserId) {
+        log.debug("Loading facility memberships for user: {}", keycloakUserId);
+        return Set.copyOf(shardRouter.gatherOwned(
+                () -> staffRepository.findActiveFacilityIdsByKeycloakUserId(keycloakUserId), Function.identity()));
+    }
+}
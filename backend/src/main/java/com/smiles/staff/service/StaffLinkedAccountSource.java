@@ -0,0 +1,34 @@
+package com.smiles.staff.service;
+
+import com.smiles.common.security.LinkedAccountSource;
+import com.smiles.common.security.LinkedAccountType;
+import com.smiles.common.sharding.AnyShard;
+import com.smiles.staff.repository.StaffRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves the staff record linked to a Keycloak user.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class StaffLinkedAccountSource implements LinkedAccountSource {
+
+    private final StaffRepository staffRepository;
+
+    @Override
+    public LinkedAccountType type() {
+        return LinkedAccountType.STAFF;
+    }
+
+    @Override
+    @AnyShard
+    public Optional<UUID> findLinkedId(String keycloakUserId) {
+        return staffRepository.findIdByKeycloakUserId(keycloakUserId);
+    }
+}
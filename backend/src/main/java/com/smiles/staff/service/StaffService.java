@@ -1,6 +1,26 @@
 package com.smiles.staff.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smiles.common.batch.BatchGetResult;
+import com.smiles.common.events.EntityChangeType;
+import com.smiles.common.events.FacilityReferenceDataChangedEvent;
+import com.smiles.common.events.StaffChangedEvent;
+import com.smiles.common.export.ExportFormat;
+import com.smiles.common.export.JdbcStreamingExporter;
+import com.smiles.common.metrics.Monitored;
+import com.smiles.common.pagination.CursorPage;
+import com.smiles.common.pagination.KeysetCursor;
+import com.smiles.common.persistence.ConstraintViolations;
+import com.smiles.common.security.FacilityMembershipResolver;
 import com.smiles.common.security.SecurityUtils;
+import com.smiles.common.sharding.AnyShard;
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.common.sharding.ShardRouter;
+import com.smiles.common.web.FacilityScopedVersion;
+import com.smiles.common.web.IfMatch;
+import com.smiles.common.web.JsonMergePatch;
+import com.smiles.common.web.PreconditionFailedException;
+import com.smiles.common.web.ResourceVersion;
 import com.smiles.staff.domain.Staff;
 import com.smiles.staff.dto.CreateStaffRequest;
 import com.smiles.staff.dto.StaffDto;
@@ -9,42 +29,159 @@ import com.smiles.staff.mapper.StaffMapper;
 import com.smiles.staff.repository.StaffRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Service for managing staff members.
  */
 @Service
+@Monitored
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class StaffService {
 
+    private static final String EXPORT_SQL = """
+            SELECT id, facility_id, keycloak_user_id, name, email, role, active, created_at, updated_at
+            FROM staff
+            WHERE facility_id = ?
+            ORDER BY name, id
+            """;
+
+    private static final List<String> EXPORT_FIELDS = List.of(
+            "id", "facilityId", "keycloakUserId", "name", "email", "role", "active", "createdAt", "updatedAt");
+
     private final StaffRepository staffRepository;
     private final StaffMapper staffMapper;
+    private final JsonMergePatch jsonMergePatch;
     private final SecurityUtils securityUtils;
+    private final JdbcStreamingExporter jdbcStreamingExporter;
+    private final FacilityMembershipResolver facilityMembershipResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
 
     /**
-     * Get all staff for a facility.
+     * Get one keyset page of staff for a facility, ordered by name.
+     *
+     * @param facilityId the facility ID
+     * @param cursor the opaque cursor from the previous page, or null for the first page
+     * @param limit the requested page size, or null for the default
+     * @param activeOnly whether to return only active staff
+     * @return the page of staff
      */
-    public List<StaffDto> getStaffByFacility(UUID facilityId) {
-        log.debug("Getting staff for facility: {}", facilityId);
+    public CursorPage<StaffDto> getStaffByFacility(@ShardKey UUID facilityId, String cursor, Integer limit, boolean activeOnly) {
+        log.debug("Getting staff for facility: {} (cursor: {}, limit: {}, activeOnly: {})",
+                facilityId, cursor, limit, activeOnly);
 
         // Check access permission
         securityUtils.checkFacilityAccess(facilityId);
 
-        return staffRepository.findByFacilityId(facilityId).stream()
-                .map(staffMapper::toDto)
-                .toList();
+        int pageSize = CursorPage.resolveLimit(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // Rows are selected straight into DTOs; no entities enter the persistence context
+        List<StaffDto> rows;
+        if (after == null) {
+            rows = activeOnly
+                    ? staffRepository.findActivePage(facilityId, fetchLimit)
+                    : staffRepository.findPage(facilityId, fetchLimit);
+        } else {
+            rows = activeOnly
+                    ? staffRepository.findActivePageAfter(facilityId, after.name(), after.id(), fetchLimit)
+                    : staffRepository.findPageAfter(facilityId, after.name(), after.id(), fetchLimit);
+        }
+
+        return CursorPage.of(rows, pageSize, staff -> new KeysetCursor(staff.getName(), staff.getId()));
+    }
+
+    /**
+     * Get all active staff of a facility, ordered by name.
+     *
+     * @param facilityId the facility ID
+     * @return the active staff members
+     */
+    public List<StaffDto> getActiveStaffByFacility(@ShardKey UUID facilityId) {
+        log.debug("Getting all active staff for facility: {}", facilityId);
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return staffRepository.findActivePage(facilityId, Limit.unlimited());
+    }
+
+    /**
+     * Get the version of a staff member for conditional requests, without loading it.
+     *
+     * @param id the staff member ID
+     * @return the update timestamp
+     */
+    @AnyShard
+    public ResourceVersion getStaffVersion(UUID id) {
+        FacilityScopedVersion version = staffRepository.findVersionById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Staff not found with id: " + id));
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(version.facilityId());
+
+        return version.resourceVersion();
+    }
+
+    /**
+     * Get many staff by ID with a single query per shard.
+     * Access is checked once per distinct facility of the staff found.
+     *
+     * @param ids the requested IDs
+     * @return the staff found and the IDs that do not exist
+     */
+    public BatchGetResult<StaffDto> getStaffByIds(Collection<UUID> ids) {
+        log.debug("Getting {} staff by id", ids.size());
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        List<Staff> found = shardRouter.gatherOwned(
+                () -> staffRepository.findAllById(distinctIds), Staff::getFacilityId);
+
+        // Check access permission
+        found.stream()
+                .map(Staff::getFacilityId)
+                .distinct()
+                .forEach(securityUtils::checkFacilityAccess);
+
+        return BatchGetResult.of(distinctIds, found, Staff::getId, staffMapper::toDto);
+    }
+
+    /**
+     * Export all staff of a facility as a stream, without loading them into memory.
+     *
+     * @param facilityId the facility ID
+     * @param format the output format
+     * @param gzip whether to gzip the output
+     * @return the streaming response body
+     */
+    public StreamingResponseBody exportStaff(@ShardKey UUID facilityId, ExportFormat format, boolean gzip) {
+        log.debug("Exporting staff for facility: {} as {}", facilityId, format);
+
+        // Check access permission before streaming starts
+        securityUtils.checkFacilityAccess(facilityId);
+
+        return jdbcStreamingExporter.stream(EXPORT_SQL, EXPORT_FIELDS, format, gzip, facilityId);
     }
 
     /**
      * Get staff by ID.
      */
+    @AnyShard
     public StaffDto getStaffById(UUID id) {
         log.debug("Getting staff by id: {}", id);
         Staff staff = staffRepository.findById(id)
@@ -59,6 +196,7 @@ public class StaffService {
     /**
      * Get staff by Keycloak user ID.
      */
+    @AnyShard
     public StaffDto getStaffByKeycloakUserId(String keycloakUserId) {
         log.debug("Getting staff by Keycloak user ID: {}", keycloakUserId);
         Staff staff = staffRepository.findByKeycloakUserId(keycloakUserId)
@@ -71,22 +209,18 @@ public class StaffService {
      * Create a new staff member.
      */
     @Transactional
-    public StaffDto createStaff(CreateStaffRequest request) {
+    public StaffDto createStaff(@ShardKey CreateStaffRequest request) {
         log.debug("Creating staff: {} for facility: {}", request.getName(), request.getFacilityId());
 
         // Check access permission
         securityUtils.checkFacilityAccess(request.getFacilityId());
 
-        if (staffRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Staff already exists with email: " + request.getEmail());
-        }
-
-        if (request.getKeycloakUserId() != null && staffRepository.existsByKeycloakUserId(request.getKeycloakUserId())) {
-            throw new IllegalArgumentException("Staff already exists with Keycloak user ID: " + request.getKeycloakUserId());
-        }
-
         Staff staff = staffMapper.toEntity(request);
-        Staff savedStaff = staffRepository.save(staff);
+        Staff savedStaff = saveAndFlush(staff,
+                "Staff already exists with Keycloak user ID: " + request.getKeycloakUserId());
+        facilityMembershipResolver.evict(savedStaff.getKeycloakUserId());
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(savedStaff.getFacilityId()));
+        eventPublisher.publishEvent(new StaffChangedEvent(savedStaff.getId(), savedStaff.getFacilityId(), EntityChangeType.CREATED));
         log.info("Created staff: {} with id: {}", savedStaff.getName(), savedStaff.getId());
 
         return staffMapper.toDto(savedStaff);
@@ -96,6 +230,7 @@ public class StaffService {
      * Update an existing staff member.
      */
     @Transactional
+    @AnyShard(table = "staff")
     public StaffDto updateStaff(UUID id, UpdateStaffRequest request) {
         log.debug("Updating staff with id: {}", id);
 
@@ -105,24 +240,59 @@ public class StaffService {
         // Check access permission
         securityUtils.checkFacilityAccess(staff.getFacilityId());
 
-        // Check if email is being changed and if it conflicts
-        if (request.getEmail() != null && !request.getEmail().equals(staff.getEmail())) {
-            if (staffRepository.existsByEmail(request.getEmail())) {
-                throw new IllegalArgumentException("Staff already exists with email: " + request.getEmail());
-            }
-        }
-
         staffMapper.updateEntityFromDto(request, staff);
-        Staff updatedStaff = staffRepository.save(staff);
+        Staff updatedStaff = saveAndFlush(staff,
+                "Staff already exists with Keycloak user ID: " + staff.getKeycloakUserId());
+        facilityMembershipResolver.evict(updatedStaff.getKeycloakUserId());
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(updatedStaff.getFacilityId()));
+        eventPublisher.publishEvent(new StaffChangedEvent(id, updatedStaff.getFacilityId(), EntityChangeType.UPDATED));
         log.info("Updated staff with id: {}", id);
 
         return staffMapper.toDto(updatedStaff);
     }
 
+    /**
+     * Apply a JSON Merge Patch to a staff member, writing only the changed columns.
+     *
+     * @param id the staff ID
+     * @param patch the merge patch
+     * @param expectedVersion the version from {@code If-Match}, or null to skip the precondition
+     * @return the patched staff member
+     */
+    @Transactional
+    @AnyShard(table = "staff")
+    public StaffDto patchStaff(UUID id, JsonNode patch, Long expectedVersion) {
+        log.debug("Patching staff with id: {}", id);
+
+        Staff staff = staffRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Staff not found with id: " + id));
+
+        // Check access permission
+        securityUtils.checkFacilityAccess(staff.getFacilityId());
+        IfMatch.check(expectedVersion, staff.getVersion());
+
+        UpdateStaffRequest current = staffMapper.toUpdateRequest(staff);
+        UpdateStaffRequest merged = jsonMergePatch.apply(patch, current);
+        if (merged.equals(current)) {
+            return staffMapper.toDto(staff);
+        }
+
+        staffMapper.patchEntity(merged, staff);
+        Staff patchedStaff = saveAndFlush(staff,
+                "Staff already exists with Keycloak user ID: " + staff.getKeycloakUserId());
+        facilityMembershipResolver.evict(patchedStaff.getKeycloakUserId());
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(patchedStaff.getFacilityId()));
+        eventPublisher.publishEvent(new StaffChangedEvent(id, patchedStaff.getFacilityId(), EntityChangeType.UPDATED));
+        log.info("Patched staff with id: {}", id);
+
+        return staffMapper.toDto(patchedStaff);
+    }
+
     /**
      * Delete a staff member.
      */
     @Transactional
+    @AnyShard(table = "staff")
     public void deleteStaff(UUID id) {
         log.debug("Deleting staff with id: {}", id);
 
@@ -132,7 +302,10 @@ public class StaffService {
         // Check access permission
         securityUtils.checkFacilityAccess(staff.getFacilityId());
 
-        staffRepository.deleteById(id);
+        staffRepository.delete(staff);
+        facilityMembershipResolver.evict(staff.getKeycloakUserId());
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(staff.getFacilityId()));
+        eventPublisher.publishEvent(new StaffChangedEvent(id, staff.getFacilityId(), EntityChangeType.DELETED));
         log.info("Deleted staff with id: {}", id);
     }
 
@@ -140,6 +313,7 @@ public class StaffService {
      * Link a Keycloak user to a staff member.
      */
     @Transactional
+    @AnyShard(table = "staff")
     public StaffDto linkKeycloakUser(UUID staffId, String keycloakUserId) {
         log.debug("Linking Keycloak user {} to staff {}", keycloakUserId, staffId);
 
@@ -149,14 +323,34 @@ public class StaffService {
         // Check access permission
         securityUtils.checkFacilityAccess(staff.getFacilityId());
 
-        if (staffRepository.existsByKeycloakUserId(keycloakUserId)) {
-            throw new IllegalArgumentException("Keycloak user ID already linked to another staff member");
-        }
-
+        String previousKeycloakUserId = staff.getKeycloakUserId();
         staff.setKeycloakUserId(keycloakUserId);
-        Staff updatedStaff = staffRepository.save(staff);
+        Staff updatedStaff = saveAndFlush(staff, "Keycloak user ID already linked to another staff member");
+        facilityMembershipResolver.evict(previousKeycloakUserId);
+        facilityMembershipResolver.evict(keycloakUserId);
+        eventPublisher.publishEvent(new FacilityReferenceDataChangedEvent(updatedStaff.getFacilityId()));
+        eventPublisher.publishEvent(new StaffChangedEvent(staffId, updatedStaff.getFacilityId(), EntityChangeType.UPDATED));
         log.info("Linked Keycloak user {} to staff {}", keycloakUserId, staffId);
 
         return staffMapper.toDto(updatedStaff);
     }
+
+    /**
+     * Write a staff member, relying on the unique constraints to reject duplicate emails and Keycloak links.
+     */
+    private Staff saveAndFlush(Staff staff, String keycloakConflictMessage) {
+        try {
+            return staffRepository.saveAndFlush(staff);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, "uk_staff_email")) {
+                throw new IllegalArgumentException("Staff already exists with email: " + staff.getEmail());
+            }
+            if (ConstraintViolations.violates(e, "uk_staff_keycloak_user")) {
+                throw new IllegalArgumentException(keycloakConflictMessage);
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Staff was modified concurrently: " + staff.getId());
+        }
+    }
 }
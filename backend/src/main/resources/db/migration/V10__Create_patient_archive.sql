@@ -0,0 +1,31 @@
+-- Cold-tier archive of long-inactive patients (PatientArchiver)
+-- Inactive patients not updated for smiles.patients.archive.inactive-for are
+-- moved here in batches, so the hot patient table, its indexes and facility
+-- scans only hold patients still in use. Reads by ID fall back to this table
+-- and a restore moves a patient back. Archived patients release their Keycloak
+-- link (patient_keycloak_user follows the hot table); a restore re-claims it.
+
+CREATE TABLE IF NOT EXISTS patient_archive (
+    id UUID NOT NULL,
+    facility_id UUID NOT NULL,
+    keycloak_user_id VARCHAR(255),
+    name VARCHAR(255) NOT NULL,
+    birth_date DATE NOT NULL,
+    email VARCHAR(255),
+    phone VARCHAR(50),
+    address VARCHAR(500),
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT patient_archive_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_patient_archive_facility FOREIGN KEY (facility_id) REFERENCES facility(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_archive_facility ON patient_archive(facility_id);
+
+-- Archival candidates; inactive patients are a small share of the table
+CREATE INDEX IF NOT EXISTS idx_patient_inactive_id ON patient(id) WHERE active = false;
+
+COMMENT ON TABLE patient_archive IS 'Long-inactive patients moved out of the patient table';
+COMMENT ON COLUMN patient_archive.updated_at IS 'When the patient was archived';
@@ -0,0 +1,35 @@
+-- Event publication log maintenance (EventPublicationMaintenance)
+-- Completed publications are moved from event_publication to
+-- event_publication_archive after smiles.events.maintenance.completed-retention,
+-- so the hot table only holds recent and incomplete publications. The archive
+-- is range-partitioned by month of publication_date; the job creates upcoming
+-- partitions and drops whole partitions past archive-retention.
+
+-- Spring Modulith marks a publication completed by serialized_event and
+-- listener_id; without an index every completion scanned the whole table.
+-- Hash indexes support equality on values of any length.
+CREATE INDEX IF NOT EXISTS idx_event_publication_serialized_event
+    ON event_publication USING hash (serialized_event);
+
+-- Incomplete publications are looked up by publication_date; completed rows no longer bloat the index
+CREATE INDEX IF NOT EXISTS idx_event_publication_incomplete
+    ON event_publication (publication_date) WHERE completion_date IS NULL;
+
+-- No query filters by event type, and publication_date is only queried for incomplete rows
+DROP INDEX IF EXISTS idx_event_publication_event_type;
+DROP INDEX IF EXISTS idx_event_publication_publication_date;
+
+CREATE TABLE IF NOT EXISTS event_publication_archive (
+    id UUID NOT NULL,
+    listener_id VARCHAR(512) NOT NULL,
+    event_type VARCHAR(512) NOT NULL,
+    serialized_event TEXT NOT NULL,
+    publication_date TIMESTAMP NOT NULL,
+    completion_date TIMESTAMP NOT NULL
+) PARTITION BY RANGE (publication_date);
+
+-- Rows published before the job's first monthly partition; purged in batches
+CREATE TABLE IF NOT EXISTS event_publication_archive_default
+    PARTITION OF event_publication_archive DEFAULT;
+
+COMMENT ON TABLE event_publication_archive IS 'Completed event publications moved out of event_publication, partitioned by month';
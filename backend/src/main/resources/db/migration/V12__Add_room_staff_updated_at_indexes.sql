@@ -0,0 +1,7 @@
+-- Index room and staff by (facility_id, updated_at), as V9 does for patient, so that
+-- per-facility lookups of recently changed rows (the latest change, rows changed
+-- since a point in time) seek the index instead of scanning the facility's rows.
+
+CREATE INDEX IF NOT EXISTS idx_room_facility_updated_at ON room(facility_id, updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_staff_facility_updated_at ON staff(facility_id, updated_at);
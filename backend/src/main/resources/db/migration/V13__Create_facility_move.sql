@@ -0,0 +1,20 @@
+-- Facility shard moves (FacilityShardMover)
+-- One row per facility for its latest move, so a move can run in the background
+-- and be polled. Only the copy on the default shard is used; the table is
+-- created on every shard so all shards share one schema history.
+-- A RUNNING row also keeps a second move of the same facility from starting.
+
+CREATE TABLE IF NOT EXISTS facility_move (
+    facility_id UUID PRIMARY KEY,
+    source_shard VARCHAR(63) NOT NULL,
+    target_shard VARCHAR(63) NOT NULL,
+    state VARCHAR(16) NOT NULL,
+    copied_rows BIGINT,
+    catch_up_rows BIGINT,
+    frozen_ms BIGINT,
+    error TEXT,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+COMMENT ON TABLE facility_move IS 'Latest shard move of each facility: RUNNING, SUCCEEDED or FAILED';
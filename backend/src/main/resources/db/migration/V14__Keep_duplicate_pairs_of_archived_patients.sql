@@ -0,0 +1,17 @@
+-- Keep duplicate pairs when a patient is archived
+-- Archival deletes the patient row, which cascaded to its patient_duplicate rows,
+-- so review decisions were lost and dismissed pairs were proposed again after a
+-- restore. The pair foreign keys to patient are replaced by one to facility; the
+-- pending review list skips pairs whose patients are not in the patient table,
+-- and deleting a patient deletes its pairs explicitly.
+-- patient_blocking_key still cascades: keys are derived from the patient row and
+-- a restore bumps updated_at, so the next scan rebuilds them.
+
+ALTER TABLE patient_duplicate DROP CONSTRAINT IF EXISTS fk_patient_duplicate_patient;
+ALTER TABLE patient_duplicate DROP CONSTRAINT IF EXISTS fk_patient_duplicate_duplicate;
+
+ALTER TABLE patient_duplicate
+    ADD CONSTRAINT fk_patient_duplicate_facility
+        FOREIGN KEY (facility_id) REFERENCES facility(id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_patient_duplicate_patient ON patient_duplicate(facility_id, patient_id);
@@ -0,0 +1,51 @@
+-- Global uniqueness of patient.id
+-- Since V5 the primary key of the partitioned patient table is (id, facility_id),
+-- so the database alone would accept a second patient with an existing id in
+-- another facility. JPA, findVersionById, the native "WHERE id = :id RETURNING *"
+-- writes and the shard mover all identify a patient by id, so that must fail.
+-- patient_id_guard holds one row per patient, kept in sync by triggers the same
+-- way patient_keycloak_user guards Keycloak ids; a duplicate fails with a unique
+-- violation on uk_patient_id. Like that table it covers one database: with
+-- sharding, ids are unique per shard. Archived patients release their row with
+-- the patient row; patient_archive has its own primary key on id.
+
+CREATE TABLE patient_id_guard (
+    patient_id UUID NOT NULL,
+    facility_id UUID NOT NULL,
+    CONSTRAINT uk_patient_id PRIMARY KEY (patient_id)
+);
+
+-- Fails on existing duplicates, which must be resolved by hand first
+INSERT INTO patient_id_guard (patient_id, facility_id)
+SELECT id, facility_id
+FROM patient;
+
+COMMENT ON TABLE patient_id_guard IS 'Enforces global uniqueness of patient.id across partitions';
+
+CREATE OR REPLACE FUNCTION sync_patient_id_guard()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM patient_id_guard
+        WHERE patient_id = OLD.id AND facility_id = OLD.facility_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO patient_id_guard (patient_id, facility_id)
+        VALUES (NEW.id, NEW.facility_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER sync_patient_id_guard_insert AFTER INSERT ON patient
+    FOR EACH ROW EXECUTE FUNCTION sync_patient_id_guard();
+
+-- A facility change that moves the row to another partition fires the delete
+-- and insert triggers instead of this one
+CREATE TRIGGER sync_patient_id_guard_update AFTER UPDATE ON patient
+    FOR EACH ROW
+    WHEN (OLD.id IS DISTINCT FROM NEW.id OR OLD.facility_id IS DISTINCT FROM NEW.facility_id)
+    EXECUTE FUNCTION sync_patient_id_guard();
+
+CREATE TRIGGER sync_patient_id_guard_delete AFTER DELETE ON patient
+    FOR EACH ROW EXECUTE FUNCTION sync_patient_id_guard();
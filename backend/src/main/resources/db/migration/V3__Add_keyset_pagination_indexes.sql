@@ -0,0 +1,12 @@
+-- Composite indexes backing keyset pagination of facility-scoped listings.
+-- Listings are ordered by (name, id) within a facility, so these indexes let
+-- PostgreSQL seek straight to the cursor position instead of sorting the facility.
+
+CREATE INDEX idx_patient_facility_name_id ON patient(facility_id, name, id);
+
+CREATE INDEX idx_patient_facility_active_name_id ON patient(facility_id, name, id)
+    WHERE active = true;
+
+CREATE INDEX idx_staff_facility_name_id ON staff(facility_id, name, id);
+
+CREATE INDEX idx_room_facility_name_id ON room(facility_id, name, id);
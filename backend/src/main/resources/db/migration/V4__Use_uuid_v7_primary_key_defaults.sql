@@ -0,0 +1,26 @@
+-- Time-ordered UUIDv7 defaults for primary keys.
+-- Random v4 keys (gen_random_uuid()) scatter inserts over the whole primary key
+-- B-tree; v7 keys start with a millisecond timestamp, so new rows land on the
+-- right-most leaf pages. The application assigns v7 IDs itself (@UuidV7); these
+-- defaults cover rows inserted directly in SQL. Existing IDs are left unchanged.
+
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS uuid AS $$
+BEGIN
+    -- Overlay the 48-bit Unix timestamp in milliseconds onto a random v4 UUID,
+    -- then turn its version nibble from 4 (0100) into 7 (0111)
+    RETURN encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::uuid;
+END
+$$ LANGUAGE plpgsql VOLATILE;
+
+ALTER TABLE facility ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE room ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE staff ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE patient ALTER COLUMN id SET DEFAULT uuid_generate_v7();
@@ -0,0 +1,118 @@
+-- Hash-partition the patient table by facility_id.
+-- Nearly every patient query filters on facility_id, so each lookup is pruned to
+-- one partition and its facility-local indexes, which stay shallow as facilities
+-- are added. Vacuum and index maintenance work per partition.
+--
+-- Unique constraints on a partitioned table must include the partition key, so:
+-- - the primary key becomes (id, facility_id); ids are still generated unique
+-- - global uniqueness of keycloak_user_id moves to the patient_keycloak_user
+--   lookup table, kept in sync by triggers; a duplicate still fails with a
+--   unique violation on uk_patient_keycloak_user
+--
+-- Existing rows are copied into the new table inside this migration.
+
+CREATE TABLE patient_partitioned (
+    id UUID NOT NULL DEFAULT uuid_generate_v7(),
+    facility_id UUID NOT NULL,
+    keycloak_user_id VARCHAR(255),
+    name VARCHAR(255) NOT NULL,
+    birth_date DATE NOT NULL,
+    email VARCHAR(255),
+    phone VARCHAR(50),
+    address VARCHAR(500),
+    active BOOLEAN NOT NULL DEFAULT true,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY HASH (facility_id);
+
+-- 16 partitions; increase by re-partitioning when single partitions grow too large
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE patient_p%s PARTITION OF patient_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            lpad(remainder::text, 2, '0'), remainder);
+    END LOOP;
+END
+$$;
+
+INSERT INTO patient_partitioned (id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+                                 active, created_at, updated_at)
+SELECT id, facility_id, keycloak_user_id, name, birth_date, email, phone, address,
+       active, created_at, updated_at
+FROM patient;
+
+-- =====================================================
+-- KEYCLOAK USER UNIQUENESS
+-- =====================================================
+-- The old table's unique constraint holds the name until that table is dropped
+ALTER TABLE patient DROP CONSTRAINT uk_patient_keycloak_user;
+
+CREATE TABLE patient_keycloak_user (
+    keycloak_user_id VARCHAR(255) NOT NULL,
+    patient_id UUID NOT NULL,
+    facility_id UUID NOT NULL,
+    CONSTRAINT uk_patient_keycloak_user PRIMARY KEY (keycloak_user_id)
+);
+
+INSERT INTO patient_keycloak_user (keycloak_user_id, patient_id, facility_id)
+SELECT keycloak_user_id, id, facility_id
+FROM patient
+WHERE keycloak_user_id IS NOT NULL;
+
+COMMENT ON TABLE patient_keycloak_user IS 'Enforces global uniqueness of patient.keycloak_user_id across partitions';
+
+DROP TABLE patient;
+ALTER TABLE patient_partitioned RENAME TO patient;
+
+ALTER TABLE patient ADD CONSTRAINT patient_pkey PRIMARY KEY (id, facility_id);
+ALTER TABLE patient ADD CONSTRAINT fk_patient_facility
+    FOREIGN KEY (facility_id) REFERENCES facility(id) ON DELETE CASCADE;
+
+-- Facility-local indexes, created on every partition
+CREATE INDEX idx_patient_facility_name_id ON patient(facility_id, name, id);
+CREATE INDEX idx_patient_facility_active_name_id ON patient(facility_id, name, id)
+    WHERE active = true;
+CREATE INDEX idx_patient_facility_email ON patient(facility_id, email);
+CREATE INDEX idx_patient_facility_birth_date ON patient(facility_id, birth_date);
+CREATE INDEX idx_patient_keycloak_user ON patient(keycloak_user_id);
+
+CREATE OR REPLACE FUNCTION sync_patient_keycloak_user()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.keycloak_user_id IS NOT NULL THEN
+        DELETE FROM patient_keycloak_user
+        WHERE keycloak_user_id = OLD.keycloak_user_id AND patient_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.keycloak_user_id IS NOT NULL THEN
+        INSERT INTO patient_keycloak_user (keycloak_user_id, patient_id, facility_id)
+        VALUES (NEW.keycloak_user_id, NEW.id, NEW.facility_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER sync_patient_keycloak_user_insert AFTER INSERT ON patient
+    FOR EACH ROW EXECUTE FUNCTION sync_patient_keycloak_user();
+
+CREATE TRIGGER sync_patient_keycloak_user_update AFTER UPDATE ON patient
+    FOR EACH ROW
+    WHEN (OLD.keycloak_user_id IS DISTINCT FROM NEW.keycloak_user_id
+          OR OLD.facility_id IS DISTINCT FROM NEW.facility_id)
+    EXECUTE FUNCTION sync_patient_keycloak_user();
+
+CREATE TRIGGER sync_patient_keycloak_user_delete AFTER DELETE ON patient
+    FOR EACH ROW EXECUTE FUNCTION sync_patient_keycloak_user();
+
+CREATE TRIGGER update_patient_updated_at BEFORE UPDATE ON patient
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+COMMENT ON TABLE patient IS 'Patients registered at facilities, hash-partitioned by facility_id';
+COMMENT ON COLUMN patient.keycloak_user_id IS 'Optional Keycloak user ID if patient has portal access';
+COMMENT ON COLUMN patient.name IS 'Full name of the patient';
+COMMENT ON COLUMN patient.birth_date IS 'Date of birth';
+COMMENT ON COLUMN patient.email IS 'Email address for contact';
+COMMENT ON COLUMN patient.phone IS 'Phone number for contact';
+COMMENT ON COLUMN patient.address IS 'Home address';
+COMMENT ON COLUMN patient.facility_id IS 'Primary facility where patient is registered (partition key)';
+COMMENT ON COLUMN patient.active IS 'Whether the patient record is currently active';
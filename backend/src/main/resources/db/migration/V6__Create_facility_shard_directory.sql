@@ -0,0 +1,16 @@
+-- Facility shard directory
+-- Maps each facility to the shard (PostgreSQL instance) that owns its rooms,
+-- staff and patients. Only the copy on the default shard is used; the table is
+-- created on every shard so all shards share one schema history.
+-- Facilities without an entry belong to the default shard.
+
+CREATE TABLE IF NOT EXISTS facility_shard (
+    facility_id UUID PRIMARY KEY,
+    shard VARCHAR(63) NOT NULL,
+    frozen BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_facility_shard_shard ON facility_shard (shard);
+
+COMMENT ON TABLE facility_shard IS 'Owning shard of each facility; frozen during the final phase of a shard move';
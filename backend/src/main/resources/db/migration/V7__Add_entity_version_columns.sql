@@ -0,0 +1,11 @@
+-- Optimistic lock versions
+-- Every entity update increments its row's version and is conditional on the
+-- version it read, so concurrent writers cannot silently overwrite each other.
+-- The version is also the entity's ETag for If-Match on PATCH requests.
+-- A constant default adds the column without rewriting existing rows; on the
+-- partitioned patient table the column is added to every partition.
+
+ALTER TABLE facility ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE room ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE staff ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
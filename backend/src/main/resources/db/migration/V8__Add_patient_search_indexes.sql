@@ -0,0 +1,19 @@
+-- Trigram indexes backing fuzzy patient search (PatientRepository.searchBy*).
+-- B-tree indexes cannot serve ILIKE '%fragment%' or misspelled names; GIN
+-- trigram indexes can, for ILIKE and for the word similarity operator <%.
+-- btree_gin lets facility_id lead each index, so a lookup only touches the
+-- searched facility's entries. Phone numbers are indexed as digits only and
+-- emails lower-cased, matching the normalization in the search queries.
+-- Birth date lookups use idx_patient_facility_birth_date from V5.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_patient_name_trgm
+    ON patient USING gin (facility_id, name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_patient_phone_digits_trgm
+    ON patient USING gin (facility_id, (regexp_replace(phone, '[^0-9]', '', 'g')) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_patient_email_trgm
+    ON patient USING gin (facility_id, lower(email) gin_trgm_ops);
@@ -0,0 +1,55 @@
+-- Patient duplicate detection (PatientDedupEngine)
+-- patient_blocking_key holds each patient's blocking keys (phonetic name,
+-- birth date, phone, email). Only patients sharing a key are compared, and
+-- keeping the keys lets a scan compare changed patients without rescanning
+-- the facility. patient_duplicate holds scored pairs for review; reviewed
+-- pairs keep their status when the patients change. patient_dedup_watermark
+-- records how far each facility has been scanned and serializes scans of a
+-- facility across nodes. Rows follow their patients through ON DELETE CASCADE.
+
+CREATE TABLE IF NOT EXISTS patient_blocking_key (
+    facility_id UUID NOT NULL,
+    blocking_key VARCHAR(255) NOT NULL,
+    patient_id UUID NOT NULL,
+    CONSTRAINT pk_patient_blocking_key PRIMARY KEY (facility_id, blocking_key, patient_id),
+    CONSTRAINT fk_patient_blocking_key_patient
+        FOREIGN KEY (patient_id, facility_id) REFERENCES patient(id, facility_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_blocking_key_patient ON patient_blocking_key(facility_id, patient_id);
+
+CREATE TABLE IF NOT EXISTS patient_duplicate (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    facility_id UUID NOT NULL,
+    patient_id UUID NOT NULL,
+    duplicate_id UUID NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    reasons VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_patient_duplicate_pair UNIQUE (facility_id, patient_id, duplicate_id),
+    CONSTRAINT ck_patient_duplicate_order CHECK (patient_id < duplicate_id),
+    CONSTRAINT fk_patient_duplicate_patient
+        FOREIGN KEY (patient_id, facility_id) REFERENCES patient(id, facility_id) ON DELETE CASCADE,
+    CONSTRAINT fk_patient_duplicate_duplicate
+        FOREIGN KEY (duplicate_id, facility_id) REFERENCES patient(id, facility_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_duplicate_review
+    ON patient_duplicate(facility_id, score DESC, id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_patient_duplicate_duplicate ON patient_duplicate(facility_id, duplicate_id);
+
+CREATE TRIGGER update_patient_duplicate_updated_at BEFORE UPDATE ON patient_duplicate
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+CREATE TABLE IF NOT EXISTS patient_dedup_watermark (
+    facility_id UUID PRIMARY KEY,
+    scanned_until TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_patient_dedup_watermark_facility
+        FOREIGN KEY (facility_id) REFERENCES facility(id) ON DELETE CASCADE
+);
+
+-- Incremental scans select the patients changed since the watermark
+CREATE INDEX IF NOT EXISTS idx_patient_facility_updated_at ON patient(facility_id, updated_at);
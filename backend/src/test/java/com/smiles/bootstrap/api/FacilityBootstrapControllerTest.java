@@ -0,0 +1,232 @@
+package com.smiles.bootstrap.api;
+
+import static com.smiles.staff.StaffFixtures.addFacilityMember;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.bootstrap.service.FacilityBootstrapService;
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.rooms.domain.RoomType;
+import com.smiles.rooms.dto.CreateRoomRequest;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for FacilityBootstrapController.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class FacilityBootstrapControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FacilityBootstrapService facilityBootstrapService;
+
+    private UUID facilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CreateFacilityRequest facilityRequest = CreateFacilityRequest.builder()
+            .name("Test Facility for Bootstrap")
+            .city("Denver")
+            .address("12 Mountain Rd")
+            .build();
+
+        String facilityResponse = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(facilityRequest))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        facilityId = UUID.fromString(
+            objectMapper.readTree(facilityResponse).get("id").asText()
+        );
+
+        addFacilityMember(mockMvc, objectMapper, facilityId, "receptionist");
+    }
+
+    @Test
+    void testGetBootstrap_RebuiltAfterRoomChange() throws Exception {
+        createRoom("Chair A");
+
+        String etag = mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.facility.name").value("Test Facility for Bootstrap"))
+            .andExpect(jsonPath("$.rooms.length()").value(1))
+            .andExpect(jsonPath("$.staff").isArray())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // Cached snapshot answers 304 to a matching If-None-Match
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isNotModified());
+
+        createRoom("Chair B");
+
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rooms.length()").value(2));
+    }
+
+    @Test
+    void testGetBootstrap_RebuildOfUnchangedDataKeepsEtag() throws Exception {
+        createRoom("Chair A");
+
+        String etag = mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.generatedAt").exists())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // A rebuild gets a new generatedAt but the same content, so the client's copy is still valid
+        facilityBootstrapService.evict(facilityId);
+
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetBootstrap_Gzipped() throws Exception {
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("Accept-Encoding", "gzip, deflate")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")));
+    }
+
+    @Test
+    void testGetBootstrap_GzipHasOwnEtag() throws Exception {
+        String etag = bootstrapEtag(null);
+        String gzipEtag = bootstrapEtag("gzip");
+
+        assertThat(gzipEtag).isNotEqualTo(etag);
+
+        // The identity tag does not validate a cached gzip body, and vice versa
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("Accept-Encoding", "gzip")
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"));
+
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("Accept-Encoding", "gzip")
+                    .header("If-None-Match", gzipEtag)
+            )
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetBootstrap_GzipRefusedWithZeroQuality() throws Exception {
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("Accept-Encoding", "gzip;q=0, identity")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(jsonPath("$.facility.name").value("Test Facility for Bootstrap"));
+
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId + "/bootstrap")
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("Accept-Encoding", "br, *;q=0.1")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    private String bootstrapEtag(String acceptEncoding) throws Exception {
+        MockHttpServletRequestBuilder request = get("/facilities/" + facilityId + "/bootstrap")
+            .with(user("receptionist").roles("receptionist"));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return mockMvc
+            .perform(request)
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+    }
+
+    private void createRoom(String name) throws Exception {
+        CreateRoomRequest request = CreateRoomRequest.builder()
+            .facilityId(facilityId)
+            .name(name)
+            .type(RoomType.CHAIR)
+            .build();
+
+        mockMvc
+            .perform(
+                post("/rooms")
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,145 @@
+package com.smiles.common.cache;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.smiles.common.events.FacilityReferenceDataChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.UUID;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.descriptor.java.JavaType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Unit tests for CacheInvalidationChannel message handling.
+ */
+class CacheInvalidationChannelTest {
+
+    private static final String ROOM = "com.smiles.rooms.domain.Room";
+
+    private SessionFactoryImplementor sessionFactory;
+    private CacheImplementor cache;
+    private ApplicationEventPublisher eventPublisher;
+    private CacheInvalidationChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        cache = mock(CacheImplementor.class);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        channel = channel(2);
+    }
+
+    @Test
+    void testReceive_EntityMessageEvictsEntityAndQueries() {
+        UUID roomId = UUID.randomUUID();
+        EntityPersister persister = mock(EntityPersister.class, RETURNS_DEEP_STUBS);
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(ROOM)).thenReturn(persister);
+        JavaType<?> idType = persister.getIdentifierMapping().getJavaType();
+        doReturn(roomId).when(idType).fromString(roomId.toString());
+
+        channel.receive("other-node|E|" + ROOM + "|" + roomId);
+
+        verify(cache).evictEntityData(ROOM, roomId);
+        verify(cache).evictQueryRegions();
+    }
+
+    @Test
+    void testReceive_FacilityMessageRepublishesEvent() {
+        UUID facilityId = UUID.randomUUID();
+
+        channel.receive("other-node|F|" + facilityId);
+
+        verify(eventPublisher).publishEvent(new FacilityReferenceDataChangedEvent(facilityId));
+    }
+
+    @Test
+    void testReceive_AllMessageClearsAllRegions() {
+        channel.receive("other-node|A");
+
+        verify(cache).evictAllRegions();
+    }
+
+    @Test
+    void testReceive_OwnMessagesIgnored() {
+        channel.receive(channel.nodeId() + "|F|" + UUID.randomUUID());
+        channel.receive(channel.nodeId() + "|A");
+
+        verifyNoInteractions(eventPublisher, cache);
+    }
+
+    @Test
+    void testReceive_MalformedMessagesIgnored() {
+        assertThatCode(() -> {
+            channel.receive("other-node|F|not-a-uuid");
+            channel.receive("other-node|E|" + ROOM);
+            channel.receive("garbage");
+        }).doesNotThrowAnyException();
+
+        verifyNoInteractions(eventPublisher, cache);
+    }
+
+    @Test
+    void testOnConnectionLost_ClearsAllRegions() {
+        channel.onConnectionLost();
+
+        verify(cache).evictAllRegions();
+    }
+
+    @Test
+    void testFlushOutbound_SendsQueuedMessagesInOrder() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        channel.on(new FacilityReferenceDataChangedEvent(first));
+        channel.on(new FacilityReferenceDataChangedEvent(second));
+        PreparedStatement notify = mock(PreparedStatement.class);
+
+        channel.flushOutbound(notify);
+
+        verify(notify).setString(2, channel.nodeId() + "|F|" + first);
+        verify(notify).setString(2, channel.nodeId() + "|F|" + second);
+        verify(notify, times(2)).execute();
+    }
+
+    @Test
+    void testFlushOutbound_OverflowReplacedByClearAll() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            channel.on(new FacilityReferenceDataChangedEvent(UUID.randomUUID()));
+        }
+        PreparedStatement notify = mock(PreparedStatement.class);
+
+        channel.flushOutbound(notify);
+
+        verify(notify).setString(2, channel.nodeId() + "|A");
+        verify(notify, times(1)).execute();
+
+        // The overflow is reported once; later messages flow normally again
+        PreparedStatement next = mock(PreparedStatement.class);
+        channel.flushOutbound(next);
+        verify(next, never()).setString(eq(2), anyString());
+    }
+
+    private CacheInvalidationChannel channel(int maxPending) {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        return new CacheInvalidationChannel(entityManagerFactory, eventPublisher,
+                "jdbc:postgresql://localhost/test", "test", "test", "test_channel",
+                Duration.ofMillis(250), Duration.ofSeconds(5), maxPending);
+    }
+}
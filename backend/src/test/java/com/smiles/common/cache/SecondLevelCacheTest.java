@@ -0,0 +1,73 @@
+package com.smiles.common.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.smiles.facilities.domain.Facility;
+import com.smiles.facilities.repository.FacilityRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the Hibernate second-level cache.
+ * Not transactional, so every repository call uses its own persistence context.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UUID facilityId;
+
+    @AfterEach
+    void tearDown() {
+        if (facilityId != null) {
+            facilityRepository.deleteById(facilityId);
+        }
+    }
+
+    @Test
+    void testFacility_ServedFromCacheAndUpdatedOnWrite() {
+        Facility facility = facilityRepository.save(Facility.builder()
+            .name("Cached Facility " + UUID.randomUUID())
+            .city("Boston")
+            .address("1 Harbor Way")
+            .build());
+        facilityId = facility.getId();
+
+        double hitsBefore = hits(Facility.class.getName());
+        facilityRepository.findById(facilityId).orElseThrow();
+        facilityRepository.findById(facilityId).orElseThrow();
+
+        assertThat(entityManagerFactory.getCache().contains(Facility.class, facilityId)).isTrue();
+        assertThat(hits(Facility.class.getName())).isGreaterThan(hitsBefore);
+
+        Facility loaded = facilityRepository.findById(facilityId).orElseThrow();
+        loaded.setCity("Cambridge");
+        facilityRepository.save(loaded);
+
+        assertThat(facilityRepository.findById(facilityId).orElseThrow().getCity()).isEqualTo("Cambridge");
+    }
+
+    private double hits(String region) {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+            .tag("cache", region)
+            .tag("result", "hit")
+            .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+}
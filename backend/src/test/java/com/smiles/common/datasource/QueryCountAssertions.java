@@ -0,0 +1,88 @@
+package com.smiles.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+/**
+ * Statement budget assertions for tests.
+ *
+ * The result matchers read the counter the {@link StatementBudgetFilter} leaves
+ * on a MockMvc request:
+ * <pre>
+ * mockMvc.perform(get("/patients").param("facilityId", id))
+ *     .andExpect(maxQueries(1))
+ *     .andExpect(noRepeatedQueries());
+ * </pre>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Expect the request to run at most {@code max} statements.
+     *
+     * @param max the statement budget
+     * @return the result matcher
+     */
+    public static ResultMatcher maxQueries(int max) {
+        return result -> {
+            StatementCounter counter = counterOf(result);
+            assertThat(counter.total())
+                .as("statements run by %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(max);
+        };
+    }
+
+    /**
+     * Expect the request to run no statement {@code repeated-threshold} times or
+     * more, the usual sign of an N+1 select. The threshold is the one the
+     * application's {@link StatementBudgetFilter} logs with.
+     *
+     * @return the result matcher
+     */
+    public static ResultMatcher noRepeatedQueries() {
+        return result -> {
+            Map<String, Integer> repeated = counterOf(result).repeated(repeatedThresholdOf(result));
+            assertThat(repeated)
+                .as("statements repeated by %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isEmpty();
+        };
+    }
+
+    /**
+     * Assert that code run on the current thread runs at most {@code max} statements.
+     *
+     * @param max the statement budget
+     * @param code the code to count
+     */
+    public static void assertMaxQueries(int max, ThrowingCallable code) throws Throwable {
+        StatementCounter counter = StatementCounter.start();
+        try {
+            code.call();
+        } finally {
+            StatementCounter.stop();
+        }
+        assertThat(counter.total()).as("statements run").isLessThanOrEqualTo(max);
+    }
+
+    private static int repeatedThresholdOf(MvcResult result) {
+        WebApplicationContext context = WebApplicationContextUtils.getRequiredWebApplicationContext(
+            result.getRequest().getServletContext());
+        FilterRegistrationBean<?> registration = context.getBean("statementBudgetFilter", FilterRegistrationBean.class);
+        return ((StatementBudgetFilter) registration.getFilter()).repeatedThreshold();
+    }
+
+    private static StatementCounter counterOf(MvcResult result) {
+        Object counter = result.getRequest().getAttribute(StatementBudgetFilter.COUNTER_ATTRIBUTE);
+        assertThat(counter).as("statement counter of the request; is the statement budget enabled?").isNotNull();
+        return (StatementCounter) counter;
+    }
+}
@@ -0,0 +1,65 @@
+package com.smiles.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ReadYourWritesTracker catch-up decisions.
+ */
+class ReadYourWritesTrackerTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private long now;
+    private ReadYourWritesTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        now = NOW.toEpochMilli();
+        tracker = new ReadYourWritesTracker(
+            mock(DataSource.class), mock(DataSource.class),
+            Duration.ofSeconds(5), Duration.ofMillis(100), Duration.ofMillis(250),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testMustReadFromPrimary_UntilReplicaReplaysSampleTakenAfterWrite() {
+        long token = now - 1_000;
+        tracker.record(token - 100, 100, 100L);
+        assertThat(tracker.mustReadFromPrimary(token)).isTrue();
+
+        // Primary sampled after the write, replica still behind it
+        tracker.record(token + 100, 200, 150L);
+        assertThat(tracker.mustReadFromPrimary(token)).isTrue();
+
+        // Replica has replayed the position sampled after the write
+        tracker.record(token + 200, 250, 200L);
+        assertThat(tracker.mustReadFromPrimary(token)).isFalse();
+
+        // A later write is not covered yet
+        assertThat(tracker.mustReadFromPrimary(token + 150)).isTrue();
+    }
+
+    @Test
+    void testMustReadFromPrimary_UnknownReplayKeepsReadsOnPrimary() {
+        long token = now - 1_000;
+        tracker.record(token + 100, 200, null);
+
+        assertThat(tracker.mustReadFromPrimary(token)).isTrue();
+    }
+
+    @Test
+    void testMustReadFromPrimary_TokenOutsideWindowIgnored() {
+        assertThat(tracker.mustReadFromPrimary(null)).isFalse();
+        assertThat(tracker.mustReadFromPrimary(now - 6_000)).isFalse();
+        assertThat(tracker.mustReadFromPrimary(now + 6_000)).isFalse();
+    }
+}
@@ -0,0 +1,119 @@
+package com.smiles.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.smiles.common.datasource.ReplicaRoutingDataSource.Target;
+import jakarta.servlet.http.Cookie;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-05-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        // Mock data sources hand out no connections; WAL positions are never polled here
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        routingDataSource = routingDataSource();
+        bindRequest(new MockHttpServletRequest());
+    }
+
+    @AfterEach
+    void tearDown() {
+        endTransaction();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRouting_ByTransactionReadOnlyFlag() {
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(Target.PRIMARY);
+
+        beginTransaction(true);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(Target.REPLICA);
+        endTransaction();
+
+        beginTransaction(false);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(Target.PRIMARY);
+    }
+
+    @Test
+    void testRouting_ReadYourWritesAcrossInstances() {
+        MockHttpServletResponse writeResponse = bindRequest(new MockHttpServletRequest());
+        beginTransaction(false);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(Target.PRIMARY);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        endTransaction();
+
+        Cookie token = writeResponse.getCookie(ReadYourWritesTracker.COOKIE);
+        assertThat(token).isNotNull();
+        assertThat(token.isHttpOnly()).isTrue();
+
+        // The writer's next read reaches another instance with the cookie and stays on the primary
+        ReplicaRoutingDataSource otherInstance = routingDataSource();
+        MockHttpServletRequest readRequest = new MockHttpServletRequest();
+        readRequest.setCookies(token);
+        bindRequest(readRequest);
+        beginTransaction(true);
+        assertThat(otherInstance.determineCurrentLookupKey()).isEqualTo(Target.PRIMARY);
+        endTransaction();
+
+        // Clients without a token are unaffected
+        bindRequest(new MockHttpServletRequest());
+        beginTransaction(true);
+        assertThat(otherInstance.determineCurrentLookupKey()).isEqualTo(Target.REPLICA);
+    }
+
+    @Test
+    void testParseLsn() {
+        assertThat(ReadYourWritesTracker.parseLsn("0/16B6C50")).isEqualTo(0x16B6C50L);
+        assertThat(ReadYourWritesTracker.parseLsn("16/B374D848")).isEqualTo(0x16B374D848L);
+    }
+
+    private ReplicaRoutingDataSource routingDataSource() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(
+            primary, replica, Duration.ofSeconds(5), Duration.ofMillis(100), Duration.ofMillis(250), CLOCK);
+        return new ReplicaRoutingDataSource(primary, replica, tracker);
+    }
+
+    private static MockHttpServletResponse bindRequest(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clear();
+        }
+    }
+}
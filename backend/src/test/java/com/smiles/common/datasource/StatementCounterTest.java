@@ -0,0 +1,45 @@
+package com.smiles.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for StatementCounter.
+ */
+class StatementCounterTest {
+
+    @AfterEach
+    void tearDown() {
+        while (StatementCounter.current() != null) {
+            StatementCounter.stop();
+        }
+    }
+
+    @Test
+    void testRecord_NestedCountersCountInEveryEnclosingCounter() {
+        StatementCounter outer = StatementCounter.start();
+        outer.record("select 1");
+
+        StatementCounter inner = StatementCounter.start();
+        StatementCounter.current().record("select 2");
+        StatementCounter.stop();
+
+        assertThat(inner.total()).isEqualTo(1);
+        assertThat(outer.total()).isEqualTo(2);
+        assertThat(StatementCounter.current()).isSameAs(outer);
+    }
+
+    @Test
+    void testRepeated_ReportsStatementsAtThreshold() {
+        StatementCounter counter = StatementCounter.start();
+        for (int i = 0; i < 3; i++) {
+            counter.record("select * from room where id = ?");
+        }
+        counter.record("select * from facility where id = ?");
+
+        assertThat(counter.repeated(3)).containsOnlyKeys("select * from room where id = ?");
+        assertThat(counter.repeated(3)).containsEntry("select * from room where id = ?", 3);
+    }
+}
@@ -0,0 +1,147 @@
+package com.smiles.common.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for asynchronous event listeners on the EventListenerExecutor,
+ * and for the executor's capacity.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(EventListenerExecutorTest.RecordingListener.class)
+class EventListenerExecutorTest {
+
+    private static final int EVENTS = 5;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testListenersRunAfterCommit_OneAtATime() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        UUID facilityId = UUID.randomUUID();
+
+        // Rolled back changes publish nothing
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new PatientChangedEvent(UUID.randomUUID(), facilityId, EntityChangeType.CREATED));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < EVENTS; i++) {
+                eventPublisher.publishEvent(new PatientChangedEvent(UUID.randomUUID(), facilityId, EntityChangeType.CREATED));
+            }
+        });
+
+        assertThat(RecordingListener.done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(RecordingListener.threads).hasSize(EVENTS).allMatch(name -> name.startsWith("event-listener-"));
+        assertThat(RecordingListener.maxRunning.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("smiles.events.listener.lag")
+                .tag("listener", "RecordingListener.on")
+                .timer()
+                .count()).isEqualTo(EVENTS);
+    }
+
+    @Test
+    void testExecute_DropsInvocationWhenFullWithoutWaiting() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventListenerExecutor executor = new EventListenerExecutor(registry, true, 1, 1, Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger dropped = new AtomicInteger();
+        try {
+            executor.execute(() -> await(release));
+
+            // Returns at once on the submitting thread
+            Thread submitter = Thread.ofVirtual().start(() -> executor.execute(dropped::incrementAndGet));
+            assertThat(submitter.join(Duration.ofSeconds(5))).isTrue();
+
+            assertThat(registry.get("smiles.events.executor.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertThat(dropped.get()).isZero();
+    }
+
+    @Test
+    void testAwaitPendingBelow_WaitsForRoom() throws Exception {
+        EventListenerExecutor executor = new EventListenerExecutor(
+                new SimpleMeterRegistry(), true, 1, 1, Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+
+            // A bulk submitter waits until the first invocation finishes
+            Thread submitter = Thread.ofVirtual().start(() -> {
+                try {
+                    executor.awaitPendingBelow(1);
+                    executor.execute(second::countDown);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(submitter.join(Duration.ofMillis(200))).isFalse();
+            release.countDown();
+            submitter.join();
+
+            assertThat(second.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TestComponent
+    static class RecordingListener {
+
+        // Static since the listener bean is a proxy
+        static final CountDownLatch done = new CountDownLatch(EVENTS);
+        static final List<String> threads = new CopyOnWriteArrayList<>();
+        static final AtomicInteger running = new AtomicInteger();
+        static final AtomicInteger maxRunning = new AtomicInteger();
+
+        @ApplicationModuleListener
+        @ListenerConcurrency(1)
+        public void on(PatientChangedEvent event) throws InterruptedException {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            Thread.sleep(20);
+            running.decrementAndGet();
+            done.countDown();
+        }
+    }
+}
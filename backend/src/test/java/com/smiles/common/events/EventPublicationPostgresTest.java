@@ -0,0 +1,187 @@
+package com.smiles.common.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.smiles.common.persistence.PostgresIntegrationTest;
+import com.smiles.common.sharding.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.modulith.events.IncompleteEventPublications;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for EventPublicationMaintenance's archive, partition and purge SQL,
+ * and for the advisory lock EventPublicationResubmitter takes per shard.
+ */
+@TestPropertySource(properties = {
+    "smiles.events.maintenance.enabled=true",
+    "smiles.events.maintenance.interval=1h",
+    "smiles.events.maintenance.backlog-poll-interval=1h",
+    "smiles.events.maintenance.completed-retention=1m",
+    "smiles.events.maintenance.archive-retention=30d",
+    "smiles.events.maintenance.batch-size=2"
+})
+class EventPublicationPostgresTest extends PostgresIntegrationTest {
+
+    private static final String LISTENER = "EventPublicationPostgresTest.listener";
+    private static final String OLD_PARTITION = "event_publication_archive_y2020m01";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EventPublicationMaintenance maintenance;
+
+    @Autowired
+    private EventListenerExecutor executor;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM event_publication WHERE listener_id = ?", LISTENER);
+        jdbcTemplate.update("DELETE FROM event_publication_archive WHERE listener_id = ?", LISTENER);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + OLD_PARTITION);
+    }
+
+    @Test
+    void testMaintain_ArchivesCompletedPublicationsInBatches() {
+        Instant now = Instant.now();
+        Instant published = now.minus(3, ChronoUnit.MINUTES);
+        List<UUID> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expired.add(insert("event_publication", published, now.minus(2, ChronoUnit.MINUTES)));
+        }
+        UUID recent = insert("event_publication", published, now);
+        UUID incomplete = insert("event_publication", published, null);
+
+        maintenance.maintain();
+
+        assertThat(ids("event_publication")).containsExactlyInAnyOrder(recent, incomplete);
+        assertThat(ids("event_publication_archive")).containsExactlyInAnyOrderElementsOf(expired);
+        // Routed to this month's partition, which the job created; a month earlier is not created
+        YearMonth publishedMonth = YearMonth.from(published.atZone(ZoneOffset.UTC));
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT DISTINCT tableoid::regclass::text FROM event_publication_archive WHERE listener_id = ?",
+                String.class, LISTENER))
+            .containsExactly(publishedMonth.equals(YearMonth.now(ZoneOffset.UTC))
+                    ? partition(publishedMonth)
+                    : "event_publication_archive_default");
+    }
+
+    @Test
+    void testMaintain_CreatesThisAndNextMonthsPartitions() {
+        maintenance.maintain();
+
+        YearMonth thisMonth = YearMonth.now(ZoneOffset.UTC);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT relname::text FROM pg_class WHERE relname IN (?, ?)",
+                String.class, partition(thisMonth), partition(thisMonth.plusMonths(1))))
+            .hasSize(2);
+    }
+
+    @Test
+    void testMaintain_PurgesArchivePastRetention() {
+        Instant now = Instant.now();
+        Instant oldCompletion = Instant.parse("2020-01-15T12:00:00Z");
+        jdbcTemplate.execute("CREATE TABLE " + OLD_PARTITION + " PARTITION OF event_publication_archive"
+                + " FOR VALUES FROM ('2020-01-01') TO ('2020-02-01')");
+        insert("event_publication_archive", oldCompletion, oldCompletion);
+        // No partition covers these months, so they land in the default partition
+        for (int i = 0; i < 3; i++) {
+            insert("event_publication_archive", Instant.parse("2019-06-15T12:00:00Z"), oldCompletion);
+        }
+        UUID kept = insert("event_publication_archive", now.minus(1, ChronoUnit.DAYS), now.minus(1, ChronoUnit.DAYS));
+
+        maintenance.maintain();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = ?", Integer.class, OLD_PARTITION)).isZero();
+        assertThat(ids("event_publication_archive")).containsExactly(kept);
+    }
+
+    @Test
+    void testPollBacklog_ReportsIncompletePublications() {
+        Instant now = Instant.now();
+        insert("event_publication", now.minus(2, ChronoUnit.HOURS), null);
+        insert("event_publication", now.minus(1, ChronoUnit.HOURS), null);
+
+        maintenance.pollBacklog();
+
+        assertThat(meterRegistry.get("smiles.events.publications.incomplete")
+                .tag("shard", ShardRouter.SINGLE_SHARD).gauge().value()).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("smiles.events.publications.oldest.incomplete.age")
+                .tag("shard", ShardRouter.SINGLE_SHARD).gauge().value()).isGreaterThanOrEqualTo(7200);
+    }
+
+    @Test
+    void testResubmit_SkipsShardResubmittedElsewhere() throws Exception {
+        IncompleteEventPublications incompletePublications = mock(IncompleteEventPublications.class);
+        EventPublicationResubmitter resubmitter = new EventPublicationResubmitter(
+                incompletePublications, executor, shardRouter, dataSource, Duration.ofMinutes(1), 2);
+
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate lockJdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            lockJdbc.execute("SELECT pg_advisory_lock(hashtext('event_publication_resubmit'), 0)");
+            try {
+                resubmitter.resubmit();
+                verify(incompletePublications, never()).resubmitIncompletePublications(any());
+            } finally {
+                lockJdbc.execute("SELECT pg_advisory_unlock(hashtext('event_publication_resubmit'), 0)");
+            }
+        }
+
+        resubmitter.resubmit();
+        verify(incompletePublications).resubmitIncompletePublications(any());
+    }
+
+    private UUID insert(String table, Instant publicationDate, Instant completionDate) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO " + table
+                        + " (id, listener_id, event_type, serialized_event, publication_date, completion_date)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)",
+                id, LISTENER, PatientChangedEvent.class.getName(), "{}", Timestamp.from(publicationDate),
+                completionDate != null ? Timestamp.from(completionDate) : null);
+        return id;
+    }
+
+    private List<UUID> ids(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM " + table + " WHERE listener_id = ?", UUID.class, LISTENER);
+    }
+
+    private static String partition(YearMonth month) {
+        return String.format("event_publication_archive_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,108 @@
+package com.smiles.common.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.smiles.common.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.modulith.events.EventPublication;
+import org.springframework.modulith.events.IncompleteEventPublications;
+
+/**
+ * Unit tests for EventPublicationResubmitter's admission of incomplete publications.
+ */
+class EventPublicationResubmitterTest {
+
+    private static final Instant CUTOFF = Instant.parse("2024-05-01T10:00:00Z");
+
+    private EventListenerExecutor executor;
+    private EventPublicationResubmitter resubmitter;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        executor = new EventListenerExecutor(
+                new SimpleMeterRegistry(), true, 1, 10, Duration.ofSeconds(1));
+        resubmitter = new EventPublicationResubmitter(
+                mock(IncompleteEventPublications.class), executor, mock(ShardRouter.class), mock(DataSource.class),
+                Duration.ofMinutes(1), 2);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void testAdmit_SkipsPublicationsNotOlderThanCutoff() {
+        AtomicLong count = new AtomicLong();
+
+        assertThat(resubmitter.admit(publishedAt(CUTOFF), CUTOFF, count)).isFalse();
+        assertThat(resubmitter.admit(publishedAt(CUTOFF.plusSeconds(1)), CUTOFF, count)).isFalse();
+        assertThat(resubmitter.admit(publishedAt(CUTOFF.minusSeconds(1)), CUTOFF, count)).isTrue();
+        assertThat(count.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testAdmit_WaitsWhileMaxInFlightPending() throws Exception {
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        AtomicLong count = new AtomicLong();
+
+        CompletableFuture<Boolean> admitted = CompletableFuture.supplyAsync(
+                () -> resubmitter.admit(publishedAt(CUTOFF.minusSeconds(1)), CUTOFF, count));
+        Thread.sleep(200);
+        assertThat(admitted).isNotDone();
+        assertThat(count.get()).isZero();
+
+        release.countDown();
+        assertThat(admitted.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(count.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testAwaitPendingBelow_ReturnsOnceInvocationsFinish() throws Exception {
+        executor.awaitPendingBelow(1);
+
+        executor.execute(this::awaitRelease);
+        CompletableFuture<Void> below = CompletableFuture.runAsync(() -> {
+            try {
+                executor.awaitPendingBelow(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(200);
+        assertThat(below).isNotDone();
+
+        release.countDown();
+        below.get(10, TimeUnit.SECONDS);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EventPublication publishedAt(Instant publicationDate) {
+        EventPublication publication = mock(EventPublication.class);
+        when(publication.getPublicationDate()).thenReturn(publicationDate);
+        return publication;
+    }
+}
@@ -0,0 +1,32 @@
+package com.smiles.common.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for FacilityTagLimiter.
+ */
+class FacilityTagLimiterTest {
+
+    @Test
+    void testTagOf_NullFacilityIsNone() {
+        FacilityTagLimiter limiter = new FacilityTagLimiter(2);
+
+        assertThat(limiter.tagOf(null)).isEqualTo(FacilityTagLimiter.NONE);
+    }
+
+    @Test
+    void testTagOf_FacilitiesBeyondLimitShareOther() {
+        FacilityTagLimiter limiter = new FacilityTagLimiter(2);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        assertThat(limiter.tagOf(first)).isEqualTo(first.toString());
+        assertThat(limiter.tagOf(second)).isEqualTo(second.toString());
+        assertThat(limiter.tagOf(UUID.randomUUID())).isEqualTo(FacilityTagLimiter.OTHER);
+        // Facilities admitted before the limit keep their own tag
+        assertThat(limiter.tagOf(first)).isEqualTo(first.toString());
+    }
+}
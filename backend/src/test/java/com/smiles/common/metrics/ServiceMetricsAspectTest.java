@@ -0,0 +1,127 @@
+package com.smiles.common.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.smiles.common.sharding.ShardKey;
+import com.smiles.common.sharding.ShardRoutingAspect;
+import com.smiles.common.web.PreconditionFailedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.security.access.AccessDeniedException;
+
+/**
+ * Unit tests for ServiceMetricsAspect's tags and its order relative to ShardRoutingAspect.
+ */
+class ServiceMetricsAspectTest {
+
+    private static final UUID FACILITY_ID = UUID.randomUUID();
+
+    private SimpleMeterRegistry meterRegistry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SampleService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry, new FacilityTagLimiter(10)));
+        service = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testTime_OutcomeOfEachFailure() {
+        service.fail(null);
+        assertThatThrownBy(() -> service.fail(new IllegalArgumentException("Bad request")));
+        assertThatThrownBy(() -> service.fail(new PreconditionFailedException("Changed")));
+        assertThatThrownBy(() -> service.fail(new AccessDeniedException("No access")));
+        assertThatThrownBy(() -> service.fail(new IllegalStateException("Broken")));
+
+        assertThat(callCount("success", "none")).isEqualTo(1);
+        assertThat(callCount("rejected", "IllegalArgumentException")).isEqualTo(1);
+        assertThat(callCount("rejected", "PreconditionFailedException")).isEqualTo(1);
+        assertThat(callCount("denied", "AccessDeniedException")).isEqualTo(1);
+        assertThat(callCount("error", "IllegalStateException")).isEqualTo(1);
+    }
+
+    @Test
+    void testTime_FacilityFromArgumentOrResult() {
+        service.byShardKey(new Sample(FACILITY_ID));
+        service.byFacilityId(FACILITY_ID, "name");
+        service.byResult(UUID.randomUUID());
+        service.list(FACILITY_ID.toString());
+
+        assertThat(facilityCount("byShardKey", FACILITY_ID.toString())).isEqualTo(1);
+        assertThat(facilityCount("byFacilityId", FACILITY_ID.toString())).isEqualTo(1);
+        assertThat(facilityCount("byResult", FACILITY_ID.toString())).isEqualTo(1);
+        // Lists span facilities, so they are not attributed to one
+        assertThat(facilityCount("list", FacilityTagLimiter.NONE)).isEqualTo(1);
+    }
+
+    @Test
+    void testTime_HistogramNotTaggedByFacility() {
+        service.byFacilityId(FACILITY_ID, "name");
+
+        assertThat(meterRegistry.get("smiles.service.calls").timer().getId().getTag("facility")).isNull();
+    }
+
+    @Test
+    void testOrder_RunsBeforeShardRouting() {
+        // So a call probing every shard is timed once, including its routing
+        assertThat(OrderUtils.getOrder(ServiceMetricsAspect.class))
+            .isLessThan(OrderUtils.getOrder(ShardRoutingAspect.class));
+    }
+
+    private long callCount(String outcome, String exception) {
+        return meterRegistry.get("smiles.service.calls")
+            .tag("operation", "SampleService.fail")
+            .tag("outcome", outcome)
+            .tag("exception", exception)
+            .timer()
+            .count();
+    }
+
+    private long facilityCount(String method, String facility) {
+        return meterRegistry.get("smiles.service.facility.calls")
+            .tag("operation", "SampleService." + method)
+            .tag("facility", facility)
+            .timer()
+            .count();
+    }
+
+    public record Sample(UUID facilityId) {
+
+        public UUID getFacilityId() {
+            return facilityId;
+        }
+    }
+
+    @Monitored
+    static class SampleService {
+
+        public void fail(RuntimeException failure) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        public void byShardKey(@ShardKey Sample sample) {
+        }
+
+        public void byFacilityId(UUID facilityId, String name) {
+        }
+
+        public Sample byResult(UUID id) {
+            return new Sample(FACILITY_ID);
+        }
+
+        public List<Sample> list(String query) {
+            return List.of(new Sample(FACILITY_ID));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.smiles.common.persistence;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base class for integration tests of PostgreSQL-only SQL.
+ *
+ * One container is started for the whole run and Flyway builds the schema, as in
+ * production, so subclasses share one application context. Where Docker is not
+ * available, such as a CI runner with a PostgreSQL service, the
+ * {@code smiles.test.postgres.url} system property points the tests at an empty
+ * database instead ({@code .username} and {@code .password} default to "test").
+ * Tests are skipped when neither is available.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(PostgresIntegrationTest.PostgresAvailable.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final String EXTERNAL_URL_PROPERTY = "smiles.test.postgres.url";
+
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        String externalUrl = System.getProperty(EXTERNAL_URL_PROPERTY);
+        if (externalUrl != null) {
+            registry.add("spring.datasource.url", () -> externalUrl);
+            registry.add("spring.datasource.username", () -> System.getProperty("smiles.test.postgres.username", "test"));
+            registry.add("spring.datasource.password", () -> System.getProperty("smiles.test.postgres.password", "test"));
+        } else {
+            // Started here rather than with @Container, so it outlives each test class
+            POSTGRES.start();
+            registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+            registry.add("spring.datasource.username", POSTGRES::getUsername);
+            registry.add("spring.datasource.password", POSTGRES::getPassword);
+        }
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("smiles.cache.invalidation.enabled", () -> "false");
+    }
+
+    /**
+     * Enables the tests when an external database is configured or Docker is available.
+     */
+    static class PostgresAvailable implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            if (System.getProperty(EXTERNAL_URL_PROPERTY) != null) {
+                return ConditionEvaluationResult.enabled("Using the database at " + EXTERNAL_URL_PROPERTY);
+            }
+            if (DockerClientFactory.instance().isDockerAvailable()) {
+                return ConditionEvaluationResult.enabled("Docker is available");
+            }
+            return ConditionEvaluationResult.disabled(
+                    "Docker is not available and " + EXTERNAL_URL_PROPERTY + " is not set");
+        }
+    }
+}
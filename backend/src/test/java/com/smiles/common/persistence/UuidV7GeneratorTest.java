@@ -0,0 +1,41 @@
+package com.smiles.common.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for UuidV7Generator.
+ */
+class UuidV7GeneratorTest {
+
+    @Test
+    void testRandomUuid_IsVersion7WithCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.randomUuid();
+        long after = System.currentTimeMillis();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UuidV7Generator.timestampMillis(uuid)).isBetween(before, after + 1);
+    }
+
+    @Test
+    void testRandomUuid_IsStrictlyIncreasing() {
+        UUID previous = UuidV7Generator.randomUuid();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.randomUuid();
+            // Compare as unsigned bytes, the way PostgreSQL orders uuid values
+            assertThat(next.toString()).isGreaterThan(previous.toString());
+            previous = next;
+        }
+    }
+
+    @Test
+    void testTimestampMillis_RejectsOtherVersions() {
+        assertThatThrownBy(() -> UuidV7Generator.timestampMillis(UUID.randomUUID()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
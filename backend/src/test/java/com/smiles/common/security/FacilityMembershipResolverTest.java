@@ -0,0 +1,59 @@
+package com.smiles.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for FacilityMembershipResolver.
+ */
+class FacilityMembershipResolverTest {
+
+    private final UUID facilityId = UUID.randomUUID();
+    private final AtomicLong nanos = new AtomicLong();
+
+    private FacilityMembershipSource source;
+    private SmilesPrincipalCache principalCache;
+    private FacilityMembershipResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        source = mock(FacilityMembershipSource.class);
+        principalCache = mock(SmilesPrincipalCache.class);
+        when(source.loadFacilityIds("user-1")).thenReturn(Set.of(facilityId));
+        resolver = new FacilityMembershipResolver(source, principalCache, 100, Duration.ofMinutes(5), nanos::get);
+    }
+
+    @Test
+    void testIsMember_LoadsOncePerTtl() {
+        assertThat(resolver.isMember("user-1", facilityId)).isTrue();
+        assertThat(resolver.isMember("user-1", UUID.randomUUID())).isFalse();
+        verify(source, times(1)).loadFacilityIds("user-1");
+
+        nanos.addAndGet(Duration.ofMinutes(5).plusSeconds(1).toNanos());
+
+        assertThat(resolver.isMember("user-1", facilityId)).isTrue();
+        verify(source, times(2)).loadFacilityIds("user-1");
+    }
+
+    @Test
+    void testEvict_ReloadsAndDropsCachedPrincipals() {
+        resolver.isMember("user-1", facilityId);
+        when(source.loadFacilityIds("user-1")).thenReturn(Set.of());
+
+        resolver.evict("user-1");
+
+        assertThat(resolver.isMember("user-1", facilityId)).isFalse();
+        verify(source, times(2)).loadFacilityIds("user-1");
+        verify(principalCache).evictSubject("user-1");
+    }
+}
@@ -0,0 +1,197 @@
+package com.smiles.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * Tests for offline JWT validation with LocalJwkSetCache.
+ */
+class LocalJwkSetCacheTest {
+
+    private static final String ISSUER = "http://localhost:8080/realms/smiles";
+    private static final String UNREACHABLE_URI = "http://127.0.0.1:1/realms/smiles/protocol/openid-connect/certs";
+
+    @TempDir
+    Path tempDir;
+
+    private RSAKey signingKey;
+
+    private LocalJwkSetCache cache;
+    private HttpServer keycloak;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("test-key").generate();
+        Path keyFile = tempDir.resolve("jwks.json");
+        Files.writeString(keyFile, new JWKSet(signingKey.toPublicJWK()).toString());
+
+        // Unreachable Keycloak: validation must rely on the local key file only
+        cache = cache(UNREACHABLE_URI, keyFile, Duration.ofSeconds(30));
+        cache.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+        if (keycloak != null) {
+            keycloak.stop(0);
+        }
+    }
+
+    @Test
+    void testDecode_WithKeyFromLocalFile() throws Exception {
+        Jwt jwt = decoder().decode(sign(signingKey));
+
+        assertThat(jwt.getSubject()).isEqualTo("user-1");
+        assertThat(cache.getJwkSet().getKeyByKeyId("test-key")).isNotNull();
+    }
+
+    @Test
+    void testDecode_KeepsLastGoodKeysWhenRefreshFails() throws Exception {
+        cache.refresh();
+
+        assertThat(decoder().decode(sign(signingKey)).getSubject()).isEqualTo("user-1");
+    }
+
+    @Test
+    void testDecode_UnknownKeyIsRejected() throws Exception {
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("other-key").generate();
+
+        assertThatThrownBy(() -> decoder().decode(sign(otherKey)))
+            .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void testConstructor_RequiresCacheFile() {
+        assertThatThrownBy(() -> new LocalJwkSetCache(UNREACHABLE_URI, " ",
+                Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMillis(200), true))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testStart_IgnoresFileWritableByOthers() throws Exception {
+        Path keyFile = tempDir.resolve("jwks.json");
+        Files.setPosixFilePermissions(keyFile, PosixFilePermissions.fromString("rw-rw-rw-"));
+        LocalJwkSetCache planted = cache(UNREACHABLE_URI, keyFile, Duration.ofSeconds(30));
+
+        planted.start();
+        try {
+            assertThat(planted.getJwkSet().getKeys()).isEmpty();
+            assertThatThrownBy(() -> decoder(planted).decode(sign(signingKey)))
+                .isInstanceOf(JwtException.class);
+        } finally {
+            planted.stop();
+        }
+    }
+
+    @Test
+    void testDecode_UnknownKeyFetchedBeforeRejecting() throws Exception {
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("rotated-key").generate();
+        AtomicInteger fetches = new AtomicInteger();
+        String uri = serveKeys(new JWKSet(rotatedKey.toPublicJWK()), fetches);
+        // Cold start: no cache file and no background refresh yet
+        LocalJwkSetCache cold = cache(uri, tempDir.resolve("missing/jwks.json"), Duration.ZERO);
+
+        assertThat(decoder(cold).decode(sign(rotatedKey)).getSubject()).isEqualTo("user-1");
+        assertThat(fetches).hasValue(1);
+        assertThat(Files.exists(tempDir.resolve("missing/jwks.json"))).isTrue();
+    }
+
+    @Test
+    void testDecode_UnknownKeyFetchRateLimited() throws Exception {
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("rotated-key").generate();
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicReference<JWKSet> served = new AtomicReference<>(new JWKSet(signingKey.toPublicJWK()));
+        String uri = serveKeys(served, fetches);
+        LocalJwkSetCache limited = cache(uri, tempDir.resolve("limited.json"), Duration.ofHours(1));
+        limited.refresh();
+
+        served.set(new JWKSet(rotatedKey.toPublicJWK()));
+
+        assertThatThrownBy(() -> decoder(limited).decode(sign(rotatedKey)))
+            .isInstanceOf(JwtException.class);
+        assertThat(fetches).hasValue(1);
+    }
+
+    private LocalJwkSetCache cache(String jwkSetUri, Path keyFile, Duration minRefreshInterval) {
+        return new LocalJwkSetCache(jwkSetUri, keyFile.toString(),
+            Duration.ofMinutes(10), minRefreshInterval, Duration.ofMillis(500), true);
+    }
+
+    private String serveKeys(JWKSet keys, AtomicInteger fetches) throws Exception {
+        return serveKeys(new AtomicReference<>(keys), fetches);
+    }
+
+    private String serveKeys(AtomicReference<JWKSet> keys, AtomicInteger fetches) throws Exception {
+        keycloak = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        keycloak.createContext("/certs", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = keys.get().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        keycloak.start();
+        return "http://127.0.0.1:" + keycloak.getAddress().getPort() + "/certs";
+    }
+
+    private NimbusJwtDecoder decoder() {
+        return decoder(cache);
+    }
+
+    private static NimbusJwtDecoder decoder(LocalJwkSetCache cache) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.Family.RSA, cache));
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+        return new NimbusJwtDecoder(processor);
+    }
+
+    private String sign(RSAKey key) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject("user-1")
+            .issuer(ISSUER)
+            .jwtID("token-1")
+            .issueTime(new Date())
+            .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+            .build();
+
+        SignedJWT jwt = new SignedJWT(
+            new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(),
+            claims
+        );
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
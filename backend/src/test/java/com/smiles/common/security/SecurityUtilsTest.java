@@ -0,0 +1,75 @@
+package com.smiles.common.security;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.smiles.common.sharding.ShardDirectory;
+import com.smiles.common.sharding.ShardRouter;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Unit tests for SecurityUtils facility access checks.
+ */
+class SecurityUtilsTest {
+
+    private final UUID facilityId = UUID.randomUUID();
+
+    private FacilityMembershipResolver membershipResolver;
+    private SecurityUtils securityUtils;
+
+    @BeforeEach
+    void setUp() {
+        membershipResolver = mock(FacilityMembershipResolver.class);
+        ShardRouter shardRouter = new ShardRouter(new StaticListableBeanFactory().getBeanProvider(ShardDirectory.class));
+        securityUtils = new SecurityUtils(membershipResolver, shardRouter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testCheckFacilityAccess_MemberAllowed() {
+        authenticate("receptionist", "ROLE_receptionist");
+        when(membershipResolver.isMember("receptionist", facilityId)).thenReturn(true);
+
+        assertThatCode(() -> securityUtils.checkFacilityAccess(facilityId)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testCheckFacilityAccess_NonMemberDenied() {
+        authenticate("receptionist", "ROLE_receptionist");
+
+        assertThatThrownBy(() -> securityUtils.checkFacilityAccess(facilityId))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void testCheckFacilityAccess_AdminAllowedWithoutMembership() {
+        authenticate("admin", "ROLE_admin");
+
+        assertThatCode(() -> securityUtils.checkFacilityAccess(facilityId)).doesNotThrowAnyException();
+        verifyNoInteractions(membershipResolver);
+    }
+
+    @Test
+    void testCheckFacilityAccess_UnauthenticatedDenied() {
+        assertThatThrownBy(() -> securityUtils.checkFacilityAccess(facilityId))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static void authenticate(String name, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null, authority));
+    }
+}
@@ -0,0 +1,92 @@
+package com.smiles.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Unit tests for SmilesJwtAuthenticationConverter.
+ */
+class SmilesJwtAuthenticationConverterTest {
+
+    private final UUID facilityId = UUID.randomUUID();
+    private final UUID staffId = UUID.randomUUID();
+
+    private FacilityMembershipResolver membershipResolver;
+    private LinkedAccountSource staffSource;
+    private SmilesJwtAuthenticationConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        membershipResolver = mock(FacilityMembershipResolver.class);
+        when(membershipResolver.getFacilityIds("user-1")).thenReturn(Set.of(facilityId));
+
+        staffSource = mock(LinkedAccountSource.class);
+        when(staffSource.type()).thenReturn(LinkedAccountType.STAFF);
+        when(staffSource.findLinkedId("user-1")).thenReturn(Optional.of(staffId));
+
+        converter = new SmilesJwtAuthenticationConverter(
+            new SmilesPrincipalCache(1000, Duration.ofHours(1)), membershipResolver, List.of(staffSource));
+    }
+
+    @Test
+    void testConvert_ResolvesPrincipalFromClaimsAndSources() {
+        SmilesAuthenticationToken token = (SmilesAuthenticationToken) converter.convert(jwt("jti-1"));
+
+        SmilesPrincipal principal = token.getSmilesPrincipal();
+        assertThat(principal.subject()).isEqualTo("user-1");
+        assertThat(principal.username()).isEqualTo("jdoe");
+        assertThat(principal.roles()).containsExactly(SmilesRole.receptionist);
+        assertThat(principal.roleNames()).containsExactly("receptionist", "offline_access");
+        assertThat(principal.staffId()).isEqualTo(staffId);
+        assertThat(principal.patientId()).isNull();
+        assertThat(principal.isMemberOf(facilityId)).isTrue();
+        assertThat(token.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+            .containsExactly("ROLE_receptionist", "ROLE_offline_access");
+    }
+
+    @Test
+    void testConvert_ReusesPrincipalPerTokenId() {
+        converter.convert(jwt("jti-1"));
+        converter.convert(jwt("jti-1"));
+        converter.convert(jwt("jti-2"));
+
+        verify(staffSource, times(2)).findLinkedId("user-1");
+        verify(membershipResolver, times(2)).getFacilityIds("user-1");
+    }
+
+    @Test
+    void testConvert_TokenWithoutIdIsResolvedEachTime() {
+        converter.convert(jwt(null));
+        converter.convert(jwt(null));
+
+        verify(staffSource, times(2)).findLinkedId("user-1");
+    }
+
+    private static Jwt jwt(String tokenId) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject("user-1")
+            .claim("preferred_username", "jdoe")
+            .claim("realm_access", Map.of("roles", List.of("receptionist", "offline_access")))
+            .expiresAt(Instant.now().plusSeconds(300));
+        if (tokenId != null) {
+            builder.jti(tokenId);
+        }
+        return builder.build();
+    }
+}
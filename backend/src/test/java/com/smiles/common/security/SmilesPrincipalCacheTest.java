@@ -0,0 +1,68 @@
+package com.smiles.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SmilesPrincipalCache.
+ */
+class SmilesPrincipalCacheTest {
+
+    private final SmilesPrincipalCache cache = new SmilesPrincipalCache(1000, Duration.ofHours(1));
+    private final AtomicInteger resolutions = new AtomicInteger();
+
+    @Test
+    void testGet_ResolvesOncePerToken() {
+        cache.get("token-1", id -> entry("user-1", Instant.now().plusSeconds(300)));
+        cache.get("token-1", id -> entry("user-1", Instant.now().plusSeconds(300)));
+
+        assertThat(resolutions).hasValue(1);
+    }
+
+    @Test
+    void testGet_ExpiredTokenIsResolvedAgain() {
+        cache.get("token-1", id -> entry("user-1", Instant.now().minusSeconds(1)));
+        cache.get("token-1", id -> entry("user-1", Instant.now().plusSeconds(300)));
+
+        assertThat(resolutions).hasValue(2);
+    }
+
+    @Test
+    void testEvictSubject_DropsOnlyThatSubjectsTokens() {
+        cache.get("token-1", id -> entry("user-1", null));
+        cache.get("token-2", id -> entry("user-1", null));
+        cache.get("token-3", id -> entry("user-2", null));
+
+        cache.evictSubject("user-1");
+
+        cache.get("token-1", id -> entry("user-1", null));
+        cache.get("token-2", id -> entry("user-1", null));
+        cache.get("token-3", id -> entry("user-2", null));
+        assertThat(resolutions).hasValue(5);
+    }
+
+    @Test
+    void testEvictSubject_AfterReResolutionStillEvicts() {
+        cache.get("token-1", id -> entry("user-1", null));
+        cache.evictSubject("user-1");
+        cache.get("token-1", id -> entry("user-1", null));
+
+        cache.evictSubject("user-1");
+
+        cache.get("token-1", id -> entry("user-1", null));
+        assertThat(resolutions).hasValue(3);
+    }
+
+    private SmilesPrincipalCache.Entry entry(String subject, Instant expiresAt) {
+        resolutions.incrementAndGet();
+        SmilesPrincipal principal = new SmilesPrincipal(
+            subject, subject, null, Set.of(), List.of(), null, null, Set.of(), expiresAt);
+        return new SmilesPrincipalCache.Entry(principal, List.of());
+    }
+}
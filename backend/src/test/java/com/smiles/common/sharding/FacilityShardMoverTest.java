@@ -0,0 +1,193 @@
+package com.smiles.common.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.facilities.service.FacilityService;
+import com.smiles.patients.dto.CreatePatientRequest;
+import com.smiles.patients.dto.UpdatePatientRequest;
+import com.smiles.patients.service.PatientService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration tests for FacilityShardMover against two PostgreSQL shards.
+ * Skipped when Docker is not available.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class FacilityShardMoverTest {
+
+    @Container
+    static final PostgreSQLContainer<?> SHARD1 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> SHARD2 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SHARD1::getJdbcUrl);
+        registry.add("spring.datasource.username", SHARD1::getUsername);
+        registry.add("spring.datasource.password", SHARD1::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("smiles.sharding.enabled", () -> "true");
+        registry.add("smiles.sharding.shards.shard2.url", SHARD2::getJdbcUrl);
+        registry.add("smiles.sharding.shards.shard2.username", SHARD2::getUsername);
+        registry.add("smiles.sharding.shards.shard2.password", SHARD2::getPassword);
+        registry.add("smiles.sharding.directory.cache-ttl", () -> "1s");
+        registry.add("smiles.cache.invalidation.enabled", () -> "false");
+    }
+
+    @Autowired
+    private FacilityShardMover mover;
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private ShardDataSources shardDataSources;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(admin());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testMove_WritesDuringMoveAreNotLost() throws Exception {
+        UUID facilityId = facilityService.createFacility(CreateFacilityRequest.builder()
+                .name("Moving Clinic")
+                .city("Springfield")
+                .address("1 Main St")
+                .build()).getId();
+        for (int i = 0; i < 50; i++) {
+            createPatient(facilityId, "Before " + i);
+        }
+
+        // Keep writing until the move is done; writes rejected while frozen are expected
+        Queue<UUID> created = new ConcurrentLinkedQueue<>();
+        AtomicBoolean moving = new AtomicBoolean(true);
+        Thread writer = Thread.ofVirtual().start(() -> {
+            SecurityContextHolder.getContext().setAuthentication(admin());
+            int i = 0;
+            while (moving.get()) {
+                try {
+                    created.add(createPatient(facilityId, "During " + i++));
+                } catch (RuntimeException e) {
+                    // FacilityMovingException, WrongShardException or a stale route
+                }
+            }
+        });
+
+        FacilityMoveResult result;
+        try {
+            result = mover.move(facilityId, "shard2");
+        } finally {
+            moving.set(false);
+            writer.join();
+        }
+
+        assertThat(result.sourceShard()).isEqualTo("shard1");
+        assertThat(result.targetShard()).isEqualTo("shard2");
+        assertThat(created).isNotEmpty();
+        assertThat(patientIds("shard2", facilityId)).hasSize(50 + created.size()).containsAll(created);
+        assertThat(patientIds("shard1", facilityId)).isEmpty();
+    }
+
+    @Test
+    void testStart_RunsInBackgroundAndRecordsStatus() throws Exception {
+        UUID facilityId = facilityService.createFacility(CreateFacilityRequest.builder()
+                .name("Background Clinic")
+                .city("Springfield")
+                .address("2 Main St")
+                .build()).getId();
+        createPatient(facilityId, "Patient");
+
+        FacilityMoveStatus started = mover.start(facilityId, "shard2");
+        assertThat(started.state()).isEqualTo(FacilityMoveState.RUNNING);
+
+        FacilityMoveStatus status = started;
+        for (int i = 0; i < 300 && status.state() == FacilityMoveState.RUNNING; i++) {
+            Thread.sleep(100);
+            status = mover.status(facilityId).orElseThrow();
+        }
+        assertThat(status.state()).isEqualTo(FacilityMoveState.SUCCEEDED);
+        assertThat(status.copiedRows()).isPositive();
+        assertThat(status.frozenFor()).isNotNull();
+        assertThat(patientIds("shard2", facilityId)).hasSize(1);
+    }
+
+    @Test
+    void testUpdateById_WritesOwningShardOnly() {
+        UUID facilityId = facilityService.createFacility(CreateFacilityRequest.builder()
+                .name("Moved Clinic")
+                .city("Springfield")
+                .address("3 Main St")
+                .build()).getId();
+        UUID patientId = createPatient(facilityId, "Patient");
+        mover.move(facilityId, "shard2");
+        // A stale copy on the source shard, as an interrupted move would leave
+        jdbc("shard1").update("INSERT INTO facility (id, name, city, address) VALUES (?, ?, ?, ?)",
+                facilityId, "Moved Clinic", "Springfield", "3 Main St");
+        jdbc("shard1").update("INSERT INTO patient (id, facility_id, name, birth_date) VALUES (?, ?, ?, ?)",
+                patientId, facilityId, "Patient", LocalDate.of(1980, 1, 1));
+
+        patientService.updatePatient(patientId, UpdatePatientRequest.builder().phone("555-0199").build(), null);
+
+        assertThat(phone("shard2", patientId)).isEqualTo("555-0199");
+        assertThat(phone("shard1", patientId)).isNull();
+    }
+
+    private UUID createPatient(UUID facilityId, String name) {
+        return patientService.createPatient(CreatePatientRequest.builder()
+                .facilityId(facilityId)
+                .name(name)
+                .birthDate(LocalDate.of(1980, 1, 1))
+                .build()).getId();
+    }
+
+    private List<UUID> patientIds(String shard, UUID facilityId) {
+        return jdbc(shard).queryForList("SELECT id FROM patient WHERE facility_id = ?", UUID.class, facilityId);
+    }
+
+    private String phone(String shard, UUID patientId) {
+        return jdbc(shard).queryForObject("SELECT phone FROM patient WHERE id = ?", String.class, patientId);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shardDataSources.get(shard));
+    }
+
+    private static TestingAuthenticationToken admin() {
+        return new TestingAuthenticationToken("admin", null, "ROLE_admin");
+    }
+}
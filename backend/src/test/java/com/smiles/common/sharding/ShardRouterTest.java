@@ -0,0 +1,134 @@
+package com.smiles.common.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Unit tests for ShardRouter.
+ */
+class ShardRouterTest {
+
+    private final UUID facilityOnShard1 = UUID.randomUUID();
+    private final UUID facilityOnShard2 = UUID.randomUUID();
+
+    private ShardDirectory directory;
+    private ShardRouter router;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        directory = mock(ShardDirectory.class);
+        when(directory.shards()).thenReturn(List.of("shard1", "shard2"));
+        when(directory.defaultShard()).thenReturn("shard1");
+        when(directory.cacheTtl()).thenReturn(Duration.ofSeconds(5));
+        when(directory.placementOf(any())).thenReturn(new FacilityPlacement("shard1", false));
+        when(directory.placementOf(facilityOnShard2)).thenReturn(new FacilityPlacement("shard2", false));
+
+        ObjectProvider<ShardDirectory> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(directory);
+        router = new ShardRouter(provider);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null, "ROLE_admin"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void onAllShards_RunsOncePerShardWithContextAndSecurity() {
+        Map<String, String> results = router.onAllShards(() ->
+                ShardContext.current() + ":" + SecurityContextHolder.getContext().getAuthentication().getName());
+
+        assertThat(results).containsExactly(
+                Map.entry("shard1", "shard1:admin"),
+                Map.entry("shard2", "shard2:admin"));
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void gatherOwned_DropsCopiesOfFacilitiesOwnedElsewhere() {
+        // Both shards hold a copy of facilityOnShard2, as during a move
+        List<UUID> gathered = router.gatherOwned(
+                () -> "shard1".equals(ShardContext.current())
+                        ? List.of(facilityOnShard1, facilityOnShard2)
+                        : List.of(facilityOnShard2),
+                Function.identity());
+
+        assertThat(gathered).containsExactly(facilityOnShard1, facilityOnShard2);
+    }
+
+    @Test
+    void ownerOf_IgnoresCopiesOnShardsNotOwningTheFacility() {
+        // Both shards hold the row, as during a move of facilityOnShard2
+        String owner = router.ownerOf(() -> List.of(facilityOnShard2));
+
+        assertThat(owner).isEqualTo("shard2");
+    }
+
+    @Test
+    void ownerOf_DefaultShardWhenRowFoundNowhere() {
+        assertThat(router.ownerOf(List::of)).isEqualTo("shard1");
+    }
+
+    @Test
+    void ownerOf_RejectsFrozenFacility() {
+        when(directory.placementOf(facilityOnShard2)).thenReturn(new FacilityPlacement("shard2", true));
+
+        assertThatThrownBy(() -> router.ownerOf(() -> "shard2".equals(ShardContext.current())
+                ? List.of(facilityOnShard2)
+                : List.of()))
+            .isInstanceOf(FacilityMovingException.class);
+    }
+
+    @Test
+    void probe_ReturnsHitFromOwningShard() throws Throwable {
+        Object result = router.probe(() -> {
+            if (!"shard2".equals(ShardContext.current())) {
+                throw new IllegalArgumentException("Room not found");
+            }
+            return "room";
+        }, false);
+
+        assertThat(result).isEqualTo("room");
+    }
+
+    @Test
+    void probe_IgnoresWrongShardAndReturnsMissWhenNothingFound() throws Throwable {
+        Object result = router.probe(() -> {
+            router.verifyOwnership(facilityOnShard2);
+            return Optional.empty();
+        }, false);
+
+        assertThat(result).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    void probe_PrefersOtherFailuresOverNotFound() {
+        when(directory.placementOf(facilityOnShard1)).thenReturn(new FacilityPlacement("shard1", true));
+
+        assertThatThrownBy(() -> router.probe(() -> {
+            if ("shard1".equals(ShardContext.current())) {
+                router.verifyOwnership(facilityOnShard1);
+            }
+            throw new IllegalArgumentException("Room not found");
+        }, true)).isInstanceOf(FacilityMovingException.class);
+    }
+}
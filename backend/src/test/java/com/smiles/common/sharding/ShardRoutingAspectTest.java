@@ -0,0 +1,70 @@
+package com.smiles.common.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Unit tests for ShardRoutingAspect's routing of calls by entity ID.
+ */
+class ShardRoutingAspectTest {
+
+    private static final UUID ROOM_ID = UUID.randomUUID();
+
+    private ShardRouter shardRouter;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = mock(ShardRouter.class);
+        when(shardRouter.isSharded()).thenReturn(true);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SampleService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ShardRoutingAspect(shardRouter));
+        service = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testRouteById_WriteRunsOnceOnOwningShard() throws Throwable {
+        when(shardRouter.ownerOf("room", ROOM_ID)).thenReturn("shard2");
+
+        assertThat(service.update(ROOM_ID)).isEqualTo("shard2");
+        verify(shardRouter, never()).probe(any(), anyBoolean());
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRouteById_ReadProbesEveryShard() throws Throwable {
+        when(shardRouter.probe(any(), anyBoolean()))
+            .thenAnswer(invocation -> ((Callable<Object>) invocation.getArgument(0)).call());
+
+        service.get(ROOM_ID);
+
+        verify(shardRouter).probe(any(), anyBoolean());
+        verify(shardRouter, never()).ownerOf(any(), any());
+    }
+
+    static class SampleService {
+
+        @AnyShard
+        public String get(UUID id) {
+            return ShardContext.current();
+        }
+
+        @AnyShard(table = "room")
+        public String update(UUID id) {
+            return ShardContext.current();
+        }
+    }
+}
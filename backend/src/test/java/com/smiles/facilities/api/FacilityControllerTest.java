@@ -1,5 +1,7 @@
 package com.smiles.facilities.api;
 
+import static com.smiles.common.datasource.QueryCountAssertions.maxQueries;
+import static com.smiles.common.datasource.QueryCountAssertions.noRepeatedQueries;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -108,7 +110,10 @@ class FacilityControllerTest {
             .perform(get("/facilities").with(user("admin").roles("admin")))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$").isArray())
-            .andExpect(jsonPath("$.length()").value(2));
+            .andExpect(jsonPath("$.length()").value(2))
+            // The version query, unless the query cache answers it, and the list query
+            .andExpect(maxQueries(2))
+            .andExpect(noRepeatedQueries());
     }
 
     @Test
@@ -203,4 +208,124 @@ class FacilityControllerTest {
             .andExpect(status().is4xxClientError());
         */
     }
+
+    @Test
+    void testGetFacilityById_ConditionalGet() throws Exception {
+        CreateFacilityRequest createRequest = CreateFacilityRequest.builder()
+            .name("Cached Facility")
+            .city("Austin")
+            .address("333 Oak St")
+            .build();
+
+        String createResponse = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createRequest))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String facilityId = objectMapper
+            .readTree(createResponse)
+            .get("id")
+            .asText();
+
+        String etag = mockMvc
+            .perform(get("/facilities/" + facilityId).with(user("admin").roles("admin")))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(header().exists("Last-Modified"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // Unchanged resource answers 304 without a body
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId)
+                    .with(user("admin").roles("admin"))
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        UpdateFacilityRequest updateRequest = UpdateFacilityRequest.builder()
+            .city("Dallas")
+            .build();
+
+        mockMvc
+            .perform(
+                put("/facilities/" + facilityId)
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(updateRequest))
+            )
+            .andExpect(status().isOk());
+
+        // Changed resource is served again with a new ETag
+        mockMvc
+            .perform(
+                get("/facilities/" + facilityId)
+                    .with(user("admin").roles("admin"))
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.city").value("Dallas"));
+    }
+
+    @Test
+    void testPatchFacility_MergePatchWithIfMatch() throws Exception {
+        CreateFacilityRequest createRequest = CreateFacilityRequest.builder()
+            .name("Patched Facility")
+            .city("Denver")
+            .address("12 Aspen Rd")
+            .build();
+
+        String createResponse = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createRequest))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String facilityId = objectMapper
+            .readTree(createResponse)
+            .get("id")
+            .asText();
+
+        // Members not named keep their value
+        mockMvc
+            .perform(
+                patch("/facilities/" + facilityId)
+                    .with(user("admin").roles("admin"))
+                    .header("If-Match", "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content("{\"city\":\"Boulder\"}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.name").value("Patched Facility"))
+            .andExpect(jsonPath("$.city").value("Boulder"))
+            .andExpect(jsonPath("$.address").value("12 Aspen Rd"));
+
+        // A client still holding the old ETag must not overwrite the change
+        mockMvc
+            .perform(
+                patch("/facilities/" + facilityId)
+                    .with(user("admin").roles("admin"))
+                    .header("If-Match", "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content("{\"city\":\"Aurora\"}")
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
 }
@@ -1,13 +1,24 @@
 package com.smiles.patients.api;
 
+import static com.smiles.common.datasource.QueryCountAssertions.maxQueries;
+import static com.smiles.common.datasource.QueryCountAssertions.noRepeatedQueries;
+import static com.smiles.staff.StaffFixtures.addFacilityMember;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.batch.BatchGetRequest;
 import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.patients.domain.ArchivedPatient;
 import com.smiles.patients.dto.CreatePatientRequest;
+import com.smiles.patients.repository.ArchivedPatientRepository;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +29,7 @@ import org.springframework.http.MediaType;
 //import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -35,6 +47,9 @@ class PatientControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ArchivedPatientRepository archivedPatientRepository;
+
     private UUID facilityId;
 
     @BeforeEach
@@ -62,6 +77,8 @@ class PatientControllerTest {
         facilityId = UUID.fromString(
             objectMapper.readTree(facilityResponse).get("id").asText()
         );
+
+        addFacilityMember(mockMvc, objectMapper, facilityId, "receptionist");
     }
 
     @Test
@@ -87,6 +104,50 @@ class PatientControllerTest {
             .andExpect(jsonPath("$.email").value("michael.anderson@test.com"));
     }
 
+    @Test
+    void testCreatePatient_AsReceptionistOfOtherFacility_ShouldFail() throws Exception {
+        CreateFacilityRequest otherFacility = CreateFacilityRequest.builder()
+            .name("Other Facility")
+            .city("Tucson")
+            .address("1 Cactus Way")
+            .build();
+
+        String otherResponse = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(otherFacility))
+            )
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        UUID otherFacilityId = UUID.fromString(objectMapper.readTree(otherResponse).get("id").asText());
+
+        CreatePatientRequest request = CreatePatientRequest.builder()
+            .facilityId(otherFacilityId)
+            .name("Nora Hill")
+            .birthDate(LocalDate.of(1979, 2, 2))
+            .build();
+
+        mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isForbidden());
+
+        mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", otherFacilityId.toString())
+            )
+            .andExpect(status().isForbidden());
+    }
+
     @Test
     //@WithMockUser(roles = "admin")
     void testCreatePatientUnderFacility() throws Exception {
@@ -149,7 +210,415 @@ class PatientControllerTest {
                     .param("facilityId", facilityId.toString())
             )
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$").isArray())
-            .andExpect(jsonPath("$.length()").value(2));
+            .andExpect(jsonPath("$.items").isArray())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            // The page query; the receptionist's memberships were cached by the creates
+            .andExpect(maxQueries(1))
+            .andExpect(noRepeatedQueries());
+    }
+
+    @Test
+    void testGetPatientsByFacility_PagesWithCursor() throws Exception {
+        for (String name : new String[] {"Ava Clark", "Ben Lewis", "Cara Young"}) {
+            CreatePatientRequest request = CreatePatientRequest.builder()
+                .facilityId(facilityId)
+                .name(name)
+                .birthDate(LocalDate.of(1980, 1, 1))
+                .build();
+
+            mockMvc.perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            );
+        }
+
+        String firstPage = mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .param("limit", "2")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            .andExpect(jsonPath("$.items[0].name").value("Ava Clark"))
+            .andExpect(jsonPath("$.items[1].name").value("Ben Lewis"))
+            .andExpect(jsonPath("$.hasMore").value(true))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .param("limit", "2")
+                    .param("cursor", cursor)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].name").value("Cara Young"))
+            .andExpect(jsonPath("$.hasMore").value(false))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testSearchPatients_ByBirthDate() throws Exception {
+        createPatient("Henry Adams", null, null);
+        createPatient("Alice Baker", null, null);
+
+        mockMvc
+            .perform(
+                get("/patients/search")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", facilityId.toString())
+                    .param("q", "6/21/1983")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].name").value("Alice Baker"))
+            .andExpect(jsonPath("$[1].name").value("Henry Adams"));
+    }
+
+    @Test
+    void testSearchPatients_QueryTooShort_Rejected() {
+        assertThatThrownBy(() -> mockMvc.perform(
+                get("/patients/search")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", facilityId.toString())
+                    .param("q", "ma")
+            ))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseMessage("Search query must be at least 3 characters");
+    }
+
+    @Test
+    void testGetPatientById_Archived() throws Exception {
+        UUID patientId = UUID.randomUUID();
+        archivedPatientRepository.saveAndFlush(ArchivedPatient.builder()
+            .id(patientId)
+            .facilityId(facilityId)
+            .name("Olivia Archer")
+            .birthDate(LocalDate.of(1951, 3, 9))
+            .active(false)
+            .createdAt(Instant.parse("2015-01-10T09:00:00Z"))
+            .updatedAt(Instant.parse("2024-02-01T03:00:00Z"))
+            .version(4L)
+            .build());
+
+        mockMvc
+            .perform(
+                get("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"4\""))
+            .andExpect(jsonPath("$.name").value("Olivia Archer"))
+            .andExpect(jsonPath("$.active").value(false));
+
+        // Archived patients are not listed
+        mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void testPatchPatient_MergePatchWithIfMatch() throws Exception {
+        String patientId = createPatient("Lucas Wright", "lucas.wright@test.com", "555-1111");
+
+        String etag = mockMvc
+            .perform(get("/patients/" + patientId).with(user("receptionist").roles("receptionist")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"0\""))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // Members set to null are removed; members not named keep their value
+        mockMvc
+            .perform(
+                patch("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-Match", etag)
+                    .contentType("application/merge-patch+json")
+                    .content("{\"phone\":\"555-2222\",\"email\":null}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.name").value("Lucas Wright"))
+            .andExpect(jsonPath("$.phone").value("555-2222"))
+            .andExpect(jsonPath("$.email").doesNotExist())
+            .andExpect(jsonPath("$.version").value(1));
+
+        // A client still holding the old ETag must not overwrite the change
+        mockMvc
+            .perform(
+                patch("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-Match", etag)
+                    .contentType("application/merge-patch+json")
+                    .content("{\"phone\":\"555-3333\"}")
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testPatchPatient_RemovingRequiredField_Rejected() throws Exception {
+        String patientId = createPatient("Grace Hill", null, null);
+
+        assertThatThrownBy(() -> mockMvc.perform(
+                patch("/patients/" + patientId)
+                    .with(user("admin").roles("admin"))
+                    .contentType("application/merge-patch+json")
+                    .content("{\"name\":null}")
+            ))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseMessage("name: Name is required");
+    }
+
+    @Test
+    void testImportPatients_Ndjson_ReportsRowErrors() throws Exception {
+        String ndjson = String.join("\n",
+            "{\"name\":\"Liam Walker\",\"birthDate\":\"1970-04-02\",\"email\":\"liam.walker@test.com\"}",
+            "{\"name\":\"\",\"birthDate\":\"1971-05-03\"}",
+            "",
+            "{\"name\":\"Mia Hall\",\"birthDate\":\"1992-09-14\",\"phone\":\"555-9876\"}"
+        );
+
+        mockMvc
+            .perform(
+                post("/patients/import")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .contentType("application/x-ndjson")
+                    .content(ndjson)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalRows").value(3))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void testImportPatients_CsvWithBadHeader_ListsProblems() throws Exception {
+        String csv = String.join("\n",
+            "name,dob,email,email",
+            "Noah King,1965-11-30,noah.king@test.com,"
+        );
+
+        mockMvc
+            .perform(
+                post("/patients/import")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .contentType("text/csv")
+                    .content(csv)
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.imported").value(0))
+            .andExpect(jsonPath("$.errors.length()").value(3))
+            .andExpect(jsonPath("$.errors[0].line").value(1))
+            .andExpect(jsonPath("$.errors[0].message").value("Unknown column 'dob'"))
+            .andExpect(jsonPath("$.errors[1].message").value("Duplicate column 'email'"))
+            .andExpect(jsonPath("$.errors[2].message").value("Missing required column 'birthDate'"));
+    }
+
+    @Test
+    void testImportPatients_Csv() throws Exception {
+        String csv = String.join("\n",
+            "name,birthDate,email,address",
+            "Noah King,1965-11-30,noah.king@test.com,\"12 Elm St, Apt 4\"",
+            "Zoe Scott,2001-02-17,,"
+        );
+
+        mockMvc
+            .perform(
+                post("/patients/import")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .contentType("text/csv")
+                    .content(csv)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    void testExportPatients_Csv() throws Exception {
+        MvcResult result = mockMvc
+            .perform(
+                get("/patients/export")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .param("format", "csv")
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(header().string("Content-Disposition", containsString("patients-" + facilityId + ".csv")))
+            .andExpect(content().string(startsWith(
+                "id,facilityId,keycloakUserId,name,birthDate,email,phone,address,active,createdAt,updatedAt\n"
+            )));
+    }
+
+    @Test
+    void testBatchGetPatients_ReportsMissingIds() throws Exception {
+        String patientId = createPatient("Ella Reed", null, null);
+        UUID unknownId = UUID.randomUUID();
+
+        mockMvc
+            .perform(
+                post("/patients/batch-get")
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(BatchGetRequest.builder()
+                        .ids(List.of(UUID.fromString(patientId), unknownId))
+                        .build()))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(patientId))
+            .andExpect(jsonPath("$.missingIds[0]").value(unknownId.toString()));
+    }
+
+    @Test
+    void testBatchGetPatients_IncludesArchived() throws Exception {
+        String patientId = createPatient("Ella Reed", null, null);
+        UUID archivedId = UUID.randomUUID();
+        archivedPatientRepository.saveAndFlush(ArchivedPatient.builder()
+            .id(archivedId)
+            .facilityId(facilityId)
+            .name("Olivia Archer")
+            .birthDate(LocalDate.of(1951, 3, 9))
+            .active(false)
+            .createdAt(Instant.parse("2015-01-10T09:00:00Z"))
+            .updatedAt(Instant.parse("2024-02-01T03:00:00Z"))
+            .version(4L)
+            .build());
+
+        mockMvc
+            .perform(
+                post("/patients/batch-get")
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(BatchGetRequest.builder()
+                        .ids(List.of(archivedId, UUID.fromString(patientId)))
+                        .build()))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            .andExpect(jsonPath("$.items[0].id").value(patientId))
+            .andExpect(jsonPath("$.items[1].id").value(archivedId.toString()))
+            .andExpect(jsonPath("$.items[1].active").value(false))
+            .andExpect(jsonPath("$.missingIds").isEmpty());
+    }
+
+    @Test
+    void testBatchGetPatients_NullIdRejected() throws Exception {
+        mockMvc
+            .perform(
+                post("/patients/batch-get")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"ids\":[null]}")
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetPatientsByFacility_ConditionalGet() throws Exception {
+        String patientId = createPatient("Fay Gordon", null, null);
+
+        String etag = mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // Unchanged page answers 304 without a body
+        mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", facilityId.toString())
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        mockMvc
+            .perform(
+                patch("/patients/" + patientId)
+                    .with(user("admin").roles("admin"))
+                    .contentType("application/merge-patch+json")
+                    .content("{\"phone\":\"555-0142\"}")
+            )
+            .andExpect(status().isOk());
+
+        // An update bumps the row version, so the page is served again
+        mockMvc
+            .perform(
+                get("/patients")
+                    .with(user("receptionist").roles("receptionist"))
+                    .param("facilityId", facilityId.toString())
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].phone").value("555-0142"));
+    }
+
+    private String createPatient(String name, String email, String phone) throws Exception {
+        CreatePatientRequest request = CreatePatientRequest.builder()
+            .facilityId(facilityId)
+            .name(name)
+            .birthDate(LocalDate.of(1983, 6, 21))
+            .email(email)
+            .phone(phone)
+            .build();
+
+        String response = mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        return objectMapper.readTree(response).get("id").asText();
     }
 }
@@ -0,0 +1,243 @@
+package com.smiles.patients.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.persistence.PostgresIntegrationTest;
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.patients.dto.CreatePatientRequest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the duplicate scan's SQL: blocking keys, pair replacement,
+ * the per-chunk watermark and the per-facility advisory lock, and for the pairs
+ * of deleted patients.
+ *
+ * Not transactional, since the scan commits chunk by chunk on its own connections;
+ * each test's facility is deleted afterwards, taking its rows with it.
+ */
+@TestPropertySource(properties = {
+    "smiles.patients.dedup.chunk-size=2",
+    "smiles.patients.dedup.catch-up-margin=0s"
+})
+class PatientDuplicatePostgresTest extends PostgresIntegrationTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1983, 6, 21);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private UUID facilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        facilityId = createFacility();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM facility WHERE id = ?", facilityId);
+    }
+
+    @Test
+    void testScan_FindsDuplicatesAndKeepsReviewedPairs() throws Exception {
+        UUID maria = createPatient("Maria Garcia", "602-555-0100");
+        UUID mariaTypo = createPatient("María Garcai", "(602) 555-0100");
+        createPatient("Xavier Quinn", "480-555-0199");
+
+        JsonNode first = scan();
+        assertThat(first.get("scanned").asBoolean()).isTrue();
+        assertThat(first.get("changedPatients").asLong()).isEqualTo(3);
+        assertThat(first.get("duplicatePairs").asLong()).isEqualTo(1);
+
+        JsonNode pending = pendingDuplicates();
+        assertThat(pending).hasSize(1);
+        assertThat(pending.get(0).get("reasons").asText()).isEqualTo("name,birth_date,phone");
+        assertThat(UUID.fromString(pending.get(0).get("patientId").asText())).isIn(maria, mariaTypo);
+        assertThat(UUID.fromString(pending.get(0).get("duplicateId").asText())).isIn(maria, mariaTypo);
+
+        mockMvc
+            .perform(
+                post("/patients/duplicates/" + pending.get(0).get("id").asText() + "/dismiss")
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isOk());
+
+        // Rescanning a changed patient replaces pending pairs but not the dismissed one
+        mockMvc
+            .perform(
+                patch("/patients/" + mariaTypo)
+                    .with(user("admin").roles("admin"))
+                    .contentType("application/merge-patch+json")
+                    .content("{\"email\":\"maria@example.com\"}")
+            )
+            .andExpect(status().isOk());
+        JsonNode rescan = scan();
+        assertThat(rescan.get("duplicatePairs").asLong()).isZero();
+        assertThat(pendingDuplicates()).isEmpty();
+    }
+
+    @Test
+    void testDeletePatient_DeletesItsPairs() throws Exception {
+        createPatient("Maria Garcia", "602-555-0100");
+        UUID duplicate = createPatient("María Garcai", "(602) 555-0100");
+        scan();
+        assertThat(pendingDuplicates()).hasSize(1);
+
+        mockMvc
+            .perform(
+                delete("/patients/" + duplicate)
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isNoContent());
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM patient_duplicate WHERE facility_id = ?", Integer.class, facilityId)).isZero();
+    }
+
+    @Test
+    void testScan_CommitsEachChunkAndResumesFromWatermark() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createPatient("Patient " + (char) ('A' + i) + " Lopez", null);
+        }
+
+        // Three chunks of two; the watermark ends at the newest patient
+        JsonNode first = scan();
+        assertThat(first.get("changedPatients").asLong()).isEqualTo(5);
+        assertThat(watermark()).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT MAX(updated_at) FROM patient WHERE facility_id = ?", Timestamp.class, facilityId));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT patient_id) FROM patient_blocking_key WHERE facility_id = ?",
+                Integer.class, facilityId)).isEqualTo(5);
+
+        // Only the patient at the watermark is revisited
+        assertThat(scan().get("changedPatients").asLong()).isEqualTo(1);
+
+        UUID changed = createPatient("Patient Z Lopez", null);
+        JsonNode third = scan();
+        assertThat(third.get("changedPatients").asLong()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM patient_blocking_key WHERE facility_id = ? AND patient_id = ?",
+                Integer.class, facilityId, changed)).isPositive();
+    }
+
+    @Test
+    void testScan_SkipsFacilityBeingScannedElsewhere() throws Exception {
+        createPatient("Maria Garcia", null);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement lock = connection.prepareStatement(
+                 "SELECT pg_advisory_lock(hashtext('patient_dedup'), hashtext(CAST(? AS TEXT)))")) {
+            lock.setObject(1, facilityId);
+            lock.execute();
+            try {
+                assertThat(scan().get("scanned").asBoolean()).isFalse();
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement(
+                    "SELECT pg_advisory_unlock(hashtext('patient_dedup'), hashtext(CAST(? AS TEXT)))")) {
+                    unlock.setObject(1, facilityId);
+                    unlock.execute();
+                }
+            }
+        }
+
+        assertThat(scan().get("scanned").asBoolean()).isTrue();
+    }
+
+    private JsonNode scan() throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/patients/duplicates/scan")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode pendingDuplicates() throws Exception {
+        String response = mockMvc
+            .perform(
+                get("/patients/duplicates")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private Timestamp watermark() {
+        return jdbcTemplate.queryForObject(
+            "SELECT scanned_until FROM patient_dedup_watermark WHERE facility_id = ?", Timestamp.class, facilityId);
+    }
+
+    private UUID createFacility() throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreateFacilityRequest.builder()
+                        .name("Dedup Facility")
+                        .city("Phoenix")
+                        .address("1 Dedup Way")
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+
+    private UUID createPatient(String name, String phone) throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreatePatientRequest.builder()
+                        .facilityId(facilityId)
+                        .name(name)
+                        .birthDate(BIRTH_DATE)
+                        .phone(phone)
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+}
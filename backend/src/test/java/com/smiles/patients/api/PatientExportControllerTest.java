@@ -0,0 +1,182 @@
+package com.smiles.patients.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.patients.dto.CreatePatientRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for patient exports.
+ *
+ * Not transactional: the export streams on another thread with its own
+ * connection, so the patients must be committed. They are deleted afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PatientExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID facilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CreateFacilityRequest facilityRequest = CreateFacilityRequest.builder()
+            .name("Test Facility for Exports " + UUID.randomUUID())
+            .city("Portland")
+            .address("8 River Rd")
+            .build();
+
+        String facilityResponse = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(facilityRequest))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        facilityId = UUID.fromString(objectMapper.readTree(facilityResponse).get("id").asText());
+
+        createPatient("Noah King", LocalDate.of(1965, 11, 30), "noah.king@test.com", "12 Elm St, Apt 4");
+        createPatient("Ava Clark", LocalDate.of(1990, 3, 4), null, "Say \"hi\"");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patient WHERE facility_id = ?", facilityId);
+        jdbcTemplate.update("DELETE FROM facility WHERE id = ?", facilityId);
+    }
+
+    @Test
+    void testExportPatients_Ndjson() throws Exception {
+        List<JsonNode> rows = objectMapper
+            .readerFor(JsonNode.class)
+            .<JsonNode>readValues(export("ndjson"))
+            .readAll();
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).get("name").asText()).isEqualTo("Ava Clark");
+        assertThat(rows.get(0).get("email").isNull()).isTrue();
+        assertThat(rows.get(0).get("address").asText()).isEqualTo("Say \"hi\"");
+        assertThat(rows.get(1).get("name").asText()).isEqualTo("Noah King");
+        assertThat(rows.get(1).get("facilityId").asText()).isEqualTo(facilityId.toString());
+        assertThat(rows.get(1).get("birthDate").asText()).isEqualTo("1965-11-30");
+        assertThat(rows.get(1).get("email").asText()).isEqualTo("noah.king@test.com");
+        assertThat(rows.get(1).get("active").asBoolean()).isTrue();
+    }
+
+    @Test
+    void testExportPatients_Csv() throws Exception {
+        String[] lines = export("csv").split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0])
+            .isEqualTo("id,facilityId,keycloakUserId,name,birthDate,email,phone,address,active,createdAt,updatedAt");
+        assertThat(lines[1]).contains(",Ava Clark,1990-03-04,,,\"Say \"\"hi\"\"\",true,");
+        assertThat(lines[2]).contains(",Noah King,1965-11-30,noah.king@test.com,,\"12 Elm St, Apt 4\",true,");
+        assertThat(lines[2].split(",")[1]).isEqualTo(facilityId.toString());
+    }
+
+    @Test
+    void testExportPatients_Gzip() throws Exception {
+        MvcResult result = mockMvc
+            .perform(
+                get("/patients/export")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .param("format", "csv")
+                    .param("gzip", "true")
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        byte[] body = mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+        String csv = gunzip(body);
+        assertThat(csv).isEqualTo(export("csv"));
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult result = mockMvc
+            .perform(
+                get("/patients/export")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .param("format", format)
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        return mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void createPatient(String name, LocalDate birthDate, String email, String address) throws Exception {
+        CreatePatientRequest request = CreatePatientRequest.builder()
+            .facilityId(facilityId)
+            .name(name)
+            .birthDate(birthDate)
+            .email(email)
+            .address(address)
+            .build();
+
+        mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated());
+    }
+}
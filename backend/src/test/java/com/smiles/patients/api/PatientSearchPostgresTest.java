@@ -0,0 +1,150 @@
+package com.smiles.patients.api;
+
+import static com.smiles.staff.StaffFixtures.addFacilityMember;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.persistence.PostgresIntegrationTest;
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.patients.dto.CreatePatientRequest;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the name, phone and email search queries, which use pg_trgm.
+ */
+@Transactional
+class PatientSearchPostgresTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID facilityId;
+    private UUID otherFacilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        facilityId = createFacility("Search Facility");
+        otherFacilityId = createFacility("Other Search Facility");
+        addFacilityMember(mockMvc, objectMapper, facilityId, "receptionist");
+    }
+
+    @Test
+    void testSearchPatients_ByName_PrefixMatchesFirst() throws Exception {
+        createPatient(facilityId, "Ana Martinez", null, null);
+        createPatient(facilityId, "Marta Lopez", null, null);
+        createPatient(facilityId, "Bob Smith", null, null);
+        createPatient(otherFacilityId, "Martin Other", null, null);
+
+        search("mart")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].name").value("Marta Lopez"))
+            .andExpect(jsonPath("$[1].name").value("Ana Martinez"));
+    }
+
+    @Test
+    void testSearchPatients_ByName_Misspelling() throws Exception {
+        createPatient(facilityId, "Luis Gonzalez", null, null);
+        createPatient(facilityId, "Bob Smith", null, null);
+
+        search("gonzales")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].name").value("Luis Gonzalez"));
+    }
+
+    @Test
+    void testSearchPatients_ByPhoneDigits_PrefixMatchesFirst() throws Exception {
+        createPatient(facilityId, "Amy Baker", null, "(555) 012-3456");
+        createPatient(facilityId, "Zoe Adams", null, "012-3000");
+        createPatient(facilityId, "Cara Young", null, "555-999-8888");
+
+        search("0123")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].name").value("Zoe Adams"))
+            .andExpect(jsonPath("$[1].name").value("Amy Baker"));
+    }
+
+    @Test
+    void testSearchPatients_ByEmail_PrefixMatchesFirst() throws Exception {
+        createPatient(facilityId, "Ann Award", "aaward@clinic.org", null);
+        createPatient(facilityId, "Zed Ward", "Ward@Clinic.org", null);
+        createPatient(facilityId, "Cara Young", "ward@other.org", null);
+
+        search("ward@clinic")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].name").value("Zed Ward"))
+            .andExpect(jsonPath("$[1].name").value("Ann Award"));
+    }
+
+    @Test
+    void testSearchPatients_ByEmail_WildcardsMatchLiterally() throws Exception {
+        createPatient(facilityId, "Amy Baker", "a_b@clinic.org", null);
+        createPatient(facilityId, "Zoe Adams", "axb@clinic.org", null);
+
+        search("a_b@")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].name").value("Amy Baker"));
+    }
+
+    private ResultActions search(String query) throws Exception {
+        return mockMvc.perform(
+            get("/patients/search")
+                .with(user("receptionist").roles("receptionist"))
+                .param("facilityId", facilityId.toString())
+                .param("q", query)
+        );
+    }
+
+    private UUID createFacility(String name) throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreateFacilityRequest.builder()
+                        .name(name)
+                        .city("Phoenix")
+                        .address("1 Search Way")
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+
+    private void createPatient(UUID facility, String name, String email, String phone) throws Exception {
+        mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreatePatientRequest.builder()
+                        .facilityId(facility)
+                        .name(name)
+                        .birthDate(LocalDate.of(1975, 4, 12))
+                        .email(email)
+                        .phone(phone)
+                        .build()))
+            )
+            .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,290 @@
+package com.smiles.patients.api;
+
+import static com.smiles.staff.StaffFixtures.addFacilityMember;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.persistence.PostgresIntegrationTest;
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.patients.domain.ArchivedPatient;
+import com.smiles.patients.dto.CreatePatientRequest;
+import com.smiles.patients.dto.UpdatePatientRequest;
+import com.smiles.patients.repository.ArchivedPatientRepository;
+import com.smiles.patients.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the single-statement patient writes (PUT, DELETE and restore),
+ * which apply the facility access check in their SQL.
+ */
+@Transactional
+class PatientWritePostgresTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ArchivedPatientRepository archivedPatientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID facilityId;
+    private UUID otherFacilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        facilityId = createFacility("Native Write Facility");
+        otherFacilityId = createFacility("Other Native Write Facility");
+        addFacilityMember(mockMvc, objectMapper, facilityId, "receptionist");
+    }
+
+    @Test
+    void testUpdatePatient_OwnFacility() throws Exception {
+        UUID patientId = createPatient(facilityId, "Ada Byrne");
+
+        mockMvc
+            .perform(
+                put("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(UpdatePatientRequest.builder()
+                        .phone("555-0101")
+                        .build()))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Ada Byrne"))
+            .andExpect(jsonPath("$.phone").value("555-0101"))
+            .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void testUpdatePatient_IfMatch() throws Exception {
+        UUID patientId = createPatient(facilityId, "Ava Brooks");
+
+        mockMvc
+            .perform(
+                put("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-Match", "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(UpdatePatientRequest.builder()
+                        .phone("555-0111")
+                        .build()))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""));
+
+        // A client still holding the old ETag must not overwrite the change
+        mockMvc
+            .perform(
+                put("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-Match", "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(UpdatePatientRequest.builder()
+                        .phone("555-0112")
+                        .build()))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        entityManager.clear();
+        assertThat(patientRepository.findById(patientId).orElseThrow().getPhone()).isEqualTo("555-0111");
+    }
+
+    @Test
+    void testUpdatePatient_OtherFacility_DeniedAndUnchanged() throws Exception {
+        UUID patientId = createPatient(otherFacilityId, "Ben Carver");
+
+        mockMvc
+            .perform(
+                put("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(UpdatePatientRequest.builder()
+                        .phone("555-0102")
+                        .build()))
+            )
+            .andExpect(status().isForbidden());
+
+        assertThat(patientRepository.findById(patientId).orElseThrow().getPhone()).isNull();
+    }
+
+    @Test
+    void testUpdatePatient_NotFound() {
+        UUID patientId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> mockMvc.perform(
+                put("/patients/" + patientId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(UpdatePatientRequest.builder()
+                        .phone("555-0103")
+                        .build()))
+            ))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseMessage("Patient not found with id: " + patientId);
+    }
+
+    @Test
+    void testDeletePatient_AsAdmin() throws Exception {
+        UUID patientId = createPatient(otherFacilityId, "Cleo Dunn");
+
+        mockMvc
+            .perform(
+                delete("/patients/" + patientId)
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isNoContent());
+
+        assertThat(patientRepository.existsById(patientId)).isFalse();
+    }
+
+    @Test
+    void testCreatePatient_IdTakenInOtherFacilityRejected() throws Exception {
+        UUID patientId = createPatient(facilityId, "Gil Harper");
+
+        // The primary key is (id, facility_id); patient_id_guard keeps id unique on its own
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO patient (id, facility_id, name, birth_date) VALUES (?, ?, ?, ?)",
+                patientId, otherFacilityId, "Gil Harper", LocalDate.of(1975, 4, 12)))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining("uk_patient_id");
+    }
+
+    @Test
+    void testDeletePatient_ReleasesId() throws Exception {
+        UUID patientId = createPatient(facilityId, "Hana Irwin");
+
+        mockMvc
+            .perform(
+                delete("/patients/" + patientId)
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isNoContent());
+
+        assertThat(guardedFacility(patientId)).isEmpty();
+        jdbcTemplate.update(
+                "INSERT INTO patient (id, facility_id, name, birth_date) VALUES (?, ?, ?, ?)",
+                patientId, otherFacilityId, "Hana Irwin", LocalDate.of(1975, 4, 12));
+        assertThat(guardedFacility(patientId)).containsExactly(otherFacilityId);
+    }
+
+    @Test
+    void testRestorePatient_OwnFacility() throws Exception {
+        UUID patientId = archivePatient(facilityId, "Dora Ellis");
+
+        mockMvc
+            .perform(
+                post("/patients/" + patientId + "/restore")
+                    .with(user("receptionist").roles("receptionist"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(true));
+
+        assertThat(archivedPatientRepository.existsById(patientId)).isFalse();
+        assertThat(patientRepository.existsById(patientId)).isTrue();
+        assertThat(guardedFacility(patientId)).containsExactly(facilityId);
+    }
+
+    @Test
+    void testRestorePatient_OtherFacility_DeniedAndStillArchived() throws Exception {
+        UUID patientId = archivePatient(otherFacilityId, "Eli Foster");
+
+        mockMvc
+            .perform(
+                post("/patients/" + patientId + "/restore")
+                    .with(user("receptionist").roles("receptionist"))
+            )
+            .andExpect(status().isForbidden());
+
+        assertThat(archivedPatientRepository.existsById(patientId)).isTrue();
+        assertThat(patientRepository.existsById(patientId)).isFalse();
+    }
+
+    private List<UUID> guardedFacility(UUID patientId) {
+        return jdbcTemplate.queryForList(
+                "SELECT facility_id FROM patient_id_guard WHERE patient_id = ?", UUID.class, patientId);
+    }
+
+    private UUID createFacility(String name) throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreateFacilityRequest.builder()
+                        .name(name)
+                        .city("Phoenix")
+                        .address("1 Native Way")
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+
+    private UUID createPatient(UUID facility, String name) throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreatePatientRequest.builder()
+                        .facilityId(facility)
+                        .name(name)
+                        .birthDate(LocalDate.of(1975, 4, 12))
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        // Native writes map their rows onto managed instances without refreshing them
+        entityManager.clear();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+
+    private UUID archivePatient(UUID facility, String name) {
+        UUID patientId = UUID.randomUUID();
+        archivedPatientRepository.saveAndFlush(ArchivedPatient.builder()
+            .id(patientId)
+            .facilityId(facility)
+            .name(name)
+            .birthDate(LocalDate.of(1950, 7, 1))
+            .active(false)
+            .createdAt(Instant.parse("2015-01-10T09:00:00Z"))
+            .updatedAt(Instant.parse("2024-02-01T03:00:00Z"))
+            .version(2L)
+            .build());
+        entityManager.clear();
+        return patientId;
+    }
+}
@@ -0,0 +1,236 @@
+package com.smiles.patients.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.persistence.PostgresIntegrationTest;
+import com.smiles.facilities.dto.CreateFacilityRequest;
+import com.smiles.patients.dto.CreatePatientRequest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for PatientArchiver's batch SQL and what follows archived patients:
+ * duplicate pairs, the prefix index and restores.
+ *
+ * Not transactional, since the archiver and the duplicate scan commit on their own;
+ * each test's facility is deleted afterwards, taking its rows with it.
+ */
+@TestPropertySource(properties = {
+    "smiles.patients.archive.enabled=true",
+    "smiles.patients.archive.inactive-for=0s",
+    "smiles.patients.archive.interval=1h",
+    "smiles.patients.search.prefix-index.enabled=true"
+})
+class PatientArchiverPostgresTest extends PostgresIntegrationTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1983, 6, 21);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PatientArchiver patientArchiver;
+
+    @Autowired
+    private PatientPrefixIndex patientPrefixIndex;
+
+    private JdbcTemplate jdbcTemplate;
+    private UUID facilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        facilityId = createFacility();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM facility WHERE id = ?", facilityId);
+    }
+
+    @Test
+    void testArchiveAll_MovesOnlyInactivePatients() throws Exception {
+        UUID active = createPatient("Ada Byrne", null);
+        UUID inactive = createPatient("Olivia Archer", null);
+        deactivate(inactive);
+
+        patientArchiver.archiveAll();
+
+        assertThat(patientIds("patient")).containsExactly(active);
+        assertThat(patientIds("patient_archive")).containsExactly(inactive);
+        mockMvc
+            .perform(
+                get("/patients/" + inactive)
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Olivia Archer"));
+    }
+
+    @Test
+    void testArchiveAll_HidesPendingPairsUntilRestore() throws Exception {
+        createPatient("Maria Garcia", "602-555-0100");
+        UUID duplicate = createPatient("María Garcai", "(602) 555-0100");
+        scan();
+        assertThat(pendingDuplicates()).hasSize(1);
+
+        deactivate(duplicate);
+        patientArchiver.archiveAll();
+        assertThat(pendingDuplicates()).isEmpty();
+
+        restore(duplicate);
+        assertThat(pendingDuplicates()).hasSize(1);
+    }
+
+    @Test
+    void testArchiveAll_KeepsReviewDecisionsAcrossRestore() throws Exception {
+        createPatient("Maria Garcia", "602-555-0100");
+        UUID duplicate = createPatient("María Garcai", "(602) 555-0100");
+        scan();
+        mockMvc
+            .perform(
+                post("/patients/duplicates/" + pendingDuplicates().get(0).get("id").asText() + "/dismiss")
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isOk());
+
+        deactivate(duplicate);
+        patientArchiver.archiveAll();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT status FROM patient_duplicate WHERE facility_id = ?", String.class, facilityId))
+            .containsExactly("DISMISSED");
+
+        // The restored patient is rescanned, but the dismissed pair is not proposed again
+        restore(duplicate);
+        JsonNode rescan = scan();
+        assertThat(rescan.get("changedPatients").asLong()).isPositive();
+        assertThat(rescan.get("duplicatePairs").asLong()).isZero();
+        assertThat(pendingDuplicates()).isEmpty();
+    }
+
+    @Test
+    void testArchiveAll_RemovesPatientsFromPrefixIndex() throws Exception {
+        UUID maria = createPatient("Maria Garcia", null);
+        UUID marta = createPatient("Marta Lopez", null);
+        deactivate(marta);
+        assertThat(patientPrefixIndex.search(facilityId, "mar", 10)).containsExactlyInAnyOrder(maria, marta);
+
+        patientArchiver.archiveAll();
+
+        assertThat(patientPrefixIndex.search(facilityId, "mar", 10)).containsExactly(maria);
+    }
+
+    private void deactivate(UUID patientId) throws Exception {
+        mockMvc
+            .perform(
+                patch("/patients/" + patientId)
+                    .with(user("admin").roles("admin"))
+                    .contentType("application/merge-patch+json")
+                    .content("{\"active\":false}")
+            )
+            .andExpect(status().isOk());
+    }
+
+    private void restore(UUID patientId) throws Exception {
+        mockMvc
+            .perform(
+                post("/patients/" + patientId + "/restore")
+                    .with(user("admin").roles("admin"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(true));
+    }
+
+    private JsonNode scan() throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/patients/duplicates/scan")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode pendingDuplicates() throws Exception {
+        String response = mockMvc
+            .perform(
+                get("/patients/duplicates")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private List<UUID> patientIds(String table) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM " + table + " WHERE facility_id = ?", UUID.class, facilityId);
+    }
+
+    private UUID createFacility() throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/facilities")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreateFacilityRequest.builder()
+                        .name("Archive Facility")
+                        .city("Phoenix")
+                        .address("1 Archive Way")
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+
+    private UUID createPatient(String name, String phone) throws Exception {
+        String response = mockMvc
+            .perform(
+                post("/patients")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreatePatientRequest.builder()
+                        .facilityId(facilityId)
+                        .name(name)
+                        .birthDate(BIRTH_DATE)
+                        .phone(phone)
+                        .build()))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).get("id").asText());
+    }
+}
@@ -0,0 +1,77 @@
+package com.smiles.patients.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for PatientMatchScorer and PatientBlockingKeys.
+ */
+class PatientMatchScorerTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1983, 6, 21);
+
+    @Test
+    void soundex_GroupsSimilarSoundingNames() {
+        assertThat(PatientBlockingKeys.soundex("robert")).isEqualTo("R163");
+        assertThat(PatientBlockingKeys.soundex("rupert")).isEqualTo("R163");
+        assertThat(PatientBlockingKeys.soundex("ashcraft")).isEqualTo("A261");
+        assertThat(PatientBlockingKeys.soundex("lee")).isEqualTo("L000");
+    }
+
+    @Test
+    void blockingKeys_ShareKeysDespiteTyposAndSwappedNames() {
+        PatientFingerprint a = patient("Jon Smith", BIRTH_DATE, "jon.smith+dentist@example.com", "+1 (602) 555-0100");
+        PatientFingerprint b = patient("Smyth John", LocalDate.of(1983, 1, 2), "jon.smith@example.com", "602-555-0100");
+
+        assertThat(PatientBlockingKeys.of(a))
+                .contains("n:J500S530", "y:S530:1983", "b:1983-06-21", "p:6025550100", "e:jon.smith@example.com");
+        assertThat(PatientBlockingKeys.of(b))
+                .contains("n:J500S530", "p:6025550100", "e:jon.smith@example.com");
+    }
+
+    @Test
+    void score_SamePersonWithTypo() {
+        PatientFingerprint a = patient("Maria Garcia", BIRTH_DATE, "maria@example.com", "602-555-0100");
+        PatientFingerprint b = patient("María Garcai", BIRTH_DATE, null, "(602) 555-0100");
+
+        PatientMatchScorer.Match match = PatientMatchScorer.score(a, b);
+
+        assertThat(match.score()).isGreaterThan(0.9);
+        assertThat(match.reasons()).isEqualTo("name,birth_date,phone");
+    }
+
+    @Test
+    void score_DifferentPeopleSharingPhone() {
+        PatientFingerprint parent = patient("Maria Garcia", LocalDate.of(1960, 2, 3), null, "602-555-0100");
+        PatientFingerprint child = patient("Luis Garcia", LocalDate.of(1995, 8, 14), null, "602-555-0100");
+
+        assertThat(PatientMatchScorer.score(parent, child).score()).isLessThan(0.85);
+    }
+
+    @Test
+    void scoreAll_KeepsPairsAtThresholdAcrossForkedTasks() {
+        List<PatientMatchScorer.CandidatePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pairs.add(new PatientMatchScorer.CandidatePair(
+                    patient("Maria Garcia", BIRTH_DATE, null, null),
+                    patient(i % 2 == 0 ? "Maria Garcia" : "Xavier Quinn", BIRTH_DATE, null, null)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThat(PatientMatchScorer.scoreAll(pairs, 0.85, pool)).hasSize(500);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static PatientFingerprint patient(String name, LocalDate birthDate, String email, String phone) {
+        return PatientFingerprint.of(UUID.randomUUID(), name, birthDate, email, phone);
+    }
+}
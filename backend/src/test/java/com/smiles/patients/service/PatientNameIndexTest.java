@@ -0,0 +1,61 @@
+package com.smiles.patients.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for PatientNameIndex.
+ */
+class PatientNameIndexTest {
+
+    private final UUID maria = UUID.randomUUID();
+    private final UUID marius = UUID.randomUUID();
+    private final UUID jose = UUID.randomUUID();
+
+    private PatientNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientNameIndex();
+        index.put(maria, "Maria Garcia");
+        index.put(marius, "Marius Smith");
+        index.put(jose, "José Álvarez-Ortega");
+    }
+
+    @Test
+    void search_MatchesPrefixOfAnyWord() {
+        assertThat(index.search("mar", 10)).containsExactly(maria, marius);
+        assertThat(index.search("garc", 10)).containsExactly(maria);
+    }
+
+    @Test
+    void search_RequiresEveryQueryWord() {
+        assertThat(index.search("mar sm", 10)).containsExactly(marius);
+        assertThat(index.search("mar jones", 10)).isEmpty();
+    }
+
+    @Test
+    void search_IgnoresCaseAndAccents() {
+        assertThat(index.search("JOSE", 10)).containsExactly(jose);
+        assertThat(index.search("alvarez ort", 10)).containsExactly(jose);
+    }
+
+    @Test
+    void search_StopsAtLimit() {
+        assertThat(index.search("mar", 1)).containsExactly(maria);
+    }
+
+    @Test
+    void putAndRemove_KeepIndexCurrent() {
+        index.put(maria, "Maria Lopez");
+        assertThat(index.search("garcia", 10)).isEmpty();
+        assertThat(index.search("lopez", 10)).containsExactly(maria);
+
+        index.remove(marius);
+        assertThat(index.search("mar", 10)).containsExactly(maria);
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,87 @@
+package com.smiles.patients.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Unit tests for PatientPrefixIndex writes racing with an index load.
+ */
+class PatientPrefixIndexTest {
+
+    private final UUID facilityId = UUID.randomUUID();
+    private final UUID maria = UUID.randomUUID();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+    private PatientPrefixIndex prefixIndex;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:prefix-index-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE TABLE patient (id UUID PRIMARY KEY, facility_id UUID NOT NULL, name VARCHAR(255) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO patient VALUES (?, ?, ?)", maria, facilityId, "Maria Garcia");
+
+        // Holds the index load after it has asked for a connection
+        DelegatingDataSource blocking = new DelegatingDataSource(h2) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                loading.countDown();
+                try {
+                    releaseLoad.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getConnection();
+            }
+        };
+        prefixIndex = new PatientPrefixIndex(blocking, true, 20, Duration.ofMinutes(10), 100);
+    }
+
+    @Test
+    void testWritesDuringLoadAreApplied() throws Exception {
+        Thread searcher = Thread.ofPlatform().start(() -> prefixIndex.search(facilityId, "mar", 10));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Committed after the load read its rows: a new patient and a rename
+        UUID marta = UUID.randomUUID();
+        Thread writer = Thread.ofPlatform().start(() -> {
+            prefixIndex.put(facilityId, marta, "Marta Lopez");
+            prefixIndex.put(facilityId, maria, "Maria Smith");
+        });
+        awaitBlockedOrDone(writer);
+        releaseLoad.countDown();
+        searcher.join();
+        writer.join();
+
+        assertThat(prefixIndex.search(facilityId, "mar", 10)).containsExactlyInAnyOrder(maria, marta);
+        assertThat(prefixIndex.search(facilityId, "garcia", 10)).isEmpty();
+        assertThat(prefixIndex.search(facilityId, "smith", 10)).containsExactly(maria);
+    }
+
+    @Test
+    void testWritesWithoutIndexAreSkipped() {
+        prefixIndex.remove(facilityId, maria);
+        releaseLoad.countDown();
+
+        assertThat(prefixIndex.search(facilityId, "mar", 10)).containsExactly(maria);
+    }
+
+    private static void awaitBlockedOrDone(Thread thread) throws InterruptedException {
+        while (thread.getState() == Thread.State.NEW || thread.getState() == Thread.State.RUNNABLE) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.smiles.rooms.api;
 
+import static com.smiles.common.datasource.QueryCountAssertions.maxQueries;
+import static com.smiles.common.datasource.QueryCountAssertions.noRepeatedQueries;
+import static com.smiles.staff.StaffFixtures.addFacilityMember;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.batch.BatchGetRequest;
 import com.smiles.facilities.dto.CreateFacilityRequest;
 import com.smiles.rooms.domain.RoomType;
 import com.smiles.rooms.dto.CreateRoomRequest;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -62,6 +68,8 @@ class RoomControllerTest {
         facilityId = UUID.fromString(
             objectMapper.readTree(facilityResponse).get("id").asText()
         );
+
+        addFacilityMember(mockMvc, objectMapper, facilityId, "receptionist");
     }
 
     @Test
@@ -123,7 +131,202 @@ class RoomControllerTest {
                     .param("facilityId", facilityId.toString())
             )
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$").isArray())
-            .andExpect(jsonPath("$.length()").value(2));
+            .andExpect(jsonPath("$.items").isArray())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            // The page query; the receptionist's memberships were cached by the creates
+            .andExpect(maxQueries(1))
+            .andExpect(noRepeatedQueries());
+    }
+
+    @Test
+    void testBatchGetRooms_ReportsMissingIds() throws Exception {
+        CreateRoomRequest request = CreateRoomRequest.builder()
+            .facilityId(facilityId)
+            .name("Chair B")
+            .type(RoomType.CHAIR)
+            .build();
+
+        String created = mockMvc
+            .perform(
+                post("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        UUID roomId = UUID.fromString(objectMapper.readTree(created).get("id").asText());
+        UUID unknownId = UUID.randomUUID();
+
+        mockMvc
+            .perform(
+                post("/rooms/batch-get")
+                    .with(user("receptionist").roles("receptionist"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(BatchGetRequest.builder()
+                        .ids(List.of(roomId, unknownId))
+                        .build()))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(roomId.toString()))
+            .andExpect(jsonPath("$.missingIds.length()").value(1))
+            .andExpect(jsonPath("$.missingIds[0]").value(unknownId.toString()));
+    }
+
+    @Test
+    void testBatchGetRooms_NullIdRejected() throws Exception {
+        mockMvc
+            .perform(
+                post("/rooms/batch-get")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"ids\":[null]}")
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetRoomsByFacility_ConditionalGet() throws Exception {
+        CreateRoomRequest request = CreateRoomRequest.builder()
+            .facilityId(facilityId)
+            .name("Chair C")
+            .type(RoomType.CHAIR)
+            .build();
+
+        String created = mockMvc
+            .perform(
+                post("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String roomId = objectMapper.readTree(created).get("id").asText();
+
+        String etag = mockMvc
+            .perform(
+                get("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // Unchanged page answers 304 without a body
+        mockMvc
+            .perform(
+                get("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        mockMvc
+            .perform(delete("/rooms/" + roomId).with(user("admin").roles("admin")))
+            .andExpect(status().isNoContent());
+
+        // A deletion changes the page, so it is served again
+        mockMvc
+            .perform(
+                get("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void testPatchRoom_MergePatchWithIfMatch() throws Exception {
+        CreateRoomRequest request = CreateRoomRequest.builder()
+            .facilityId(facilityId)
+            .name("Chair D")
+            .type(RoomType.CHAIR)
+            .build();
+
+        String created = mockMvc
+            .perform(
+                post("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String roomId = objectMapper.readTree(created).get("id").asText();
+
+        // Members not named keep their value
+        mockMvc
+            .perform(
+                patch("/rooms/" + roomId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-Match", "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content("{\"name\":\"Chair E\"}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.name").value("Chair E"))
+            .andExpect(jsonPath("$.type").value("CHAIR"));
+
+        // A client still holding the old ETag must not overwrite the change
+        mockMvc
+            .perform(
+                patch("/rooms/" + roomId)
+                    .with(user("receptionist").roles("receptionist"))
+                    .header("If-Match", "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content("{\"name\":\"Chair F\"}")
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testPatchRoom_RemovingRequiredField_Rejected() throws Exception {
+        CreateRoomRequest request = CreateRoomRequest.builder()
+            .facilityId(facilityId)
+            .name("Chair G")
+            .type(RoomType.CHAIR)
+            .build();
+
+        String created = mockMvc
+            .perform(
+                post("/rooms")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String roomId = objectMapper.readTree(created).get("id").asText();
+
+        assertThatThrownBy(() -> mockMvc.perform(
+                patch("/rooms/" + roomId)
+                    .with(user("admin").roles("admin"))
+                    .contentType("application/merge-patch+json")
+                    .content("{\"type\":null}")
+            ))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseMessage("type: Room type is required");
     }
 }
@@ -0,0 +1,51 @@
+package com.smiles.staff;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.staff.domain.StaffRole;
+import com.smiles.staff.dto.CreateStaffRequest;
+import java.util.UUID;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Staff records for controller tests.
+ */
+public final class StaffFixtures {
+
+    private StaffFixtures() {
+    }
+
+    /**
+     * Make a MockMvc {@code user(username)} a member of a facility by linking a
+     * staff record of that facility to the username, as Keycloak would link the
+     * user's subject. Facility access checks then pass for that facility only.
+     *
+     * @param mockMvc the MockMvc of the test
+     * @param objectMapper the object mapper of the test
+     * @param facilityId the facility to join
+     * @param username the MockMvc user name, which is also its subject
+     */
+    public static void addFacilityMember(MockMvc mockMvc, ObjectMapper objectMapper, UUID facilityId, String username)
+            throws Exception {
+        CreateStaffRequest request = CreateStaffRequest.builder()
+            .facilityId(facilityId)
+            .keycloakUserId(username)
+            .name("Member " + username)
+            .email(username + "." + facilityId + "@test.com")
+            .role(StaffRole.receptionist)
+            .build();
+
+        mockMvc
+            .perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated());
+    }
+}
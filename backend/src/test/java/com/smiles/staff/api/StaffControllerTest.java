@@ -1,13 +1,18 @@
 package com.smiles.staff.api;
 
+import static com.smiles.common.datasource.QueryCountAssertions.maxQueries;
+import static com.smiles.common.datasource.QueryCountAssertions.noRepeatedQueries;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smiles.common.batch.BatchGetRequest;
 import com.smiles.facilities.dto.CreateFacilityRequest;
 import com.smiles.staff.domain.StaffRole;
 import com.smiles.staff.dto.CreateStaffRequest;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -88,6 +93,35 @@ class StaffControllerTest {
             .andExpect(jsonPath("$.role").value("dentist"));
     }
 
+    @Test
+    void testCreateStaff_DuplicateEmail_ReportsConflictFromConstraint() throws Exception {
+        CreateStaffRequest request = CreateStaffRequest.builder()
+            .facilityId(facilityId)
+            .name("Dr. Ann Lee")
+            .email("ann.lee@test.com")
+            .role(StaffRole.dentist)
+            .build();
+
+        mockMvc
+            .perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated());
+
+        // No pre-check query: the uk_staff_email violation is mapped to the usual error
+        assertThatThrownBy(() -> mockMvc.perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            ))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseMessage("Staff already exists with email: ann.lee@test.com");
+    }
+
     @Test
     //@WithMockUser(roles = "receptionist")
     void testCreateStaff_AsReceptionist_ShouldFail() throws Exception {
@@ -170,7 +204,184 @@ class StaffControllerTest {
                     .param("facilityId", facilityId.toString())
             )
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$").isArray())
-            .andExpect(jsonPath("$.length()").value(2));
+            .andExpect(jsonPath("$.items").isArray())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            // The page query; admins need no membership check
+            .andExpect(maxQueries(1))
+            .andExpect(noRepeatedQueries());
+    }
+
+    @Test
+    void testBatchGetStaff_ReportsMissingIds() throws Exception {
+        CreateStaffRequest request = CreateStaffRequest.builder()
+            .facilityId(facilityId)
+            .name("Dr. Carol White")
+            .email("carol.white@test.com")
+            .role(StaffRole.dentist)
+            .build();
+
+        String created = mockMvc
+            .perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        UUID staffId = UUID.fromString(objectMapper.readTree(created).get("id").asText());
+        UUID unknownId = UUID.randomUUID();
+
+        BatchGetRequest batchRequest = BatchGetRequest.builder()
+            .ids(List.of(staffId, unknownId, staffId))
+            .build();
+
+        mockMvc
+            .perform(
+                post("/staff/batch-get")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(batchRequest))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(staffId.toString()))
+            .andExpect(jsonPath("$.missingIds.length()").value(1))
+            .andExpect(jsonPath("$.missingIds[0]").value(unknownId.toString()));
+    }
+
+    @Test
+    void testBatchGetStaff_NullIdRejected() throws Exception {
+        mockMvc
+            .perform(
+                post("/staff/batch-get")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"ids\":[\"" + UUID.randomUUID() + "\",null]}")
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetStaffByFacility_ConditionalGet() throws Exception {
+        CreateStaffRequest first = CreateStaffRequest.builder()
+            .facilityId(facilityId)
+            .name("Dr. Carla Diaz")
+            .email("carla.diaz@test.com")
+            .role(StaffRole.dentist)
+            .build();
+
+        mockMvc
+            .perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(first))
+            )
+            .andExpect(status().isCreated());
+
+        String etag = mockMvc
+            .perform(
+                get("/staff")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        // Unchanged page answers 304 without a body
+        mockMvc
+            .perform(
+                get("/staff")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        CreateStaffRequest second = CreateStaffRequest.builder()
+            .facilityId(facilityId)
+            .name("Dan Evans")
+            .email("dan.evans@test.com")
+            .role(StaffRole.receptionist)
+            .build();
+
+        mockMvc
+            .perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(second))
+            )
+            .andExpect(status().isCreated());
+
+        // An insert into the page changes its ETag
+        mockMvc
+            .perform(
+                get("/staff")
+                    .with(user("admin").roles("admin"))
+                    .param("facilityId", facilityId.toString())
+                    .header("If-None-Match", etag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void testPatchStaff_MergePatchWithIfMatch() throws Exception {
+        CreateStaffRequest request = CreateStaffRequest.builder()
+            .facilityId(facilityId)
+            .name("Dr. Paula Reyes")
+            .email("paula.reyes@test.com")
+            .role(StaffRole.dentist)
+            .active(true)
+            .build();
+
+        String created = mockMvc
+            .perform(
+                post("/staff")
+                    .with(user("admin").roles("admin"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String staffId = objectMapper.readTree(created).get("id").asText();
+
+        // Members not named keep their value
+        mockMvc
+            .perform(
+                patch("/staff/" + staffId)
+                    .with(user("admin").roles("admin"))
+                    .header("If-Match", "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content("{\"active\":false}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.name").value("Dr. Paula Reyes"))
+            .andExpect(jsonPath("$.email").value("paula.reyes@test.com"))
+            .andExpect(jsonPath("$.active").value(false));
+
+        // A client still holding the old ETag must not overwrite the change
+        mockMvc
+            .perform(
+                patch("/staff/" + staffId)
+                    .with(user("admin").roles("admin"))
+                    .header("If-Match", "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content("{\"active\":true}")
+            )
+            .andExpect(status().isPreconditionFailed());
     }
 }